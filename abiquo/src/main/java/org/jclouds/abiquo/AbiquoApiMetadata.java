@@ -18,7 +18,9 @@ package org.jclouds.abiquo;
 
 import static org.jclouds.Constants.PROPERTY_MAX_REDIRECTS;
 import static org.jclouds.abiquo.config.AbiquoProperties.ASYNC_TASK_MONITOR_DELAY;
+import static org.jclouds.abiquo.config.AbiquoProperties.COMPATIBILITY_MATRIX_TTL;
 import static org.jclouds.abiquo.config.AbiquoProperties.CREDENTIAL_TYPE;
+import static org.jclouds.abiquo.config.AbiquoProperties.IP_ALLOCATOR_PAGE_SIZE;
 
 import java.net.URI;
 import java.util.Properties;
@@ -59,6 +61,10 @@ public class AbiquoApiMetadata extends BaseHttpApiMetadata<AbiquoApi> {
       properties.setProperty(PROPERTY_MAX_REDIRECTS, "0");
       // The default polling delay between AsyncTask monitor requests
       properties.setProperty(ASYNC_TASK_MONITOR_DELAY, "5000");
+      // The number of unused ips fetched at a time when creating nodes
+      properties.setProperty(IP_ALLOCATOR_PAGE_SIZE, "20");
+      // The time the template compatibility with each virtual datacenter is cached
+      properties.setProperty(COMPATIBILITY_MATRIX_TTL, "600");
       // By default the provided credential is not a token
       properties.setProperty(CREDENTIAL_TYPE, "password");
       return properties;
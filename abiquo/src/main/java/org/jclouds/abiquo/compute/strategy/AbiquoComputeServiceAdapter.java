@@ -18,16 +18,12 @@ package org.jclouds.abiquo.compute.strategy;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.Iterables.concat;
-import static com.google.common.collect.Iterables.contains;
-import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.find;
-import static com.google.common.collect.Iterables.get;
-import static com.google.common.collect.Iterables.isEmpty;
 import static com.google.common.collect.Iterables.transform;
-import static com.google.common.collect.Iterables.tryFind;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Resource;
@@ -50,7 +46,6 @@ import org.jclouds.abiquo.features.services.AdministrationService;
 import org.jclouds.abiquo.features.services.CloudService;
 import org.jclouds.abiquo.features.services.MonitoringService;
 import org.jclouds.abiquo.monitor.VirtualMachineMonitor;
-import org.jclouds.abiquo.predicates.IpPredicates;
 import org.jclouds.collect.Memoized;
 import org.jclouds.compute.ComputeServiceAdapter;
 import org.jclouds.compute.domain.Hardware;
@@ -64,10 +59,11 @@ import org.jclouds.rest.ApiContext;
 
 import com.abiquo.server.core.cloud.VirtualMachineState;
 import com.google.common.base.Function;
-import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
 import com.google.common.primitives.Ints;
 import com.google.inject.Inject;
 
@@ -95,24 +91,31 @@ public class AbiquoComputeServiceAdapter
 
    private final MonitoringService monitoringService;
 
-   private final FindCompatibleVirtualDatacenters compatibleVirtualDatacenters;
+   private final CompatibilityMatrix compatibilityMatrix;
 
    private final Supplier<Map<Integer, Datacenter>> regionMap;
 
    private final Timeouts timeouts;
 
+   private final VirtualMachineIndex virtualMachines;
+
+   private final IpAllocator ipAllocator;
+
    @Inject
    public AbiquoComputeServiceAdapter(final ApiContext<AbiquoApi> context, final AdministrationService adminService,
          final CloudService cloudService, final MonitoringService monitoringService,
-         final FindCompatibleVirtualDatacenters compatibleVirtualDatacenters,
-         @Memoized final Supplier<Map<Integer, Datacenter>> regionMap, Timeouts timeouts) {
+         final CompatibilityMatrix compatibilityMatrix,
+         @Memoized final Supplier<Map<Integer, Datacenter>> regionMap, Timeouts timeouts,
+         final VirtualMachineIndex virtualMachines, final IpAllocator ipAllocator) {
       this.context = checkNotNull(context, "context");
       this.adminService = checkNotNull(adminService, "adminService");
       this.cloudService = checkNotNull(cloudService, "cloudService");
       this.monitoringService = checkNotNull(monitoringService, "monitoringService");
-      this.compatibleVirtualDatacenters = checkNotNull(compatibleVirtualDatacenters, "compatibleVirtualDatacenters");
+      this.compatibilityMatrix = checkNotNull(compatibilityMatrix, "compatibilityMatrix");
       this.regionMap = checkNotNull(regionMap, "regionMap");
       this.timeouts = checkNotNull(timeouts, "timeouts");
+      this.virtualMachines = checkNotNull(virtualMachines, "virtualMachines");
+      this.ipAllocator = checkNotNull(ipAllocator, "ipAllocator");
    }
 
    @Override
@@ -146,12 +149,31 @@ public class AbiquoComputeServiceAdapter
             .build();
 
       vm.save();
+      virtualMachines.put(vm);
+
+      // Ips are reserved until the node is deployed, so nodes created in
+      // parallel don't get the same ones
+      List<Ip<?, ?>> ips = Lists.newArrayList();
+      try {
+         configureNetworking(vm, template, datacenter, options, ips);
+
+         // This is an async operation, but jclouds already waits until the node
+         // is RUNNING, so there is no need to block here
+         vm.deploy();
+      } catch (RuntimeException ex) {
+         // Delete the virtual machine, so the ips attached to it are free again
+         logger.warn(ex, ">> Could not deploy virtual machine %s. Deleting it", vm.getId());
+         try {
+            vm.delete();
+            virtualMachines.remove(vm.getId());
+         } catch (RuntimeException deleteEx) {
+            logger.error(deleteEx, ">> Could not delete virtual machine %s", vm.getId());
+         }
+         ipAllocator.release(ips);
+         throw ex;
+      }
 
-      configureNetworking(vm, template, datacenter, options);
-
-      // This is an async operation, but jclouds already waits until the node is
-      // RUNNING, so there is no need to block here
-      vm.deploy();
+      ipAllocator.attached(ips);
 
       return new NodeAndInitialCredentials<VirtualMachine>(vm, vm.getId().toString(), null);
    }
@@ -162,21 +184,13 @@ public class AbiquoComputeServiceAdapter
       // hardware profiles are scoped to a zone (a virtual datacenter in the
       // region, with a concrete virtualization technology)
 
-      return concat(transform(listImages(),
-            new Function<VirtualMachineTemplate, Iterable<VirtualMachineTemplateInVirtualDatacenter>>() {
-               @Override
-               public Iterable<VirtualMachineTemplateInVirtualDatacenter> apply(final VirtualMachineTemplate template) {
-                  Iterable<VirtualDatacenter> compatibleZones = compatibleVirtualDatacenters.execute(template);
-
-                  return transform(compatibleZones,
-                        new Function<VirtualDatacenter, VirtualMachineTemplateInVirtualDatacenter>() {
-                           @Override
-                           public VirtualMachineTemplateInVirtualDatacenter apply(final VirtualDatacenter vdc) {
-                              return new VirtualMachineTemplateInVirtualDatacenter(template, vdc);
-                           }
-                        });
-               }
-            }));
+      ListMultimap<VirtualMachineTemplate, VirtualDatacenter> matrix = compatibilityMatrix.get(listImages());
+
+      ImmutableList.Builder<VirtualMachineTemplateInVirtualDatacenter> profiles = ImmutableList.builder();
+      for (Entry<VirtualMachineTemplate, VirtualDatacenter> compatible : matrix.entries()) {
+         profiles.add(new VirtualMachineTemplateInVirtualDatacenter(compatible.getKey(), compatible.getValue()));
+      }
+      return profiles.build();
    }
 
    @Override
@@ -202,7 +216,7 @@ public class AbiquoComputeServiceAdapter
 
    @Override
    public VirtualMachine getNode(final String id) {
-      return find(cloudService.listVirtualMachines(), vmId(id), null);
+      return virtualMachines.get(Integer.valueOf(id));
    }
 
    @Override
@@ -212,6 +226,7 @@ public class AbiquoComputeServiceAdapter
       vm.undeploy(true);
       monitor.awaitCompletionUndeploy(timeouts.nodeTerminated, TimeUnit.MILLISECONDS, vm);
       vm.delete();
+      virtualMachines.remove(vm.getId());
    }
 
    @Override
@@ -240,18 +255,17 @@ public class AbiquoComputeServiceAdapter
 
    @Override
    public Iterable<VirtualMachine> listNodes() {
-      return cloudService.listVirtualMachines();
+      return virtualMachines.list();
    }
 
    @Override
    public Iterable<VirtualMachine> listNodesByIds(final Iterable<String> ids) {
-      return filter(listNodes(), new Predicate<VirtualMachine>() {
-
+      return virtualMachines.getAll(transform(ids, new Function<String, Integer>() {
          @Override
-         public boolean apply(VirtualMachine machine) {
-            return contains(ids, Integer.toString(machine.getId()));
+         public Integer apply(final String id) {
+            return Integer.valueOf(id);
          }
-      });
+      }));
    }
 
    /**
@@ -267,21 +281,22 @@ public class AbiquoComputeServiceAdapter
     * </ul>
     */
    private void configureNetworking(VirtualMachine vm, VirtualApplianceCachingTemplate template, Datacenter datacenter,
-         TemplateOptions options) {
-
+         TemplateOptions options, List<Ip<?, ?>> ips) {
       if (!options.getNetworks().isEmpty()) {
-         ImmutableList.Builder<Ip<?, ?>> ips = ImmutableList.<Ip<?, ?>> builder();
-
-         Enterprise enterprise = adminService.getCurrentEnterprise();
-         Iterable<ExternalNetwork> externalNetworks = enterprise.listExternalNetworks(datacenter);
+         Iterable<ExternalNetwork> externalNetworks = null;
 
          for (String networkId : options.getNetworks()) {
             Network<? extends Ip<?, ?>> network = template.getVirtualDatacenter().getPrivateNetwork(
                   Ints.tryParse(networkId));
 
             if (network == null) {
-               // If the given network is not a private network, it should be an
-               // external one
+               // If the given network is not a private network, it should be
+               // an external one
+               if (externalNetworks == null) {
+                  Enterprise enterprise = adminService.getCurrentEnterprise();
+                  externalNetworks = ImmutableList.copyOf(enterprise.listExternalNetworks(datacenter));
+               }
+
                final Integer id = Ints.tryParse(networkId);
                network = find(externalNetworks, new Predicate<Network<?>>() {
                   @Override
@@ -293,38 +308,26 @@ public class AbiquoComputeServiceAdapter
 
             checkArgument(network != null, "No network was found with id: %s", networkId);
 
-            Iterable<? extends Ip<?, ?>> unusedIps = network.listUnusedIps();
-            checkArgument(!isEmpty(unusedIps), "There are no available ips in network: %s", networkId);
-
-            // Get the first available ip
-            Ip<?, ?> availableIp = get(unusedIps, 0);
+            Ip<?, ?> availableIp = ipAllocator.reserve(network);
+            checkArgument(availableIp != null, "There are no available ips in network: %s", networkId);
             logger.debug(">> Found available ip: %s", availableIp);
             ips.add(availableIp);
          }
 
          // Assign all ips to the virtual machine
-         vm.setNics(ips.build());
+         vm.setNics(ImmutableList.copyOf(ips));
       } else {
-         Optional<PublicIp> publicIp = tryFind(template.getVirtualDatacenter().listPurchasedPublicIps(),
-               IpPredicates.<PublicIp> notUsed());
-         if (publicIp.isPresent()) {
-            logger.debug(">> Found available public ip %s", publicIp.get().getIp());
-            vm.setNics(ImmutableList.<Ip<?, ?>> of(publicIp.get()));
+         PublicIp publicIp = ipAllocator.reservePublicIp(template.getVirtualDatacenter());
+         if (publicIp != null) {
+            logger.debug(">> Found available public ip %s", publicIp.getIp());
+            ips.add(publicIp);
+            vm.setNics(ImmutableList.<Ip<?, ?>> of(publicIp));
          } else {
             logger.debug(">> No available public ip found. Using a private ip");
          }
       }
    }
 
-   private static Predicate<VirtualMachine> vmId(final String id) {
-      return new Predicate<VirtualMachine>() {
-         @Override
-         public boolean apply(final VirtualMachine input) {
-            return Integer.valueOf(id).equals(input.getId());
-         }
-      };
-   }
-
    private static int totalCores(final Hardware hardware) {
       double cores = 0;
       for (Processor processor : hardware.getProcessors()) {
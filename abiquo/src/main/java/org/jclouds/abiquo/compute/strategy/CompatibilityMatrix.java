@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.Futures.getUnchecked;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.abiquo.config.AbiquoProperties.COMPATIBILITY_MATRIX_TTL;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.abiquo.compute.strategy.internal.BaseFindCompatibleVirtualDatacenters;
+import org.jclouds.abiquo.domain.cloud.Conversion;
+import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
+import org.jclouds.abiquo.domain.cloud.VirtualMachineTemplate;
+import org.jclouds.abiquo.domain.task.ConversionTask;
+import org.jclouds.abiquo.features.services.CloudService;
+import org.jclouds.abiquo.monitor.events.CompletedEvent;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.logging.Logger;
+
+import com.abiquo.model.enumerator.HypervisorType;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Caches the virtual datacenters where each template can be deployed.
+ * <p>
+ * Evaluating the compatibility of a template may require listing its
+ * conversions, so doing it for every template each time the hardware profiles
+ * are listed is slow. The virtual datacenters are listed once for all the
+ * templates, the templates are evaluated in parallel, and the result is kept
+ * until it is older than {@link org.jclouds.abiquo.config.AbiquoProperties#COMPATIBILITY_MATRIX_TTL}
+ * or the virtual datacenters change. Templates that were not there when the
+ * matrix was computed are evaluated when they first appear, and the ones that
+ * are no longer listed are forgotten.
+ * <p>
+ * A completed conversion can make a template compatible with more virtual
+ * datacenters, so the matrix is discarded when a monitored conversion
+ * completes. Conversions that are not monitored are noticed when the matrix
+ * expires.
+ */
+@Singleton
+public class CompatibilityMatrix {
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final CloudService cloudService;
+
+   private final FindCompatibleVirtualDatacenters compatibleVirtualDatacenters;
+
+   private final ListeningExecutorService userExecutor;
+
+   private final long ttlNanos;
+
+   private final Ticker ticker;
+
+   // Guarded by this
+   private Matrix matrix;
+
+   @Inject
+   public CompatibilityMatrix(final CloudService cloudService,
+         final FindCompatibleVirtualDatacenters compatibleVirtualDatacenters,
+         @Named(PROPERTY_USER_THREADS) final ListeningExecutorService userExecutor,
+         @Named(COMPATIBILITY_MATRIX_TTL) final long ttlSeconds, final EventBus eventBus) {
+      this(cloudService, compatibleVirtualDatacenters, userExecutor, ttlSeconds, Ticker.systemTicker());
+      eventBus.register(this);
+   }
+
+   CompatibilityMatrix(final CloudService cloudService,
+         final FindCompatibleVirtualDatacenters compatibleVirtualDatacenters,
+         final ListeningExecutorService userExecutor, final long ttlSeconds, final Ticker ticker) {
+      this.cloudService = checkNotNull(cloudService, "cloudService");
+      this.compatibleVirtualDatacenters = checkNotNull(compatibleVirtualDatacenters, "compatibleVirtualDatacenters");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      checkArgument(ttlSeconds >= 0, "ttlSeconds must not be negative");
+      this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+      this.ticker = checkNotNull(ticker, "ticker");
+   }
+
+   /**
+    * Gets the virtual datacenters where each of the given templates can be
+    * deployed.
+    * 
+    * @return The compatible virtual datacenters, indexed by template, in the
+    *         order of the templates.
+    */
+   public synchronized ListMultimap<VirtualMachineTemplate, VirtualDatacenter> get(
+         final Iterable<VirtualMachineTemplate> templates) {
+      // The templates may be listed each time they are iterated
+      List<VirtualMachineTemplate> templateList = ImmutableList.copyOf(templates);
+      List<VirtualDatacenter> vdcs = ImmutableList.copyOf(cloudService.listVirtualDatacenters());
+      Map<Integer, HypervisorType> vdcTypes = hypervisorTypes(vdcs);
+
+      if (matrix == null || ticker.read() - matrix.computedAt >= ttlNanos || !matrix.vdcTypes.equals(vdcTypes)) {
+         logger.debug(">> computing the compatibility matrix of %s virtual datacenters", vdcs.size());
+         matrix = new Matrix(vdcTypes, ticker.read());
+      }
+
+      // Forget the templates that have been deleted
+      matrix.compatible.keySet().retainAll(ids(templateList));
+
+      Map<Integer, ListenableFuture<List<VirtualDatacenter>>> evaluations = Maps.newLinkedHashMap();
+      for (VirtualMachineTemplate template : templateList) {
+         if (!matrix.compatible.containsKey(template.getId()) && !evaluations.containsKey(template.getId())) {
+            evaluations.put(template.getId(), evaluate(template, vdcs));
+         }
+      }
+      if (!evaluations.isEmpty()) {
+         logger.debug(">> evaluating the compatibility of %s templates", evaluations.size());
+         for (Map.Entry<Integer, ListenableFuture<List<VirtualDatacenter>>> evaluation : evaluations.entrySet()) {
+            matrix.compatible.put(evaluation.getKey(), getUnchecked(evaluation.getValue()));
+         }
+      }
+
+      ImmutableListMultimap.Builder<VirtualMachineTemplate, VirtualDatacenter> compatible = ImmutableListMultimap
+            .builder();
+      for (VirtualMachineTemplate template : templateList) {
+         compatible.putAll(template, matrix.compatible.get(template.getId()));
+      }
+      return compatible.build();
+   }
+
+   /**
+    * Discards the matrix, so it is computed again the next time it is used.
+    */
+   public synchronized void invalidate() {
+      matrix = null;
+   }
+
+   /**
+    * Discards the matrix when a conversion completes.
+    */
+   @Subscribe
+   public void conversionCompleted(final CompletedEvent<?> event) {
+      if (event.getTarget() instanceof Conversion || event.getTarget() instanceof ConversionTask) {
+         logger.debug(">> discarding the compatibility matrix after the completion of %s", event.getTarget());
+         invalidate();
+      }
+   }
+
+   private ListenableFuture<List<VirtualDatacenter>> evaluate(final VirtualMachineTemplate template,
+         final List<VirtualDatacenter> vdcs) {
+      return userExecutor.submit(new Callable<List<VirtualDatacenter>>() {
+         @Override
+         public List<VirtualDatacenter> call() {
+            return ImmutableList.copyOf(compatible(template, vdcs));
+         }
+
+         @Override
+         public String toString() {
+            return "compatibleVirtualDatacenters(" + template.getId() + ")";
+         }
+      });
+   }
+
+   /**
+    * Evaluates the template against the given virtual datacenters when the
+    * strategy supports it, and lets other strategies list them on their own.
+    */
+   private Iterable<VirtualDatacenter> compatible(final VirtualMachineTemplate template,
+         final List<VirtualDatacenter> vdcs) {
+      if (compatibleVirtualDatacenters instanceof BaseFindCompatibleVirtualDatacenters) {
+         return ((BaseFindCompatibleVirtualDatacenters) compatibleVirtualDatacenters).execute(template, vdcs);
+      }
+      return compatibleVirtualDatacenters.execute(template);
+   }
+
+   private static Set<Integer> ids(final Iterable<VirtualMachineTemplate> templates) {
+      ImmutableSet.Builder<Integer> ids = ImmutableSet.builder();
+      for (VirtualMachineTemplate template : templates) {
+         ids.add(template.getId());
+      }
+      return ids.build();
+   }
+
+   private static Map<Integer, HypervisorType> hypervisorTypes(final Iterable<VirtualDatacenter> vdcs) {
+      ImmutableMap.Builder<Integer, HypervisorType> types = ImmutableMap.builder();
+      for (VirtualDatacenter vdc : vdcs) {
+         types.put(vdc.getId(), vdc.getHypervisorType());
+      }
+      return types.build();
+   }
+
+   private static class Matrix {
+      private final Map<Integer, HypervisorType> vdcTypes;
+
+      private final long computedAt;
+
+      private final Map<Integer, List<VirtualDatacenter>> compatible = Maps.newHashMap();
+
+      private Matrix(final Map<Integer, HypervisorType> vdcTypes, final long computedAt) {
+         this.vdcTypes = vdcTypes;
+         this.computedAt = computedAt;
+      }
+   }
+}
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Iterables.filter;
+import static com.google.common.collect.Iterables.limit;
+import static org.jclouds.abiquo.config.AbiquoProperties.IP_ALLOCATOR_PAGE_SIZE;
+
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.abiquo.domain.DomainWrapper;
+import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
+import org.jclouds.abiquo.domain.network.Ip;
+import org.jclouds.abiquo.domain.network.Network;
+import org.jclouds.abiquo.domain.network.PublicIp;
+import org.jclouds.abiquo.domain.network.options.IpOptions;
+import org.jclouds.abiquo.domain.util.LinkUtils;
+import org.jclouds.abiquo.predicates.IpPredicates;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+
+import com.abiquo.model.rest.RESTLink;
+import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Hands out the unused ips of each network to the nodes being created, so
+ * nodes created in parallel never get the same ip.
+ * <p>
+ * The unused ips are fetched a page at a time, and a new page is fetched when
+ * the previous one has been handed out. An ip is reserved from the moment it
+ * is handed out until it is attached to its virtual machine, after which the
+ * api reports it as used, or released because the node could not be created.
+ * Ips that are reserved are skipped when fetching a new page.
+ */
+@Singleton
+public class IpAllocator {
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final int pageSize;
+
+   private final ConcurrentMap<String, Pool> pools = Maps.newConcurrentMap();
+
+   private final ConcurrentMap<Ip<?, ?>, Pool> reservations = Maps.newConcurrentMap();
+
+   @Inject
+   public IpAllocator(@Named(IP_ALLOCATOR_PAGE_SIZE) final int pageSize) {
+      checkArgument(pageSize > 0, "pageSize must be positive");
+      this.pageSize = pageSize;
+   }
+
+   /**
+    * Reserves an unused ip of the given network.
+    * 
+    * @return The reserved ip or <code>null</code> if all the ips of the
+    *         network are used.
+    */
+   @Nullable
+   public <T extends Ip<?, ?>> T reserve(final Network<T> network) {
+      return reserve(key(network, "ips"), new Supplier<Iterable<T>>() {
+         @Override
+         public Iterable<T> get() {
+            return filter(network.listIps(IpOptions.builder().free(true).limit(pageSize).build()),
+                  IpPredicates.<T> notUsed());
+         }
+      });
+   }
+
+   /**
+    * Reserves one of the public ips purchased in the given virtual datacenter
+    * that is not used.
+    * 
+    * @return The reserved ip or <code>null</code> if all the purchased public
+    *         ips are used.
+    */
+   @Nullable
+   public PublicIp reservePublicIp(final VirtualDatacenter vdc) {
+      return reserve(key(vdc, "purchasedpublicips"), new Supplier<Iterable<PublicIp>>() {
+         @Override
+         public Iterable<PublicIp> get() {
+            return filter(vdc.listPurchasedPublicIps(), IpPredicates.<PublicIp> notUsed());
+         }
+      });
+   }
+
+   /**
+    * Ends the reservation of ips that have been attached to a virtual machine.
+    */
+   public void attached(final Iterable<? extends Ip<?, ?>> ips) {
+      for (Ip<?, ?> ip : ips) {
+         Pool pool = reservations.remove(ip);
+         if (pool != null) {
+            synchronized (pool) {
+               pool.attached(ip);
+               evictIfIdle(pool);
+            }
+         }
+      }
+   }
+
+   /**
+    * Ends the reservation of ips that could not be attached to a virtual
+    * machine, or whose virtual machine has been deleted, so they can be handed
+    * out again. The ips that have not been handed out yet are discarded too,
+    * as the failure may come from them having been used by someone else.
+    */
+   public void release(final Iterable<? extends Ip<?, ?>> ips) {
+      for (Ip<?, ?> ip : ips) {
+         Pool pool = reservations.remove(ip);
+         if (pool != null) {
+            logger.debug(">> releasing ip %s", ip.getIp());
+            synchronized (pool) {
+               pool.release(ip);
+               evictIfIdle(pool);
+            }
+         }
+      }
+   }
+
+   private <T extends Ip<?, ?>> T reserve(final String key, final Supplier<Iterable<T>> unused) {
+      while (true) {
+         Pool pool = pool(key);
+         synchronized (pool) {
+            // An evicted pool may still be seen by threads that got it before
+            if (!pool.evicted) {
+               T ip = pool.reserve(unused);
+               evictIfIdle(pool);
+               return ip;
+            }
+         }
+      }
+   }
+
+   private Pool pool(final String key) {
+      Pool pool = pools.get(key);
+      if (pool == null) {
+         Pool created = new Pool(key);
+         pool = pools.putIfAbsent(key, created);
+         if (pool == null) {
+            pool = created;
+         }
+      }
+      return pool;
+   }
+
+   // Must be called holding the lock of the pool
+   private void evictIfIdle(final Pool pool) {
+      if (pool.available.isEmpty() && pool.reserved.isEmpty()) {
+         pool.evicted = true;
+         pools.remove(pool.key, pool);
+      }
+   }
+
+   private static String key(final DomainWrapper<?> owner, final String ips) {
+      RESTLink link = LinkUtils.getSelfLink(owner.unwrap());
+      checkArgument(link != null, "%s has no edit or self link", owner);
+      return link.getHref() + "#" + ips;
+   }
+
+   private class Pool {
+      private final String key;
+
+      private final Deque<Ip<?, ?>> available = Lists.newLinkedList();
+
+      private final Set<String> reserved = Sets.newHashSet();
+
+      private boolean evicted;
+
+      private Pool(final String key) {
+         this.key = key;
+      }
+
+      private synchronized <T extends Ip<?, ?>> T reserve(final Supplier<Iterable<T>> unused) {
+         if (available.isEmpty()) {
+            logger.debug(">> fetching up to %s unused ips of %s", pageSize, key);
+            for (T ip : limit(filter(unused.get(), notReserved()), pageSize)) {
+               available.add(ip);
+            }
+         }
+
+         @SuppressWarnings("unchecked")
+         T ip = (T) available.poll();
+         if (ip != null) {
+            reserved.add(ip.getIp());
+            reservations.put(ip, this);
+            logger.debug(">> reserved ip %s of %s", ip.getIp(), key);
+         }
+         return ip;
+      }
+
+      private synchronized void attached(final Ip<?, ?> ip) {
+         reserved.remove(ip.getIp());
+      }
+
+      private synchronized void release(final Ip<?, ?> ip) {
+         reserved.remove(ip.getIp());
+         available.clear();
+      }
+
+      private Predicate<Ip<?, ?>> notReserved() {
+         return new Predicate<Ip<?, ?>>() {
+            @Override
+            public boolean apply(final Ip<?, ?> input) {
+               return !reserved.contains(input.getIp());
+            }
+         };
+      }
+   }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Iterables.filter;
+import static com.google.common.collect.Iterables.find;
+import static com.google.common.collect.Iterables.transform;
+import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.abiquo.AbiquoApi;
+import org.jclouds.abiquo.domain.cloud.VirtualMachine;
+import org.jclouds.abiquo.domain.util.LinkUtils;
+import org.jclouds.abiquo.features.services.CloudService;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseXMLWithJAXB;
+import org.jclouds.logging.Logger;
+import org.jclouds.rest.ApiContext;
+
+import com.abiquo.model.rest.RESTLink;
+import com.abiquo.server.core.cloud.VirtualMachineWithNodeExtendedDto;
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+
+/**
+ * Remembers where each virtual machine is, so it can be retrieved by id with
+ * one request instead of listing all the virtual machines.
+ * <p>
+ * The edit link of a virtual machine contains the virtual datacenter and the
+ * virtual appliance it belongs to, and does not change during its life. The
+ * links are recorded as virtual machines are listed or created; the ids that
+ * have not been seen yet are searched in the listing, which stops at the
+ * first match.
+ */
+@Singleton
+public class VirtualMachineIndex {
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final ApiContext<AbiquoApi> context;
+
+   private final CloudService cloudService;
+
+   private final ConcurrentMap<Integer, RESTLink> links = Maps.newConcurrentMap();
+
+   @Inject
+   public VirtualMachineIndex(final ApiContext<AbiquoApi> context, final CloudService cloudService) {
+      this.context = checkNotNull(context, "context");
+      this.cloudService = checkNotNull(cloudService, "cloudService");
+   }
+
+   /**
+    * Records where the given virtual machine is.
+    */
+   public void put(final VirtualMachine vm) {
+      RESTLink link = LinkUtils.getSelfLink(vm.unwrap());
+      if (vm.getId() != null && link != null) {
+         // Keep a copy, as the link of the transfer object can be changed
+         RESTLink copy = new RESTLink(link.getRel(), link.getHref());
+         copy.setType(VirtualMachineWithNodeExtendedDto.BASE_MEDIA_TYPE);
+         links.put(vm.getId(), copy);
+      }
+   }
+
+   /**
+    * Forgets a virtual machine that has been deleted.
+    */
+   public void remove(final Integer id) {
+      links.remove(id);
+   }
+
+   /**
+    * Records where each virtual machine is as the given ones are iterated.
+    */
+   public Iterable<VirtualMachine> index(final Iterable<VirtualMachine> vms) {
+      return transform(vms, new Function<VirtualMachine, VirtualMachine>() {
+         @Override
+         public VirtualMachine apply(final VirtualMachine input) {
+            put(input);
+            return input;
+         }
+      });
+   }
+
+   /**
+    * Lists all virtual machines, recording where each one is.
+    */
+   public Iterable<VirtualMachine> list() {
+      return index(cloudService.listVirtualMachines());
+   }
+
+   /**
+    * Gets a virtual machine by id.
+    * 
+    * @return The virtual machine or <code>null</code> if it does not exist.
+    */
+   public VirtualMachine get(final Integer id) {
+      RESTLink link = links.get(checkNotNull(id, "id"));
+      if (link == null) {
+         logger.debug(">> virtual machine %s not indexed. Searching it", id);
+         return find(list(), vmId(id), null);
+      }
+
+      HttpResponse response = context.getApi().get(link);
+      if (response == null) {
+         // Virtual machines don't move, so it has been deleted
+         links.remove(id, link);
+         return null;
+      }
+
+      ParseXMLWithJAXB<VirtualMachineWithNodeExtendedDto> parser = context.utils().injector()
+            .getInstance(Key.get(new TypeLiteral<ParseXMLWithJAXB<VirtualMachineWithNodeExtendedDto>>() {
+            }));
+      return wrap(context, VirtualMachine.class, parser.apply(response));
+   }
+
+   /**
+    * Gets the virtual machines with the given ids, searching the ones that
+    * are not indexed in one listing.
+    */
+   public Iterable<VirtualMachine> getAll(final Iterable<Integer> ids) {
+      ImmutableList.Builder<VirtualMachine> vms = ImmutableList.builder();
+      final Set<Integer> missing = Sets.newHashSet();
+      for (Integer id : ids) {
+         if (links.containsKey(id)) {
+            VirtualMachine vm = get(id);
+            if (vm != null) {
+               vms.add(vm);
+            }
+         } else {
+            missing.add(id);
+         }
+      }
+
+      if (!missing.isEmpty()) {
+         logger.debug(">> virtual machines %s not indexed. Searching them", missing);
+         vms.addAll(filter(list(), new Predicate<VirtualMachine>() {
+            @Override
+            public boolean apply(final VirtualMachine input) {
+               return missing.contains(input.getId());
+            }
+         }));
+      }
+
+      return vms.build();
+   }
+
+   private static Predicate<VirtualMachine> vmId(final Integer id) {
+      return new Predicate<VirtualMachine>() {
+         @Override
+         public boolean apply(final VirtualMachine input) {
+            return id.equals(input.getId());
+         }
+      };
+   }
+}
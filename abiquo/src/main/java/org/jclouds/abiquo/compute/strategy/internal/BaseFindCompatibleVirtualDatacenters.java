@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.compute.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.jclouds.abiquo.compute.strategy.FindCompatibleVirtualDatacenters;
+import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
+import org.jclouds.abiquo.domain.cloud.VirtualMachineTemplate;
+import org.jclouds.abiquo.features.services.CloudService;
+
+/**
+ * Base class for the {@link FindCompatibleVirtualDatacenters} strategies that
+ * can evaluate a template against virtual datacenters that have already been
+ * listed.
+ * <p>
+ * The {@link org.jclouds.abiquo.compute.strategy.CompatibilityMatrix} lists the
+ * virtual datacenters once and evaluates every template against that listing
+ * when the strategy extends this class. Other strategies are called with the
+ * template alone.
+ */
+public abstract class BaseFindCompatibleVirtualDatacenters implements FindCompatibleVirtualDatacenters {
+   protected final CloudService cloudService;
+
+   protected BaseFindCompatibleVirtualDatacenters(final CloudService cloudService) {
+      this.cloudService = checkNotNull(cloudService, "cloudService");
+   }
+
+   @Override
+   public Iterable<VirtualDatacenter> execute(final VirtualMachineTemplate template) {
+      return execute(template, cloudService.listVirtualDatacenters());
+   }
+
+   /**
+    * Finds the virtual datacenters, among the given ones, where the given
+    * {@link VirtualMachineTemplate} can be deployed.
+    */
+   public abstract Iterable<VirtualDatacenter> execute(VirtualMachineTemplate template,
+         Iterable<VirtualDatacenter> vdcs);
+}
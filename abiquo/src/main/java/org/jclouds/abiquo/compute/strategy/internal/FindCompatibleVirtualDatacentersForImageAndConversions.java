@@ -46,20 +46,19 @@ import com.abiquo.server.core.infrastructure.DatacenterDto;
  * @author Ignasi Barrera
  */
 @Singleton
-public class FindCompatibleVirtualDatacentersForImageAndConversions implements FindCompatibleVirtualDatacenters {
+public class FindCompatibleVirtualDatacentersForImageAndConversions extends BaseFindCompatibleVirtualDatacenters {
    private final ApiContext<AbiquoApi> context;
 
-   private final CloudService cloudService;
-
    @Inject
    public FindCompatibleVirtualDatacentersForImageAndConversions(final ApiContext<AbiquoApi> context,
          final CloudService cloudService) {
+      super(cloudService);
       this.context = checkNotNull(context, "context");
-      this.cloudService = checkNotNull(cloudService, "cloudService");
    }
 
    @Override
-   public Iterable<VirtualDatacenter> execute(final VirtualMachineTemplate template) {
+   public Iterable<VirtualDatacenter> execute(final VirtualMachineTemplate template,
+         final Iterable<VirtualDatacenter> vdcs) {
       // Build the transport object with the available information to avoid
       // making an unnecessary call to the target API (we only need the id of
       // the datacenter, and it is present in the link).
@@ -67,10 +66,9 @@ public class FindCompatibleVirtualDatacentersForImageAndConversions implements F
       datacenterDto.setId(template.unwrap().getIdFromLink(ParentLinkName.DATACENTER_REPOSITORY));
       Datacenter datacenter = wrap(context, Datacenter.class, datacenterDto);
 
-      Iterable<VirtualDatacenter> vdcs = filter(cloudService.listVirtualDatacenters(),
-            VirtualDatacenterPredicates.datacenter(datacenter));
+      Iterable<VirtualDatacenter> vdcsInDatacenter = filter(vdcs, VirtualDatacenterPredicates.datacenter(datacenter));
 
-      return filter(vdcs, compatibleWithTemplateOrConversions(template));
+      return filter(vdcsInDatacenter, compatibleWithTemplateOrConversions(template));
    }
 
 }
@@ -50,20 +50,19 @@ import com.google.common.base.Predicate;
  * @author Ignasi Barrera
  */
 @Singleton
-public class FindCompatibleVirtualDatacentersForImageBaseFormat implements FindCompatibleVirtualDatacenters {
+public class FindCompatibleVirtualDatacentersForImageBaseFormat extends BaseFindCompatibleVirtualDatacenters {
    private final ApiContext<AbiquoApi> context;
 
-   private final CloudService cloudService;
-
    @Inject
    public FindCompatibleVirtualDatacentersForImageBaseFormat(final ApiContext<AbiquoApi> context,
          final CloudService cloudService) {
+      super(cloudService);
       this.context = checkNotNull(context, "context");
-      this.cloudService = checkNotNull(cloudService, "cloudService");
    }
 
    @Override
-   public Iterable<VirtualDatacenter> execute(final VirtualMachineTemplate template) {
+   public Iterable<VirtualDatacenter> execute(final VirtualMachineTemplate template,
+         final Iterable<VirtualDatacenter> vdcs) {
       // Build the transport object with the available information to avoid
       // making an unnecessary call to the target API (we only need the id of
       // the datacenter, and it is present in the link).
@@ -71,10 +70,9 @@ public class FindCompatibleVirtualDatacentersForImageBaseFormat implements FindC
       datacenterDto.setId(template.unwrap().getIdFromLink(ParentLinkName.DATACENTER_REPOSITORY));
       Datacenter datacenter = wrap(context, Datacenter.class, datacenterDto);
 
-      Iterable<VirtualDatacenter> vdcs = filter(cloudService.listVirtualDatacenters(),
-            VirtualDatacenterPredicates.datacenter(datacenter));
+      Iterable<VirtualDatacenter> vdcsInDatacenter = filter(vdcs, VirtualDatacenterPredicates.datacenter(datacenter));
 
-      return filter(vdcs, new Predicate<VirtualDatacenter>() {
+      return filter(vdcsInDatacenter, new Predicate<VirtualDatacenter>() {
          @Override
          public boolean apply(final VirtualDatacenter vdc) {
             HypervisorType type = vdc.getHypervisorType();
@@ -38,6 +38,22 @@ public interface AbiquoProperties {
     */
    public static final String ASYNC_TASK_MONITOR_DELAY = "abiquo.monitor-delay";
 
+   /**
+    * The number of unused ips of a network fetched at a time to be handed out
+    * to the nodes being created.
+    * <p>
+    * Default value: 20
+    */
+   public static final String IP_ALLOCATOR_PAGE_SIZE = "abiquo.ip-allocator.page-size";
+
+   /**
+    * The time (in seconds) the virtual datacenters where each template can be
+    * deployed are cached for, unless the virtual datacenters change.
+    * <p>
+    * Default value: 600 s
+    */
+   public static final String COMPATIBILITY_MATRIX_TTL = "abiquo.compatibility-matrix.ttl";
+
    /**
     * The name of the Abiquo logger.
     */
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.compute.strategy;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jclouds.abiquo.compute.strategy.internal.BaseFindCompatibleVirtualDatacenters;
+import org.jclouds.abiquo.domain.cloud.Conversion;
+import org.jclouds.abiquo.domain.cloud.VirtualDatacenter;
+import org.jclouds.abiquo.domain.cloud.VirtualMachineTemplate;
+import org.jclouds.abiquo.features.services.CloudService;
+import org.jclouds.abiquo.monitor.events.CompletedEvent;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.abiquo.model.enumerator.HypervisorType;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.eventbus.EventBus;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Unit tests for the {@link CompatibilityMatrix} class.
+ */
+@Test(groups = "unit", testName = "CompatibilityMatrixTest")
+public class CompatibilityMatrixTest {
+   private CloudService cloudService;
+
+   private BaseFindCompatibleVirtualDatacenters strategy;
+
+   private final AtomicLong nanos = new AtomicLong();
+
+   private final Ticker ticker = new Ticker() {
+      @Override
+      public long read() {
+         return nanos.get();
+      }
+   };
+
+   private VirtualMachineTemplate template1;
+
+   private VirtualMachineTemplate template2;
+
+   private VirtualDatacenter kvm;
+
+   private VirtualDatacenter vmx;
+
+   @BeforeMethod
+   public void setup() {
+      cloudService = createMock(CloudService.class);
+      strategy = createMock(BaseFindCompatibleVirtualDatacenters.class);
+      template1 = template(1);
+      template2 = template(2);
+      kvm = vdc(1, HypervisorType.KVM);
+      vmx = vdc(2, HypervisorType.VMX_04);
+   }
+
+   public void testComputedOnceForTheSameTemplatesAndVirtualDatacenters() {
+      List<VirtualDatacenter> vdcs = ImmutableList.of(kvm, vmx);
+      expect(cloudService.listVirtualDatacenters()).andReturn(vdcs).times(2);
+      expect(strategy.execute(template1, vdcs)).andReturn(ImmutableList.of(kvm));
+      expect(strategy.execute(template2, vdcs)).andReturn(ImmutableList.of(kvm, vmx));
+      replay(cloudService, strategy);
+
+      CompatibilityMatrix matrix = matrix();
+      ImmutableListMultimap<VirtualMachineTemplate, VirtualDatacenter> expected = ImmutableListMultimap
+            .<VirtualMachineTemplate, VirtualDatacenter> of(template1, kvm, template2, kvm, template2, vmx);
+      assertEquals(matrix.get(ImmutableList.of(template1, template2)), expected);
+      assertEquals(matrix.get(ImmutableList.of(template1, template2)), expected);
+
+      verify(cloudService, strategy);
+   }
+
+   public void testOnlyNewTemplatesAreEvaluated() {
+      List<VirtualDatacenter> vdcs = ImmutableList.of(kvm, vmx);
+      expect(cloudService.listVirtualDatacenters()).andReturn(vdcs).times(2);
+      expect(strategy.execute(template1, vdcs)).andReturn(ImmutableList.of(kvm));
+      expect(strategy.execute(template2, vdcs)).andReturn(ImmutableList.of(vmx));
+      replay(cloudService, strategy);
+
+      CompatibilityMatrix matrix = matrix();
+      matrix.get(ImmutableList.of(template1));
+      assertEquals(matrix.get(ImmutableList.of(template1, template2)), ImmutableListMultimap
+            .<VirtualMachineTemplate, VirtualDatacenter> of(template1, kvm, template2, vmx));
+
+      verify(cloudService, strategy);
+   }
+
+   public void testRecomputedWhenTheVirtualDatacentersChange() {
+      List<VirtualDatacenter> before = ImmutableList.of(kvm);
+      List<VirtualDatacenter> after = ImmutableList.of(kvm, vmx);
+      expect(cloudService.listVirtualDatacenters()).andReturn(before);
+      expect(cloudService.listVirtualDatacenters()).andReturn(after);
+      expect(strategy.execute(template1, before)).andReturn(ImmutableList.of(kvm));
+      expect(strategy.execute(template1, after)).andReturn(ImmutableList.of(kvm, vmx));
+      replay(cloudService, strategy);
+
+      CompatibilityMatrix matrix = matrix();
+      matrix.get(ImmutableList.of(template1));
+      assertEquals(matrix.get(ImmutableList.of(template1)).get(template1), after);
+
+      verify(cloudService, strategy);
+   }
+
+   public void testRecomputedWhenExpired() {
+      List<VirtualDatacenter> vdcs = ImmutableList.of(kvm);
+      expect(cloudService.listVirtualDatacenters()).andReturn(vdcs).times(3);
+      expect(strategy.execute(template1, vdcs)).andReturn(ImmutableList.of(kvm)).times(2);
+      replay(cloudService, strategy);
+
+      CompatibilityMatrix matrix = matrix();
+      matrix.get(ImmutableList.of(template1));
+      nanos.addAndGet(TimeUnit.SECONDS.toNanos(59));
+      matrix.get(ImmutableList.of(template1));
+      nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+      matrix.get(ImmutableList.of(template1));
+
+      verify(cloudService, strategy);
+   }
+
+   public void testDeletedTemplatesAreForgotten() {
+      List<VirtualDatacenter> vdcs = ImmutableList.of(kvm);
+      expect(cloudService.listVirtualDatacenters()).andReturn(vdcs).times(3);
+      expect(strategy.execute(template1, vdcs)).andReturn(ImmutableList.of(kvm)).times(2);
+      expect(strategy.execute(template2, vdcs)).andReturn(ImmutableList.of(kvm));
+      replay(cloudService, strategy);
+
+      CompatibilityMatrix matrix = matrix();
+      matrix.get(ImmutableList.of(template1, template2));
+      matrix.get(ImmutableList.of(template2));
+      // A template with the id of the deleted one is evaluated again
+      matrix.get(ImmutableList.of(template1, template2));
+
+      verify(cloudService, strategy);
+   }
+
+   public void testDiscardedWhenAConversionCompletes() {
+      List<VirtualDatacenter> vdcs = ImmutableList.of(kvm, vmx);
+      expect(cloudService.listVirtualDatacenters()).andReturn(vdcs).times(3);
+      expect(strategy.execute(template1, vdcs)).andReturn(ImmutableList.of(kvm));
+      expect(strategy.execute(template1, vdcs)).andReturn(ImmutableList.of(kvm, vmx));
+      replay(cloudService, strategy);
+
+      EventBus eventBus = new EventBus();
+      CompatibilityMatrix matrix = new CompatibilityMatrix(cloudService, strategy,
+            MoreExecutors.sameThreadExecutor(), 60, eventBus);
+      matrix.get(ImmutableList.of(template1));
+      // Other monitored objects do not change the compatibility
+      eventBus.post(new CompletedEvent<VirtualDatacenter>(kvm));
+      matrix.get(ImmutableList.of(template1));
+      eventBus.post(new CompletedEvent<Conversion>(createMock(Conversion.class)));
+      assertEquals(matrix.get(ImmutableList.of(template1)).get(template1), vdcs);
+
+      verify(cloudService, strategy);
+   }
+
+   public void testOtherStrategiesAreCalledWithTheTemplateAlone() {
+      List<VirtualDatacenter> vdcs = ImmutableList.of(kvm, vmx);
+      FindCompatibleVirtualDatacenters other = createMock(FindCompatibleVirtualDatacenters.class);
+      expect(cloudService.listVirtualDatacenters()).andReturn(vdcs);
+      expect(other.execute(template1)).andReturn(ImmutableList.of(vmx));
+      replay(cloudService, other);
+
+      CompatibilityMatrix matrix = new CompatibilityMatrix(cloudService, other, MoreExecutors.sameThreadExecutor(),
+            60, ticker);
+      assertEquals(matrix.get(ImmutableList.of(template1)).get(template1), ImmutableList.of(vmx));
+
+      verify(cloudService, other);
+   }
+
+   private CompatibilityMatrix matrix() {
+      return new CompatibilityMatrix(cloudService, strategy, MoreExecutors.sameThreadExecutor(), 60, ticker);
+   }
+
+   private static VirtualMachineTemplate template(final int id) {
+      VirtualMachineTemplate template = createMock(VirtualMachineTemplate.class);
+      expect(template.getId()).andReturn(id).anyTimes();
+      replay(template);
+      return template;
+   }
+
+   private static VirtualDatacenter vdc(final int id, final HypervisorType type) {
+      VirtualDatacenter vdc = createMock(VirtualDatacenter.class);
+      expect(vdc.getId()).andReturn(id).anyTimes();
+      expect(vdc.getHypervisorType()).andReturn(type).anyTimes();
+      replay(vdc);
+      return vdc;
+   }
+}
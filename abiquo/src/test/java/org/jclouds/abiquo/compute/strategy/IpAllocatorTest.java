@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.compute.strategy;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jclouds.abiquo.AbiquoApi;
+import org.jclouds.abiquo.domain.network.PrivateIp;
+import org.jclouds.abiquo.domain.network.PrivateNetwork;
+import org.jclouds.abiquo.domain.network.options.IpOptions;
+import org.jclouds.rest.ApiContext;
+import org.testng.annotations.Test;
+
+import com.abiquo.model.rest.RESTLink;
+import com.abiquo.server.core.infrastructure.network.PrivateIpDto;
+import com.abiquo.server.core.infrastructure.network.VLANNetworkDto;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Unit tests for the {@link IpAllocator} class.
+ */
+@Test(groups = "unit", testName = "IpAllocatorTest")
+public class IpAllocatorTest {
+   @SuppressWarnings("unchecked")
+   private final ApiContext<AbiquoApi> context = createMock(ApiContext.class);
+
+   public void testReservedIpsAreNotHandedOutAgain() {
+      PrivateIp ip1 = ip("10.60.1.1");
+      PrivateIp ip2 = ip("10.60.1.2");
+      PrivateIp ip3 = ip("10.60.1.3");
+      // The reserved ips are still unused until they are attached
+      PrivateNetwork network = network(ImmutableList.of(ip1, ip2, ip3), 3);
+
+      IpAllocator allocator = new IpAllocator(2);
+      assertEquals(allocator.reserve(network), ip1);
+      assertEquals(allocator.reserve(network), ip2);
+      assertEquals(allocator.reserve(network), ip3);
+      assertNull(allocator.reserve(network));
+
+      verify(network);
+   }
+
+   public void testReleasedIpsAreHandedOutAgain() {
+      PrivateIp ip1 = ip("10.60.1.1");
+      PrivateIp ip2 = ip("10.60.1.2");
+      PrivateNetwork network = network(ImmutableList.of(ip1, ip2), 2);
+
+      IpAllocator allocator = new IpAllocator(2);
+      assertEquals(allocator.reserve(network), ip1);
+      allocator.release(ImmutableList.of(ip1));
+      assertEquals(allocator.reserve(network), ip1);
+
+      verify(network);
+   }
+
+   public void testAttachedIpsAreNoLongerReserved() {
+      PrivateIp ip1 = ip("10.60.1.1");
+      PrivateIp used = ip("10.60.1.1");
+      used.unwrap().addLink(new RESTLink("virtualmachine", "http://localhost/api/cloud/virtualmachines/1"));
+      PrivateIp ip2 = ip("10.60.1.2");
+
+      PrivateNetwork network = createMock(PrivateNetwork.class);
+      expect(network.unwrap()).andReturn(vlan()).anyTimes();
+      expect(network.listIps(anyObject(IpOptions.class))).andReturn(ImmutableList.of(ip1));
+      expect(network.listIps(anyObject(IpOptions.class))).andReturn(ImmutableList.of(used, ip2));
+      replay(network);
+
+      IpAllocator allocator = new IpAllocator(1);
+      assertEquals(allocator.reserve(network), ip1);
+      allocator.attached(ImmutableList.of(ip1));
+      assertEquals(allocator.reserve(network), ip2);
+
+      verify(network);
+   }
+
+   public void testParallelReservationsGetDifferentIps() throws Exception {
+      List<PrivateIp> ips = Lists.newArrayList();
+      for (int i = 1; i <= 20; i++) {
+         ips.add(ip("10.60.1." + i));
+      }
+      final PrivateNetwork network = network(ips, 7);
+      final IpAllocator allocator = new IpAllocator(3);
+
+      ExecutorService executor = Executors.newFixedThreadPool(10);
+      try {
+         List<Future<PrivateIp>> reserved = Lists.newArrayList();
+         for (int i = 0; i < 20; i++) {
+            reserved.add(executor.submit(new Callable<PrivateIp>() {
+               @Override
+               public PrivateIp call() {
+                  return allocator.reserve(network);
+               }
+            }));
+         }
+
+         Set<PrivateIp> distinct = Sets.newIdentityHashSet();
+         for (Future<PrivateIp> ip : reserved) {
+            assertNotNull(ip.get());
+            distinct.add(ip.get());
+         }
+         assertEquals(distinct.size(), 20);
+         assertEquals(ImmutableSet.copyOf(distinct), ImmutableSet.copyOf(ips));
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   private PrivateNetwork network(final List<PrivateIp> unused, final int listings) {
+      PrivateNetwork network = createMock(PrivateNetwork.class);
+      expect(network.unwrap()).andReturn(vlan()).anyTimes();
+      expect(network.listIps(anyObject(IpOptions.class))).andReturn(unused).times(listings);
+      replay(network);
+      return network;
+   }
+
+   private static VLANNetworkDto vlan() {
+      VLANNetworkDto vlan = new VLANNetworkDto();
+      vlan.addLink(new RESTLink("edit", "http://localhost/api/cloud/virtualdatacenters/1/privatenetworks/1"));
+      return vlan;
+   }
+
+   private PrivateIp ip(final String address) {
+      PrivateIpDto dto = new PrivateIpDto();
+      dto.setIp(address);
+      return wrap(context, PrivateIp.class, dto);
+   }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.abiquo.compute.strategy;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.abiquo.domain.DomainWrapper.wrap;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import org.jclouds.abiquo.AbiquoApi;
+import org.jclouds.abiquo.domain.cloud.VirtualMachine;
+import org.jclouds.abiquo.features.services.CloudService;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseXMLWithJAXB;
+import org.jclouds.rest.ApiContext;
+import org.jclouds.rest.Utils;
+import org.easymock.Capture;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.abiquo.model.rest.RESTLink;
+import com.abiquo.server.core.cloud.VirtualMachineWithNodeExtendedDto;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+
+/**
+ * Unit tests for the {@link VirtualMachineIndex} class.
+ */
+@Test(groups = "unit", testName = "VirtualMachineIndexTest")
+public class VirtualMachineIndexTest {
+   private ApiContext<AbiquoApi> context;
+
+   private AbiquoApi api;
+
+   private CloudService cloudService;
+
+   @BeforeMethod
+   @SuppressWarnings("unchecked")
+   public void setup() {
+      context = createMock(ApiContext.class);
+      api = createMock(AbiquoApi.class);
+      cloudService = createMock(CloudService.class);
+      expect(context.getApi()).andReturn(api).anyTimes();
+   }
+
+   public void testNotIndexedIsSearchedAndIndexesTheListing() {
+      VirtualMachine vm1 = vm(1);
+      VirtualMachine vm2 = vm(2);
+      expect(cloudService.listVirtualMachines()).andReturn(ImmutableList.of(vm1, vm2));
+      // The first one has been deleted since the listing
+      expect(api.get(anyObject(RESTLink.class))).andReturn(null);
+      replay(context, api, cloudService);
+
+      VirtualMachineIndex index = new VirtualMachineIndex(context, cloudService);
+      assertEquals(index.get(2), vm2);
+      assertNull(index.get(1));
+
+      verify(context, api, cloudService);
+   }
+
+   @SuppressWarnings("unchecked")
+   public void testIndexedIsFetchedWithItsLink() {
+      VirtualMachine vm1 = vm(1);
+      HttpResponse response = HttpResponse.builder().statusCode(200).build();
+      Utils utils = createMock(Utils.class);
+      Injector injector = createMock(Injector.class);
+      ParseXMLWithJAXB<VirtualMachineWithNodeExtendedDto> parser = createMock(ParseXMLWithJAXB.class);
+      Capture<RESTLink> link = new Capture<RESTLink>();
+      expect(api.get(capture(link))).andReturn(response);
+      expect(context.utils()).andReturn(utils);
+      expect(utils.injector()).andReturn(injector);
+      expect(injector.getInstance(Key.get(new TypeLiteral<ParseXMLWithJAXB<VirtualMachineWithNodeExtendedDto>>() {
+      }))).andReturn(parser);
+      expect(parser.apply(response)).andReturn(vm1.unwrap());
+      replay(context, api, cloudService, utils, injector, parser);
+
+      VirtualMachineIndex index = new VirtualMachineIndex(context, cloudService);
+      index.put(vm1);
+      assertEquals(index.get(1).getId(), Integer.valueOf(1));
+      assertEquals(link.getValue().getHref(), "http://localhost/api/cloud/virtualdatacenters/1/virtualappliances/1/"
+            + "virtualmachines/1");
+      assertEquals(link.getValue().getType(), VirtualMachineWithNodeExtendedDto.BASE_MEDIA_TYPE);
+
+      verify(context, api, cloudService, utils, injector, parser);
+   }
+
+   public void testRemovedIsSearched() {
+      VirtualMachine vm1 = vm(1);
+      expect(cloudService.listVirtualMachines()).andReturn(ImmutableList.<VirtualMachine> of());
+      replay(context, api, cloudService);
+
+      VirtualMachineIndex index = new VirtualMachineIndex(context, cloudService);
+      index.put(vm1);
+      index.remove(1);
+      assertNull(index.get(1));
+
+      verify(context, api, cloudService);
+   }
+
+   public void testGetAllSearchesTheNotIndexedInOneListing() {
+      VirtualMachine vm1 = vm(1);
+      VirtualMachine vm2 = vm(2);
+      VirtualMachine vm3 = vm(3);
+      VirtualMachine vm4 = vm(4);
+      expect(api.get(anyObject(RESTLink.class))).andReturn(null);
+      expect(cloudService.listVirtualMachines()).andReturn(ImmutableList.of(vm2, vm3, vm4));
+      replay(context, api, cloudService);
+
+      VirtualMachineIndex index = new VirtualMachineIndex(context, cloudService);
+      index.put(vm1);
+      assertEquals(ImmutableSet.copyOf(index.getAll(ImmutableList.of(1, 2, 3))), ImmutableSet.of(vm2, vm3));
+
+      verify(context, api, cloudService);
+   }
+
+   private VirtualMachine vm(final int id) {
+      VirtualMachineWithNodeExtendedDto dto = new VirtualMachineWithNodeExtendedDto();
+      dto.setId(id);
+      dto.addLink(new RESTLink("edit", "http://localhost/api/cloud/virtualdatacenters/1/virtualappliances/1/"
+            + "virtualmachines/" + id));
+      return wrap(context, VirtualMachine.class, dto);
+   }
+}
@@ -15,6 +15,9 @@
  * limitations under the License.
  */
 package org.jclouds.azure.management;
+
+import static org.jclouds.azure.management.config.AzureManagementProperties.OPERATION_POLL_PERIOD;
+import static org.jclouds.azure.management.config.AzureManagementProperties.OPERATION_TIMEOUT;
 import static org.jclouds.azure.management.config.AzureManagementProperties.SUBSCRIPTION_ID;
 import static org.jclouds.reflect.Reflection2.typeToken;
 
@@ -62,6 +65,8 @@ public class AzureManagementApiMetadata extends BaseRestApiMetadata {
 
    public static Properties defaultProperties() {
       Properties properties = BaseRestApiMetadata.defaultProperties();
+      properties.setProperty(OPERATION_POLL_PERIOD, "5000");
+      properties.setProperty(OPERATION_TIMEOUT, "1200000");
       return properties;
    }
 
@@ -17,6 +17,20 @@
 package org.jclouds.azure.management.compute;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.Iterables.contains;
+import static com.google.common.collect.Iterables.filter;
+import static com.google.common.collect.Iterables.find;
+import static com.google.common.collect.Iterables.transform;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.azure.management.config.AzureManagementProperties.STORAGE_ACCOUNT;
+
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
@@ -26,16 +40,46 @@ import javax.inject.Singleton;
 import org.jclouds.azure.management.AzureManagementApi;
 import org.jclouds.azure.management.AzureManagementAsyncApi;
 import org.jclouds.azure.management.domain.Deployment;
+import org.jclouds.azure.management.domain.DeploymentParams;
+import org.jclouds.azure.management.domain.DeploymentStatus;
+import org.jclouds.azure.management.domain.HostedServiceWithDetailedProperties;
+import org.jclouds.azure.management.domain.InputEndpoint;
+import org.jclouds.azure.management.domain.InstanceStatus;
+import org.jclouds.azure.management.domain.Location;
 import org.jclouds.azure.management.domain.OSImage;
+import org.jclouds.azure.management.domain.OSType;
+import org.jclouds.azure.management.domain.Operation;
 import org.jclouds.azure.management.domain.RoleSize;
+import org.jclouds.azure.management.domain.role.Protocol;
+import org.jclouds.azure.management.internal.OperationPoller;
 import org.jclouds.compute.ComputeServiceAdapter;
 import org.jclouds.compute.domain.Template;
 import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.domain.LoginCredentials;
 import org.jclouds.logging.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.base.Joiner;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
 /**
  * defines the connection between the {@link AzureApi} implementation and the
  * jclouds {@link ComputeService}
+ * <p/>
+ * Every node is a virtual machine deployment with a single role, hosted in a
+ * service of the same name. Creations, reboots and deletes are submitted
+ * without waiting: the request ids they return are handed to the shared
+ * {@link OperationPoller}, and follow-up requests are chained on its futures.
  * 
  */
 @Singleton
@@ -46,81 +90,264 @@ public class AzureManagementComputeServiceAdapter implements
 	@Named(ComputeServiceConstants.COMPUTE_LOGGER)
 	protected Logger logger = Logger.NULL;
 
+	private static final Random RANDOM = new SecureRandom();
+	private static final String[] PASSWORD_CHARACTERS = { "ABCDEFGHJKLMNPQRSTUVWXYZ",
+			"abcdefghijkmnopqrstuvwxyz", "23456789", "!#$%*+-=?@_" };
+	private static final int PASSWORD_LENGTH = 16;
+
 	private final AzureManagementApi api;
 	private final AzureManagementAsyncApi aapi;
+	private final OperationPoller operations;
+	private final ListeningExecutorService userExecutor;
+
+	@com.google.inject.Inject(optional = true)
+	@Named(STORAGE_ACCOUNT)
+	private String storageAccount;
+
+	/**
+	 * deployments submitted but not yet visible through
+	 * {@link org.jclouds.azure.management.features.HostedServiceApi#getDeployment}
+	 */
+	private final ConcurrentMap<String, Deployment> pending = Maps.newConcurrentMap();
 
 	@Inject
 	public AzureManagementComputeServiceAdapter(AzureManagementApi api,
-			AzureManagementAsyncApi aapi) {
+			AzureManagementAsyncApi aapi, OperationPoller operations,
+			@Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
 		this.api = checkNotNull(api, "api");
 		this.aapi = checkNotNull(aapi, "aapi");
+		this.operations = checkNotNull(operations, "operations");
+		this.userExecutor = checkNotNull(userExecutor, "userExecutor");
 	}
 
 	@Override
-	public org.jclouds.compute.ComputeServiceAdapter.NodeAndInitialCredentials<Deployment> createNodeWithGroupEncodedIntoName(
-			String group, String name, Template template) {
-		// TODO Auto-generated method stub
-		return null;
+	public NodeAndInitialCredentials<Deployment> createNodeWithGroupEncodedIntoName(
+			String group, final String name, Template template) {
+		checkState(storageAccount != null, "%s must be set to create nodes", STORAGE_ACCOUNT);
+		OSImage image = getImage(template.getImage().getProviderId());
+		checkState(image != null, "image %s not found", template.getImage().getProviderId());
+		RoleSize size = RoleSize.fromValue(template.getHardware().getProviderId());
+		String location = template.getLocation().getId();
+
+		LoginCredentials credentials = LoginCredentials.builder()
+				.user("jclouds").password(generatePassword(RANDOM)).build();
+		DeploymentParams.Builder params = DeploymentParams.builder()
+				.name(name).sourceImageName(image.getName())
+				.username(credentials.getUser())
+				.password(credentials.getPassword())
+				.storageAccount(storageAccount).size(size)
+				.osType(image.getOS());
+		if (image.getOS() == OSType.WINDOWS) {
+			params.endpoint(InputEndpoint.builder().name("RDP").localPort(3389).externalPort(3389)
+					.protocol(Protocol.TCP).build());
+		} else {
+			params.endpoint(InputEndpoint.builder().name("SSH").localPort(22).externalPort(22)
+					.protocol(Protocol.TCP).build());
+		}
+		final DeploymentParams deploymentParams = params.build();
+
+		logger.debug(">> creating hosted service(%s) in location(%s)", name, location);
+		ListenableFuture<Operation> serviceCreated = operations.track(api
+				.getHostedServiceApi().createServiceWithLabelInLocation(name, name, location));
+		ListenableFuture<Operation> deployed = Futures.transform(serviceCreated,
+				new AsyncFunction<Operation, Operation>() {
+					@Override
+					public ListenableFuture<Operation> apply(Operation input) {
+						logger.debug(">> creating deployment(%s)", name);
+						return operations.track(api.getRoleApi().createDeployment(name, deploymentParams));
+					}
+				}, userExecutor);
+
+		final Deployment placeholder = Deployment.builder().deploymentName(name)
+				.roleName(name).instanceName(name)
+				.deploymentStatus(DeploymentStatus.DEPLOYING)
+				.instanceStatus(InstanceStatus.PROVISIONING).instanceSize(size)
+				.sourceImageName(image.getName()).location(location)
+				.build();
+		pending.put(name, placeholder);
+		Futures.addCallback(deployed, new FutureCallback<Operation>() {
+			@Override
+			public void onSuccess(Operation result) {
+				logger.debug("<< deployment(%s) created", name);
+				pending.remove(name, placeholder);
+			}
+
+			@Override
+			public void onFailure(Throwable t) {
+				logger.warn(t, "<< deployment(%s) failed, removing its hosted service", name);
+				pending.remove(name, placeholder);
+				deleteHostedService(name);
+			}
+		});
+		return new NodeAndInitialCredentials<Deployment>(placeholder, name, credentials);
+	}
+
+	/**
+	 * Generates a random password with at least one upper case letter, lower
+	 * case letter, digit and symbol, as the Azure complexity rules require.
+	 */
+	@VisibleForTesting
+	static String generatePassword(Random random) {
+		String all = Joiner.on("").join(PASSWORD_CHARACTERS);
+		List<Character> password = Lists.newArrayListWithCapacity(PASSWORD_LENGTH);
+		for (String characters : PASSWORD_CHARACTERS)
+			password.add(characters.charAt(random.nextInt(characters.length())));
+		while (password.size() < PASSWORD_LENGTH)
+			password.add(all.charAt(random.nextInt(all.length())));
+		// so that the mandatory characters are not always the first ones
+		Collections.shuffle(password, random);
+		return Joiner.on("").join(password);
 	}
 
 	@Override
 	public Iterable<RoleSize> listHardwareProfiles() {
-		// TODO Auto-generated method stub
-		return null;
+		return ImmutableSet.copyOf(RoleSize.values());
 	}
 
 	@Override
 	public Iterable<OSImage> listImages() {
-		// TODO Auto-generated method stub
-		return null;
+		return api.getOSImageApi().list();
 	}
 
 	@Override
-	public OSImage getImage(String id) {
-		// TODO Auto-generated method stub
-		return null;
+	public OSImage getImage(final String id) {
+		return find(listImages(), new Predicate<OSImage>() {
+			@Override
+			public boolean apply(OSImage input) {
+				return input.getName().equals(id);
+			}
+		}, null);
 	}
 
 	@Override
 	public Iterable<String> listLocations() {
-		// TODO Auto-generated method stub
-		return null;
+		return transform(api.getLocationApi().list(), new Function<Location, String>() {
+			@Override
+			public String apply(Location input) {
+				return input.getName();
+			}
+		});
 	}
 
 	@Override
 	public Deployment getNode(String id) {
-		// TODO Auto-generated method stub
-		return null;
+		Deployment deployment = api.getHostedServiceApi().getDeployment(id, id);
+		if (deployment == null)
+			return pending.get(id);
+		return withLocationOf(deployment, api.getHostedServiceApi().getDetails(id));
 	}
 
+	/**
+	 * Fetches the deployment of every hosted service concurrently.
+	 */
 	@Override
-	public void destroyNode(String id) {
-		// TODO Auto-generated method stub
+	public Iterable<Deployment> listNodes() {
+		List<HostedServiceWithDetailedProperties> services = ImmutableList.copyOf(api.getHostedServiceApi().list());
+		List<ListenableFuture<Deployment>> deployments = Lists.newArrayList();
+		for (HostedServiceWithDetailedProperties service : services) {
+			deployments.add(aapi.getHostedServiceApi().getDeployment(service.getName(), service.getName()));
+		}
+		List<Deployment> fetched = Futures.getUnchecked(Futures.allAsList(deployments));
+		Map<String, Deployment> nodes = Maps.newLinkedHashMap();
+		for (int i = 0; i < services.size(); i++) {
+			Deployment deployment = fetched.get(i);
+			if (deployment != null)
+				nodes.put(deployment.getDeploymentName(), withLocationOf(deployment, services.get(i)));
+		}
+		for (Map.Entry<String, Deployment> entry : pending.entrySet()) {
+			if (!nodes.containsKey(entry.getKey()))
+				nodes.put(entry.getKey(), entry.getValue());
+		}
+		return ImmutableList.copyOf(nodes.values());
+	}
 
+	/**
+	 * Deployments do not tell their location: it is the one of their hosted
+	 * service.
+	 */
+	private static Deployment withLocationOf(Deployment deployment, HostedServiceWithDetailedProperties service) {
+		if (service == null || service.getProperties() == null)
+			return deployment;
+		return deployment.toBuilder().location(service.getProperties().getLocation().orNull()).build();
 	}
 
 	@Override
-	public void rebootNode(String id) {
-		// TODO Auto-generated method stub
-
+	public Iterable<Deployment> listNodesByIds(final Iterable<String> ids) {
+		return filter(listNodes(), new Predicate<Deployment>() {
+			@Override
+			public boolean apply(Deployment input) {
+				return contains(ids, input.getDeploymentName());
+			}
+		});
 	}
 
+	/**
+	 * Submits the deletion of the deployment, then of its hosted service once
+	 * the deployment is gone. Returns without waiting for either.
+	 */
 	@Override
-	public void resumeNode(String id) {
-		// TODO Auto-generated method stub
+	public void destroyNode(final String id) {
+		pending.remove(id);
+		logger.debug(">> deleting deployment(%s)", id);
+		String requestId = api.getHostedServiceApi().deleteDeployment(id, id);
+		if (requestId == null) {
+			deleteHostedService(id);
+			return;
+		}
+		Futures.addCallback(operations.track(requestId), new FutureCallback<Operation>() {
+			@Override
+			public void onSuccess(Operation result) {
+				deleteHostedService(id);
+			}
+
+			@Override
+			public void onFailure(Throwable t) {
+				logger.warn(t, "<< could not delete deployment(%s)", id);
+			}
+		}, userExecutor);
+	}
 
+	private void deleteHostedService(final String name) {
+		logger.debug(">> deleting hosted service(%s)", name);
+		String requestId = api.getHostedServiceApi().delete(name);
+		if (requestId != null)
+			trackAndLogFailure(requestId, "delete hosted service", name);
 	}
 
 	@Override
-	public void suspendNode(String id) {
-		// TODO Auto-generated method stub
+	public void rebootNode(String id) {
+		logger.debug(">> restarting role(%s)", id);
+		trackAndLogFailure(api.getRoleApi().restartRole(id, id, id), "restart role", id);
+	}
 
+	@Override
+	public void resumeNode(String id) {
+		logger.debug(">> starting role(%s)", id);
+		trackAndLogFailure(api.getRoleApi().startRole(id, id, id), "start role", id);
 	}
 
 	@Override
-	public Iterable<Deployment> listNodes() {
-		// TODO Auto-generated method stub
-		return null;
+	public void suspendNode(String id) {
+		logger.debug(">> shutting down role(%s)", id);
+		trackAndLogFailure(api.getRoleApi().shutdownRole(id, id, id), "shutdown role", id);
+	}
+
+	private void trackAndLogFailure(String requestId, final String operation, final String id) {
+		if (requestId == null) {
+			logger.warn("<< %s(%s) not found", operation, id);
+			return;
+		}
+		Futures.addCallback(operations.track(requestId), new FutureCallback<Operation>() {
+			@Override
+			public void onSuccess(Operation result) {
+				logger.debug("<< %s(%s) complete", operation, id);
+			}
+
+			@Override
+			public void onFailure(Throwable t) {
+				logger.warn(t, "<< %s(%s) failed", operation, id);
+			}
+		});
 	}
 
 }
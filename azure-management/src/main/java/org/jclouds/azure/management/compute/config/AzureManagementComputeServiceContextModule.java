@@ -18,6 +18,7 @@ package org.jclouds.azure.management.compute.config;
 
 import org.jclouds.azure.management.compute.AzureManagementComputeServiceAdapter;
 import org.jclouds.azure.management.compute.functions.DeploymentToNodeMetadata;
+import org.jclouds.azure.management.compute.functions.LocationNameToLocation;
 import org.jclouds.azure.management.compute.functions.OSImageToImage;
 import org.jclouds.azure.management.compute.functions.RoleSizeToHardware;
 import org.jclouds.azure.management.domain.Deployment;
@@ -28,6 +29,7 @@ import org.jclouds.compute.config.ComputeServiceAdapterContextModule;
 import org.jclouds.compute.domain.Hardware;
 import org.jclouds.compute.domain.Image;
 import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.domain.Location;
 
 import com.google.common.base.Function;
 import com.google.inject.TypeLiteral;
@@ -50,6 +52,8 @@ public class AzureManagementComputeServiceContextModule extends
       }).to(RoleSizeToHardware.class);
       bind(new TypeLiteral<Function<Deployment, NodeMetadata>>() {
       }).to(DeploymentToNodeMetadata.class);
+      bind(new TypeLiteral<Function<String, Location>>() {
+      }).to(LocationNameToLocation.class);
       
    }
 
@@ -16,16 +16,91 @@
  */
 package org.jclouds.azure.management.compute.functions;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Iterables.find;
+
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+
 import org.jclouds.azure.management.domain.Deployment;
+import org.jclouds.azure.management.domain.InstanceStatus;
+import org.jclouds.collect.Memoized;
+import org.jclouds.compute.domain.Image;
 import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.compute.predicates.ImagePredicates;
+import org.jclouds.domain.Location;
+import org.jclouds.location.predicates.LocationPredicates;
 
 import com.google.common.base.Function;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 public class DeploymentToNodeMetadata implements Function<Deployment, NodeMetadata> {
 
+	private static final Map<InstanceStatus, Status> INSTANCESTATUS_TO_NODESTATUS = ImmutableMap
+			.<InstanceStatus, Status> builder()
+			.put(InstanceStatus.ROLE_STATE_UNKNOWN, Status.UNRECOGNIZED)
+			.put(InstanceStatus.PROVISIONING, Status.PENDING)
+			.put(InstanceStatus.CREATING_V_M, Status.PENDING)
+			.put(InstanceStatus.STARTING_V_M, Status.PENDING)
+			.put(InstanceStatus.CREATING_ROLE, Status.PENDING)
+			.put(InstanceStatus.STARTING_ROLE, Status.PENDING)
+			.put(InstanceStatus.READY_ROLE, Status.RUNNING)
+			.put(InstanceStatus.BUSY_ROLE, Status.PENDING)
+			.put(InstanceStatus.STOPPING_ROLE, Status.PENDING)
+			.put(InstanceStatus.STOPPING_V_M, Status.PENDING)
+			.put(InstanceStatus.STOPPED_V_M, Status.SUSPENDED)
+			.put(InstanceStatus.DELETING_V_M, Status.TERMINATED)
+			.put(InstanceStatus.RESTARTING_ROLE, Status.PENDING)
+			.put(InstanceStatus.CYCLING_ROLE, Status.ERROR)
+			.put(InstanceStatus.FAILED_STARTING_ROLE, Status.ERROR)
+			.put(InstanceStatus.FAILED_STARTING_V_M, Status.ERROR)
+			.put(InstanceStatus.UNRESPONSIVE_ROLE, Status.ERROR)
+			.build();
+
+	private final Supplier<Set<? extends Location>> locations;
+	private final Supplier<Set<? extends Image>> images;
+	private final GroupNamingConvention nodeNamingConvention;
+
+	@Inject
+	public DeploymentToNodeMetadata(@Memoized Supplier<Set<? extends Location>> locations,
+			@Memoized Supplier<Set<? extends Image>> images, GroupNamingConvention.Factory namingConvention) {
+		this.locations = checkNotNull(locations, "locations");
+		this.images = checkNotNull(images, "images");
+		this.nodeNamingConvention = checkNotNull(namingConvention, "namingConvention").createWithoutPrefix();
+	}
+
 	@Override
 	public NodeMetadata apply(Deployment input) {
-		return null;
+		NodeMetadataBuilder builder = new NodeMetadataBuilder();
+		builder.ids(input.getDeploymentName());
+		builder.name(input.getRoleName());
+		builder.hostname(input.getInstanceName());
+		builder.group(nodeNamingConvention.groupInUniqueNameOrNull(input.getDeploymentName()));
+		if (input.getLocation() != null)
+			builder.location(find(locations.get(), LocationPredicates.idEquals(input.getLocation()), null));
+		if (input.getSourceImageName() != null) {
+			builder.imageId(input.getSourceImageName());
+			Image image = find(images.get(), ImagePredicates.idEquals(input.getSourceImageName()), null);
+			if (image != null)
+				builder.operatingSystem(image.getOperatingSystem());
+		}
+		if (input.getInstanceSize() != null)
+			builder.hardware(new RoleSizeToHardware().apply(input.getInstanceSize()));
+		InstanceStatus instanceStatus = input.getInstanceStatus();
+		builder.status(instanceStatus == null ? Status.PENDING : INSTANCESTATUS_TO_NODESTATUS.get(instanceStatus));
+		builder.backendStatus(instanceStatus == null ? null : instanceStatus.value());
+		if (input.getPublicIpAddress() != null)
+			builder.publicAddresses(ImmutableSet.of(input.getPublicIpAddress()));
+		if (input.getPrivateIpAddress() != null)
+			builder.privateAddresses(ImmutableSet.of(input.getPrivateIpAddress()));
+		return builder.build();
 	}
 
 }
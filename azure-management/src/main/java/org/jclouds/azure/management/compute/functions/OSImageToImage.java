@@ -17,7 +17,11 @@
 package org.jclouds.azure.management.compute.functions;
 
 import org.jclouds.azure.management.domain.OSImage;
+import org.jclouds.azure.management.domain.OSType;
 import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.OsFamily;
 
 import com.google.common.base.Function;
 
@@ -25,7 +29,13 @@ public class OSImageToImage implements Function<OSImage, Image>{
 
 	@Override
 	public Image apply(OSImage input) {
-		return null;
+		String description = input.getDescription().or(input.getLabel());
+		OperatingSystem os = OperatingSystem.builder()
+				.family(input.getOS() == OSType.WINDOWS ? OsFamily.WINDOWS : OsFamily.LINUX)
+				.description(input.getLabel()).is64Bit(true).build();
+		return new ImageBuilder().ids(input.getName()).name(input.getLabel())
+				.description(description).operatingSystem(os)
+				.status(Image.Status.AVAILABLE).build();
 	}
 
 }
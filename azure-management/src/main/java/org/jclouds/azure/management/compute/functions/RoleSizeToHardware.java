@@ -18,14 +18,43 @@ package org.jclouds.azure.management.compute.functions;
 
 import org.jclouds.azure.management.domain.RoleSize;
 import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.HardwareBuilder;
+import org.jclouds.compute.domain.Processor;
+import org.jclouds.compute.domain.Volume;
+import org.jclouds.compute.domain.internal.VolumeImpl;
 
 import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
 
+/**
+ * Virtual machine sizes are fixed by Azure.
+ * 
+ * @see <a href="http://msdn.microsoft.com/en-us/library/dn197896" >sizes</a>
+ */
 public class RoleSizeToHardware implements Function<RoleSize, Hardware> {
 
 	@Override
 	public Hardware apply(RoleSize input) {
-		return null;
+		HardwareBuilder builder = new HardwareBuilder().ids(input.value())
+				.name(input.value()).hypervisor("Hyper-V");
+		switch (input) {
+		case EXTRA_SMALL:
+			builder.processors(ImmutableList.of(new Processor(1, 1.0))).ram(768);
+			break;
+		case SMALL:
+			builder.processors(ImmutableList.of(new Processor(1, 1.6))).ram(1792);
+			break;
+		case MEDIUM:
+			builder.processors(ImmutableList.of(new Processor(2, 1.6))).ram(3584);
+			break;
+		case LARGE:
+			builder.processors(ImmutableList.of(new Processor(4, 1.6))).ram(7168);
+			break;
+		case EXTRA_LARGE:
+			builder.processors(ImmutableList.of(new Processor(8, 1.6))).ram(14336);
+			break;
+		}
+		return builder.volumes(ImmutableList.<Volume> of(new VolumeImpl(127.0f, true, true))).build();
 	}
 
 }
@@ -35,4 +35,23 @@ public class AzureManagementProperties {
 	 * @see <a href="http://msdn.microsoft.com/en-us/library/ee460786">docs</a>
 	 */
 	public static final String SUBSCRIPTION_ID = "jclouds.azure.management.subscription-id";
+
+	/**
+	 * Delay in milliseconds between two status checks of the asynchronous
+	 * operations tracked by the
+	 * {@link org.jclouds.azure.management.internal.OperationPoller}.
+	 */
+	public static final String OPERATION_POLL_PERIOD = "jclouds.azure.management.operation-poll-period";
+
+	/**
+	 * Time in milliseconds after which a tracked asynchronous operation that
+	 * has not completed is considered failed.
+	 */
+	public static final String OPERATION_TIMEOUT = "jclouds.azure.management.operation-timeout";
+
+	/**
+	 * Name of the storage account where the disks of new virtual machines are
+	 * created.
+	 */
+	public static final String STORAGE_ACCOUNT = "jclouds.azure.management.storage-account";
 }
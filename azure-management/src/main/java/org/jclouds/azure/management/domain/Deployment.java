@@ -24,6 +24,10 @@ public class Deployment {
 		return new Builder();
 	}
 
+	public Builder toBuilder() {
+		return builder().fromDeployment(this);
+	}
+
 	public static class Builder {
 		private String deploymentName;
 		private DeploymentSlot deploymentSlot;
@@ -38,6 +42,8 @@ public class Deployment {
 		private RoleSize instanceSize;
 		private String privateIpAddress;
 		private String publicIpAddress;
+		private String sourceImageName;
+		private String location;
 
 		public Builder deploymentName(final String deploymentName) {
 			this.deploymentName = deploymentName;
@@ -104,11 +110,32 @@ public class Deployment {
 			return this;
 		}
 
+		public Builder sourceImageName(final String sourceImageName) {
+			this.sourceImageName = sourceImageName;
+			return this;
+		}
+
+		public Builder location(final String location) {
+			this.location = location;
+			return this;
+		}
+
 		public Deployment build() {
 			return new Deployment(deploymentName, deploymentSlot,
 					deploymentStatus, deploymentLabel, deploymentURL, roleName,
 					instanceName, instanceStatus,instanceStateDetails,instanceErrorCode, instanceSize,
-					privateIpAddress, publicIpAddress);
+					privateIpAddress, publicIpAddress, sourceImageName, location);
+		}
+
+		public Builder fromDeployment(Deployment in) {
+			return deploymentName(in.getDeploymentName()).deploymentSlot(in.getDeploymentSlot())
+					.deploymentStatus(in.getDeploymentStatus()).deploymentLabel(in.getDeploymentLabel())
+					.deploymentURL(in.getDeploymentURL()).roleName(in.getRoleName())
+					.instanceName(in.getInstanceName()).instanceStatus(in.getInstanceStatus())
+					.instanceStateDetails(in.getInstanceStateDetails())
+					.instanceErrorCode(in.getInstanceErrorCode()).instanceSize(in.getInstanceSize())
+					.privateIpAddress(in.getPrivateIpAddress()).publicIpAddress(in.getPublicIpAddress())
+					.sourceImageName(in.getSourceImageName()).location(in.getLocation());
 		}
 
 	}
@@ -188,12 +215,33 @@ public class Deployment {
 	private final RoleSize instanceSize;
 	private final String privateIpAddress;
 	private final String publicIpAddress;
+	/**
+	 * The name of the OS image the virtual machine of the role was created
+	 * from.
+	 */
+	private final String sourceImageName;
+	/**
+	 * The location of the hosted service of the deployment. It is not part of
+	 * the deployment, and is only known when the deployment was read along
+	 * with its hosted service.
+	 */
+	private final String location;
 
 	public Deployment(String deploymentName, DeploymentSlot deploymentSlot,
 			DeploymentStatus deploymentStatus, String deploymentLabel,
 			URI deploymentURL, String roleName, String instanceName,
 			InstanceStatus instanceStatus,String instanceStateDetails, String instanceErrorCode, RoleSize instanceSize,
 			String privateIpAddress, String publicIpAddress) {
+		this(deploymentName, deploymentSlot, deploymentStatus, deploymentLabel, deploymentURL, roleName,
+				instanceName, instanceStatus, instanceStateDetails, instanceErrorCode, instanceSize,
+				privateIpAddress, publicIpAddress, null, null);
+	}
+
+	public Deployment(String deploymentName, DeploymentSlot deploymentSlot,
+			DeploymentStatus deploymentStatus, String deploymentLabel,
+			URI deploymentURL, String roleName, String instanceName,
+			InstanceStatus instanceStatus,String instanceStateDetails, String instanceErrorCode, RoleSize instanceSize,
+			String privateIpAddress, String publicIpAddress, String sourceImageName, String location) {
 		super();
 		this.deploymentName = deploymentName;
 		this.deploymentSlot = deploymentSlot;
@@ -208,6 +256,8 @@ public class Deployment {
 		this.instanceSize = instanceSize;
 		this.privateIpAddress = privateIpAddress;
 		this.publicIpAddress = publicIpAddress;
+		this.sourceImageName = sourceImageName;
+		this.location = location;
 	}
 
 	public String getDeploymentName() {
@@ -262,12 +312,24 @@ public class Deployment {
 		return publicIpAddress;
 	}
 
+	public String getSourceImageName() {
+		return sourceImageName;
+	}
+
+	public String getLocation() {
+		return location;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
 		result = prime * result
 				+ ((deploymentName == null) ? 0 : deploymentName.hashCode());
+		result = prime * result
+				+ ((sourceImageName == null) ? 0 : sourceImageName.hashCode());
+		result = prime * result
+				+ ((location == null) ? 0 : location.hashCode());
 		return result;
 	}
 
@@ -285,6 +347,16 @@ public class Deployment {
 				return false;
 		} else if (!deploymentName.equals(other.deploymentName))
 			return false;
+		if (sourceImageName == null) {
+			if (other.sourceImageName != null)
+				return false;
+		} else if (!sourceImageName.equals(other.sourceImageName))
+			return false;
+		if (location == null) {
+			if (other.location != null)
+				return false;
+		} else if (!location.equals(other.location))
+			return false;
 		return true;
 	}
 
@@ -299,7 +371,9 @@ public class Deployment {
 				+ instanceStateDetails + ", instanceErrorCode="
 				+ instanceErrorCode + ", instanceSize=" + instanceSize
 				+ ", privateIpAddress=" + privateIpAddress
-				+ ", publicIpAddress=" + publicIpAddress + "]";
+				+ ", publicIpAddress=" + publicIpAddress
+				+ ", sourceImageName=" + sourceImageName
+				+ ", location=" + location + "]";
 	}
 
 
@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azure.management.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
+import static org.jclouds.azure.management.config.AzureManagementProperties.OPERATION_POLL_PERIOD;
+import static org.jclouds.azure.management.config.AzureManagementProperties.OPERATION_TIMEOUT;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.azure.management.AzureManagementAsyncApi;
+import org.jclouds.azure.management.domain.Operation;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Tracks the asynchronous requests identified by the {@code x-ms-request-id} header of the Service Management API.
+ * <p/>
+ * A single poller is shared by all callers. On each tick it issues one non-blocking
+ * {@link org.jclouds.azure.management.features.OperationApi#get} per outstanding request, all in flight at the same
+ * time, and schedules the next tick once every status check has returned. No caller thread polls on its own.
+ * 
+ * @see <a href="http://msdn.microsoft.com/en-us/library/ee460783">docs</a>
+ */
+@Singleton
+public class OperationPoller {
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final AzureManagementAsyncApi api;
+   private final ScheduledExecutorService scheduler;
+   private final long period;
+   private final long timeout;
+
+   private final ConcurrentMap<String, TrackedOperation> outstanding = Maps.newConcurrentMap();
+   private final AtomicBoolean scheduled = new AtomicBoolean();
+
+   @Inject
+   public OperationPoller(AzureManagementAsyncApi api,
+         @Named(PROPERTY_SCHEDULER_THREADS) ScheduledExecutorService scheduler,
+         @Named(OPERATION_POLL_PERIOD) long period, @Named(OPERATION_TIMEOUT) long timeout) {
+      this.api = checkNotNull(api, "api");
+      this.scheduler = checkNotNull(scheduler, "scheduler");
+      this.period = period;
+      this.timeout = timeout;
+   }
+
+   /**
+    * Registers an asynchronous request.
+    * 
+    * @param requestId
+    *           the value of the {@code x-ms-request-id} header returned when the request was submitted
+    * @return a future that completes with the operation when it succeeds, or fails when the operation fails, is not
+    *         found or times out
+    */
+   public ListenableFuture<Operation> track(String requestId) {
+      checkNotNull(requestId, "requestId");
+      TrackedOperation operation = new TrackedOperation(requestId, System.currentTimeMillis() + timeout);
+      TrackedOperation existing = outstanding.putIfAbsent(requestId, operation);
+      if (existing != null)
+         return existing.future;
+      logger.debug(">> tracking operation(%s)", requestId);
+      scheduleIfIdle();
+      return operation.future;
+   }
+
+   /**
+    * @return the number of requests that have not completed yet
+    */
+   public int outstanding() {
+      return outstanding.size();
+   }
+
+   private void scheduleIfIdle() {
+      if (scheduled.compareAndSet(false, true)) {
+         scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+               poll();
+            }
+         }, period, TimeUnit.MILLISECONDS);
+      }
+   }
+
+   /**
+    * Checks every outstanding request once. An operation whose check cannot be handled fails, and the next tick is
+    * scheduled whatever happens, so one bad operation never stops the others from being polled.
+    */
+   @VisibleForTesting
+   void poll() {
+      List<ListenableFuture<Operation>> checks = Lists.newArrayList();
+      try {
+         long now = System.currentTimeMillis();
+         for (TrackedOperation operation : outstanding.values()) {
+            try {
+               ListenableFuture<Operation> check = check(operation, now);
+               if (check != null)
+                  checks.add(check);
+            } catch (RuntimeException e) {
+               complete(operation, null, e);
+            }
+         }
+      } finally {
+         Futures.successfulAsList(checks).addListener(new Runnable() {
+            @Override
+            public void run() {
+               scheduled.set(false);
+               if (!outstanding.isEmpty())
+                  scheduleIfIdle();
+            }
+         }, sameThreadExecutor());
+      }
+   }
+
+   /**
+    * @return the status check of the operation, or null if it has timed out or cannot be checked this tick
+    */
+   private ListenableFuture<Operation> check(final TrackedOperation operation, long now) {
+      if (operation.deadline < now) {
+         complete(operation, null, new TimeoutException(String.format("operation(%s) did not complete in %sms",
+               operation.requestId, timeout)));
+         return null;
+      }
+      ListenableFuture<Operation> check;
+      try {
+         check = api.getOperationApi().get(operation.requestId);
+      } catch (RuntimeException e) {
+         logger.warn(e, "<< could not check operation(%s), will retry", operation.requestId);
+         return null;
+      }
+      Futures.addCallback(check, new FutureCallback<Operation>() {
+         @Override
+         public void onSuccess(Operation result) {
+            try {
+               update(operation, result);
+            } catch (RuntimeException e) {
+               complete(operation, null, e);
+            }
+         }
+
+         @Override
+         public void onFailure(Throwable t) {
+            logger.warn(t, "<< could not check operation(%s), will retry", operation.requestId);
+         }
+      });
+      return check;
+   }
+
+   private void update(TrackedOperation operation, Operation status) {
+      if (status == null) {
+         complete(operation, null, new IllegalStateException(String.format("operation(%s) not found",
+               operation.requestId)));
+         return;
+      }
+      switch (status.getStatus()) {
+         case SUCCEEDED:
+            complete(operation, status, null);
+            break;
+         case FAILED:
+            complete(operation, null, new IllegalStateException(String.format("operation(%s) failed: %s",
+                  operation.requestId, status.getError().orNull())));
+            break;
+         default:
+            logger.trace("<< operation(%s) is %s", operation.requestId, status.getRawStatus());
+            break;
+      }
+   }
+
+   private void complete(TrackedOperation operation, Operation result, Throwable failure) {
+      if (!outstanding.remove(operation.requestId, operation))
+         return;
+      if (failure != null) {
+         logger.debug("<< operation(%s) failed: %s", operation.requestId, failure.getMessage());
+         operation.future.setException(failure);
+      } else {
+         logger.debug("<< operation(%s) succeeded", operation.requestId);
+         operation.future.set(result);
+      }
+   }
+
+   private static class TrackedOperation {
+      private final String requestId;
+      private final long deadline;
+      private final SettableFuture<Operation> future = SettableFuture.create();
+
+      private TrackedOperation(String requestId, long deadline) {
+         this.requestId = requestId;
+         this.deadline = deadline;
+      }
+   }
+}
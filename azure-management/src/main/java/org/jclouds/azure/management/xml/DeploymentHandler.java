@@ -110,6 +110,8 @@ public class DeploymentHandler extends
 			builder.privateIpAddress(currentOrNull(currentText));
 		} else if (equalsOrSuffix(qName, "Vip")) {
 			builder.publicIpAddress(currentOrNull(currentText));
+		} else if (equalsOrSuffix(qName, "SourceImageName")) {
+			builder.sourceImageName(currentOrNull(currentText));
 		}
 
 		currentText = new StringBuilder();
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azure.management.compute;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "AzureManagementComputeServiceAdapterTest")
+public class AzureManagementComputeServiceAdapterTest {
+
+   public void testGeneratedPasswordsMeetTheComplexityRules() {
+      Random random = new Random(0);
+      for (int i = 0; i < 100; i++) {
+         String password = AzureManagementComputeServiceAdapter.generatePassword(random);
+         assertEquals(password.length(), 16, password);
+         assertTrue(password.matches(".*[A-Z].*"), password);
+         assertTrue(password.matches(".*[a-z].*"), password);
+         assertTrue(password.matches(".*[0-9].*"), password);
+         assertTrue(password.matches(".*[^A-Za-z0-9].*"), password);
+      }
+   }
+
+   public void testGeneratedPasswordsAreNotRepeated() {
+      Random random = new Random(0);
+      String first = AzureManagementComputeServiceAdapter.generatePassword(random);
+      assertFalse(first.equals(AzureManagementComputeServiceAdapter.generatePassword(random)), first);
+   }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azure.management.compute.functions;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.Set;
+
+import org.jclouds.azure.management.domain.Deployment;
+import org.jclouds.azure.management.domain.DeploymentStatus;
+import org.jclouds.azure.management.domain.InstanceStatus;
+import org.jclouds.azure.management.domain.RoleSize;
+import org.jclouds.azure.management.parse.GetDeploymentTest;
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.OsFamily;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Guice;
+
+@Test(groups = "unit", testName = "DeploymentToNodeMetadataTest")
+public class DeploymentToNodeMetadataTest {
+
+   private static final String IMAGE = "MSFT__Win2K8R2SP1-120612-1520-121206-01-en-us-30GB.vhd";
+
+   private final Location provider = new LocationBuilder().scope(LocationScope.PROVIDER).id("azure-management")
+         .description("https://management.core.windows.net").build();
+   private final Location westEurope = new LocationBuilder().scope(LocationScope.REGION).id("West Europe")
+         .description("West Europe").parent(provider).build();
+   private final Image windows = new ImageBuilder().ids(IMAGE).name("Windows Server 2008 R2 SP1")
+         .operatingSystem(OperatingSystem.builder().family(OsFamily.WINDOWS).description("Windows").is64Bit(true)
+               .build()).status(Image.Status.AVAILABLE).build();
+
+   private final DeploymentToNodeMetadata toNode = new DeploymentToNodeMetadata(
+         Suppliers.<Set<? extends Location>> ofInstance(ImmutableSet.of(westEurope)),
+         Suppliers.<Set<? extends Image>> ofInstance(ImmutableSet.of(windows)),
+         Guice.createInjector().getInstance(GroupNamingConvention.Factory.class));
+
+   public void testDeployment() {
+      Deployment deployment = new GetDeploymentTest().expected().toBuilder().deploymentName("web-1f4")
+            .location("West Europe").build();
+
+      NodeMetadata node = toNode.apply(deployment);
+
+      assertEquals(node.getId(), "web-1f4");
+      assertEquals(node.getName(), "neotysss");
+      assertEquals(node.getHostname(), "neotysss");
+      assertEquals(node.getGroup(), "web");
+      assertEquals(node.getLocation(), westEurope);
+      assertEquals(node.getImageId(), IMAGE);
+      assertEquals(node.getOperatingSystem().getFamily(), OsFamily.WINDOWS);
+      assertEquals(node.getHardware().getId(), RoleSize.MEDIUM.value());
+      assertEquals(node.getStatus(), NodeMetadata.Status.RUNNING);
+      assertEquals(node.getBackendStatus(), InstanceStatus.READY_ROLE.value());
+      assertEquals(node.getPublicAddresses(), ImmutableSet.of("168.63.27.148"));
+      assertEquals(node.getPrivateAddresses(), ImmutableSet.of("10.59.244.162"));
+   }
+
+   public void testSubmittedDeploymentIsPending() {
+      Deployment placeholder = Deployment.builder().deploymentName("web-1f4").roleName("web-1f4")
+            .instanceName("web-1f4").deploymentStatus(DeploymentStatus.DEPLOYING).instanceSize(RoleSize.SMALL)
+            .sourceImageName(IMAGE).location("West Europe").build();
+
+      NodeMetadata node = toNode.apply(placeholder);
+
+      assertEquals(node.getStatus(), NodeMetadata.Status.PENDING);
+      assertNull(node.getBackendStatus());
+      assertEquals(node.getLocation(), westEurope);
+      assertEquals(node.getImageId(), IMAGE);
+   }
+
+   public void testUnknownLocationAndImageAreLeftUnset() {
+      Deployment deployment = new GetDeploymentTest().expected().toBuilder().location("East Asia")
+            .sourceImageName("deleted.vhd").build();
+
+      NodeMetadata node = toNode.apply(deployment);
+
+      assertNull(node.getLocation());
+      assertEquals(node.getImageId(), "deleted.vhd");
+      assertNull(node.getOperatingSystem());
+   }
+
+   public void testDeploymentWithoutLocationOrImage() {
+      Deployment deployment = new GetDeploymentTest().expected().toBuilder().sourceImageName(null).build();
+
+      NodeMetadata node = toNode.apply(deployment);
+
+      assertNull(node.getLocation());
+      assertNull(node.getImageId());
+      assertNull(node.getOperatingSystem());
+   }
+}
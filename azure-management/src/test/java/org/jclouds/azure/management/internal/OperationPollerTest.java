@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azure.management.internal;
+
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static org.easymock.EasyMock.anyLong;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.jclouds.azure.management.AzureManagementAsyncApi;
+import org.jclouds.azure.management.domain.Error;
+import org.jclouds.azure.management.domain.Operation;
+import org.jclouds.azure.management.features.OperationAsyncApi;
+import org.testng.annotations.Test;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+@Test(groups = "unit", testName = "OperationPollerTest")
+public class OperationPollerTest {
+
+   private static Operation operation(String requestId, Operation.Status status) {
+      return Operation.builder().id(requestId).rawStatus(status.value()).status(status).build();
+   }
+
+   private static OperationPoller poller(OperationAsyncApi operationApi, long timeout) {
+      AzureManagementAsyncApi api = createMock(AzureManagementAsyncApi.class);
+      expect(api.getOperationApi()).andReturn(operationApi).anyTimes();
+      // ticks are run by the tests
+      ScheduledExecutorService scheduler = createMock(ScheduledExecutorService.class);
+      expect(scheduler.schedule(anyObject(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS))).andReturn(null)
+            .anyTimes();
+      replay(api, scheduler);
+      return new OperationPoller(api, scheduler, 1000, timeout);
+   }
+
+   private static Throwable failureOf(ListenableFuture<Operation> future) throws InterruptedException {
+      try {
+         future.get();
+         fail("operation should have failed");
+         return null;
+      } catch (ExecutionException e) {
+         return e.getCause();
+      }
+   }
+
+   public void testSucceededOperationCompletesTheFuture() throws Exception {
+      Operation succeeded = operation("a", Operation.Status.SUCCEEDED);
+      OperationAsyncApi operationApi = createMock(OperationAsyncApi.class);
+      expect(operationApi.get("a")).andReturn(immediateFuture(succeeded));
+      replay(operationApi);
+
+      OperationPoller poller = poller(operationApi, 60000);
+      ListenableFuture<Operation> future = poller.track("a");
+      poller.poll();
+
+      assertEquals(future.get(), succeeded);
+      assertEquals(poller.outstanding(), 0);
+      verify(operationApi);
+   }
+
+   public void testOperationInProgressIsCheckedOnTheNextTick() throws Exception {
+      OperationAsyncApi operationApi = createMock(OperationAsyncApi.class);
+      expect(operationApi.get("a")).andReturn(immediateFuture(operation("a", Operation.Status.IN_PROGRESS)));
+      expect(operationApi.get("a")).andReturn(immediateFuture(operation("a", Operation.Status.SUCCEEDED)));
+      replay(operationApi);
+
+      OperationPoller poller = poller(operationApi, 60000);
+      ListenableFuture<Operation> future = poller.track("a");
+      poller.poll();
+
+      assertFalse(future.isDone());
+      assertEquals(poller.outstanding(), 1);
+
+      poller.poll();
+
+      assertEquals(future.get().getStatus(), Operation.Status.SUCCEEDED);
+      assertEquals(poller.outstanding(), 0);
+      verify(operationApi);
+   }
+
+   public void testEveryOutstandingOperationIsCheckedOnEachTick() throws Exception {
+      OperationAsyncApi operationApi = createMock(OperationAsyncApi.class);
+      expect(operationApi.get("a")).andReturn(immediateFuture(operation("a", Operation.Status.SUCCEEDED)));
+      expect(operationApi.get("b")).andReturn(immediateFuture(operation("b", Operation.Status.IN_PROGRESS)));
+      replay(operationApi);
+
+      OperationPoller poller = poller(operationApi, 60000);
+      ListenableFuture<Operation> a = poller.track("a");
+      ListenableFuture<Operation> b = poller.track("b");
+      poller.poll();
+
+      assertTrue(a.isDone());
+      assertFalse(b.isDone());
+      assertEquals(poller.outstanding(), 1);
+      verify(operationApi);
+   }
+
+   public void testTrackingTheSameRequestTwiceReturnsTheSameFuture() {
+      OperationAsyncApi operationApi = createMock(OperationAsyncApi.class);
+      replay(operationApi);
+
+      OperationPoller poller = poller(operationApi, 60000);
+
+      assertSame(poller.track("a"), poller.track("a"));
+      assertEquals(poller.outstanding(), 1);
+   }
+
+   public void testFailedOperationFailsTheFuture() throws Exception {
+      Operation failed = operation("a", Operation.Status.FAILED).toBuilder()
+            .error(Error.builder().rawCode("InternalError").code(Error.Code.INTERNAL_ERROR).message("boom").build())
+            .build();
+      OperationAsyncApi operationApi = createMock(OperationAsyncApi.class);
+      expect(operationApi.get("a")).andReturn(immediateFuture(failed));
+      replay(operationApi);
+
+      OperationPoller poller = poller(operationApi, 60000);
+      ListenableFuture<Operation> future = poller.track("a");
+      poller.poll();
+
+      assertTrue(failureOf(future) instanceof IllegalStateException);
+      assertEquals(poller.outstanding(), 0);
+      verify(operationApi);
+   }
+
+   public void testOperationNotFoundFailsTheFuture() throws Exception {
+      OperationAsyncApi operationApi = createMock(OperationAsyncApi.class);
+      expect(operationApi.get("a")).andReturn(immediateFuture((Operation) null));
+      replay(operationApi);
+
+      OperationPoller poller = poller(operationApi, 60000);
+      ListenableFuture<Operation> future = poller.track("a");
+      poller.poll();
+
+      assertTrue(failureOf(future) instanceof IllegalStateException);
+      verify(operationApi);
+   }
+
+   public void testFailedCheckIsRetriedOnTheNextTick() throws Exception {
+      OperationAsyncApi operationApi = createMock(OperationAsyncApi.class);
+      expect(operationApi.get("a")).andReturn(
+            Futures.<Operation> immediateFailedFuture(new RuntimeException("connection reset")));
+      expect(operationApi.get("a")).andReturn(immediateFuture(operation("a", Operation.Status.SUCCEEDED)));
+      replay(operationApi);
+
+      OperationPoller poller = poller(operationApi, 60000);
+      ListenableFuture<Operation> future = poller.track("a");
+      poller.poll();
+
+      assertFalse(future.isDone());
+
+      poller.poll();
+
+      assertEquals(future.get().getStatus(), Operation.Status.SUCCEEDED);
+      verify(operationApi);
+   }
+
+   public void testExpiredOperationTimesOutWithoutBeingChecked() throws Exception {
+      // no status check is expected
+      OperationAsyncApi operationApi = createMock(OperationAsyncApi.class);
+      replay(operationApi);
+
+      OperationPoller poller = poller(operationApi, -1);
+      ListenableFuture<Operation> future = poller.track("a");
+      poller.poll();
+
+      assertTrue(failureOf(future) instanceof TimeoutException);
+      assertEquals(poller.outstanding(), 0);
+      verify(operationApi);
+   }
+
+   public void testOperationWhoseStatusCannotBeReadFailsAndPollingGoesOn() throws Exception {
+      Operation unreadable = createMock(Operation.class);
+      expect(unreadable.getStatus()).andThrow(new IllegalArgumentException("unknown status"));
+      OperationAsyncApi operationApi = createMock(OperationAsyncApi.class);
+      expect(operationApi.get("a")).andReturn(immediateFuture(unreadable));
+      expect(operationApi.get("b")).andReturn(immediateFuture(operation("b", Operation.Status.IN_PROGRESS)));
+      AzureManagementAsyncApi api = createMock(AzureManagementAsyncApi.class);
+      expect(api.getOperationApi()).andReturn(operationApi).anyTimes();
+      ScheduledExecutorService scheduler = createMock(ScheduledExecutorService.class);
+      // once when tracking starts, and again after the tick for the operation left
+      expect(scheduler.schedule(anyObject(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS))).andReturn(null)
+            .times(2);
+      replay(unreadable, operationApi, api, scheduler);
+
+      OperationPoller poller = new OperationPoller(api, scheduler, 1000, 60000);
+      ListenableFuture<Operation> a = poller.track("a");
+      ListenableFuture<Operation> b = poller.track("b");
+      poller.poll();
+
+      assertTrue(failureOf(a) instanceof IllegalArgumentException);
+      assertFalse(b.isDone());
+      assertEquals(poller.outstanding(), 1);
+      verify(operationApi, scheduler);
+   }
+}
@@ -62,6 +62,7 @@ public class GetDeploymentTest extends BaseHandlerTest {
     		  .instanceSize(RoleSize.MEDIUM)
     		  .privateIpAddress("10.59.244.162")
     		  .publicIpAddress("168.63.27.148")
+    		  .sourceImageName("MSFT__Win2K8R2SP1-120612-1520-121206-01-en-us-30GB.vhd")
     		  .build();
    }
 
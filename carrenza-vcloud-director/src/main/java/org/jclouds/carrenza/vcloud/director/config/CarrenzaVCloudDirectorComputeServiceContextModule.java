@@ -16,24 +16,22 @@
  */
 package org.jclouds.carrenza.vcloud.director.config;
 
-import com.google.inject.AbstractModule;
+import org.jclouds.compute.options.TemplateOptions;
+import org.jclouds.vcloud.director.v1_5.compute.config.VCloudDirectorComputeServiceContextModule;
+import org.jclouds.vcloud.director.v1_5.compute.options.VCloudDirectorTemplateOptions;
+import org.jclouds.vcloud.director.v1_5.domain.network.NetworkConnection.IpAddressAllocationMode;
 
+import com.google.inject.Injector;
 
 /**
  * per docs, we are to use pool mode.
  * 
  * @author danikov
  */
-public class CarrenzaVCloudDirectorComputeServiceContextModule extends AbstractModule {
+public class CarrenzaVCloudDirectorComputeServiceContextModule extends VCloudDirectorComputeServiceContextModule {
 
    @Override
-   protected void configure() {
-      
-   } // FIXME: enable when compute service done
-//extends VCloudDirectorComputeServiceContextModule {
-//
-//   @Override
-//   protected TemplateOptions provideTemplateOptions(Injector injector, TemplateOptions options) {
-//      return options.as(VCloudDirectorTemplateOptions.class).ipAddressAllocationMode(IpAddressAllocationMode.POOL);
-//   }
+   protected TemplateOptions provideTemplateOptions(Injector injector, TemplateOptions options) {
+      return options.as(VCloudDirectorTemplateOptions.class).ipAddressAllocationMode(IpAddressAllocationMode.POOL);
+   }
 }
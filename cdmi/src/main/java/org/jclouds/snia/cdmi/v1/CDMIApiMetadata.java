@@ -16,11 +16,18 @@
  */
 package org.jclouds.snia.cdmi.v1;
 
+import static org.jclouds.reflect.Reflection2.typeToken;
+import static org.jclouds.snia.cdmi.v1.config.CDMIProperties.TRANSFER_CHUNK_SIZE;
+import static org.jclouds.snia.cdmi.v1.config.CDMIProperties.TRANSFER_CONCURRENCY;
+import static org.jclouds.snia.cdmi.v1.config.CDMIProperties.TRANSFER_MAX_RETRIES;
+
 import java.net.URI;
 import java.util.Properties;
 
+import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.rest.RestContext;
 import org.jclouds.rest.internal.BaseRestApiMetadata;
+import org.jclouds.snia.cdmi.v1.blobstore.config.CDMIBlobStoreContextModule;
 import org.jclouds.snia.cdmi.v1.config.CDMIRestClientModule;
 
 import com.google.common.collect.ImmutableSet;
@@ -53,6 +60,9 @@ public class CDMIApiMetadata extends BaseRestApiMetadata {
 
    public static Properties defaultProperties() {
       Properties properties = BaseRestApiMetadata.defaultProperties();
+      properties.setProperty(TRANSFER_CHUNK_SIZE, String.valueOf(8 * 1024 * 1024));
+      properties.setProperty(TRANSFER_CONCURRENCY, "4");
+      properties.setProperty(TRANSFER_MAX_RETRIES, "3");
       return properties;
    }
 
@@ -63,7 +73,9 @@ public class CDMIApiMetadata extends BaseRestApiMetadata {
          id("cdmi").name("SNIA CDMI API").identityName("tenantId:user").credentialName("password")
                   .documentation(URI.create("http://www.snia.org/cdmi")).version("1.0.1")
                   .defaultEndpoint("http://localhost:8080").defaultProperties(CDMIApiMetadata.defaultProperties())
-                  .defaultModules(ImmutableSet.<Class<? extends Module>> of(CDMIRestClientModule.class));
+                  .view(typeToken(BlobStoreContext.class))
+                  .defaultModules(ImmutableSet.<Class<? extends Module>> of(CDMIRestClientModule.class,
+                           CDMIBlobStoreContextModule.class));
       }
 
       @Override
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.snia.cdmi.v1.binders;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.util.Map;
+
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.rest.MapBinder;
+import org.jclouds.snia.cdmi.v1.ObjectTypes;
+import org.jclouds.snia.cdmi.v1.io.DataObjectValues;
+
+import com.google.common.base.Throwables;
+import com.google.gson.JsonObject;
+
+/**
+ * Binds a payload as the base64 encoded value of a CDMI data object document. The document is encoded as it is
+ * sent, so the value is never held in memory.
+ * 
+ * @see DataObjectValues#openDocument
+ */
+@Singleton
+public class BindStreamingValueToDataObjectPayload implements MapBinder {
+
+   @Override
+   public <R extends HttpRequest> R bindToRequest(R request, Object input) {
+      throw new IllegalStateException("BindStreamingValueToDataObjectPayload needs parameters");
+   }
+
+   @SuppressWarnings("unchecked")
+   @Override
+   public <R extends HttpRequest> R bindToRequest(R request, Map<String, Object> postParams) {
+      checkNotNull(request, "request");
+      Payload value = (Payload) checkNotNull(postParams.get("value"), "value");
+      Map<String, String> metadata = (Map<String, String>) postParams.get("metadata");
+
+      JsonObject fields = new JsonObject();
+      String mimetype = value.getContentMetadata().getContentType();
+      if (mimetype != null)
+         fields.addProperty("mimetype", mimetype);
+      if (metadata != null) {
+         JsonObject metadataObject = new JsonObject();
+         for (Map.Entry<String, String> entry : metadata.entrySet())
+            metadataObject.addProperty(entry.getKey(), entry.getValue());
+         fields.add("metadata", metadataObject);
+      }
+
+      Payload document;
+      try {
+         document = Payloads.newInputStreamPayload(DataObjectValues.openDocument(fields, value.openStream()));
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+      Long valueLength = value.getContentMetadata().getContentLength();
+      if (valueLength != null)
+         document.getContentMetadata().setContentLength(DataObjectValues.documentLength(fields, valueLength));
+      document.getContentMetadata().setContentType(ObjectTypes.DATAOBJECT);
+      return (R) request.toBuilder().payload(document).build();
+   }
+}
@@ -0,0 +1,458 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.snia.cdmi.v1.blobstore;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.lang.String.format;
+
+import java.io.IOException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.ContainerNotFoundException;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MutableBlobMetadata;
+import org.jclouds.blobstore.domain.MutableStorageMetadata;
+import org.jclouds.blobstore.domain.PageSet;
+import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.domain.StorageType;
+import org.jclouds.blobstore.domain.internal.MutableBlobMetadataImpl;
+import org.jclouds.blobstore.domain.internal.MutableStorageMetadataImpl;
+import org.jclouds.blobstore.domain.internal.PageSetImpl;
+import org.jclouds.blobstore.internal.BaseBlobStore;
+import org.jclouds.blobstore.options.CreateContainerOptions;
+import org.jclouds.blobstore.options.GetOptions;
+import org.jclouds.blobstore.options.ListContainerOptions;
+import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.blobstore.util.BlobUtils;
+import org.jclouds.collect.Memoized;
+import org.jclouds.domain.Location;
+import org.jclouds.io.Payload;
+import org.jclouds.snia.cdmi.v1.CDMIApi;
+import org.jclouds.snia.cdmi.v1.domain.Container;
+import org.jclouds.snia.cdmi.v1.domain.DataObject;
+import org.jclouds.snia.cdmi.v1.queryparams.ContainerQueryParams;
+import org.jclouds.snia.cdmi.v1.queryparams.DataObjectQueryParams;
+import org.jclouds.snia.cdmi.v1.strategy.DataObjectTransferManager;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Predicate;
+import com.google.common.base.Splitter;
+import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+
+/**
+ * Exposes CDMI as a portable {@link org.jclouds.blobstore.BlobStore}. Top level CDMI containers
+ * are blobstore containers, and the data objects and child containers under them are blobs and
+ * directories.
+ * <p/>
+ * Container listings are fetched one page at a time with the {@code children} range query
+ * parameter, and the marker of a page is the index of its first child. Child containers are
+ * returned as {@link StorageType#RELATIVE_PATH}. Recursive listings walk the child containers, so
+ * they cost one request per page of every directory listed, and their marker records where the
+ * walk is to be resumed.
+ */
+@Singleton
+public class CDMIBlobStore extends BaseBlobStore {
+
+   public static final int DEFAULT_PAGE_SIZE = 1000;
+
+   private static final String SIZE = "cdmi_size";
+
+   private final CDMIApi api;
+   private final DataObjectTransferManager transferManager;
+
+   @Inject
+   protected CDMIBlobStore(BlobStoreContext context, BlobUtils blobUtils, Supplier<Location> defaultLocation,
+            @Memoized Supplier<Set<? extends Location>> locations, CDMIApi api,
+            DataObjectTransferManager transferManager) {
+      super(context, blobUtils, defaultLocation, locations);
+      this.api = checkNotNull(api, "api");
+      this.transferManager = checkNotNull(transferManager, "transferManager");
+   }
+
+   @Override
+   public PageSet<? extends StorageMetadata> list() {
+      Container root = api.getApi().get("/", ContainerQueryParams.Builder.field("children"));
+      Set<StorageMetadata> containers = ImmutableSet.of();
+      if (root != null) {
+         ImmutableSet.Builder<StorageMetadata> builder = ImmutableSet.builder();
+         for (String child : childrenOf(root)) {
+            if (child.endsWith("/"))
+               builder.add(storageMetadata(StorageType.CONTAINER, stripTrailingSlash(child)));
+         }
+         containers = builder.build();
+      }
+      return new PageSetImpl<StorageMetadata>(containers, null);
+   }
+
+   @Override
+   public boolean containerExists(String container) {
+      return api.getApi().get(containerPath(container), ContainerQueryParams.Builder.field("objectName")) != null;
+   }
+
+   @Override
+   public boolean createContainerInLocation(Location location, String container) {
+      if (containerExists(container))
+         return false;
+      api.getApi().create(containerPath(container));
+      return true;
+   }
+
+   @Override
+   public boolean createContainerInLocation(Location location, String container, CreateContainerOptions options) {
+      return createContainerInLocation(location, container);
+   }
+
+   /**
+    * Lists a single page of the children of the container, or of the directory given in the
+    * options. Only that page is fetched from the server; recursive listings fetch the pages of the
+    * directories they descend into as they fill the page.
+    */
+   @Override
+   public PageSet<? extends StorageMetadata> list(String container, ListContainerOptions options) {
+      String dir = dirOf(options);
+      int pageSize = options.getMaxResults() != null ? options.getMaxResults() : DEFAULT_PAGE_SIZE;
+      if (options.isRecursive())
+         return new RecursiveListing(container, dir, options.getMarker()).nextPage(pageSize);
+      int from = options.getMarker() != null ? parseIndex(options.getMarker(), options.getMarker()) : 0;
+      return listPage(container, dir, from, pageSize);
+   }
+
+   private PageSet<StorageMetadata> listPage(String container, String dir, int from, int pageSize) {
+      Container page = api.getApi().get(containerPath(container) + dir,
+               ContainerQueryParams.Builder.field("children").children(from, from + pageSize - 1));
+      if (page == null)
+         throw new ContainerNotFoundException(container, format("listing %s%s", containerPath(container), dir));
+
+      ImmutableSet.Builder<StorageMetadata> children = ImmutableSet.builder();
+      Set<String> names = childrenOf(page);
+      for (String child : names) {
+         if (child.endsWith("/"))
+            children.add(storageMetadata(StorageType.RELATIVE_PATH, dir + stripTrailingSlash(child)));
+         else
+            children.add(storageMetadata(StorageType.BLOB, dir + child));
+      }
+      // a full page may be followed by an empty one, as the total is not known until then
+      String nextMarker = names.size() >= pageSize ? String.valueOf(from + pageSize) : null;
+      return new PageSetImpl<StorageMetadata>(children.build(), nextMarker);
+   }
+
+   /**
+    * Lists everything under a directory, each directory after its contents, resuming where the
+    * marker of the previous page left off.
+    * <p/>
+    * The marker holds the position reached in every directory from the listed one down to the
+    * deepest one being walked, followed by the path of that deepest directory, for example
+    * {@code 4.0.17:dir/sub/}. Resuming therefore only fetches the pages it continues from.
+    */
+   private class RecursiveListing {
+      private final String container;
+      private final String dir;
+      private final Deque<Level> levels = Lists.newLinkedList();
+
+      private RecursiveListing(String container, String dir, String marker) {
+         this.container = container;
+         this.dir = dir;
+         if (marker == null) {
+            levels.push(new Level(dir, 0));
+            return;
+         }
+         int separator = marker.indexOf(':');
+         checkArgument(separator > 0, "invalid marker %s", marker);
+         List<String> indices = Splitter.on('.').splitToList(marker.substring(0, separator));
+         String path = marker.substring(separator + 1);
+         List<String> dirs = path.isEmpty() ? ImmutableList.<String> of() : Splitter.on('/').splitToList(
+                  stripTrailingSlash(path));
+         checkArgument(path.isEmpty() || path.endsWith("/"), "invalid marker %s", marker);
+         checkArgument(indices.size() == dirs.size() + 1, "invalid marker %s", marker);
+         String levelDir = dir;
+         for (int i = 0; i < indices.size(); i++) {
+            if (i > 0) {
+               checkArgument(!dirs.get(i - 1).isEmpty(), "invalid marker %s", marker);
+               levelDir = levelDir + dirs.get(i - 1) + "/";
+            }
+            levels.push(new Level(levelDir, parseIndex(indices.get(i), marker)));
+         }
+      }
+
+      private PageSet<StorageMetadata> nextPage(int pageSize) {
+         List<StorageMetadata> entries = Lists.newArrayList();
+         while (entries.size() < pageSize) {
+            Level level = levels.peek();
+            StorageMetadata child = level.current();
+            if (child == null) {
+               // the directory is done, so its own entry in the parent comes next
+               levels.pop();
+               if (levels.isEmpty())
+                  break;
+               entries.add(levels.peek().current());
+               levels.peek().index++;
+            } else if (child.getType() == StorageType.RELATIVE_PATH) {
+               levels.push(new Level(child.getName() + "/", 0));
+            } else {
+               entries.add(child);
+               level.index++;
+            }
+         }
+         boolean more = levels.size() > 1 || (levels.size() == 1 && levels.peek().current() != null);
+         return new PageSetImpl<StorageMetadata>(entries, more ? marker() : null);
+      }
+
+      private String marker() {
+         List<Integer> indices = Lists.newArrayList();
+         for (Iterator<Level> fromTop = levels.descendingIterator(); fromTop.hasNext();)
+            indices.add(fromTop.next().index);
+         return Joiner.on('.').join(indices) + ":" + levels.peek().dir.substring(dir.length());
+      }
+
+      /**
+       * A directory being walked, and the page of its children holding the current one.
+       */
+      private class Level {
+         private final String dir;
+         private int index;
+         private List<StorageMetadata> page = ImmutableList.of();
+         private int pageStart;
+         private boolean last;
+
+         private Level(String dir, int index) {
+            this.dir = dir;
+            this.index = index;
+         }
+
+         /**
+          * @return the child at the index, or null past the last one
+          */
+         private StorageMetadata current() {
+            if (index < pageStart || index >= pageStart + page.size()) {
+               if (last && index >= pageStart + page.size())
+                  return null;
+               PageSet<StorageMetadata> next = listPage(container, dir, index, DEFAULT_PAGE_SIZE);
+               page = ImmutableList.copyOf(next);
+               pageStart = index;
+               last = next.getNextMarker() == null;
+               if (page.isEmpty())
+                  return null;
+            }
+            return page.get(index - pageStart);
+         }
+      }
+   }
+
+   /**
+    * Visits everything under the directory depth first, each directory after its contents.
+    */
+   private void walk(String container, String dir, Predicate<StorageMetadata> visitor) {
+      String marker = "0";
+      while (marker != null) {
+         PageSet<StorageMetadata> page = listPage(container, dir, Integer.parseInt(marker), DEFAULT_PAGE_SIZE);
+         for (StorageMetadata child : page) {
+            if (child.getType() == StorageType.RELATIVE_PATH)
+               walk(container, child.getName() + "/", visitor);
+            visitor.apply(child);
+         }
+         marker = page.getNextMarker();
+      }
+   }
+
+   /**
+    * Without the recursive option, the count is read from the {@code childrenrange} of the
+    * container or directory, so it includes its child containers and no child is downloaded.
+    * Recursive counts walk the child containers and only count their data objects.
+    */
+   @Override
+   public long countBlobs(String container, ListContainerOptions options) {
+      String dir = dirOf(options);
+      if (!options.isRecursive()) {
+         Container listed = api.getApi().get(containerPath(container) + dir,
+                  ContainerQueryParams.Builder.field("childrenrange"));
+         if (listed == null)
+            throw new ContainerNotFoundException(container, format("counting %s%s", containerPath(container), dir));
+         return countOf(listed.getChildrenRange());
+      }
+      final long[] count = { 0 };
+      walk(container, dir, new Predicate<StorageMetadata>() {
+         @Override
+         public boolean apply(StorageMetadata input) {
+            if (input.getType() == StorageType.BLOB)
+               count[0]++;
+            return true;
+         }
+      });
+      return count[0];
+   }
+
+   @Override
+   public boolean blobExists(String container, String key) {
+      return api.getDataApiForContainer(container).get(key, DataObjectQueryParams.Builder.field("objectName")) != null;
+   }
+
+   /**
+    * Uploads the value of the blob as it is read. Multipart puts of blobs without user metadata go
+    * through the {@link DataObjectTransferManager}, which sends the value in ranged parts, and the
+    * id of the data object is fetched once they are all sent.
+    * 
+    * @return the object id of the data object
+    */
+   @Override
+   public String putBlob(String container, Blob blob, PutOptions options) {
+      Map<String, String> userMetadata = blob.getMetadata().getUserMetadata();
+      if (options.isMultipart() && userMetadata.isEmpty()) {
+         try {
+            transferManager.upload(container, blob.getMetadata().getName(), blob.getPayload());
+         } catch (IOException e) {
+            throw Throwables.propagate(e);
+         }
+         DataObject uploaded = api.getDataApiForContainer(container).get(blob.getMetadata().getName(),
+                  DataObjectQueryParams.Builder.field("objectID"));
+         return uploaded != null ? uploaded.getObjectID() : null;
+      }
+      DataObject created = api.getDataApiForContainer(container).create(blob.getMetadata().getName(),
+               blob.getPayload(), userMetadata);
+      return created != null ? created.getObjectID() : null;
+   }
+
+   @Override
+   public String putBlob(String container, Blob blob) {
+      return putBlob(container, blob, PutOptions.NONE);
+   }
+
+   /**
+    * Fetches only the mimetype and metadata fields of the data object.
+    */
+   @Override
+   public BlobMetadata blobMetadata(String container, String key) {
+      DataObject object = api.getDataApiForContainer(container).get(key,
+               DataObjectQueryParams.Builder.field("objectID").field("mimetype").metadata());
+      return object != null ? blobMetadata(container, key, object) : null;
+   }
+
+   /**
+    * Streams the value of the blob. Byte ranges in the options are sent as a {@code Range} header;
+    * conditional options are not supported by CDMI and are ignored.
+    */
+   @Override
+   public Blob getBlob(String container, String key, GetOptions options) {
+      MutableBlobMetadata metadata = (MutableBlobMetadata) blobMetadata(container, key);
+      if (metadata == null)
+         return null;
+      Payload value = options.getRanges().isEmpty() ? api.getDataNonCDMIContentTypeApiForContainer(container)
+               .getValue(key) : api.getDataNonCDMIContentTypeApiForContainer(container).getValue(key,
+               "bytes=" + Joiner.on(',').join(options.getRanges()));
+      if (value == null)
+         return null;
+      if (value.getContentMetadata().getContentType() == null)
+         value.getContentMetadata().setContentType(metadata.getContentMetadata().getContentType());
+      Blob blob = blobBuilder(key).payload(value).userMetadata(metadata.getUserMetadata()).build();
+      blob.getMetadata().setContainer(container);
+      blob.getMetadata().setId(metadata.getId());
+      return blob;
+   }
+
+   @Override
+   public void removeBlob(String container, String key) {
+      api.getDataApiForContainer(container).delete(key);
+   }
+
+   /**
+    * Deleting a CDMI container also deletes its children.
+    */
+   @Override
+   protected boolean deleteAndVerifyContainerGone(String container) {
+      api.getApi().delete(containerPath(container));
+      return !containerExists(container);
+   }
+
+   private static MutableBlobMetadata blobMetadata(String container, String key, DataObject object) {
+      MutableBlobMetadata metadata = new MutableBlobMetadataImpl();
+      metadata.setType(StorageType.BLOB);
+      metadata.setContainer(container);
+      metadata.setName(key);
+      metadata.setId(object.getObjectID());
+      metadata.setUserMetadata(object.getUserMetadata());
+      if (object.getMimetype() != null && !object.getMimetype().isEmpty())
+         metadata.getContentMetadata().setContentType(object.getMimetype());
+      String size = object.getSystemMetadata().get(SIZE);
+      if (size != null)
+         metadata.getContentMetadata().setContentLength(Longs.tryParse(size));
+      return metadata;
+   }
+
+   /**
+    * @return the number of children in a {@code childrenrange} such as {@code 0-41}; an empty
+    *         container has an empty or no range
+    */
+   private static long countOf(String childrenRange) {
+      if (childrenRange == null || childrenRange.isEmpty())
+         return 0;
+      int dash = childrenRange.indexOf('-');
+      if (dash < 0)
+         return 1;
+      Long from = Longs.tryParse(childrenRange.substring(0, dash));
+      Long to = Longs.tryParse(childrenRange.substring(dash + 1));
+      checkState(from != null && to != null && to >= from, "invalid childrenrange %s", childrenRange);
+      return to - from + 1;
+   }
+
+   private static int parseIndex(String index, String marker) {
+      Integer parsed = Ints.tryParse(index);
+      checkArgument(parsed != null && parsed >= 0, "invalid marker %s", marker);
+      return parsed;
+   }
+
+   private static String dirOf(ListContainerOptions options) {
+      return options.getDir() != null ? stripTrailingSlash(options.getDir()) + "/" : "";
+   }
+
+   private static MutableStorageMetadata storageMetadata(StorageType type, String name) {
+      MutableStorageMetadata metadata = new MutableStorageMetadataImpl();
+      metadata.setType(type);
+      metadata.setName(name);
+      return metadata;
+   }
+
+   /**
+    * fields left out of a response are not set on the parsed container
+    */
+   private static Set<String> childrenOf(Container container) {
+      return container.getChildren() != null ? container.getChildren() : ImmutableSet.<String> of();
+   }
+
+   private static String containerPath(String container) {
+      return stripTrailingSlash(container) + "/";
+   }
+
+   private static String stripTrailingSlash(String name) {
+      return name.endsWith("/") ? name.substring(0, name.length() - 1) : name;
+   }
+}
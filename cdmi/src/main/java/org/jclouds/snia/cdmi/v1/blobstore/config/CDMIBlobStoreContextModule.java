@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.snia.cdmi.v1.blobstore.config;
+
+import org.jclouds.blobstore.AsyncBlobStore;
+import org.jclouds.blobstore.BlobRequestSigner;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.attr.ConsistencyModel;
+import org.jclouds.blobstore.config.BlobStoreMapModule;
+import org.jclouds.blobstore.config.BlobStoreObjectModule;
+import org.jclouds.blobstore.internal.RequestSigningUnsupported;
+import org.jclouds.blobstore.internal.SubmissionAsyncBlobStore;
+import org.jclouds.snia.cdmi.v1.blobstore.CDMIBlobStore;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Scopes;
+
+/**
+ * Configures the {@link org.jclouds.blobstore.BlobStoreContext} view of CDMI.
+ */
+public class CDMIBlobStoreContextModule extends AbstractModule {
+
+   @Override
+   protected void configure() {
+      install(new BlobStoreObjectModule());
+      install(new BlobStoreMapModule());
+      bind(ConsistencyModel.class).toInstance(ConsistencyModel.STRICT);
+      bind(BlobStore.class).to(CDMIBlobStore.class).in(Scopes.SINGLETON);
+      bind(AsyncBlobStore.class).to(SubmissionAsyncBlobStore.class).in(Scopes.SINGLETON);
+      bind(BlobRequestSigner.class).to(RequestSigningUnsupported.class);
+   }
+}
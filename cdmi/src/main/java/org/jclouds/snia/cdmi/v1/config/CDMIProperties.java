@@ -23,4 +23,21 @@ package org.jclouds.snia.cdmi.v1.config;
  */
 public class CDMIProperties {
 
+   /**
+    * Size in bytes of the ranges fetched and the parts sent by the
+    * {@link org.jclouds.snia.cdmi.v1.strategy.DataObjectTransferManager}. Objects no larger than
+    * this are transferred in a single request.
+    */
+   public static final String TRANSFER_CHUNK_SIZE = "jclouds.cdmi.transfer.chunk-size";
+
+   /**
+    * Maximum number of ranges of a single object downloaded at the same time.
+    */
+   public static final String TRANSFER_CONCURRENCY = "jclouds.cdmi.transfer.concurrency";
+
+   /**
+    * Number of times a failed range or part is retried before the transfer is abandoned.
+    */
+   public static final String TRANSFER_MAX_RETRIES = "jclouds.cdmi.transfer.max-retries";
+
 }
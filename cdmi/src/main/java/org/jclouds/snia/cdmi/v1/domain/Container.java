@@ -21,6 +21,10 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.Set;
 
+import javax.inject.Named;
+
+import org.jclouds.javax.annotation.Nullable;
+
 import com.google.common.base.Objects;
 import com.google.common.base.Objects.ToStringHelper;
 import com.google.common.collect.ImmutableSet;
@@ -43,6 +47,7 @@ public class Container extends CDMIObject {
    public static class Builder<B extends Builder<B>> extends CDMIObject.Builder<B> {
 
       private Set<String> children = ImmutableSet.of();
+      private String childrenRange;
 
       /**
        * @see Container#getChildren()
@@ -59,13 +64,21 @@ public class Container extends CDMIObject {
          return self();
       }
 
+      /**
+       * @see Container#getChildrenRange()
+       */
+      public B childrenRange(String childrenRange) {
+         this.childrenRange = childrenRange;
+         return self();
+      }
+
       @Override
       public Container build() {
          return new Container(this);
       }
 
       public B fromContainer(Container in) {
-         return fromCDMIObject(in).children(in.getChildren());
+         return fromCDMIObject(in).children(in.getChildren()).childrenRange(in.getChildrenRange());
          // .metadata(in.getMetadata());
       }
    }
@@ -74,10 +87,13 @@ public class Container extends CDMIObject {
    }
 
    private final Set<String> children;
+   @Named("childrenrange")
+   private final String childrenRange;
 
    protected Container(Builder<?> builder) {
       super(builder);
       this.children = ImmutableSet.copyOf(checkNotNull(builder.children, "children"));
+      this.childrenRange = builder.childrenRange;
    }
 
    /**
@@ -87,6 +103,16 @@ public class Container extends CDMIObject {
       return children;
    }
 
+   /**
+    * Range of the children returned, in the form "from-to", or an empty string if the container has
+    * no children. When the container is fetched with only this field, it gives the number of
+    * children without listing them.
+    */
+   @Nullable
+   public String getChildrenRange() {
+      return childrenRange;
+   }
+
    @Override
    public boolean equals(Object o) {
       if (this == o)
@@ -94,17 +120,18 @@ public class Container extends CDMIObject {
       if (o == null || getClass() != o.getClass())
          return false;
       Container that = Container.class.cast(o);
-      return super.equals(that) && equal(this.children, that.children);
+      return super.equals(that) && equal(this.children, that.children)
+               && equal(this.childrenRange, that.childrenRange);
    }
 
    @Override
    public int hashCode() {
-      return Objects.hashCode(super.hashCode(), children);
+      return Objects.hashCode(super.hashCode(), children, childrenRange);
    }
 
    @Override
    public ToStringHelper string() {
-      return super.string().add("children", children);
+      return super.string().add("children", children).add("childrenRange", childrenRange);
    }
 
 }
@@ -16,6 +16,9 @@
  */
 package org.jclouds.snia.cdmi.v1.features;
 
+import java.util.Map;
+
+import org.jclouds.io.Payload;
 import org.jclouds.snia.cdmi.v1.domain.DataObject;
 import org.jclouds.snia.cdmi.v1.options.CreateDataObjectOptions;
 import org.jclouds.snia.cdmi.v1.queryparams.DataObjectQueryParams;
@@ -93,6 +96,72 @@ public interface DataApi {
     */
    DataObject create(String dataObjectName, CreateDataObjectOptions... options);
 
+   /**
+    * get the value of a CDMI Data object as a stream. Unlike {@link #get(String)}, the value is decoded as it is read
+    * and never held in memory, so this is suitable for large objects.
+    * 
+    * 
+    * @param dataObjectName
+    *           dataObjectName must not end with a forward slash, /.
+    * @return the value of the data object, or null if it does not exist
+    * 
+    *         <pre>
+    *  Examples: 
+    *  {@code
+    *  Payload value = getValue("myDataObject");
+    *  ByteStreams.copy(value.openStream(), new FileOutputStream("myFile"));
+    * }
+    * 
+    *         <pre>
+    */
+   Payload getValue(String dataObjectName);
+
+   /**
+    * create CDMI Data object, streaming its value. The value is base64 encoded as it is sent and the mimetype is
+    * taken from the payload's content type.
+    * 
+    * 
+    * @param dataObjectName
+    *           dataObjectName must not end with a forward slash, /.
+    * @param value
+    *           the value of the data object
+    * @return DataObject
+    * 
+    *         <pre>
+    *  Examples: 
+    *  {@code
+    *  Payload value = Payloads.newFilePayload(new File("yellow-flowers.jpg"));
+    *  value.getContentMetadata().setContentType("image/jpeg");
+    *  dataObject = create("myDataObject", value);
+    * }
+    * 
+    *         <pre>
+    */
+   DataObject create(String dataObjectName, Payload value);
+
+   /**
+    * create CDMI Data object with metadata, streaming its value.
+    * 
+    * 
+    * @param dataObjectName
+    *           dataObjectName must not end with a forward slash, /.
+    * @param value
+    *           the value of the data object
+    * @param metadata
+    *           user metadata of the data object
+    * @return DataObject
+    * 
+    *         <pre>
+    *  Examples: 
+    *  {@code
+    *  dataObject = create("myDataObject", Payloads.newInputStreamPayload(inputStream),
+    *           ImmutableMap.of("key1", "value1"));
+    * }
+    * 
+    *         <pre>
+    */
+   DataObject create(String dataObjectName, Payload value, Map<String, String> metadata);
+
    /**
     * delete CDMI Data object
     * 
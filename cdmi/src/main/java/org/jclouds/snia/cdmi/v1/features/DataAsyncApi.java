@@ -16,6 +16,8 @@
  */
 package org.jclouds.snia.cdmi.v1.features;
 
+import java.util.Map;
+
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -26,15 +28,21 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 
 import org.jclouds.Fallbacks.NullOnNotFoundOr404;
+import org.jclouds.io.Payload;
 import org.jclouds.rest.annotations.BinderParam;
 import org.jclouds.rest.annotations.Fallback;
 import org.jclouds.rest.annotations.Headers;
+import org.jclouds.rest.annotations.MapBinder;
+import org.jclouds.rest.annotations.PayloadParam;
 import org.jclouds.rest.annotations.RequestFilters;
+import org.jclouds.rest.annotations.ResponseParser;
 import org.jclouds.snia.cdmi.v1.ObjectTypes;
 import org.jclouds.snia.cdmi.v1.binders.BindQueryParmsToSuffix;
+import org.jclouds.snia.cdmi.v1.binders.BindStreamingValueToDataObjectPayload;
 import org.jclouds.snia.cdmi.v1.domain.DataObject;
 import org.jclouds.snia.cdmi.v1.filters.BasicAuthenticationAndTenantId;
 import org.jclouds.snia.cdmi.v1.filters.StripExtraAcceptHeader;
+import org.jclouds.snia.cdmi.v1.functions.ParseDataObjectValue;
 import org.jclouds.snia.cdmi.v1.options.CreateDataObjectOptions;
 import org.jclouds.snia.cdmi.v1.queryparams.DataObjectQueryParams;
 
@@ -80,6 +88,38 @@ public interface DataAsyncApi {
    ListenableFuture<DataObject> create(@PathParam("dataObjectName") String dataObjectName,
             CreateDataObjectOptions... options);
 
+   /**
+    * @see DataApi#getValue(String dataObjectName)
+    */
+   @GET
+   @Consumes({ ObjectTypes.DATAOBJECT, MediaType.APPLICATION_JSON })
+   @ResponseParser(ParseDataObjectValue.class)
+   @Fallback(NullOnNotFoundOr404.class)
+   @Path("/{dataObjectName}")
+   ListenableFuture<Payload> getValue(@PathParam("dataObjectName") String dataObjectName);
+
+   /**
+    * @see DataApi#create(String dataObjectName, Payload value)
+    */
+   @PUT
+   @Consumes({ ObjectTypes.DATAOBJECT, MediaType.APPLICATION_JSON })
+   @Fallback(NullOnNotFoundOr404.class)
+   @Path("/{dataObjectName}")
+   @MapBinder(BindStreamingValueToDataObjectPayload.class)
+   ListenableFuture<DataObject> create(@PathParam("dataObjectName") String dataObjectName,
+            @PayloadParam("value") Payload value);
+
+   /**
+    * @see DataApi#create(String dataObjectName, Payload value, Map metadata)
+    */
+   @PUT
+   @Consumes({ ObjectTypes.DATAOBJECT, MediaType.APPLICATION_JSON })
+   @Fallback(NullOnNotFoundOr404.class)
+   @Path("/{dataObjectName}")
+   @MapBinder(BindStreamingValueToDataObjectPayload.class)
+   ListenableFuture<DataObject> create(@PathParam("dataObjectName") String dataObjectName,
+            @PayloadParam("value") Payload value, @PayloadParam("metadata") Map<String, String> metadata);
+
    /**
     * @see DataApi#delete(String dataObjectName)
     */
@@ -149,6 +149,50 @@ public interface DataNonCDMIContentTypeApi {
     */
    void createPartial(String dataObjectName, Payload payload);
 
+   /**
+    * create CDMI Data object partial Non CDMI Content Type, writing the payload at the given byte
+    * range of the object. The X-CDMI-Partial header flag is set to true, so further parts are
+    * expected.
+    * 
+    * @param dataObjectName
+    *           dataObjectName must not end with a forward slash, /.
+    * @param payload
+    *           the bytes of this part
+    * @param contentRange
+    *           a valid content-range-spec (see RFC2616 Section 14.16)
+    * 
+    *           <pre>
+    *  Examples: 
+    *  {@code
+    *  createPartial("myDataObject", new ByteArrayPayload(firstPart), "bytes 0-1023/*");
+    * }
+    * 
+    *           <pre>
+    */
+   void createPartial(String dataObjectName, Payload payload, String contentRange);
+
+   /**
+    * create CDMI Data object Non CDMI Content Type, writing the payload at the given byte range of
+    * the object. Used to send the last part of an object created with
+    * {@link #createPartial(String, Payload, String)}.
+    * 
+    * @param dataObjectName
+    *           dataObjectName must not end with a forward slash, /.
+    * @param payload
+    *           the bytes of this part
+    * @param contentRange
+    *           a valid content-range-spec (see RFC2616 Section 14.16)
+    * 
+    *           <pre>
+    *  Examples: 
+    *  {@code
+    *  create("myDataObject", new ByteArrayPayload(lastPart), "bytes 1024-1535/1536");
+    * }
+    * 
+    *           <pre>
+    */
+   void create(String dataObjectName, Payload payload, String contentRange);
+
    /**
     * create CDMI Data object Non CDMI Content Type
     * 
@@ -106,6 +106,29 @@ public interface DataNonCDMIContentTypeAsyncApi {
    ListenableFuture<Void> createPartial(@PathParam("dataObjectName") String dataObjectName,
             org.jclouds.io.Payload payload);
 
+   /**
+    * @see DataNonCDMIContentTypeApi#createPartial(String dataObjectName, org.jclouds.io.Payload
+    *      payload, String contentRange)
+    */
+   @PUT
+   @Consumes(MediaType.MEDIA_TYPE_WILDCARD)
+   @Fallback(NullOnNotFoundOr404.class)
+   @Path("/{dataObjectName}")
+   @Headers(keys = "X-CDMI-Partial", values = "true")
+   ListenableFuture<Void> createPartial(@PathParam("dataObjectName") String dataObjectName,
+            org.jclouds.io.Payload payload, @HeaderParam("Content-Range") String contentRange);
+
+   /**
+    * @see DataNonCDMIContentTypeApi#create(String dataObjectName, org.jclouds.io.Payload payload,
+    *      String contentRange)
+    */
+   @PUT
+   @Consumes(MediaType.MEDIA_TYPE_WILDCARD)
+   @Fallback(NullOnNotFoundOr404.class)
+   @Path("/{dataObjectName}")
+   ListenableFuture<Void> create(@PathParam("dataObjectName") String dataObjectName,
+            org.jclouds.io.Payload payload, @HeaderParam("Content-Range") String contentRange);
+
    /**
     * @see DataNonCDMIContentTypeApi#create(String dataObjectName, String input )
     */
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.snia.cdmi.v1.functions;
+
+import java.io.IOException;
+
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.snia.cdmi.v1.io.DataObjectValues;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+
+/**
+ * Returns the value of a CDMI data object as a stream, decoding it from the response as it is read rather than
+ * buffering the whole document.
+ * 
+ * @see DataObjectValues#openValue
+ */
+@Singleton
+public class ParseDataObjectValue implements Function<HttpResponse, Payload> {
+
+   public Payload apply(HttpResponse from) {
+      try {
+         return Payloads.newInputStreamPayload(DataObjectValues.openValue(from.getPayload().openStream()));
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+   }
+}
@@ -0,0 +1,339 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.snia.cdmi.v1.io;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map.Entry;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.ByteStreams;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Streams the {@code value} field of a CDMI data object json document without buffering the document.
+ * <p/>
+ * On write, {@link #openDocument} wraps a value stream into a document with a base64 {@code value}, encoding as the
+ * document is read. On read, {@link #openValue} returns the value of a document as it is parsed.
+ * <p/>
+ * The top-level fields are scanned in order. Fields other than {@code value} are skipped, except
+ * {@code valuetransferencoding}, which is remembered. When the {@code value} string is reached after the transfer
+ * encoding, its unescaped utf-8 bytes are returned as they are read, base64-decoded if the encoding is
+ * {@code base64}. A value that comes before its transfer encoding can only be decoded once the encoding is known, so
+ * it is held in memory until the end of the document.
+ */
+public final class DataObjectValues {
+
+   private static final byte[] DOCUMENT_SUFFIX = "\"}".getBytes(Charsets.UTF_8);
+
+   private DataObjectValues() {
+   }
+
+   /**
+    * @param json
+    *           a CDMI data object document, encoded in utf-8
+    * @return the decoded value, or an empty stream if the document has no {@code value} field
+    */
+   public static InputStream openValue(InputStream json) throws IOException {
+      InputStream buffered = new BufferedInputStream(checkNotNull(json, "json"));
+      String transferEncoding = null;
+      byte[] valueBeforeEncoding = null;
+      int c = skipWhitespace(buffered);
+      if (c != '{')
+         throw new IOException("expected json object, got " + describe(c));
+      c = skipWhitespace(buffered);
+      while (c != '}') {
+         if (c != '"')
+            throw new IOException("expected field name, got " + describe(c));
+         String name = readString(buffered);
+         if (skipWhitespace(buffered) != ':')
+            throw new IOException("expected : after field " + name);
+         c = skipWhitespace(buffered);
+         if ("value".equals(name) && c == '"') {
+            JsonStringInputStream value = new JsonStringInputStream(buffered);
+            if (transferEncoding != null)
+               return decode(value, transferEncoding);
+            valueBeforeEncoding = ByteStreams.toByteArray(value);
+            c = skipWhitespace(buffered);
+         } else if ("valuetransferencoding".equals(name) && c == '"') {
+            transferEncoding = readString(buffered);
+            c = skipWhitespace(buffered);
+         } else {
+            c = skipValue(buffered, c);
+         }
+         if (c == ',')
+            c = skipWhitespace(buffered);
+         else if (c != '}')
+            throw new IOException("expected , or } after field " + name + ", got " + describe(c));
+      }
+      buffered.close();
+      if (valueBeforeEncoding == null)
+         return new ByteArrayInputStream(new byte[0]);
+      return decode(new ByteArrayInputStream(valueBeforeEncoding), transferEncoding);
+   }
+
+   private static InputStream decode(InputStream value, String transferEncoding) {
+      if ("base64".equalsIgnoreCase(transferEncoding))
+         return BaseEncoding.base64().decodingStream(new InputStreamReader(value, Charsets.US_ASCII));
+      return value;
+   }
+
+   /**
+    * @param fields
+    *           the fields of the document other than the value, such as {@code mimetype} or {@code metadata}
+    * @param value
+    *           the raw value
+    * @return a CDMI data object document, encoded in utf-8, whose value is {@code value} encoded in base64
+    */
+   public static InputStream openDocument(JsonObject fields, InputStream value) {
+      return new SequenceInputStream(Collections.enumeration(Arrays.<InputStream> asList(
+            new ByteArrayInputStream(documentPrefix(fields)), new Base64EncodingInputStream(value),
+            new ByteArrayInputStream(DOCUMENT_SUFFIX))));
+   }
+
+   /**
+    * @return the length of the document returned by {@link #openDocument} for a value of {@code valueLength} bytes
+    */
+   public static long documentLength(JsonObject fields, long valueLength) {
+      return documentPrefix(fields).length + (valueLength + 2) / 3 * 4 + DOCUMENT_SUFFIX.length;
+   }
+
+   private static byte[] documentPrefix(JsonObject fields) {
+      JsonObject copy = new JsonObject();
+      for (Entry<String, JsonElement> field : checkNotNull(fields, "fields").entrySet()) {
+         if (!"value".equals(field.getKey()) && !"valuetransferencoding".equals(field.getKey()))
+            copy.add(field.getKey(), field.getValue());
+      }
+      copy.addProperty("valuetransferencoding", "base64");
+      String json = copy.toString();
+      return (json.substring(0, json.length() - 1) + ",\"value\":\"").getBytes(Charsets.UTF_8);
+   }
+
+   private static String readString(InputStream json) throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      InputStream string = new JsonStringInputStream(json);
+      for (int c = string.read(); c != -1; c = string.read())
+         out.write(c);
+      return new String(out.toByteArray(), Charsets.UTF_8);
+   }
+
+   /**
+    * skips the value starting with {@code first} and returns the first non-whitespace character after it
+    */
+   private static int skipValue(InputStream json, int first) throws IOException {
+      if (first == '"') {
+         readString(json);
+      } else if (first == '{' || first == '[') {
+         int depth = 1;
+         while (depth > 0) {
+            int c = read(json);
+            if (c == '"')
+               readString(json);
+            else if (c == '{' || c == '[')
+               depth++;
+            else if (c == '}' || c == ']')
+               depth--;
+         }
+      } else {
+         // number, true, false or null
+         int c = first;
+         while (c != ',' && c != '}' && !isWhitespace(c))
+            c = read(json);
+         return isWhitespace(c) ? skipWhitespace(json) : c;
+      }
+      return skipWhitespace(json);
+   }
+
+   private static int skipWhitespace(InputStream json) throws IOException {
+      int c;
+      do {
+         c = read(json);
+      } while (isWhitespace(c));
+      return c;
+   }
+
+   private static boolean isWhitespace(int c) {
+      return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+   }
+
+   private static int read(InputStream json) throws IOException {
+      int c = json.read();
+      if (c == -1)
+         throw new EOFException("unexpected end of json document");
+      return c;
+   }
+
+   private static String describe(int c) {
+      return "'" + (char) c + "'";
+   }
+
+   /**
+    * Encodes a stream in base64 as it is read. Input is consumed in blocks that are a multiple of three bytes, so
+    * padding only appears at the end.
+    */
+   private static class Base64EncodingInputStream extends InputStream {
+      private final InputStream raw;
+      private final byte[] block = new byte[3 * 1024];
+      private byte[] encoded = new byte[0];
+      private int position;
+      private boolean eof;
+
+      private Base64EncodingInputStream(InputStream raw) {
+         this.raw = checkNotNull(raw, "raw");
+      }
+
+      @Override
+      public int read() throws IOException {
+         if (!fill())
+            return -1;
+         return encoded[position++] & 0xff;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         if (len == 0)
+            return 0;
+         if (!fill())
+            return -1;
+         int n = Math.min(len, encoded.length - position);
+         System.arraycopy(encoded, position, b, off, n);
+         position += n;
+         return n;
+      }
+
+      private boolean fill() throws IOException {
+         while (position == encoded.length) {
+            if (eof)
+               return false;
+            int n = ByteStreams.read(raw, block, 0, block.length);
+            eof = n < block.length;
+            encoded = BaseEncoding.base64().encode(block, 0, n).getBytes(Charsets.US_ASCII);
+            position = 0;
+         }
+         return true;
+      }
+
+      @Override
+      public void close() throws IOException {
+         raw.close();
+      }
+   }
+
+   /**
+    * Reads the unescaped utf-8 bytes of a json string whose opening quote has been consumed, stopping at the closing
+    * quote.
+    */
+   private static class JsonStringInputStream extends InputStream {
+      private final InputStream json;
+      private final byte[] pending = new byte[3];
+      private int pendingStart;
+      private int pendingEnd;
+      private boolean done;
+
+      private JsonStringInputStream(InputStream json) {
+         this.json = json;
+      }
+
+      @Override
+      public int read() throws IOException {
+         if (pendingStart < pendingEnd)
+            return pending[pendingStart++] & 0xff;
+         if (done)
+            return -1;
+         int c = DataObjectValues.read(json);
+         if (c == '"') {
+            done = true;
+            return -1;
+         }
+         if (c != '\\')
+            return c;
+         c = DataObjectValues.read(json);
+         switch (c) {
+            case 'b':
+               return '\b';
+            case 'f':
+               return '\f';
+            case 'n':
+               return '\n';
+            case 'r':
+               return '\r';
+            case 't':
+               return '\t';
+            case 'u':
+               return unicodeEscape();
+            default:
+               // \" \\ and \/
+               return c;
+         }
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         if (len == 0)
+            return 0;
+         int n = 0;
+         for (int c = read(); c != -1; c = read()) {
+            b[off + n++] = (byte) c;
+            if (n == len)
+               break;
+         }
+         return n == 0 ? -1 : n;
+      }
+
+      private int unicodeEscape() throws IOException {
+         int codePoint = hex4();
+         if (Character.isHighSurrogate((char) codePoint)) {
+            if (DataObjectValues.read(json) != '\\' || DataObjectValues.read(json) != 'u')
+               throw new IOException("unpaired surrogate in json string");
+            codePoint = Character.toCodePoint((char) codePoint, (char) hex4());
+         }
+         byte[] utf8 = new String(Character.toChars(codePoint)).getBytes(Charsets.UTF_8);
+         System.arraycopy(utf8, 1, pending, 0, utf8.length - 1);
+         pendingStart = 0;
+         pendingEnd = utf8.length - 1;
+         return utf8[0] & 0xff;
+      }
+
+      private int hex4() throws IOException {
+         int value = 0;
+         for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(DataObjectValues.read(json), 16);
+            if (digit == -1)
+               throw new IOException("invalid unicode escape in json string");
+            value = (value << 4) | digit;
+         }
+         return value;
+      }
+
+      @Override
+      public void close() throws IOException {
+         json.close();
+      }
+   }
+}
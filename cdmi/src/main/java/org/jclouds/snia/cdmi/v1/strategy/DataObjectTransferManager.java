@@ -0,0 +1,340 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.snia.cdmi.v1.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.String.format;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.snia.cdmi.v1.config.CDMIProperties.TRANSFER_CHUNK_SIZE;
+import static org.jclouds.snia.cdmi.v1.config.CDMIProperties.TRANSFER_CONCURRENCY;
+import static org.jclouds.snia.cdmi.v1.config.CDMIProperties.TRANSFER_MAX_RETRIES;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.logging.Logger;
+import org.jclouds.rest.AuthorizationException;
+import org.jclouds.rest.ResourceNotFoundException;
+import org.jclouds.snia.cdmi.v1.CDMIApi;
+import org.jclouds.snia.cdmi.v1.domain.DataObject;
+import org.jclouds.snia.cdmi.v1.features.DataNonCDMIContentTypeApi;
+import org.jclouds.snia.cdmi.v1.queryparams.DataObjectQueryParams;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closer;
+import com.google.common.primitives.Longs;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Transfers large data objects in chunks.
+ * <p/>
+ * Downloads split the value into byte ranges that are fetched concurrently and written into place
+ * in the destination file. Uploads send the value as a sequence of partial requests, each carrying
+ * the {@code Content-Range} it covers. Every range and part is retried on its own, so a failure
+ * late in a transfer does not restart it.
+ * 
+ * @see org.jclouds.snia.cdmi.v1.config.CDMIProperties#TRANSFER_CHUNK_SIZE
+ * @see org.jclouds.snia.cdmi.v1.config.CDMIProperties#TRANSFER_CONCURRENCY
+ * @see org.jclouds.snia.cdmi.v1.config.CDMIProperties#TRANSFER_MAX_RETRIES
+ */
+@Singleton
+public class DataObjectTransferManager {
+
+   private static final String SIZE = "cdmi_size";
+   private static final int BUFFER_SIZE = 64 * 1024;
+   private static final long RETRY_DELAY_MILLIS = 100;
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final CDMIApi api;
+   private final ListeningExecutorService userExecutor;
+   private final long chunkSize;
+   private final int concurrency;
+   private final int maxRetries;
+
+   @Inject
+   public DataObjectTransferManager(CDMIApi api,
+            @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+            @Named(TRANSFER_CHUNK_SIZE) long chunkSize, @Named(TRANSFER_CONCURRENCY) int concurrency,
+            @Named(TRANSFER_MAX_RETRIES) int maxRetries) {
+      checkArgument(chunkSize > 0 && chunkSize <= Integer.MAX_VALUE, "chunkSize must be a positive int");
+      checkArgument(concurrency > 0, "concurrency must be positive");
+      checkArgument(maxRetries >= 0, "maxRetries must not be negative");
+      this.api = checkNotNull(api, "api");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.chunkSize = chunkSize;
+      this.concurrency = concurrency;
+      this.maxRetries = maxRetries;
+   }
+
+   /**
+    * Downloads the value of a data object into a file, replacing its contents. Objects larger than
+    * the chunk size are fetched as concurrent ranged requests.
+    * 
+    * @throws ResourceNotFoundException
+    *            if the data object does not exist
+    */
+   public void download(String containerName, final String dataObjectName, File destination) throws IOException {
+      final DataNonCDMIContentTypeApi dataApi = api.getDataNonCDMIContentTypeApiForContainer(containerName);
+      final Long size = sizeOf(dataApi, containerName, dataObjectName);
+      if (size == null || size <= chunkSize) {
+         logger.debug(">> downloading %s/%s in a single request", containerName, dataObjectName);
+         downloadWhole(dataApi, containerName, dataObjectName, destination);
+         return;
+      }
+
+      final int ranges = (int) ((size + chunkSize - 1) / chunkSize);
+      logger.debug(">> downloading %s/%s in %d ranges", containerName, dataObjectName, ranges);
+      Closer closer = Closer.create();
+      try {
+         RandomAccessFile file = closer.register(new RandomAccessFile(destination, "rw"));
+         file.setLength(size);
+         final FileChannel channel = file.getChannel();
+         final AtomicInteger nextRange = new AtomicInteger();
+         List<ListenableFuture<Void>> workers = Lists.newArrayList();
+         for (int i = 0; i < Math.min(concurrency, ranges); i++) {
+            workers.add(userExecutor.submit(new Callable<Void>() {
+               @Override
+               public Void call() throws IOException {
+                  try {
+                     for (int range = nextRange.getAndIncrement(); range < ranges; range = nextRange.getAndIncrement()) {
+                        long from = range * chunkSize;
+                        downloadRange(dataApi, dataObjectName, channel, from, Math.min(from + chunkSize, size) - 1);
+                     }
+                     return null;
+                  } catch (IOException e) {
+                     nextRange.set(ranges);
+                     throw e;
+                  } catch (RuntimeException e) {
+                     nextRange.set(ranges);
+                     throw e;
+                  }
+               }
+            }));
+         }
+         awaitAll(workers);
+         logger.debug("<< downloaded %s/%s", containerName, dataObjectName);
+      } catch (Throwable e) {
+         throw closer.rethrow(e);
+      } finally {
+         closer.close();
+      }
+   }
+
+   /**
+    * Uploads a payload as the value of a data object. Payloads whose length is unknown or larger
+    * than the chunk size are sent as a sequence of partial requests, in order.
+    */
+   public void upload(String containerName, String dataObjectName, Payload payload) throws IOException {
+      DataNonCDMIContentTypeApi dataApi = api.getDataNonCDMIContentTypeApiForContainer(containerName);
+      Long length = payload.getContentMetadata().getContentLength();
+      if (length != null && length <= chunkSize) {
+         logger.debug(">> uploading %s/%s in a single request", containerName, dataObjectName);
+         dataApi.create(dataObjectName, payload);
+         return;
+      }
+
+      String contentType = payload.getContentMetadata().getContentType();
+      String total = length != null ? String.valueOf(length) : "*";
+      logger.debug(">> uploading %s/%s in parts of %d bytes", containerName, dataObjectName, chunkSize);
+      Closer closer = Closer.create();
+      try {
+         InputStream in = closer.register(payload.openStream());
+         byte[] part = readPart(in);
+         if (part.length == 0) {
+            dataApi.create(dataObjectName, Payloads.newByteArrayPayload(part));
+            return;
+         }
+         long offset = 0;
+         while (true) {
+            byte[] next = part.length == chunkSize ? readPart(in) : new byte[0];
+            if (next.length == 0) {
+               // the length of the object is known once its last part has been read
+               uploadPart(dataApi, dataObjectName, part, contentType, offset, String.valueOf(offset + part.length),
+                        true);
+               break;
+            }
+            uploadPart(dataApi, dataObjectName, part, contentType, offset, total, false);
+            offset += part.length;
+            part = next;
+         }
+         logger.debug("<< uploaded %s/%s", containerName, dataObjectName);
+      } catch (Throwable e) {
+         throw closer.rethrow(e);
+      } finally {
+         closer.close();
+      }
+   }
+
+   private Long sizeOf(DataNonCDMIContentTypeApi dataApi, String containerName, String dataObjectName) {
+      DataObject dataObject = dataApi.get(dataObjectName, DataObjectQueryParams.Builder.metadata(SIZE));
+      if (dataObject == null)
+         throw new ResourceNotFoundException(format("data object %s/%s not found", containerName, dataObjectName));
+      String size = dataObject.getSystemMetadata().get(SIZE);
+      return size != null ? Longs.tryParse(size) : null;
+   }
+
+   private void downloadWhole(DataNonCDMIContentTypeApi dataApi, String containerName, String dataObjectName,
+            File destination) throws IOException {
+      Payload value = dataApi.getValue(dataObjectName);
+      if (value == null)
+         throw new ResourceNotFoundException(format("data object %s/%s not found", containerName, dataObjectName));
+      Closer closer = Closer.create();
+      try {
+         ByteStreams.copy(closer.register(value.openStream()), closer.register(new FileOutputStream(destination)));
+      } catch (Throwable e) {
+         throw closer.rethrow(e);
+      } finally {
+         closer.close();
+      }
+   }
+
+   private void downloadRange(final DataNonCDMIContentTypeApi dataApi, final String dataObjectName,
+            final FileChannel channel, final long from, final long to) throws IOException {
+      final String range = format("bytes=%d-%d", from, to);
+      withRetries(dataObjectName + " " + range, new Callable<Void>() {
+         @Override
+         public Void call() throws IOException {
+            Payload value = dataApi.getValue(dataObjectName, range);
+            if (value == null)
+               throw new ResourceNotFoundException(format("data object %s not found", dataObjectName));
+            Closer closer = Closer.create();
+            try {
+               writeAt(closer.register(value.openStream()), channel, from, to - from + 1);
+               return null;
+            } catch (Throwable e) {
+               throw closer.rethrow(e);
+            } finally {
+               closer.close();
+            }
+         }
+      });
+   }
+
+   private void uploadPart(final DataNonCDMIContentTypeApi dataApi, final String dataObjectName, byte[] part,
+            String contentType, long offset, String total, final boolean last) throws IOException {
+      final Payload payload = Payloads.newByteArrayPayload(part);
+      if (contentType != null)
+         payload.getContentMetadata().setContentType(contentType);
+      final String contentRange = format("bytes %d-%d/%s", offset, offset + part.length - 1, total);
+      withRetries(dataObjectName + " " + contentRange, new Callable<Void>() {
+         @Override
+         public Void call() {
+            if (last)
+               dataApi.create(dataObjectName, payload, contentRange);
+            else
+               dataApi.createPartial(dataObjectName, payload, contentRange);
+            return null;
+         }
+      });
+   }
+
+   private byte[] readPart(InputStream in) throws IOException {
+      byte[] part = new byte[(int) chunkSize];
+      int read = ByteStreams.read(in, part, 0, part.length);
+      return read == part.length ? part : Arrays.copyOf(part, read);
+   }
+
+   /**
+    * writes the stream to the channel at {@code position}, checking that it holds exactly
+    * {@code length} bytes
+    */
+   private static void writeAt(InputStream in, FileChannel channel, long position, long length) throws IOException {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      long written = 0;
+      for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+         if (written + read > length)
+            throw new IllegalStateException(format(
+                     "server returned more than the %d bytes requested at offset %d; ranged reads are not supported",
+                     length, position));
+         ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+         while (bytes.hasRemaining())
+            written += channel.write(bytes, position + written);
+      }
+      if (written != length)
+         throw new EOFException(format("expected %d bytes at offset %d, but got %d", length, position, written));
+   }
+
+   private void withRetries(String description, Callable<Void> transfer) throws IOException {
+      for (int attempt = 1;; attempt++) {
+         try {
+            transfer.call();
+            return;
+         } catch (Exception e) {
+            if (attempt > maxRetries || !isRetryable(e)) {
+               Throwables.propagateIfPossible(e, IOException.class);
+               throw Throwables.propagate(e);
+            }
+            logger.warn(e, "<< attempt %d of %s failed; retrying", attempt, description);
+            try {
+               Thread.sleep(RETRY_DELAY_MILLIS << (attempt - 1));
+            } catch (InterruptedException interrupted) {
+               Thread.currentThread().interrupt();
+               throw Throwables.propagate(interrupted);
+            }
+         }
+      }
+   }
+
+   private static boolean isRetryable(Exception e) {
+      return !(e instanceof ResourceNotFoundException || e instanceof AuthorizationException
+               || e instanceof IllegalStateException || e instanceof InterruptedException);
+   }
+
+   private static void awaitAll(List<ListenableFuture<Void>> futures) throws IOException {
+      try {
+         Futures.allAsList(futures).get();
+      } catch (InterruptedException e) {
+         cancelAll(futures);
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(e);
+      } catch (ExecutionException e) {
+         cancelAll(futures);
+         Throwables.propagateIfPossible(e.getCause(), IOException.class);
+         throw Throwables.propagate(e.getCause());
+      }
+   }
+
+   private static void cancelAll(List<ListenableFuture<Void>> futures) {
+      for (ListenableFuture<Void> future : futures)
+         future.cancel(true);
+   }
+}
@@ -16,21 +16,16 @@
  */
 package org.jclouds.snia.cdmi.v1;
 
-import org.jclouds.View;
-import org.jclouds.apis.internal.BaseApiMetadataTest;
+import org.jclouds.blobstore.internal.BaseBlobStoreApiMetadataTest;
 import org.testng.annotations.Test;
 
-import com.google.common.collect.ImmutableSet;
-import com.google.common.reflect.TypeToken;
-
 /**
  * 
  * @author Adrian Cole
  */
 @Test(groups = "unit", testName = "CDMIApiMetadataTest")
-// public class CDMIApiMetadataTest extends BaseBlobStoreApiMetadataTest {
-public class CDMIApiMetadataTest extends BaseApiMetadataTest {
+public class CDMIApiMetadataTest extends BaseBlobStoreApiMetadataTest {
    public CDMIApiMetadataTest() {
-      super(new CDMIApiMetadata(), ImmutableSet.<TypeToken<? extends View>> of());
+      super(new CDMIApiMetadata());
    }
 }
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.snia.cdmi.v1.blobstore;
+
+import static org.jclouds.blobstore.options.ListContainerOptions.Builder.afterMarker;
+import static org.jclouds.blobstore.options.ListContainerOptions.Builder.maxResults;
+import static org.jclouds.blobstore.options.ListContainerOptions.Builder.recursive;
+import static org.jclouds.blobstore.options.PutOptions.Builder.multipart;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.PageSet;
+import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.domain.StorageType;
+import org.jclouds.blobstore.options.ListContainerOptions;
+import org.testng.annotations.Test;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+/**
+ * Tests that {@code CDMIBlobStore} only asks the server for what each call needs.
+ */
+@Test(groups = "unit", testName = "CDMIBlobStoreMockTest", singleThreaded = true)
+public class CDMIBlobStoreMockTest {
+
+   public void testListFetchesOnePageOfChildren() throws Exception {
+      MockWebServer server = mockWebServer();
+      server.enqueue(container("\"childrenrange\":\"0-1\",\"children\":[\"a.txt\",\"dir/\"]"));
+      server.enqueue(container("\"childrenrange\":\"2-2\",\"children\":[\"b.txt\"]"));
+      try {
+         BlobStore blobStore = blobStore(server);
+
+         PageSet<? extends StorageMetadata> first = blobStore.list("container", maxResults(2));
+         assertEquals(server.takeRequest().getPath(), "/container/?children;children:0-1;");
+         Iterator<? extends StorageMetadata> children = first.iterator();
+         StorageMetadata blob = children.next();
+         assertEquals(blob.getName(), "a.txt");
+         assertEquals(blob.getType(), StorageType.BLOB);
+         StorageMetadata dir = children.next();
+         assertEquals(dir.getName(), "dir");
+         assertEquals(dir.getType(), StorageType.RELATIVE_PATH);
+         assertEquals(first.getNextMarker(), "2");
+
+         PageSet<? extends StorageMetadata> second = blobStore.list("container", afterMarker("2").maxResults(2));
+         assertEquals(server.takeRequest().getPath(), "/container/?children;children:2-3;");
+         assertEquals(second.iterator().next().getName(), "b.txt");
+         assertNull(second.getNextMarker());
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testCountBlobsCountsDataObjectsOfChildContainers() throws Exception {
+      MockWebServer server = mockWebServer();
+      server.enqueue(container("\"childrenrange\":\"0-2\",\"children\":[\"a.txt\",\"dir/\",\"b.txt\"]"));
+      server.enqueue(container("\"childrenrange\":\"0-1\",\"children\":[\"c.txt\",\"empty/\"]"));
+      server.enqueue(container("\"children\":[]"));
+      try {
+         assertEquals(blobStore(server).countBlobs("container"), 3);
+         assertEquals(server.takeRequest().getPath(), "/container/?children;children:0-999;");
+         assertEquals(server.takeRequest().getPath(), "/container/dir/?children;children:0-999;");
+         assertEquals(server.takeRequest().getPath(), "/container/dir/empty/?children;children:0-999;");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testCountBlobsReadsChildrenRange() throws Exception {
+      MockWebServer server = mockWebServer();
+      server.enqueue(container("\"childrenrange\":\"0-41\""));
+      try {
+         assertEquals(blobStore(server).countBlobs("container", ListContainerOptions.NONE), 42);
+         assertEquals(server.takeRequest().getPath(), "/container/?childrenrange;");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testRecursiveListWalksChildContainers() throws Exception {
+      MockWebServer server = mockWebServer();
+      server.enqueue(container("\"childrenrange\":\"0-1\",\"children\":[\"dir/\",\"a.txt\"]"));
+      server.enqueue(container("\"childrenrange\":\"0-0\",\"children\":[\"b.txt\"]"));
+      try {
+         PageSet<? extends StorageMetadata> first = blobStore(server).list("container", recursive().maxResults(2));
+         Iterator<? extends StorageMetadata> children = first.iterator();
+         assertEquals(children.next().getName(), "dir/b.txt");
+         StorageMetadata dir = children.next();
+         assertEquals(dir.getName(), "dir");
+         assertEquals(dir.getType(), StorageType.RELATIVE_PATH);
+         assertFalse(children.hasNext());
+         assertEquals(first.getNextMarker(), "1:");
+         assertEquals(server.takeRequest().getPath(), "/container/?children;children:0-999;");
+         assertEquals(server.takeRequest().getPath(), "/container/dir/?children;children:0-999;");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testRecursiveListResumesInsideChildContainer() throws Exception {
+      MockWebServer server = mockWebServer();
+      server.enqueue(container("\"childrenrange\":\"1-1\",\"children\":[\"c.txt\"]"));
+      server.enqueue(container("\"childrenrange\":\"0-1\",\"children\":[\"dir/\",\"a.txt\"]"));
+      try {
+         PageSet<? extends StorageMetadata> page = blobStore(server).list("container",
+                  recursive().afterMarker("0.1:dir/").maxResults(2));
+         Iterator<? extends StorageMetadata> children = page.iterator();
+         assertEquals(children.next().getName(), "dir/c.txt");
+         assertEquals(children.next().getName(), "dir");
+         assertFalse(children.hasNext());
+         assertEquals(page.getNextMarker(), "1:");
+         // only the rest of the directory and the entry of the directory itself are fetched
+         assertEquals(server.takeRequest().getPath(), "/container/dir/?children;children:1-1000;");
+         assertEquals(server.takeRequest().getPath(), "/container/?children;children:0-999;");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testRecursiveListRejectsForeignMarker() throws Exception {
+      MockWebServer server = mockWebServer();
+      try {
+         blobStore(server).list("container", recursive().afterMarker("2"));
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testListRejectsInvalidMarker() throws Exception {
+      MockWebServer server = mockWebServer();
+      try {
+         blobStore(server).list("container", afterMarker("0.1:dir/"));
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testMultipartPutBlobReturnsObjectID() throws Exception {
+      MockWebServer server = mockWebServer();
+      server.enqueue(new MockResponse().setResponseCode(201));
+      server.enqueue(new MockResponse().addHeader("Content-Type", "application/cdmi-object").setBody(
+               "{\"objectType\":\"application/cdmi-object\",\"objectID\":\"0001\",\"objectName\":\"a.txt\","
+                        + "\"parentURI\":\"/container/\",\"metadata\":{}}"));
+      try {
+         BlobStore blobStore = blobStore(server);
+         String id = blobStore.putBlob("container", blobStore.blobBuilder("a.txt").payload("hello").build(),
+                  multipart());
+         assertEquals(id, "0001");
+         RecordedRequest put = server.takeRequest();
+         assertEquals(put.getMethod(), "PUT");
+         assertEquals(put.getPath(), "/container/a.txt");
+         assertEquals(server.takeRequest().getPath(), "/container/a.txt?objectID;");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testBlobMetadataFetchesFieldsButNotValue() throws Exception {
+      MockWebServer server = mockWebServer();
+      server.enqueue(new MockResponse().addHeader("Content-Type", "application/cdmi-object").setBody(
+               "{\"objectType\":\"application/cdmi-object\",\"objectID\":\"0001\",\"objectName\":\"a.txt\","
+                        + "\"parentURI\":\"/container/\",\"mimetype\":\"text/plain\","
+                        + "\"metadata\":{\"cdmi_size\":\"5\",\"color\":\"red\"}}"));
+      try {
+         BlobMetadata metadata = blobStore(server).blobMetadata("container", "a.txt");
+         assertEquals(server.takeRequest().getPath(), "/container/a.txt?objectID;mimetype;metadata;");
+         assertEquals(metadata.getName(), "a.txt");
+         assertEquals(metadata.getContainer(), "container");
+         assertEquals(metadata.getContentMetadata().getContentType(), "text/plain");
+         assertEquals(metadata.getContentMetadata().getContentLength(), Long.valueOf(5));
+         assertEquals(metadata.getUserMetadata().get("color"), "red");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   private static BlobStore blobStore(MockWebServer server) {
+      return ContextBuilder.newBuilder("cdmi")
+            .credentials("tenantId:username", "password")
+            .endpoint(server.getUrl("").toString())
+            .buildView(BlobStoreContext.class).getBlobStore();
+   }
+
+   private static MockResponse container(String fields) {
+      return new MockResponse().addHeader("Content-Type", "application/cdmi-container").setBody(
+               "{\"objectType\":\"application/cdmi-container\",\"objectID\":\"0002\",\"objectName\":\"container/\","
+                        + "\"parentURI\":\"/\",\"metadata\":{}," + fields + "}");
+   }
+
+   private static MockWebServer mockWebServer() throws IOException {
+      MockWebServer server = new MockWebServer();
+      server.play();
+      return server;
+   }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.snia.cdmi.v1.features;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.snia.cdmi.v1.CDMIApi;
+import org.jclouds.snia.cdmi.v1.ObjectTypes;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.ByteStreams;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+/**
+ * Tests the streaming value methods of {@code DataApi} against a fake CDMI server.
+ */
+@Test(groups = "unit", testName = "DataApiMockTest", singleThreaded = true)
+public class DataApiMockTest {
+
+   private static final String DATA_OBJECT = "{\"objectType\":\"application/cdmi-object\",\"objectID\":\"0001\","
+            + "\"objectName\":\"object\",\"parentURI\":\"/container/\",\"metadata\":{}}";
+
+   public void testGetValueDecodesBase64Value() throws Exception {
+      MockWebServer server = mockWebServer();
+      server.enqueue(dataObject("{\"objectName\":\"object\",\"metadata\":{\"cdmi_size\":\"5\"},"
+               + "\"valuetransferencoding\":\"base64\",\"value\":\"aGVsbG8=\"}"));
+      try {
+         Payload value = api(server).getDataApiForContainer("container").getValue("object");
+
+         RecordedRequest request = server.takeRequest();
+         assertEquals(request.getMethod(), "GET");
+         assertEquals(request.getPath(), "/container/object");
+         assertEquals(new String(ByteStreams.toByteArray(value.openStream()), Charsets.UTF_8), "hello");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testGetValueReturnsTextValue() throws Exception {
+      MockWebServer server = mockWebServer();
+      server.enqueue(dataObject("{\"objectName\":\"object\",\"valuetransferencoding\":\"utf-8\","
+               + "\"value\":\"caf\\u00e9\"}"));
+      try {
+         Payload value = api(server).getDataApiForContainer("container").getValue("object");
+
+         assertEquals(new String(ByteStreams.toByteArray(value.openStream()), Charsets.UTF_8), "café");
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testGetValueOfMissingDataObjectIsNull() throws Exception {
+      MockWebServer server = mockWebServer();
+      server.enqueue(new MockResponse().setResponseCode(404));
+      try {
+         assertNull(api(server).getDataApiForContainer("container").getValue("object"));
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testCreateSendsValueAsBase64Document() throws Exception {
+      byte[] value = randomBytes(10000);
+      MockWebServer server = mockWebServer();
+      server.enqueue(dataObject(DATA_OBJECT));
+      try {
+         Payload payload = Payloads.newByteArrayPayload(value);
+         payload.getContentMetadata().setContentType("application/octet-stream");
+         api(server).getDataApiForContainer("container").create("object", payload,
+                  ImmutableMap.of("color", "red"));
+
+         RecordedRequest request = server.takeRequest();
+         assertEquals(request.getMethod(), "PUT");
+         assertEquals(request.getPath(), "/container/object");
+         assertTrue(request.getHeader("Content-Type").startsWith(ObjectTypes.DATAOBJECT),
+                  request.getHeader("Content-Type"));
+         // the length of the document is known before it is encoded
+         assertEquals(request.getHeader("Content-Length"), String.valueOf(request.getBody().length));
+
+         JsonObject document = document(request);
+         assertEquals(document.get("mimetype").getAsString(), "application/octet-stream");
+         assertEquals(document.getAsJsonObject("metadata").get("color").getAsString(), "red");
+         assertEquals(document.get("valuetransferencoding").getAsString(), "base64");
+         assertTrue(Arrays.equals(BaseEncoding.base64().decode(document.get("value").getAsString()), value));
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testCreateSendsValueOfUnknownLength() throws Exception {
+      byte[] value = randomBytes(5000);
+      MockWebServer server = mockWebServer();
+      server.enqueue(dataObject(DATA_OBJECT));
+      try {
+         api(server).getDataApiForContainer("container").create("object",
+                  Payloads.newInputStreamPayload(new ByteArrayInputStream(value)));
+
+         JsonObject document = document(server.takeRequest());
+         assertNull(document.get("metadata"));
+         assertEquals(document.get("valuetransferencoding").getAsString(), "base64");
+         assertTrue(Arrays.equals(BaseEncoding.base64().decode(document.get("value").getAsString()), value));
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   private static JsonObject document(RecordedRequest request) {
+      return new JsonParser().parse(new String(request.getBody(), Charsets.UTF_8)).getAsJsonObject();
+   }
+
+   private static byte[] randomBytes(int length) {
+      byte[] bytes = new byte[length];
+      for (int i = 0; i < length; i++)
+         bytes[i] = (byte) (i * 31);
+      return bytes;
+   }
+
+   private static CDMIApi api(MockWebServer server) {
+      return ContextBuilder.newBuilder("cdmi")
+            .credentials("tenantId:username", "password")
+            .endpoint(server.getUrl("").toString())
+            .buildApi(CDMIApi.class);
+   }
+
+   private static MockResponse dataObject(String json) {
+      return new MockResponse().addHeader("Content-Type", ObjectTypes.DATAOBJECT).setBody(json);
+   }
+
+   private static MockWebServer mockWebServer() throws IOException {
+      MockWebServer server = new MockWebServer();
+      server.play();
+      return server;
+   }
+}
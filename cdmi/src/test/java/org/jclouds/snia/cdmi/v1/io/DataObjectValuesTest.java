@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.snia.cdmi.v1.io;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Tests behavior of {@code DataObjectValues}
+ */
+@Test(groups = "unit", testName = "DataObjectValuesTest")
+public class DataObjectValuesTest {
+
+   public void testRoundTrip() throws IOException {
+      byte[] value = new byte[10000];
+      for (int i = 0; i < value.length; i++)
+         value[i] = (byte) (i * 31);
+      JsonObject fields = new JsonObject();
+      fields.addProperty("mimetype", "application/octet-stream");
+
+      byte[] document = ByteStreams.toByteArray(DataObjectValues.openDocument(fields,
+               new ByteArrayInputStream(value)));
+      assertEquals(document.length, DataObjectValues.documentLength(fields, value.length));
+
+      JsonObject parsed = new JsonParser().parse(new String(document, Charsets.UTF_8)).getAsJsonObject();
+      assertEquals(parsed.get("mimetype").getAsString(), "application/octet-stream");
+      assertEquals(parsed.get("valuetransferencoding").getAsString(), "base64");
+
+      assertEquals(ByteStreams.toByteArray(DataObjectValues.openValue(new ByteArrayInputStream(document))), value);
+   }
+
+   public void testUtf8ValueIsUnescaped() throws IOException {
+      String json = "{\"objectName\":\"foo\",\"metadata\":{\"a\":[1,{\"b\":\"}\"}]},"
+               + "\"value\":\"line\\nquote\\\" \\u00e9\\ud83d\\ude00\",\"valuerange\":\"0-10\"}";
+      assertEquals(new String(ByteStreams.toByteArray(DataObjectValues.openValue(stream(json))), Charsets.UTF_8),
+               "line\nquote\" é😀");
+   }
+
+   public void testBase64Value() throws IOException {
+      String json = "{\"valuetransferencoding\" : \"base64\", \"value\" : \"aGVsbG8=\"}";
+      assertEquals(new String(ByteStreams.toByteArray(DataObjectValues.openValue(stream(json))), Charsets.UTF_8),
+               "hello");
+   }
+
+   public void testBase64ValueBeforeItsEncoding() throws IOException {
+      String json = "{\"value\" : \"aGVsbG8=\", \"valuerange\" : \"0-4\", \"valuetransferencoding\" : \"base64\"}";
+      assertEquals(new String(ByteStreams.toByteArray(DataObjectValues.openValue(stream(json))), Charsets.UTF_8),
+               "hello");
+   }
+
+   public void testValueWithoutEncodingIsText() throws IOException {
+      String json = "{\"value\" : \"aGVsbG8=\", \"valuerange\" : \"0-7\"}";
+      assertEquals(new String(ByteStreams.toByteArray(DataObjectValues.openValue(stream(json))), Charsets.UTF_8),
+               "aGVsbG8=");
+   }
+
+   public void testMissingValueIsEmpty() throws IOException {
+      assertEquals(ByteStreams.toByteArray(DataObjectValues.openValue(stream("{\"objectName\":\"foo\"}"))).length,
+               0);
+   }
+
+   private static InputStream stream(String json) {
+      return new ByteArrayInputStream(json.getBytes(Charsets.UTF_8));
+   }
+}
@@ -45,6 +45,6 @@ public class ParseContainerTest extends BaseItemParserTest<Container> {
       return Container.builder().objectType("application/cdmi-container").objectID("00007E7F00102E230ED82694DAA975D2")
                .objectName("MyContainer/").parentURI("/")
                .metadata(ImmutableMap.<String, JsonBall> builder().put("cdmi_size", new JsonBall("\"83\"")).build())
-               .children(ImmutableSet.<String> builder().add("MyDataObject.txt").build()).build();
+               .children(ImmutableSet.<String> builder().add("MyDataObject.txt").build()).childrenRange("0-0").build();
    }
 }
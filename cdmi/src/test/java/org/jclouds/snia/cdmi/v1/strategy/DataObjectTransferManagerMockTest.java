@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.snia.cdmi.v1.strategy;
+
+import static org.jclouds.snia.cdmi.v1.config.CDMIProperties.TRANSFER_CHUNK_SIZE;
+import static org.jclouds.snia.cdmi.v1.config.CDMIProperties.TRANSFER_CONCURRENCY;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.io.Payloads;
+import org.testng.annotations.Test;
+
+import com.google.common.io.Files;
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+/**
+ * Tests {@code DataObjectTransferManager} against a fake CDMI server that adds latency to every
+ * read of the value and records how many ranged reads it serves at once.
+ */
+@Test(groups = "unit", testName = "DataObjectTransferManagerMockTest", singleThreaded = true)
+public class DataObjectTransferManagerMockTest {
+
+   private static final int CHUNK_SIZE = 64 * 1024;
+   private static final int CHUNKS = 8;
+   private static final long LATENCY_MILLIS = 100;
+
+   public void testDownloadReadsRangesConcurrently() throws Exception {
+      byte[] value = randomBytes(CHUNK_SIZE * CHUNKS);
+      FakeCDMIServer fake = new FakeCDMIServer(value);
+      MockWebServer server = mockWebServer(fake);
+      File sequentialFile = File.createTempFile("cdmi", "sequential");
+      File parallelFile = File.createTempFile("cdmi", "parallel");
+      try {
+         transferManager(server, 1).download("container", "object", sequentialFile);
+         assertTrue(Arrays.equals(Files.toByteArray(sequentialFile), value));
+         assertEquals(fake.peakRangedReads.getAndSet(0), 1);
+
+         transferManager(server, 4).download("container", "object", parallelFile);
+         assertTrue(Arrays.equals(Files.toByteArray(parallelFile), value));
+         int peak = fake.peakRangedReads.get();
+         assertTrue(peak > 1 && peak <= 4, "peak ranged reads in flight: " + peak);
+
+         assertEquals(fake.rangedReads.get(), 2 * CHUNKS);
+      } finally {
+         sequentialFile.delete();
+         parallelFile.delete();
+         server.shutdown();
+      }
+   }
+
+   public void testSmallObjectIsDownloadedInOneRequest() throws Exception {
+      byte[] value = randomBytes(CHUNK_SIZE);
+      FakeCDMIServer fake = new FakeCDMIServer(value);
+      MockWebServer server = mockWebServer(fake);
+      File file = File.createTempFile("cdmi", "small");
+      try {
+         transferManager(server, 4).download("container", "object", file);
+
+         assertTrue(Arrays.equals(Files.toByteArray(file), value));
+         assertEquals(fake.rangedReads.get(), 0);
+         assertEquals(server.getRequestCount(), 2);
+      } finally {
+         file.delete();
+         server.shutdown();
+      }
+   }
+
+   public void testUploadIsSentInPartsInOrder() throws Exception {
+      byte[] value = randomBytes(CHUNK_SIZE * 2 + 100);
+      FakeCDMIServer fake = new FakeCDMIServer(new byte[0]);
+      MockWebServer server = mockWebServer(fake);
+      try {
+         // the length is unknown until the stream has been read
+         transferManager(server, 4).upload("container", "object",
+                  Payloads.newInputStreamPayload(new ByteArrayInputStream(value)));
+
+         assertTrue(Arrays.equals(fake.value, value));
+         assertEquals(fake.writes, Arrays.asList(
+                  "bytes 0-65535/* partial",
+                  "bytes 65536-131071/* partial",
+                  "bytes 131072-131171/131172"));
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   private static DataObjectTransferManager transferManager(MockWebServer server, int concurrency) {
+      Properties overrides = new Properties();
+      overrides.setProperty(TRANSFER_CHUNK_SIZE, String.valueOf(CHUNK_SIZE));
+      overrides.setProperty(TRANSFER_CONCURRENCY, String.valueOf(concurrency));
+      return ContextBuilder.newBuilder("cdmi")
+            .credentials("tenantId:username", "password")
+            .endpoint(server.getUrl("/").toString())
+            .overrides(overrides)
+            .buildInjector().getInstance(DataObjectTransferManager.class);
+   }
+
+   private static MockWebServer mockWebServer(Dispatcher dispatcher) throws IOException {
+      MockWebServer server = new MockWebServer();
+      server.setDispatcher(dispatcher);
+      server.play();
+      return server;
+   }
+
+   private static byte[] randomBytes(int length) {
+      byte[] bytes = new byte[length];
+      new Random(length).nextBytes(bytes);
+      return bytes;
+   }
+
+   /**
+    * Serves a single data object, {@code /container/object}, honouring byte ranges on reads and
+    * content ranges on writes.
+    */
+   private static class FakeCDMIServer extends Dispatcher {
+      private static final Pattern RANGE = Pattern.compile("bytes[ =](\\d+)-(\\d+)(?:/(\\S+))?");
+
+      private final AtomicInteger rangedReads = new AtomicInteger();
+      private final AtomicInteger rangedReadsInFlight = new AtomicInteger();
+      private final AtomicInteger peakRangedReads = new AtomicInteger();
+      private final List<String> writes = new CopyOnWriteArrayList<String>();
+      private volatile byte[] value;
+
+      private FakeCDMIServer(byte[] value) {
+         this.value = value;
+      }
+
+      @Override
+      public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+         String path = request.getPath().replaceAll("/+", "/");
+         if (!path.startsWith("/container/object"))
+            return new MockResponse().setResponseCode(404);
+         if (request.getMethod().equals("PUT"))
+            return write(request);
+         if (path.endsWith("?metadata:cdmi_size;"))
+            return new MockResponse().addHeader("Content-Type", "application/cdmi-object").setBody(String.format(
+                     "{\"objectID\":\"1\",\"objectType\":\"application/cdmi-object\",\"objectName\":\"object\","
+                              + "\"parentURI\":\"/container/\",\"metadata\":{\"cdmi_size\":\"%d\"}}",
+                     value.length));
+
+         String range = request.getHeader("Range");
+         if (range == null) {
+            Thread.sleep(LATENCY_MILLIS);
+            return new MockResponse().addHeader("Content-Type", "application/octet-stream").setBody(value);
+         }
+         rangedReads.incrementAndGet();
+         int inFlight = rangedReadsInFlight.incrementAndGet();
+         try {
+            int peak = peakRangedReads.get();
+            while (inFlight > peak && !peakRangedReads.compareAndSet(peak, inFlight))
+               peak = peakRangedReads.get();
+            // keep the read open long enough for the others of its batch to arrive
+            Thread.sleep(LATENCY_MILLIS);
+         } finally {
+            rangedReadsInFlight.decrementAndGet();
+         }
+         Matcher matcher = RANGE.matcher(range);
+         assertTrue(matcher.matches(), range);
+         int from = Integer.parseInt(matcher.group(1));
+         int to = Math.min(Integer.parseInt(matcher.group(2)), value.length - 1);
+         return new MockResponse().setResponseCode(206).addHeader("Content-Type", "application/octet-stream")
+                  .addHeader("Content-Range", String.format("bytes %d-%d/%d", from, to, value.length))
+                  .setBody(Arrays.copyOfRange(value, from, to + 1));
+      }
+
+      private synchronized MockResponse write(RecordedRequest request) {
+         String contentRange = request.getHeader("Content-Range");
+         byte[] body = request.getBody();
+         if (contentRange == null) {
+            value = body;
+         } else {
+            Matcher matcher = RANGE.matcher(contentRange);
+            assertTrue(matcher.matches(), contentRange);
+            int from = Integer.parseInt(matcher.group(1));
+            byte[] updated = Arrays.copyOf(value, Math.max(value.length, from + body.length));
+            System.arraycopy(body, 0, updated, from, body.length);
+            value = updated;
+            writes.add("true".equals(request.getHeader("X-CDMI-Partial")) ? contentRange + " partial" : contentRange);
+         }
+         return new MockResponse().setResponseCode(201);
+      }
+   }
+}
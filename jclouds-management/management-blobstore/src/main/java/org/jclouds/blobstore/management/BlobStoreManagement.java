@@ -18,14 +18,17 @@ package org.jclouds.blobstore.management;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.jclouds.blobstore.BlobStore;
 import org.jclouds.blobstore.BlobStoreContext;
-import org.jclouds.blobstore.codec.ToBlob;
 import org.jclouds.blobstore.codec.ToBlobMetadata;
 import org.jclouds.blobstore.codec.ToStorageMetadata;
+import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.codec.ToLocation;
+import org.jclouds.management.Page;
 import org.jclouds.management.ViewMBean;
 import org.jclouds.representations.Location;
 import org.jclouds.blobstore.representations.Blob;
@@ -33,13 +36,23 @@ import org.jclouds.blobstore.representations.BlobMetadata;
 import org.jclouds.blobstore.representations.StorageMetadata;
 import org.jclouds.javax.annotation.Nullable;
 
+import java.util.Collection;
 import java.util.Set;
 
+import static com.google.common.collect.Iterables.limit;
 import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Iterables.tryFind;
+import static org.jclouds.blobstore.options.ListContainerOptions.Builder.inDirectory;
+import static org.jclouds.blobstore.options.ListContainerOptions.Builder.maxResults;
 
 public class BlobStoreManagement implements BlobStoreManagementMBean, ViewMBean<BlobStoreContext> {
 
+   /**
+    * The most resources looked at for one page of a prefix listing, so that a prefix matching few
+    * resources returns a partial page rather than walking a whole container.
+    */
+   private static final int MAX_SCANNED = 10 * Page.MAX_RESULTS;
+
    private final BlobStore blobStore;
 
    public BlobStoreManagement(BlobStoreContext context) {
@@ -56,32 +69,71 @@ public class BlobStoreManagement implements BlobStoreManagementMBean, ViewMBean<
    @Override
    public Set<StorageMetadata> list() {
       return ImmutableSet.<StorageMetadata>builder()
-                         .addAll(transform(blobStore.list(), ToStorageMetadata.INSTANCE))
+                         .addAll(transform(limit(blobStore.list(), Page.MAX_RESULTS), ToStorageMetadata.INSTANCE))
                          .build();
    }
 
    @Override
    public Set<StorageMetadata> list(String container) {
       return ImmutableSet.<StorageMetadata>builder()
-                         .addAll(transform(blobStore.list(container), ToStorageMetadata.INSTANCE))
+                         .addAll(transform(blobStore.list(container, maxResults(Page.MAX_RESULTS)), ToStorageMetadata.INSTANCE))
                          .build();
    }
 
    @Override
    public Set<StorageMetadata> list(String container, String directory) {
       return ImmutableSet.<StorageMetadata>builder()
-              .addAll(transform(blobStore.list(container, ListContainerOptions.Builder.inDirectory(directory)), ToStorageMetadata.INSTANCE))
+              .addAll(transform(blobStore.list(container, inDirectory(directory).maxResults(Page.MAX_RESULTS)), ToStorageMetadata.INSTANCE))
               .build();
    }
 
+   @Override
+   public Page<StorageMetadata> list(String container, @Nullable String prefix, @Nullable String marker, int limit) {
+      int bounded = Page.boundedLimit(limit);
+      String directory = prefix != null && prefix.lastIndexOf('/') > 0 ? prefix.substring(0, prefix.lastIndexOf('/')) : null;
+      ImmutableList.Builder<StorageMetadata> items = ImmutableList.builder();
+      int found = 0;
+      int scanned = 0;
+      String nextMarker = marker;
+      do {
+         //Never ask for more than the page still needs, so the blob store's own marker is always the next one.
+         ListContainerOptions options = maxResults(bounded - found);
+         if (directory != null) {
+            options.inDirectory(directory);
+         }
+         if (nextMarker != null) {
+            options.afterMarker(nextMarker);
+         }
+         PageSet<? extends org.jclouds.blobstore.domain.StorageMetadata> page = blobStore.list(container, options);
+         for (org.jclouds.blobstore.domain.StorageMetadata resource : page) {
+            scanned++;
+            if (prefix == null || (resource.getName() != null && resource.getName().startsWith(prefix))) {
+               items.add(ToStorageMetadata.INSTANCE.apply(resource));
+               found++;
+            }
+         }
+         nextMarker = page.getNextMarker();
+      } while (nextMarker != null && found < bounded && scanned < MAX_SCANNED);
+      return new Page<StorageMetadata>(items.build(), nextMarker);
+   }
+
    @Override
    public BlobMetadata blobMetadata(String container, String name) {
       return ToBlobMetadata.INSTANCE.apply(blobStore.blobMetadata(container, name));
    }
 
+   /**
+    * Returns the metadata of a blob. Only the metadata is fetched from the blob store, so the
+    * content is never downloaded, and the blob has no response headers.
+    */
    @Override
    public Blob getBlob(String container, String name) {
-      return ToBlob.INSTANCE.apply(blobStore.getBlob(container, name));
+      org.jclouds.blobstore.domain.BlobMetadata metadata = blobStore.blobMetadata(container, name);
+      if (metadata == null) {
+         return null;
+      }
+      return Blob.builder().allHeaders(ImmutableMap.<String, Collection<String>>of())
+                 .blobMetadata(ToBlobMetadata.INSTANCE.apply(metadata)).build();
    }
 
    @Override
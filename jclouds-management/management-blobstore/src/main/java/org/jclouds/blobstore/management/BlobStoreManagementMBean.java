@@ -17,8 +17,24 @@
 package org.jclouds.blobstore.management;
 
 import org.jclouds.blobstore.representations.BlobStore;
+import org.jclouds.blobstore.representations.StorageMetadata;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.management.Page;
 
 public interface BlobStoreManagementMBean extends BlobStore {
 
-
+   /**
+    * Lists a page of the metadata of the resources in a container. Pages are fetched from the blob
+    * store as needed, and {@link #list()}, {@link #list(String)} and {@link #list(String, String)}
+    * return at most {@link Page#MAX_RESULTS} resources.
+    *
+    * @param container    what to list
+    * @param prefix       only list resources whose name starts with this, or null for all. The
+    *                     directory part of the prefix, up to its last '/', is listed by the blob
+    *                     store and the rest is matched as pages arrive.
+    * @param marker       the next marker of the previous page, or null for the first page
+    * @param limit        the most resources to return, capped at {@link Page#MAX_RESULTS}
+    * @return the resources found, with the marker to continue from if the listing is not done
+    */
+   Page<StorageMetadata> list(String container, @Nullable String prefix, @Nullable String marker, int limit);
 }
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.management;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.easymock.IAnswer;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.MutableBlobMetadata;
+import org.jclouds.blobstore.domain.MutableStorageMetadata;
+import org.jclouds.blobstore.domain.PageSet;
+import org.jclouds.blobstore.domain.StorageType;
+import org.jclouds.blobstore.domain.internal.MutableBlobMetadataImpl;
+import org.jclouds.blobstore.domain.internal.MutableStorageMetadataImpl;
+import org.jclouds.blobstore.domain.internal.PageSetImpl;
+import org.jclouds.blobstore.options.ListContainerOptions;
+import org.jclouds.blobstore.representations.Blob;
+import org.jclouds.blobstore.representations.StorageMetadata;
+import org.jclouds.management.Page;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+@Test(groups = "unit", testName = "BlobStoreManagementTest")
+public class BlobStoreManagementTest {
+
+   private final AtomicInteger requests = new AtomicInteger();
+
+   @Test
+   public void testFirstPage() {
+      Page<StorageMetadata> page = management("file1", "file2", "file3", "file4", "file5")
+              .list("container", null, null, 2);
+      assertEquals(names(page), ImmutableList.of("file1", "file2"));
+      assertEquals(page.getNextMarker(), "file2");
+   }
+
+   @Test
+   public void testContinuesFromMarker() {
+      BlobStoreManagement management = management("file1", "file2", "file3", "file4", "file5");
+      Page<StorageMetadata> second = management.list("container", null, "file2", 2);
+      assertEquals(names(second), ImmutableList.of("file3", "file4"));
+      assertEquals(second.getNextMarker(), "file4");
+
+      Page<StorageMetadata> last = management.list("container", null, second.getNextMarker(), 2);
+      assertEquals(names(last), ImmutableList.of("file5"));
+      assertNull(last.getNextMarker());
+   }
+
+   @Test
+   public void testPrefixIsScopedToItsDirectory() {
+      BlobStoreManagement management = management("logs/2014-01", "logs/2014-02", "logs/2015-01", "other");
+      Page<StorageMetadata> page = management.list("container", "logs/2014", null, 10);
+      assertEquals(names(page), ImmutableList.of("logs/2014-01", "logs/2014-02"));
+      assertNull(page.getNextMarker());
+      assertEquals(requests.get(), 1);
+   }
+
+   @Test
+   public void testScanIsTruncated() {
+      List<String> names = Lists.newArrayList();
+      for (int i = 0; i < 12000; i++) {
+         names.add(String.format("a%05d", i));
+      }
+      names.add("b");
+      BlobStoreManagement management = management(names.toArray(new String[names.size()]));
+
+      // No more than ten pages worth of resources are looked at for one page
+      Page<StorageMetadata> truncated = management.list("container", "b", null, 10);
+      assertEquals(names(truncated), ImmutableList.of());
+      assertEquals(truncated.getNextMarker(), "a09999");
+      assertEquals(requests.get(), 1000);
+
+      Page<StorageMetadata> last = management.list("container", "b", truncated.getNextMarker(), 10);
+      assertEquals(names(last), ImmutableList.of("b"));
+      assertNull(last.getNextMarker());
+   }
+
+   @Test
+   public void testEmptyResult() {
+      Page<StorageMetadata> page = management().list("container", null, null, 10);
+      assertEquals(page.getItems(), ImmutableList.of());
+      assertNull(page.getNextMarker());
+   }
+
+   @Test
+   public void testGetBlobOnlyReadsMetadata() {
+      BlobStoreContext context = createMock(BlobStoreContext.class);
+      BlobStore blobStore = createMock(BlobStore.class);
+      MutableBlobMetadata metadata = new MutableBlobMetadataImpl();
+      metadata.setType(StorageType.BLOB);
+      metadata.setName("file1");
+      expect(context.getBlobStore()).andReturn(blobStore);
+      expect(blobStore.blobMetadata("container", "file1")).andReturn(metadata);
+      expect(blobStore.blobMetadata("container", "missing")).andReturn(null);
+      replay(context, blobStore);
+
+      BlobStoreManagement management = new BlobStoreManagement(context);
+      Blob blob = management.getBlob("container", "file1");
+      assertEquals(blob.getBlobMetadata().getName(), "file1");
+      assertTrue(blob.getAllHeaders().isEmpty());
+      assertNull(management.getBlob("container", "missing"));
+      verify(context, blobStore);
+   }
+
+   /**
+    * Returns a management bean over a container holding the given sorted names, which pages its
+    * listings like a blob store: after the marker, in the directory and up to the max results.
+    */
+   private BlobStoreManagement management(final String... names) {
+      requests.set(0);
+      BlobStoreContext context = createMock(BlobStoreContext.class);
+      BlobStore blobStore = createMock(BlobStore.class);
+      expect(context.getBlobStore()).andReturn(blobStore);
+      expect(blobStore.list(eq("container"), anyObject(ListContainerOptions.class))).andAnswer(
+              new IAnswer<PageSet<? extends org.jclouds.blobstore.domain.StorageMetadata>>() {
+                 @Override
+                 public PageSet<? extends org.jclouds.blobstore.domain.StorageMetadata> answer() {
+                    requests.incrementAndGet();
+                    ListContainerOptions options = (ListContainerOptions) getCurrentArguments()[1];
+                    List<org.jclouds.blobstore.domain.StorageMetadata> page = Lists.newArrayList();
+                    String nextMarker = null;
+                    for (String name : names) {
+                       if ((options.getDir() != null && !name.startsWith(options.getDir() + "/"))
+                               || (options.getMarker() != null && name.compareTo(options.getMarker()) <= 0)) {
+                          continue;
+                       }
+                       if (page.size() == options.getMaxResults()) {
+                          nextMarker = page.get(page.size() - 1).getName();
+                          break;
+                       }
+                       page.add(blob(name));
+                    }
+                    return new PageSetImpl<org.jclouds.blobstore.domain.StorageMetadata>(page, nextMarker);
+                 }
+              }).anyTimes();
+      replay(context, blobStore);
+      return new BlobStoreManagement(context);
+   }
+
+   private static org.jclouds.blobstore.domain.StorageMetadata blob(String name) {
+      MutableStorageMetadata metadata = new MutableStorageMetadataImpl();
+      metadata.setType(StorageType.BLOB);
+      metadata.setName(name);
+      return metadata;
+   }
+
+   private static List<String> names(Page<StorageMetadata> page) {
+      return Lists.transform(page.getItems(), new Function<StorageMetadata, String>() {
+         @Override
+         public String apply(StorageMetadata input) {
+            return input.getName();
+         }
+      });
+   }
+}
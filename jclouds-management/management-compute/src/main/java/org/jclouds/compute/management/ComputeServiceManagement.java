@@ -17,7 +17,10 @@
 package org.jclouds.compute.management;
 
 
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Ordering;
 import org.jclouds.codec.ToLocation;
 import org.jclouds.compute.ComputeService;
 import org.jclouds.compute.ComputeServiceContext;
@@ -27,13 +30,18 @@ import org.jclouds.compute.codec.ToImage;
 import org.jclouds.compute.codec.ToNodeMetadata;
 import org.jclouds.compute.representations.ExecResponse;
 import org.jclouds.compute.representations.NodeMetadata;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.management.Page;
 import org.jclouds.management.ViewMBean;
 import org.jclouds.representations.Location;
 import org.jclouds.compute.representations.Hardware;
 import org.jclouds.compute.representations.Image;
 
+import java.util.List;
 import java.util.Set;
 
+import static com.google.common.collect.Iterables.filter;
+import static com.google.common.collect.Iterables.limit;
 import static com.google.common.collect.Iterables.transform;
 
 public class ComputeServiceManagement implements ComputeServiceManagementMBean, ViewMBean<ComputeServiceContext> {
@@ -66,10 +74,43 @@ public class ComputeServiceManagement implements ComputeServiceManagementMBean,
    @Override
    public Set<NodeMetadata> listNodes() {
       return ImmutableSet.<NodeMetadata>builder()
-                         .addAll(transform( (Set<org.jclouds.compute.domain.NodeMetadata>) service.listNodes(), ToNodeMetadata.INSTANCE))
+                         .addAll(transform(limit(nodes(), Page.MAX_RESULTS), ToNodeMetadata.INSTANCE))
                          .build();
    }
 
+   @Override
+   public Page<NodeMetadata> listNodes(@Nullable final String namePrefix, @Nullable final String marker, int limit) {
+      int bounded = Page.boundedLimit(limit);
+      //Only the ids of the listed nodes are compared; the page alone is converted.
+      List<org.jclouds.compute.domain.NodeMetadata> nodes = BY_ID.leastOf(filter(nodes(),
+              new Predicate<org.jclouds.compute.domain.NodeMetadata>() {
+                 @Override
+                 public boolean apply(org.jclouds.compute.domain.NodeMetadata input) {
+                    return (marker == null || input.getId().compareTo(marker) > 0)
+                            && (namePrefix == null || (input.getName() != null && input.getName().startsWith(namePrefix)));
+                 }
+              }), bounded + 1);
+      String nextMarker = null;
+      if (nodes.size() > bounded) {
+         nodes = nodes.subList(0, bounded);
+         nextMarker = nodes.get(bounded - 1).getId();
+      }
+      return new Page<NodeMetadata>(transform(nodes, ToNodeMetadata.INSTANCE), nextMarker);
+   }
+
+   @SuppressWarnings("unchecked")
+   private Set<org.jclouds.compute.domain.NodeMetadata> nodes() {
+      return (Set<org.jclouds.compute.domain.NodeMetadata>) service.listNodes();
+   }
+
+   private static final Ordering<org.jclouds.compute.domain.NodeMetadata> BY_ID = Ordering.natural().onResultOf(
+           new Function<org.jclouds.compute.domain.NodeMetadata, String>() {
+              @Override
+              public String apply(org.jclouds.compute.domain.NodeMetadata input) {
+                 return input.getId();
+              }
+           });
+
    @Override
    public Set<Location> listAssignableLocations() {
       return ImmutableSet.<Location>builder()
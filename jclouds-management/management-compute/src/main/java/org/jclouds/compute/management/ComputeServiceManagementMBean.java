@@ -17,7 +17,21 @@
 package org.jclouds.compute.management;
 
 import org.jclouds.compute.representations.ComputeService;
+import org.jclouds.compute.representations.NodeMetadata;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.management.Page;
 
 public interface ComputeServiceManagementMBean extends ComputeService {
 
+   /**
+    * Lists a page of nodes, in order of id. Only the nodes of the page are converted and returned,
+    * so large accounts can be browsed safely. {@link #listNodes()} returns at most
+    * {@link Page#MAX_RESULTS} nodes.
+    *
+    * @param namePrefix   only list nodes whose name starts with this, or null for all nodes
+    * @param marker       the next marker of the previous page, or null for the first page
+    * @param limit        the most nodes to return, capped at {@link Page#MAX_RESULTS}
+    * @return the nodes of the page, with the marker of the next page if there are more nodes
+    */
+   Page<NodeMetadata> listNodes(@Nullable String namePrefix, @Nullable String marker, int limit);
 }
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.management;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import org.jclouds.compute.ComputeService;
+import org.jclouds.compute.ComputeServiceContext;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.compute.representations.NodeMetadata;
+import org.jclouds.management.Page;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+@Test(groups = "unit", testName = "ComputeServiceManagementTest")
+public class ComputeServiceManagementTest {
+
+   @Test
+   public void testFirstPage() {
+      Page<NodeMetadata> page = management().listNodes(null, null, 2);
+      assertEquals(ids(page), ImmutableList.of("node-1", "node-2"));
+      assertEquals(page.getNextMarker(), "node-2");
+   }
+
+   @Test
+   public void testContinuesFromMarker() {
+      ComputeServiceManagement management = management();
+      Page<NodeMetadata> second = management.listNodes(null, "node-2", 2);
+      assertEquals(ids(second), ImmutableList.of("node-3", "node-4"));
+      assertEquals(second.getNextMarker(), "node-4");
+
+      Page<NodeMetadata> last = management.listNodes(null, second.getNextMarker(), 2);
+      assertEquals(ids(last), ImmutableList.of("node-5"));
+      assertNull(last.getNextMarker());
+   }
+
+   @Test
+   public void testNamePrefix() {
+      ComputeServiceManagement management = management();
+      Page<NodeMetadata> first = management.listNodes("web", null, 2);
+      assertEquals(ids(first), ImmutableList.of("node-1", "node-2"));
+      assertEquals(first.getNextMarker(), "node-2");
+
+      Page<NodeMetadata> last = management.listNodes("web", first.getNextMarker(), 2);
+      assertEquals(ids(last), ImmutableList.of("node-4"));
+      assertNull(last.getNextMarker());
+   }
+
+   @Test
+   public void testUnboundedLimitReturnsAllNodes() {
+      Page<NodeMetadata> page = management().listNodes(null, null, 0);
+      assertEquals(page.getItems().size(), 5);
+      assertNull(page.getNextMarker());
+   }
+
+   @Test
+   public void testEmptyResult() {
+      Page<NodeMetadata> page = management().listNodes("none", null, 10);
+      assertEquals(page.getItems(), ImmutableList.of());
+      assertNull(page.getNextMarker());
+   }
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   private static ComputeServiceManagement management() {
+      // Listed out of order, as providers do not sort their nodes
+      Set<org.jclouds.compute.domain.NodeMetadata> nodes = ImmutableSet.of(node("node-4", "web-3"),
+              node("node-1", "web-1"), node("node-5", "db-2"), node("node-3", "db-1"), node("node-2", "web-2"));
+      ComputeServiceContext context = createMock(ComputeServiceContext.class);
+      ComputeService service = createMock(ComputeService.class);
+      expect(context.getComputeService()).andReturn(service);
+      expect((Set) service.listNodes()).andReturn(nodes).anyTimes();
+      replay(context, service);
+      return new ComputeServiceManagement(context);
+   }
+
+   private static org.jclouds.compute.domain.NodeMetadata node(String id, String name) {
+      return new NodeMetadataBuilder().id(id).providerId(id).name(name).status(Status.RUNNING).build();
+   }
+
+   private static List<String> ids(Page<NodeMetadata> page) {
+      return Lists.transform(page.getItems(), new Function<NodeMetadata, String>() {
+         @Override
+         public String apply(NodeMetadata input) {
+            return input.getId();
+         }
+      });
+   }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.management;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import org.jclouds.javax.annotation.Nullable;
+
+import java.io.Serializable;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A page of a listing returned over JMX, with the marker to pass to get the next page.
+ * @param <T> the type of the listed items
+ */
+public class Page<T extends Serializable> implements Serializable {
+
+   private static final long serialVersionUID = 1L;
+
+   /**
+    * The most items returned in one page, whatever limit is asked for.
+    */
+   public static final int MAX_RESULTS = 1000;
+
+   /**
+    * Returns the number of items to return for the limit requested: the limit, capped at
+    * {@link #MAX_RESULTS}, or {@link #MAX_RESULTS} if no positive limit was requested.
+    * @param limit the number of items asked for
+    * @return the number of items to return
+    */
+   public static int boundedLimit(int limit) {
+      return limit > 0 ? Math.min(limit, MAX_RESULTS) : MAX_RESULTS;
+   }
+
+   private final List<T> items;
+   private final String nextMarker;
+
+   public Page(Iterable<T> items, @Nullable String nextMarker) {
+      this.items = ImmutableList.copyOf(checkNotNull(items, "items"));
+      this.nextMarker = nextMarker;
+   }
+
+   public List<T> getItems() {
+      return items;
+   }
+
+   /**
+    * @return the marker of the next page, or null if this is the last page
+    */
+   @Nullable
+   public String getNextMarker() {
+      return nextMarker;
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(items, nextMarker);
+   }
+
+   @Override
+   public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (obj == null || getClass() != obj.getClass()) return false;
+      Page<?> that = (Page<?>) obj;
+      return Objects.equal(items, that.items) && Objects.equal(nextMarker, that.nextMarker);
+   }
+
+   @Override
+   public String toString() {
+      return Objects.toStringHelper(this).add("items", items).add("nextMarker", nextMarker).toString();
+   }
+}
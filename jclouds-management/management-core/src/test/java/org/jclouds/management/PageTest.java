@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.management;
+
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+
+@Test(groups = "unit", testName = "PageTest")
+public class PageTest {
+
+   @Test
+   public void testBoundedLimit() {
+      assertEquals(Page.boundedLimit(10), 10);
+      assertEquals(Page.boundedLimit(Page.MAX_RESULTS), Page.MAX_RESULTS);
+      assertEquals(Page.boundedLimit(Page.MAX_RESULTS + 1), Page.MAX_RESULTS);
+      assertEquals(Page.boundedLimit(0), Page.MAX_RESULTS);
+      assertEquals(Page.boundedLimit(-1), Page.MAX_RESULTS);
+   }
+
+   @Test
+   public void testEquals() {
+      Page<String> page = new Page<String>(ImmutableList.of("a", "b"), "b");
+      assertEquals(page, new Page<String>(ImmutableList.of("a", "b"), "b"));
+      assertEquals(page.hashCode(), new Page<String>(ImmutableList.of("a", "b"), "b").hashCode());
+      assertFalse(page.equals(new Page<String>(ImmutableList.of("a", "b"), null)));
+      assertFalse(page.equals(new Page<String>(ImmutableList.of("a"), "b")));
+   }
+
+   @Test
+   public void testLastPageHasNoNextMarker() {
+      Page<String> page = new Page<String>(ImmutableList.<String>of(), null);
+      assertEquals(page.getItems(), ImmutableList.of());
+      assertNull(page.getNextMarker());
+   }
+
+   @Test
+   public void testSerializable() throws Exception {
+      Page<String> page = new Page<String>(ImmutableList.of("a", "b"), "b");
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      ObjectOutputStream out = new ObjectOutputStream(bytes);
+      out.writeObject(page);
+      out.close();
+      ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+      assertEquals(in.readObject(), page);
+   }
+}
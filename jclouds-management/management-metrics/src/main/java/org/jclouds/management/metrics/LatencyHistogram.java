@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.management.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A concurrent latency histogram with log-linear buckets, in the style of HdrHistogram.
+ * Latencies are recorded in microseconds. Each power of two range is split into 32 buckets, so
+ * reported percentiles are within about 3% of the recorded values. Recording only updates
+ * atomic counters and never allocates.
+ */
+public final class LatencyHistogram {
+
+   private static final int SUB_BUCKET_BITS = 5;
+   private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+   /** Latencies of 2^41 microseconds, about 25 days, or more are recorded in the last bucket. */
+   private static final long MAX_VALUE = (1L << 41) - 1;
+
+   private final AtomicLongArray counts = new AtomicLongArray(indexOf(MAX_VALUE) + 1);
+   private final AtomicLong count = new AtomicLong();
+   private final AtomicLong total = new AtomicLong();
+   private final AtomicLong max = new AtomicLong();
+
+   /**
+    * Records a latency.
+    * @param nanos   the latency in nanoseconds
+    */
+   public void record(long nanos) {
+      long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0), MAX_VALUE);
+      counts.incrementAndGet(indexOf(micros));
+      count.incrementAndGet();
+      total.addAndGet(micros);
+      long currentMax = max.get();
+      while (micros > currentMax && !max.compareAndSet(currentMax, micros)) {
+         currentMax = max.get();
+      }
+   }
+
+   /**
+    * @return the number of latencies recorded
+    */
+   public long getCount() {
+      return count.get();
+   }
+
+   /**
+    * @return the highest latency recorded, in microseconds
+    */
+   public long getMax() {
+      return max.get();
+   }
+
+   /**
+    * @return the mean latency, in microseconds, or 0 if nothing was recorded
+    */
+   public double getMean() {
+      long n = count.get();
+      return n == 0 ? 0 : (double) total.get() / n;
+   }
+
+   /**
+    * Returns the latency, in microseconds, that the given percentage of recorded latencies do not
+    * exceed, rounded up to the end of its bucket.
+    * @param percentile   between 0 and 100
+    * @return the latency at the percentile, in microseconds, or 0 if nothing was recorded
+    */
+   public long getValueAtPercentile(double percentile) {
+      long n = count.get();
+      if (n == 0) {
+         return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * n));
+      long seen = 0;
+      for (int i = 0; i < counts.length(); i++) {
+         seen += counts.get(i);
+         if (seen >= rank) {
+            return Math.min(highestEquivalentValue(i), max.get());
+         }
+      }
+      return max.get();
+   }
+
+   /**
+    * Discards all recorded latencies. Latencies recorded concurrently may be partially kept.
+    */
+   public void reset() {
+      for (int i = 0; i < counts.length(); i++) {
+         counts.set(i, 0);
+      }
+      count.set(0);
+      total.set(0);
+      max.set(0);
+   }
+
+   static int indexOf(long value) {
+      if (value < SUB_BUCKETS) {
+         return (int) value;
+      }
+      int exponent = 63 - Long.numberOfLeadingZeros(value);
+      int shift = exponent - SUB_BUCKET_BITS;
+      int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+      return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+   }
+
+   static long highestEquivalentValue(int index) {
+      if (index < SUB_BUCKETS) {
+         return index;
+      }
+      int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+      int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+      return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+   }
+}
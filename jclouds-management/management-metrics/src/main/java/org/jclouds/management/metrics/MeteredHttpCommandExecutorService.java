@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.management.metrics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.ExecutionException;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpResponse;
+
+/**
+ * An {@link HttpCommandExecutorService} that records the {@link RequestMetrics} of the commands
+ * it passes on to the HTTP driver.
+ * <p/>
+ * A command counts as an error if it throws or ends with a status code of 400 or above, and its
+ * retries are the failures the driver retried. Synchronous invocations do not allocate;
+ * submissions add one listener to the driver's future.
+ *
+ * @see MeteredHttpCommandExecutorServiceModule
+ */
+@Singleton
+public class MeteredHttpCommandExecutorService implements HttpCommandExecutorService {
+
+   private final HttpCommandExecutorService delegate;
+   private final RequestMetrics metrics;
+
+   @Inject
+   MeteredHttpCommandExecutorService(
+         @Named(MeteredHttpCommandExecutorServiceModule.DRIVER) HttpCommandExecutorService delegate,
+         RequestMetrics metrics) {
+      this.delegate = checkNotNull(delegate, "delegate");
+      this.metrics = checkNotNull(metrics, "metrics");
+   }
+
+   @Override
+   public HttpResponse invoke(HttpCommand command) {
+      MethodMetrics method = metrics.forRequest(command.getCurrentRequest());
+      long start = method.start();
+      boolean failed = true;
+      try {
+         HttpResponse response = delegate.invoke(command);
+         failed = response == null || response.getStatusCode() >= 400;
+         return response;
+      } finally {
+         method.stop(start, failed, command.getFailureCount());
+      }
+   }
+
+   @Override
+   @Deprecated
+   public ListenableFuture<HttpResponse> submit(final HttpCommand command) {
+      final MethodMetrics method = metrics.forRequest(command.getCurrentRequest());
+      final long start = method.start();
+      final ListenableFuture<HttpResponse> response;
+      try {
+         response = delegate.submit(command);
+      } catch (RuntimeException e) {
+         method.stop(start, true, command.getFailureCount());
+         throw e;
+      }
+      response.addListener(new Runnable() {
+         @Override
+         public void run() {
+            boolean failed = true;
+            try {
+               HttpResponse completed = response.get();
+               failed = completed == null || completed.getStatusCode() >= 400;
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+               // counted as an error
+            } catch (RuntimeException e) {
+               // cancelled; counted as an error
+            }
+            method.stop(start, failed, command.getFailureCount());
+         }
+      }, MoreExecutors.sameThreadExecutor());
+      return response;
+   }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.management.metrics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Scopes;
+import com.google.inject.name.Names;
+
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.config.ConfiguresHttpCommandExecutorService;
+import org.jclouds.http.config.SSLModule;
+import org.jclouds.http.internal.JavaUrlHttpCommandExecutorService;
+
+/**
+ * Configures an HTTP driver whose requests are recorded in the context's {@link RequestMetrics}.
+ * Pass it to the {@link org.jclouds.ContextBuilder} in place of the driver module, giving it the
+ * driver a provider uses, for example:
+ * <pre>
+ * ContextBuilder.newBuilder("digitalocean")
+ *       .modules(ImmutableSet.of(new ManagementLifecycle(managementContext),
+ *             new MeteredHttpCommandExecutorServiceModule(ResponseStatusFromPayloadHttpCommandExecutorService.class)))
+ * </pre>
+ */
+@ConfiguresHttpCommandExecutorService
+public class MeteredHttpCommandExecutorServiceModule extends AbstractModule {
+
+   /**
+    * The name the metered HTTP driver is bound with.
+    */
+   public static final String DRIVER = "jclouds.management.metrics.driver";
+
+   private final Class<? extends HttpCommandExecutorService> driver;
+
+   /**
+    * Meters the default {@link JavaUrlHttpCommandExecutorService} driver.
+    */
+   public MeteredHttpCommandExecutorServiceModule() {
+      this(JavaUrlHttpCommandExecutorService.class);
+   }
+
+   public MeteredHttpCommandExecutorServiceModule(Class<? extends HttpCommandExecutorService> driver) {
+      this.driver = checkNotNull(driver, "driver");
+   }
+
+   @Override
+   protected void configure() {
+      install(new SSLModule());
+      bind(HttpCommandExecutorService.class).annotatedWith(Names.named(DRIVER)).to(driver).in(Scopes.SINGLETON);
+      bind(HttpCommandExecutorService.class).to(MeteredHttpCommandExecutorService.class).in(Scopes.SINGLETON);
+   }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.management.metrics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters and latencies for the requests made by one API method.
+ */
+public final class MethodMetrics {
+
+   private final String name;
+   private final AtomicLong calls = new AtomicLong();
+   private final AtomicLong errors = new AtomicLong();
+   private final AtomicLong retries = new AtomicLong();
+   private final AtomicInteger inFlight = new AtomicInteger();
+   private final LatencyHistogram latency = new LatencyHistogram();
+
+   public MethodMetrics(String name) {
+      this.name = checkNotNull(name, "name");
+   }
+
+   /**
+    * Marks the start of a request.
+    * @return the start time, to be passed to {@link #stop}
+    */
+   public long start() {
+      inFlight.incrementAndGet();
+      return System.nanoTime();
+   }
+
+   /**
+    * Marks the end of a request.
+    * @param start     the value returned by {@link #start}
+    * @param failed    whether the request failed
+    * @param retries   how many times the request was retried
+    */
+   public void stop(long start, boolean failed, int retries) {
+      latency.record(System.nanoTime() - start);
+      inFlight.decrementAndGet();
+      calls.incrementAndGet();
+      if (failed) {
+         errors.incrementAndGet();
+      }
+      if (retries > 0) {
+         this.retries.addAndGet(retries);
+      }
+   }
+
+   public String getName() {
+      return name;
+   }
+
+   public long getCalls() {
+      return calls.get();
+   }
+
+   public long getErrors() {
+      return errors.get();
+   }
+
+   public long getRetries() {
+      return retries.get();
+   }
+
+   public int getInFlight() {
+      return inFlight.get();
+   }
+
+   public LatencyHistogram getLatency() {
+      return latency;
+   }
+
+   /**
+    * Resets the counters and latencies. Requests in flight are still counted.
+    */
+   public void reset() {
+      calls.set(0);
+      errors.set(0);
+      retries.set(0);
+      latency.reset();
+   }
+}
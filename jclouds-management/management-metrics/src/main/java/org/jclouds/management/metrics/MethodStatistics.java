@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.management.metrics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Serializable;
+
+import com.google.common.base.Objects;
+
+/**
+ * A snapshot of the {@link MethodMetrics} of an API method. Latencies are in microseconds.
+ */
+public class MethodStatistics implements Serializable {
+
+   private static final long serialVersionUID = 1L;
+
+   public static MethodStatistics of(MethodMetrics metrics) {
+      LatencyHistogram latency = metrics.getLatency();
+      return new MethodStatistics(metrics.getName(), metrics.getCalls(), metrics.getErrors(), metrics.getRetries(),
+            metrics.getInFlight(), latency.getMean(), latency.getValueAtPercentile(50),
+            latency.getValueAtPercentile(90), latency.getValueAtPercentile(99), latency.getValueAtPercentile(99.9),
+            latency.getMax());
+   }
+
+   private final String name;
+   private final long calls;
+   private final long errors;
+   private final long retries;
+   private final int inFlight;
+   private final double meanLatency;
+   private final long medianLatency;
+   private final long p90Latency;
+   private final long p99Latency;
+   private final long p999Latency;
+   private final long maxLatency;
+
+   public MethodStatistics(String name, long calls, long errors, long retries, int inFlight, double meanLatency,
+                           long medianLatency, long p90Latency, long p99Latency, long p999Latency, long maxLatency) {
+      this.name = checkNotNull(name, "name");
+      this.calls = calls;
+      this.errors = errors;
+      this.retries = retries;
+      this.inFlight = inFlight;
+      this.meanLatency = meanLatency;
+      this.medianLatency = medianLatency;
+      this.p90Latency = p90Latency;
+      this.p99Latency = p99Latency;
+      this.p999Latency = p999Latency;
+      this.maxLatency = maxLatency;
+   }
+
+   public String getName() {
+      return name;
+   }
+
+   public long getCalls() {
+      return calls;
+   }
+
+   public long getErrors() {
+      return errors;
+   }
+
+   public long getRetries() {
+      return retries;
+   }
+
+   public int getInFlight() {
+      return inFlight;
+   }
+
+   public double getMeanLatency() {
+      return meanLatency;
+   }
+
+   public long getMedianLatency() {
+      return medianLatency;
+   }
+
+   public long getP90Latency() {
+      return p90Latency;
+   }
+
+   public long getP99Latency() {
+      return p99Latency;
+   }
+
+   public long getP999Latency() {
+      return p999Latency;
+   }
+
+   public long getMaxLatency() {
+      return maxLatency;
+   }
+
+   @Override
+   public String toString() {
+      return Objects.toStringHelper(this).add("name", name).add("calls", calls).add("errors", errors)
+            .add("retries", retries).add("inFlight", inFlight).add("meanLatency", meanLatency)
+            .add("medianLatency", medianLatency).add("p90Latency", p90Latency).add("p99Latency", p99Latency)
+            .add("p999Latency", p999Latency).add("maxLatency", maxLatency).toString();
+   }
+}
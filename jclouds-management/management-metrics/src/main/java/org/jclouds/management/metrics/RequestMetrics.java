@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.management.metrics;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import javax.inject.Singleton;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.reflect.Invokable;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.rest.internal.GeneratedHttpRequest;
+
+/**
+ * The {@link MethodMetrics} of the requests made by a context, by API method.
+ * <p/>
+ * Requests made through an API interface are counted against the interface and method that made
+ * them; other requests are counted against their HTTP method. Looking the metrics of a request up
+ * does not allocate once its method has been seen.
+ */
+@Singleton
+public class RequestMetrics {
+
+   private final ConcurrentMap<Class<?>, ConcurrentMap<String, MethodMetrics>> byType = Maps.newConcurrentMap();
+
+   /**
+    * Returns the metrics of the API method that made the request.
+    * @param request the request sent, generated from an API method or built by hand
+    * @return the metrics of the API method, or of the HTTP method for requests built by hand
+    */
+   public MethodMetrics forRequest(HttpRequest request) {
+      if (request instanceof GeneratedHttpRequest) {
+         Invokable<?, ?> invokable = ((GeneratedHttpRequest) request).getInvocation().getInvokable();
+         return forMethod(invokable.getDeclaringClass(), invokable.getName());
+      }
+      return forMethod(HttpRequest.class, request.getMethod());
+   }
+
+   /**
+    * Returns the metrics of a method, creating them the first time the method is seen.
+    * @param type   the class declaring the method
+    * @param name   the name of the method
+    * @return the metrics of the method
+    */
+   public MethodMetrics forMethod(Class<?> type, String name) {
+      ConcurrentMap<String, MethodMetrics> methods = byType.get(type);
+      if (methods == null) {
+         ConcurrentMap<String, MethodMetrics> created = Maps.newConcurrentMap();
+         methods = byType.putIfAbsent(type, created);
+         if (methods == null) {
+            methods = created;
+         }
+      }
+      MethodMetrics metrics = methods.get(name);
+      if (metrics == null) {
+         MethodMetrics created = new MethodMetrics(type.getSimpleName() + "." + name);
+         metrics = methods.putIfAbsent(name, created);
+         if (metrics == null) {
+            metrics = created;
+         }
+      }
+      return metrics;
+   }
+
+   /**
+    * @return the metrics of every method seen so far
+    */
+   public List<MethodMetrics> list() {
+      ImmutableList.Builder<MethodMetrics> builder = ImmutableList.builder();
+      for (ConcurrentMap<String, MethodMetrics> methods : byType.values()) {
+         builder.addAll(methods.values());
+      }
+      return builder.build();
+   }
+
+   /**
+    * Resets the metrics of every method.
+    */
+   public void reset() {
+      for (MethodMetrics metrics : list()) {
+         metrics.reset();
+      }
+   }
+}
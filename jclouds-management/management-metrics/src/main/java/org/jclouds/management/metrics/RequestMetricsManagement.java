@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.management.metrics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+import org.jclouds.View;
+import org.jclouds.management.ViewMBean;
+
+public class RequestMetricsManagement implements RequestMetricsManagementMBean, ViewMBean<View> {
+
+   private final RequestMetrics metrics;
+
+   public RequestMetricsManagement(View view) {
+      this(view.unwrap().utils().injector().getInstance(RequestMetrics.class));
+   }
+
+   public RequestMetricsManagement(RequestMetrics metrics) {
+      this.metrics = checkNotNull(metrics, "metrics");
+   }
+
+   @Override
+   public List<MethodStatistics> getMethods() {
+      ImmutableList.Builder<MethodStatistics> builder = ImmutableList.builder();
+      for (MethodMetrics method : metrics.list()) {
+         builder.add(MethodStatistics.of(method));
+      }
+      return builder.build();
+   }
+
+   @Override
+   public MethodStatistics getMethod(String name) {
+      for (MethodMetrics method : metrics.list()) {
+         if (method.getName().equals(name)) {
+            return MethodStatistics.of(method);
+         }
+      }
+      return null;
+   }
+
+   @Override
+   public int getInFlight() {
+      int inFlight = 0;
+      for (MethodMetrics method : metrics.list()) {
+         inFlight += method.getInFlight();
+      }
+      return inFlight;
+   }
+
+   @Override
+   public void reset() {
+      metrics.reset();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public String getType() {
+      return "metrics";
+   }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.management.metrics;
+
+import java.util.List;
+
+public interface RequestMetricsManagementMBean {
+
+   /**
+    * @return the statistics of every API method called so far
+    */
+   List<MethodStatistics> getMethods();
+
+   /**
+    * Returns the statistics of an API method, such as {@code ServerApi.list}.
+    * @param name the simple name of the API class and the method name, separated by a dot
+    * @return the statistics, or null if the method has not been called
+    */
+   MethodStatistics getMethod(String name);
+
+   /**
+    * @return the number of requests in flight, across all methods
+    */
+   int getInFlight();
+
+   /**
+    * Resets the statistics of every method.
+    */
+   void reset();
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.management.metrics;
+
+import com.google.common.reflect.TypeToken;
+
+import org.jclouds.View;
+import org.jclouds.management.ViewMBean;
+import org.jclouds.management.ViewMBeanFactory;
+
+/**
+ * Creates a {@link RequestMetricsManagement} for every {@link View}. Requests are only recorded
+ * for contexts built with a {@link MeteredHttpCommandExecutorServiceModule}.
+ */
+public class RequestMetricsViewMBeanFactory implements ViewMBeanFactory<View> {
+
+   private static final TypeToken<View> TYPE = TypeToken.of(View.class);
+
+   /**
+    * Creates a {@link org.jclouds.management.ManagedBean} for the Context.
+    *
+    * @param view the view whose requests are measured
+    * @return the request metrics bean of the view
+    */
+   @Override
+   public ViewMBean<View> create(View view) {
+      return new RequestMetricsManagement(view);
+   }
+
+   /**
+    * Returns the {@link com.google.common.reflect.TypeToken} of the {@link org.jclouds.View}.
+    *
+    * @return the type of the views this factory creates beans for
+    */
+   @Override
+   public TypeToken<View> getViewType() {
+      return TYPE;
+   }
+}
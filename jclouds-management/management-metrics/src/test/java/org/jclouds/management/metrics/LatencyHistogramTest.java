@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.management.metrics;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "LatencyHistogramTest")
+public class LatencyHistogramTest {
+
+   @Test
+   void testBucketsCoverEveryValue() {
+      for (long value = 0; value < 1 << 20; value += 7) {
+         int index = LatencyHistogram.indexOf(value);
+         assertTrue(LatencyHistogram.highestEquivalentValue(index) >= value, String.valueOf(value));
+         if (index > 0) {
+            assertTrue(LatencyHistogram.highestEquivalentValue(index - 1) < value, String.valueOf(value));
+         }
+      }
+   }
+
+   @Test
+   void testPercentiles() {
+      LatencyHistogram histogram = new LatencyHistogram();
+      for (int millis = 1; millis <= 100; millis++) {
+         histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+      }
+      assertEquals(histogram.getCount(), 100);
+      assertEquals(histogram.getMax(), 100000);
+      assertEquals(histogram.getMean(), 50500.0);
+      assertWithinPrecision(histogram.getValueAtPercentile(50), 50000);
+      assertWithinPrecision(histogram.getValueAtPercentile(99), 99000);
+      assertEquals(histogram.getValueAtPercentile(100), 100000);
+
+      histogram.reset();
+      assertEquals(histogram.getCount(), 0);
+      assertEquals(histogram.getValueAtPercentile(50), 0);
+   }
+
+   private static void assertWithinPrecision(long actual, long expected) {
+      assertTrue(actual >= expected && actual <= expected * 1.04, actual + " is not close to " + expected);
+   }
+}
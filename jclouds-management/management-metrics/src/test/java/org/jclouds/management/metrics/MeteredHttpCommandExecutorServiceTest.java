@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.management.metrics;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "MeteredHttpCommandExecutorServiceTest")
+public class MeteredHttpCommandExecutorServiceTest {
+
+   private final HttpRequest request = HttpRequest.builder().method("GET").endpoint("http://localhost/servers").build();
+
+   @Test
+   void testRecordsCallsErrorsAndRetries() {
+      HttpCommandExecutorService driver = createMock(HttpCommandExecutorService.class);
+      HttpCommand ok = createMock(HttpCommand.class);
+      HttpCommand notFound = createMock(HttpCommand.class);
+      HttpResponse okResponse = HttpResponse.builder().statusCode(200).build();
+
+      expect(ok.getCurrentRequest()).andReturn(request);
+      expect(ok.getFailureCount()).andReturn(2);
+      expect(driver.invoke(ok)).andReturn(okResponse);
+      expect(notFound.getCurrentRequest()).andReturn(request);
+      expect(notFound.getFailureCount()).andReturn(0);
+      expect(driver.invoke(notFound)).andReturn(HttpResponse.builder().statusCode(404).build());
+      replay(driver, ok, notFound);
+
+      RequestMetrics metrics = new RequestMetrics();
+      MeteredHttpCommandExecutorService metered = new MeteredHttpCommandExecutorService(driver, metrics);
+      assertSame(metered.invoke(ok), okResponse);
+      metered.invoke(notFound);
+
+      MethodMetrics get = metrics.forMethod(HttpRequest.class, "GET");
+      assertEquals(get.getName(), "HttpRequest.GET");
+      assertEquals(get.getCalls(), 2);
+      assertEquals(get.getErrors(), 1);
+      assertEquals(get.getRetries(), 2);
+      assertEquals(get.getInFlight(), 0);
+      assertEquals(get.getLatency().getCount(), 2);
+      verify(driver, ok, notFound);
+   }
+
+   @Test
+   void testCountsExceptionsAsErrors() {
+      HttpCommandExecutorService driver = createMock(HttpCommandExecutorService.class);
+      HttpCommand command = createMock(HttpCommand.class);
+
+      expect(command.getCurrentRequest()).andReturn(request);
+      expect(command.getFailureCount()).andReturn(5);
+      expect(driver.invoke(command)).andThrow(new IllegalStateException("connection refused"));
+      replay(driver, command);
+
+      RequestMetrics metrics = new RequestMetrics();
+      try {
+         new MeteredHttpCommandExecutorService(driver, metrics).invoke(command);
+         fail("expected the driver failure to be rethrown");
+      } catch (IllegalStateException e) {
+         // expected
+      }
+
+      RequestMetricsManagement management = new RequestMetricsManagement(metrics);
+      MethodStatistics statistics = management.getMethod("HttpRequest.GET");
+      assertEquals(statistics.getCalls(), 1);
+      assertEquals(statistics.getErrors(), 1);
+      assertEquals(statistics.getRetries(), 5);
+      assertEquals(management.getInFlight(), 0);
+      verify(driver, command);
+   }
+}
@@ -96,6 +96,10 @@ public class LoginCredentials implements Serializable {
       return password;
    }
 
+   public String getPrivateKey() {
+      return privateKey;
+   }
+
    public String getCredentialUrl() {
       return credentialUrl;
    }
@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.representations.binary;
+
+import com.google.common.collect.ImmutableList;
+import org.jclouds.blobstore.representations.Blob;
+import org.jclouds.blobstore.representations.BlobMetadata;
+import org.jclouds.blobstore.representations.ContentMetadata;
+import org.jclouds.blobstore.representations.StorageMetadata;
+import org.jclouds.compute.representations.ExecResponse;
+import org.jclouds.compute.representations.Hardware;
+import org.jclouds.compute.representations.Image;
+import org.jclouds.compute.representations.LoginCredentials;
+import org.jclouds.compute.representations.NodeMetadata;
+import org.jclouds.compute.representations.OperatingSystem;
+import org.jclouds.compute.representations.Processor;
+import org.jclouds.compute.representations.Volume;
+import org.jclouds.representations.ApiMetadata;
+import org.jclouds.representations.Context;
+import org.jclouds.representations.Location;
+import org.jclouds.representations.ProviderMetadata;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A compact binary encoding of the representation types, smaller and faster than Java serialization.
+ * <p/>
+ * A stream starts with a header naming the schema version and the type it holds, followed by any number
+ * of records and an end marker. Repeated ids are written once per stream and referred to by index
+ * afterwards, so large collections should be written to one stream with {@link #newEncoder(OutputStream)}
+ * rather than encoded one at a time.
+ * <p/>
+ * Encoders and decoders are not thread safe; a codec is.
+ */
+public final class BinaryCodec<T> {
+
+   /**
+    * The version of the layouts written by this codec. Streams written with an older version can be read.
+    */
+   public static final int SCHEMA_VERSION = 1;
+
+   static final int MAGIC = 0x4A52;
+   static final int RECORD = 1;
+   static final int END = 0;
+
+   public static final BinaryCodec<Location> LOCATION = new BinaryCodec<Location>(Schemas.LOCATION);
+   public static final BinaryCodec<Context> CONTEXT = new BinaryCodec<Context>(Schemas.CONTEXT);
+   public static final BinaryCodec<ApiMetadata> API_METADATA = new BinaryCodec<ApiMetadata>(Schemas.API_METADATA);
+   public static final BinaryCodec<ProviderMetadata> PROVIDER_METADATA = new BinaryCodec<ProviderMetadata>(Schemas.PROVIDER_METADATA);
+   public static final BinaryCodec<LoginCredentials> LOGIN_CREDENTIALS = new BinaryCodec<LoginCredentials>(Schemas.LOGIN_CREDENTIALS);
+   public static final BinaryCodec<OperatingSystem> OPERATING_SYSTEM = new BinaryCodec<OperatingSystem>(Schemas.OPERATING_SYSTEM);
+   public static final BinaryCodec<Processor> PROCESSOR = new BinaryCodec<Processor>(Schemas.PROCESSOR);
+   public static final BinaryCodec<Volume> VOLUME = new BinaryCodec<Volume>(Schemas.VOLUME);
+   public static final BinaryCodec<Hardware> HARDWARE = new BinaryCodec<Hardware>(Schemas.HARDWARE);
+   public static final BinaryCodec<Image> IMAGE = new BinaryCodec<Image>(Schemas.IMAGE);
+   public static final BinaryCodec<NodeMetadata> NODE_METADATA = new BinaryCodec<NodeMetadata>(Schemas.NODE_METADATA);
+   public static final BinaryCodec<ExecResponse> EXEC_RESPONSE = new BinaryCodec<ExecResponse>(Schemas.EXEC_RESPONSE);
+   public static final BinaryCodec<ContentMetadata> CONTENT_METADATA = new BinaryCodec<ContentMetadata>(Schemas.CONTENT_METADATA);
+   public static final BinaryCodec<StorageMetadata> STORAGE_METADATA = new BinaryCodec<StorageMetadata>(Schemas.STORAGE_METADATA);
+   public static final BinaryCodec<BlobMetadata> BLOB_METADATA = new BinaryCodec<BlobMetadata>(Schemas.BLOB_METADATA);
+   public static final BinaryCodec<Blob> BLOB = new BinaryCodec<Blob>(Schemas.BLOB);
+
+   private final Schema<T> schema;
+
+   private BinaryCodec(Schema<T> schema) {
+      this.schema = schema;
+   }
+
+   public Class<T> getType() {
+      return schema.getType();
+   }
+
+   public byte[] encode(T value) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try {
+         Encoder<T> encoder = new Encoder<T>(schema, bytes);
+         encoder.write(value);
+         encoder.close();
+      } catch (IOException e) {
+         throw new IllegalStateException("I/O error writing to memory", e);
+      }
+      return bytes.toByteArray();
+   }
+
+   public T decode(byte[] bytes) throws IOException {
+      Decoder<T> decoder = new Decoder<T>(schema, new ByteArrayInputStream(bytes));
+      try {
+         T value = decoder.read();
+         if (value == null) {
+            throw new EOFException("no " + schema.getType().getSimpleName() + " in stream");
+         }
+         return value;
+      } finally {
+         decoder.close();
+      }
+   }
+
+   /**
+    * Writes all the values to one stream, and closes it.
+    */
+   public void encodeAll(Iterable<? extends T> values, OutputStream out) throws IOException {
+      Encoder<T> encoder = newEncoder(out);
+      try {
+         for (T value : values) {
+            encoder.write(value);
+         }
+      } finally {
+         encoder.close();
+      }
+   }
+
+   /**
+    * Reads all the values of a stream, and closes it.
+    */
+   public List<T> decodeAll(InputStream in) throws IOException {
+      Decoder<T> decoder = newDecoder(in);
+      try {
+         ImmutableList.Builder<T> values = ImmutableList.builder();
+         for (T value = decoder.read(); value != null; value = decoder.read()) {
+            values.add(value);
+         }
+         return values.build();
+      } finally {
+         decoder.close();
+      }
+   }
+
+   /**
+    * Starts a stream of values. The stream is not complete until the encoder is closed.
+    */
+   public Encoder<T> newEncoder(OutputStream out) throws IOException {
+      return new Encoder<T>(schema, new BufferedOutputStream(checkNotNull(out, "out")));
+   }
+
+   /**
+    * Reads a stream written by {@link #newEncoder(OutputStream)}, checking its header first.
+    */
+   public Decoder<T> newDecoder(InputStream in) throws IOException {
+      return new Decoder<T>(schema, new BufferedInputStream(checkNotNull(in, "in")));
+   }
+
+   public static final class Encoder<T> implements Closeable {
+      private final Schema<T> schema;
+      private final BinaryOutput out;
+      private boolean closed;
+
+      private Encoder(Schema<T> schema, OutputStream out) throws IOException {
+         this.schema = schema;
+         this.out = new BinaryOutput(out);
+         this.out.writeByte(MAGIC >>> 8);
+         this.out.writeByte(MAGIC & 0xFF);
+         this.out.writeVarInt(SCHEMA_VERSION);
+         this.out.writeByte(schema.getTag());
+      }
+
+      public void write(T value) throws IOException {
+         checkNotNull(value, "value");
+         if (closed) {
+            throw new IOException("encoder closed");
+         }
+         out.writeByte(RECORD);
+         schema.write(value, out);
+      }
+
+      /**
+       * Sends what has been written so far, for example to a reader waiting on the other end.
+       */
+      public void flush() throws IOException {
+         out.flush();
+      }
+
+      /**
+       * Ends the stream and closes the underlying output.
+       */
+      @Override
+      public void close() throws IOException {
+         if (!closed) {
+            closed = true;
+            out.writeByte(END);
+            out.close();
+         }
+      }
+   }
+
+   public static final class Decoder<T> implements Closeable {
+      private final Schema<T> schema;
+      private final BinaryInput in;
+      private final int version;
+      private boolean ended;
+
+      private Decoder(Schema<T> schema, InputStream in) throws IOException {
+         this.schema = schema;
+         this.in = new BinaryInput(in);
+         int magic = (this.in.readByte() << 8) | this.in.readByte();
+         if (magic != MAGIC) {
+            throw new StreamCorruptedException("not a representation stream");
+         }
+         this.version = this.in.readVarInt();
+         if (version < 1 || version > SCHEMA_VERSION) {
+            throw new StreamCorruptedException("schema version " + version + " is not supported, the latest is "
+                    + SCHEMA_VERSION);
+         }
+         int tag = this.in.readByte();
+         if (tag != schema.getTag()) {
+            throw new StreamCorruptedException("stream does not hold " + schema.getType().getSimpleName()
+                    + " but type " + tag);
+         }
+      }
+
+      /**
+       * @return the version of the schema the stream was written with
+       */
+      public int getVersion() {
+         return version;
+      }
+
+      /**
+       * @return the next value, or null once the end of the stream has been reached
+       * @throws EOFException if the stream ends before its end marker
+       */
+      public T read() throws IOException {
+         if (ended) {
+            return null;
+         }
+         int marker = in.readByteOrEnd();
+         switch (marker) {
+            case RECORD:
+               return schema.read(in, version);
+            case END:
+               ended = true;
+               return null;
+            case -1:
+               throw new EOFException("stream ended without an end marker");
+            default:
+               throw new StreamCorruptedException("unexpected marker " + marker);
+         }
+      }
+
+      @Override
+      public void close() throws IOException {
+         in.close();
+      }
+   }
+}
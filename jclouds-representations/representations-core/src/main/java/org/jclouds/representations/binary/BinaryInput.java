@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.representations.binary;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.jclouds.representations.binary.BinaryOutput.INTERN;
+import static org.jclouds.representations.binary.BinaryOutput.LITERAL;
+import static org.jclouds.representations.binary.BinaryOutput.NULL;
+import static org.jclouds.representations.binary.BinaryOutput.REFERENCE;
+
+/**
+ * Reads what {@link BinaryOutput} writes. Interned strings decode to the same instance every time they
+ * occur in a stream.
+ */
+final class BinaryInput implements Closeable {
+
+   private final DataInputStream in;
+   private final List<String> interned = Lists.newArrayList();
+
+   BinaryInput(InputStream in) {
+      this.in = new DataInputStream(in);
+   }
+
+   /**
+    * @return the next byte, or -1 at the end of the stream
+    */
+   int readByteOrEnd() throws IOException {
+      return in.read();
+   }
+
+   int readByte() throws IOException {
+      return in.readUnsignedByte();
+   }
+
+   boolean readBoolean() throws IOException {
+      return in.readBoolean();
+   }
+
+   double readDouble() throws IOException {
+      return in.readDouble();
+   }
+
+   int readVarInt() throws IOException {
+      int value = 0;
+      for (int shift = 0; shift < 35; shift += 7) {
+         int b = in.readUnsignedByte();
+         value |= (b & 0x7F) << shift;
+         if ((b & 0x80) == 0) {
+            return value;
+         }
+      }
+      throw new StreamCorruptedException("malformed variable length int");
+   }
+
+   long readVarLong() throws IOException {
+      long value = 0;
+      for (int shift = 0; shift < 70; shift += 7) {
+         int b = in.readUnsignedByte();
+         value |= (long) (b & 0x7F) << shift;
+         if ((b & 0x80) == 0) {
+            return value;
+         }
+      }
+      throw new StreamCorruptedException("malformed variable length long");
+   }
+
+   int readInt() throws IOException {
+      int value = readVarInt();
+      return (value >>> 1) ^ -(value & 1);
+   }
+
+   Long readNullableLong() throws IOException {
+      if (!in.readBoolean()) {
+         return null;
+      }
+      long value = readVarLong();
+      return (value >>> 1) ^ -(value & 1);
+   }
+
+   Float readNullableFloat() throws IOException {
+      return in.readBoolean() ? in.readFloat() : null;
+   }
+
+   byte[] readBytes() throws IOException {
+      int length = readVarInt();
+      if (length == 0) {
+         return null;
+      }
+      byte[] bytes = new byte[length - 1];
+      in.readFully(bytes);
+      return bytes;
+   }
+
+   /**
+    * Reads a string written by either {@link BinaryOutput#writeString(String)} or
+    * {@link BinaryOutput#writeInterned(String)}.
+    */
+   String readString() throws IOException {
+      int tag = readVarInt();
+      switch (tag) {
+         case NULL:
+            return null;
+         case LITERAL:
+            return readUtf8();
+         case INTERN:
+            String value = readUtf8();
+            interned.add(value);
+            return value;
+         default:
+            int index = tag - REFERENCE;
+            if (index < 0 || index >= interned.size()) {
+               throw new StreamCorruptedException("reference to string " + index + " of " + interned.size());
+            }
+            return interned.get(index);
+      }
+   }
+
+   Set<String> readStringSet() throws IOException {
+      int size = readVarInt();
+      if (size == 0) {
+         return null;
+      }
+      Set<String> values = Sets.newLinkedHashSet();
+      for (int i = 1; i < size; i++) {
+         values.add(readString());
+      }
+      return values;
+   }
+
+   List<String> readStringList() throws IOException {
+      int size = readVarInt();
+      if (size == 0) {
+         return null;
+      }
+      List<String> values = Lists.newArrayList();
+      for (int i = 1; i < size; i++) {
+         values.add(readString());
+      }
+      return values;
+   }
+
+   Map<String, String> readStringMap() throws IOException {
+      int size = readVarInt();
+      if (size == 0) {
+         return null;
+      }
+      Map<String, String> values = Maps.newLinkedHashMap();
+      for (int i = 1; i < size; i++) {
+         values.put(readString(), readString());
+      }
+      return values;
+   }
+
+   Map<String, Collection<String>> readMultimap() throws IOException {
+      int size = readVarInt();
+      if (size == 0) {
+         return null;
+      }
+      Map<String, Collection<String>> values = Maps.newLinkedHashMap();
+      for (int i = 1; i < size; i++) {
+         values.put(readString(), readStringList());
+      }
+      return values;
+   }
+
+   <T> T readNullable(Schema<T> schema, int version) throws IOException {
+      return in.readBoolean() ? schema.read(this, version) : null;
+   }
+
+   <T> List<T> readList(Schema<T> schema, int version) throws IOException {
+      int size = readVarInt();
+      if (size == 0) {
+         return null;
+      }
+      List<T> values = Lists.newArrayList();
+      for (int i = 1; i < size; i++) {
+         values.add(readNullable(schema, version));
+      }
+      return values;
+   }
+
+   private String readUtf8() throws IOException {
+      int length = readVarInt();
+      if (length < 0) {
+         throw new StreamCorruptedException("negative string length " + length);
+      }
+      byte[] bytes = new byte[length];
+      in.readFully(bytes);
+      return new String(bytes, Charsets.UTF_8);
+   }
+
+   @Override
+   public void close() throws IOException {
+      in.close();
+   }
+}
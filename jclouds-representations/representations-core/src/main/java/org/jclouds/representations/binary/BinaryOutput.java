@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.representations.binary;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Maps;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the primitives of the binary format. Strings written with {@link #writeInterned(String)} are
+ * written once per stream and then referred to by their position in the stream's string table.
+ */
+final class BinaryOutput implements Flushable, Closeable {
+
+   /**
+    * The most strings a stream remembers. Later strings are still written, but not interned.
+    */
+   static final int MAX_INTERNED = 1 << 14;
+
+   static final int NULL = 0;
+   static final int LITERAL = 1;
+   static final int INTERN = 2;
+   static final int REFERENCE = 3;
+
+   private final DataOutputStream out;
+   private final Map<String, Integer> interned = Maps.newHashMap();
+
+   BinaryOutput(OutputStream out) {
+      this.out = new DataOutputStream(out);
+   }
+
+   void writeByte(int value) throws IOException {
+      out.writeByte(value);
+   }
+
+   void writeBoolean(boolean value) throws IOException {
+      out.writeBoolean(value);
+   }
+
+   void writeDouble(double value) throws IOException {
+      out.writeDouble(value);
+   }
+
+   /**
+    * Writes a non negative int in 7 bit groups, so that small values take a single byte.
+    */
+   void writeVarInt(int value) throws IOException {
+      while ((value & ~0x7F) != 0) {
+         out.writeByte((value & 0x7F) | 0x80);
+         value >>>= 7;
+      }
+      out.writeByte(value);
+   }
+
+   void writeVarLong(long value) throws IOException {
+      while ((value & ~0x7FL) != 0) {
+         out.writeByte((int) (value & 0x7F) | 0x80);
+         value >>>= 7;
+      }
+      out.writeByte((int) value);
+   }
+
+   /**
+    * Writes an int that may be negative, zig-zag encoded so that small magnitudes stay small.
+    */
+   void writeInt(int value) throws IOException {
+      writeVarInt((value << 1) ^ (value >> 31));
+   }
+
+   void writeNullableLong(Long value) throws IOException {
+      out.writeBoolean(value != null);
+      if (value != null) {
+         writeVarLong((value << 1) ^ (value >> 63));
+      }
+   }
+
+   void writeNullableFloat(Float value) throws IOException {
+      out.writeBoolean(value != null);
+      if (value != null) {
+         out.writeFloat(value);
+      }
+   }
+
+   void writeBytes(byte[] value) throws IOException {
+      if (value == null) {
+         writeVarInt(0);
+      } else {
+         writeVarInt(value.length + 1);
+         out.write(value);
+      }
+   }
+
+   /**
+    * Writes a string that is unlikely to repeat, such as a description or a password.
+    */
+   void writeString(String value) throws IOException {
+      if (value == null) {
+         writeVarInt(NULL);
+      } else {
+         writeVarInt(LITERAL);
+         writeUtf8(value);
+      }
+   }
+
+   /**
+    * Writes a string that is likely to repeat in the stream, such as an id, a status or a key.
+    */
+   void writeInterned(String value) throws IOException {
+      if (value == null) {
+         writeVarInt(NULL);
+         return;
+      }
+      Integer index = interned.get(value);
+      if (index != null) {
+         writeVarInt(REFERENCE + index);
+      } else if (interned.size() < MAX_INTERNED) {
+         interned.put(value, interned.size());
+         writeVarInt(INTERN);
+         writeUtf8(value);
+      } else {
+         writeVarInt(LITERAL);
+         writeUtf8(value);
+      }
+   }
+
+   void writeInternedStrings(Collection<String> values) throws IOException {
+      if (values == null) {
+         writeVarInt(0);
+         return;
+      }
+      writeVarInt(values.size() + 1);
+      for (String value : values) {
+         writeInterned(value);
+      }
+   }
+
+   /**
+    * Writes a map with interned keys and literal values.
+    */
+   void writeStringMap(Map<String, String> values) throws IOException {
+      if (values == null) {
+         writeVarInt(0);
+         return;
+      }
+      writeVarInt(values.size() + 1);
+      for (Map.Entry<String, String> entry : values.entrySet()) {
+         writeInterned(entry.getKey());
+         writeString(entry.getValue());
+      }
+   }
+
+   void writeMultimap(Map<String, Collection<String>> values) throws IOException {
+      if (values == null) {
+         writeVarInt(0);
+         return;
+      }
+      writeVarInt(values.size() + 1);
+      for (Map.Entry<String, Collection<String>> entry : values.entrySet()) {
+         writeInterned(entry.getKey());
+         writeInternedStrings(entry.getValue());
+      }
+   }
+
+   <T> void writeNullable(T value, Schema<T> schema) throws IOException {
+      out.writeBoolean(value != null);
+      if (value != null) {
+         schema.write(value, this);
+      }
+   }
+
+   <T> void writeList(List<T> values, Schema<T> schema) throws IOException {
+      if (values == null) {
+         writeVarInt(0);
+         return;
+      }
+      writeVarInt(values.size() + 1);
+      for (T value : values) {
+         writeNullable(value, schema);
+      }
+   }
+
+   private void writeUtf8(String value) throws IOException {
+      byte[] bytes = value.getBytes(Charsets.UTF_8);
+      writeVarInt(bytes.length);
+      out.write(bytes);
+   }
+
+   @Override
+   public void flush() throws IOException {
+      out.flush();
+   }
+
+   @Override
+   public void close() throws IOException {
+      out.close();
+   }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.representations.binary;
+
+import java.io.IOException;
+
+/**
+ * The binary layout of one representation type.
+ * <p/>
+ * A layout may only change by appending fields and raising {@link BinaryCodec#SCHEMA_VERSION}, reading
+ * the new fields only when the stream version is high enough, so that older streams stay readable.
+ */
+abstract class Schema<T> {
+
+   private final int tag;
+   private final Class<T> type;
+
+   Schema(int tag, Class<T> type) {
+      this.tag = tag;
+      this.type = type;
+   }
+
+   /**
+    * @return the byte identifying this type in a stream header
+    */
+   int getTag() {
+      return tag;
+   }
+
+   Class<T> getType() {
+      return type;
+   }
+
+   abstract void write(T value, BinaryOutput out) throws IOException;
+
+   /**
+    * @param version the schema version the stream was written with
+    */
+   abstract T read(BinaryInput in, int version) throws IOException;
+}
@@ -0,0 +1,358 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.representations.binary;
+
+import org.jclouds.blobstore.representations.Blob;
+import org.jclouds.blobstore.representations.BlobMetadata;
+import org.jclouds.blobstore.representations.ContentMetadata;
+import org.jclouds.blobstore.representations.StorageMetadata;
+import org.jclouds.compute.representations.ExecResponse;
+import org.jclouds.compute.representations.Hardware;
+import org.jclouds.compute.representations.Image;
+import org.jclouds.compute.representations.LoginCredentials;
+import org.jclouds.compute.representations.NodeMetadata;
+import org.jclouds.compute.representations.OperatingSystem;
+import org.jclouds.compute.representations.Processor;
+import org.jclouds.compute.representations.Volume;
+import org.jclouds.representations.ApiMetadata;
+import org.jclouds.representations.Context;
+import org.jclouds.representations.Location;
+import org.jclouds.representations.ProviderMetadata;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * The layouts of the representation types, version 1. Ids, statuses, groups, scopes and keys are
+ * interned; descriptions, credentials and values are written as they are.
+ */
+final class Schemas {
+
+   private Schemas() {
+      //Utility Class
+   }
+
+   static final Schema<Location> LOCATION = new Schema<Location>(1, Location.class) {
+      @Override
+      void write(Location value, BinaryOutput out) throws IOException {
+         out.writeInterned(value.getId());
+         out.writeInterned(value.getScope());
+         out.writeString(value.getDescription());
+         out.writeInterned(value.getParentId());
+         out.writeInternedStrings(value.getIso3166Codes());
+      }
+
+      @Override
+      Location read(BinaryInput in, int version) throws IOException {
+         Location.Builder builder = Location.builder().id(in.readString()).scope(in.readString())
+                 .description(in.readString()).parentId(in.readString());
+         Set<String> iso3166Codes = in.readStringSet();
+         if (iso3166Codes != null) {
+            builder.iso3166Codes(iso3166Codes);
+         }
+         return builder.build();
+      }
+   };
+
+   static final Schema<Context> CONTEXT = new Schema<Context>(2, Context.class) {
+      @Override
+      void write(Context value, BinaryOutput out) throws IOException {
+         out.writeInterned(value.getName());
+         out.writeInterned(value.getProviderId());
+         out.writeInterned(value.getIdentity());
+      }
+
+      @Override
+      Context read(BinaryInput in, int version) throws IOException {
+         return new Context(in.readString(), in.readString(), in.readString());
+      }
+   };
+
+   static final Schema<ApiMetadata> API_METADATA = new Schema<ApiMetadata>(3, ApiMetadata.class) {
+      @Override
+      void write(ApiMetadata value, BinaryOutput out) throws IOException {
+         out.writeInterned(value.getId());
+         out.writeString(value.getName());
+         out.writeInterned(value.getEndpointName());
+         out.writeInterned(value.getIdentityName());
+         out.writeInterned(value.getCredentialName());
+         out.writeInterned(value.getVersion());
+         out.writeString(value.getDefaultEndpoint());
+         out.writeString(value.getDefaultIdentity());
+         out.writeString(value.getDefaultCredential());
+         out.writeStringMap(value.getDefaultProperties());
+         out.writeInternedStrings(value.getDefaultModules());
+         out.writeString(value.getDocumentation());
+         out.writeInterned(value.getContext());
+         out.writeInternedStrings(value.getViews());
+      }
+
+      @Override
+      ApiMetadata read(BinaryInput in, int version) throws IOException {
+         return new ApiMetadata(in.readString(), in.readString(), in.readString(), in.readString(), in.readString(),
+                 in.readString(), in.readString(), in.readString(), in.readString(), in.readStringMap(),
+                 in.readStringSet(), in.readString(), in.readString(), in.readStringSet());
+      }
+   };
+
+   static final Schema<ProviderMetadata> PROVIDER_METADATA = new Schema<ProviderMetadata>(4, ProviderMetadata.class) {
+      @Override
+      void write(ProviderMetadata value, BinaryOutput out) throws IOException {
+         out.writeInterned(value.getId());
+         out.writeString(value.getName());
+         out.writeString(value.getDocumentation());
+         out.writeInterned(value.getEndpointName());
+         out.writeInterned(value.getIdentityName());
+         out.writeInterned(value.getCredentialName());
+         out.writeInternedStrings(value.getDefaultModules());
+         out.writeInternedStrings(value.getViews());
+         out.writeString(value.getEndpoint());
+         out.writeStringMap(value.getDefaultProperties());
+         out.writeString(value.getConsole());
+         out.writeString(value.getHomePage());
+         out.writeInternedStrings(value.getLinkedServices());
+         out.writeInternedStrings(value.getIso3166Codes());
+      }
+
+      @Override
+      ProviderMetadata read(BinaryInput in, int version) throws IOException {
+         return new ProviderMetadata(in.readString(), in.readString(), in.readString(), in.readString(),
+                 in.readString(), in.readString(), in.readStringSet(), in.readStringSet(), in.readString(),
+                 in.readStringMap(), in.readString(), in.readString(), in.readStringSet(), in.readStringSet());
+      }
+   };
+
+   static final Schema<LoginCredentials> LOGIN_CREDENTIALS = new Schema<LoginCredentials>(5, LoginCredentials.class) {
+      @Override
+      void write(LoginCredentials value, BinaryOutput out) throws IOException {
+         out.writeInterned(value.getUsername());
+         out.writeString(value.getPassword());
+         out.writeString(value.getPrivateKey());
+         out.writeString(value.getCredentialUrl());
+         out.writeBoolean(value.isAuthenticatedSudo());
+      }
+
+      @Override
+      LoginCredentials read(BinaryInput in, int version) throws IOException {
+         return new LoginCredentials(in.readString(), in.readString(), in.readString(), in.readString(),
+                 in.readBoolean());
+      }
+   };
+
+   static final Schema<OperatingSystem> OPERATING_SYSTEM = new Schema<OperatingSystem>(6, OperatingSystem.class) {
+      @Override
+      void write(OperatingSystem value, BinaryOutput out) throws IOException {
+         out.writeInterned(value.getFamily());
+         out.writeInterned(value.getName());
+         out.writeInterned(value.getArch());
+         out.writeInterned(value.getVersion());
+         out.writeString(value.getDescription());
+         out.writeBoolean(value.isIs64Bit());
+      }
+
+      @Override
+      OperatingSystem read(BinaryInput in, int version) throws IOException {
+         return new OperatingSystem(in.readString(), in.readString(), in.readString(), in.readString(),
+                 in.readString(), in.readBoolean());
+      }
+   };
+
+   static final Schema<Processor> PROCESSOR = new Schema<Processor>(7, Processor.class) {
+      @Override
+      void write(Processor value, BinaryOutput out) throws IOException {
+         out.writeDouble(value.getCores());
+         out.writeDouble(value.getSpeed());
+      }
+
+      @Override
+      Processor read(BinaryInput in, int version) throws IOException {
+         return new Processor(in.readDouble(), in.readDouble());
+      }
+   };
+
+   static final Schema<Volume> VOLUME = new Schema<Volume>(8, Volume.class) {
+      @Override
+      void write(Volume value, BinaryOutput out) throws IOException {
+         out.writeInterned(value.getId());
+         out.writeInterned(value.getType());
+         out.writeNullableFloat(value.getSize());
+         out.writeInterned(value.getDevice());
+         out.writeBoolean(value.isDurable());
+         out.writeBoolean(value.isBootDevice());
+      }
+
+      @Override
+      Volume read(BinaryInput in, int version) throws IOException {
+         return new Volume(in.readString(), in.readString(), in.readNullableFloat(), in.readString(),
+                 in.readBoolean(), in.readBoolean());
+      }
+   };
+
+   static final Schema<Hardware> HARDWARE = new Schema<Hardware>(9, Hardware.class) {
+      @Override
+      void write(Hardware value, BinaryOutput out) throws IOException {
+         out.writeInterned(value.getId());
+         out.writeInterned(value.getName());
+         out.writeInternedStrings(value.getTags());
+         out.writeList(value.getProcessors(), PROCESSOR);
+         out.writeInt(value.getRam());
+         out.writeList(value.getVolumes(), VOLUME);
+         out.writeInterned(value.getHypervisor());
+      }
+
+      @Override
+      Hardware read(BinaryInput in, int version) throws IOException {
+         return new Hardware(in.readString(), in.readString(), in.readStringSet(), in.readList(PROCESSOR, version),
+                 in.readInt(), in.readList(VOLUME, version), in.readString());
+      }
+   };
+
+   static final Schema<Image> IMAGE = new Schema<Image>(10, Image.class) {
+      @Override
+      void write(Image value, BinaryOutput out) throws IOException {
+         out.writeInterned(value.getId());
+         out.writeInterned(value.getName());
+         out.writeInterned(value.getVersion());
+         out.writeString(value.getDescription());
+         out.writeInterned(value.getStatus());
+         out.writeNullable(value.getOperatingSystem(), OPERATING_SYSTEM);
+         out.writeNullable(value.getDefaultCredentials(), LOGIN_CREDENTIALS);
+         out.writeInternedStrings(value.getTags());
+      }
+
+      @Override
+      Image read(BinaryInput in, int version) throws IOException {
+         return new Image(in.readString(), in.readString(), in.readString(), in.readString(), in.readString(),
+                 in.readNullable(OPERATING_SYSTEM, version), in.readNullable(LOGIN_CREDENTIALS, version),
+                 in.readStringSet());
+      }
+   };
+
+   static final Schema<NodeMetadata> NODE_METADATA = new Schema<NodeMetadata>(11, NodeMetadata.class) {
+      @Override
+      void write(NodeMetadata value, BinaryOutput out) throws IOException {
+         out.writeInterned(value.getId());
+         out.writeString(value.getName());
+         out.writeString(value.getDescription());
+         out.writeInterned(value.getStatus());
+         out.writeString(value.getHostname());
+         out.writeInterned(value.getLocationId());
+         out.writeInterned(value.getImageId());
+         out.writeInt(value.getLoginPort());
+         out.writeInterned(value.getGroup());
+         out.writeInternedStrings(value.getTags());
+         out.writeStringMap(value.getMetadata());
+         out.writeNullable(value.getDefaultCredentials(), LOGIN_CREDENTIALS);
+      }
+
+      @Override
+      NodeMetadata read(BinaryInput in, int version) throws IOException {
+         return new NodeMetadata(in.readString(), in.readString(), in.readString(), in.readString(), in.readString(),
+                 in.readString(), in.readString(), in.readInt(), in.readString(), in.readStringSet(),
+                 in.readStringMap(), in.readNullable(LOGIN_CREDENTIALS, version));
+      }
+   };
+
+   static final Schema<ExecResponse> EXEC_RESPONSE = new Schema<ExecResponse>(12, ExecResponse.class) {
+      @Override
+      void write(ExecResponse value, BinaryOutput out) throws IOException {
+         out.writeString(value.getOutput());
+         out.writeString(value.getError());
+         out.writeInt(value.getExitStatus());
+      }
+
+      @Override
+      ExecResponse read(BinaryInput in, int version) throws IOException {
+         return new ExecResponse(in.readString(), in.readString(), in.readInt());
+      }
+   };
+
+   static final Schema<ContentMetadata> CONTENT_METADATA = new Schema<ContentMetadata>(13, ContentMetadata.class) {
+      @Override
+      void write(ContentMetadata value, BinaryOutput out) throws IOException {
+         out.writeNullableLong(value.getLength());
+         out.writeInterned(value.getDisposition());
+         out.writeInterned(value.getEncoding());
+         out.writeInterned(value.getType());
+         out.writeBytes(value.getMd5());
+         out.writeInterned(value.getLanguage());
+         out.writeString(value.getExpires());
+      }
+
+      @Override
+      ContentMetadata read(BinaryInput in, int version) throws IOException {
+         return new ContentMetadata(in.readNullableLong(), in.readString(), in.readString(), in.readString(),
+                 in.readBytes(), in.readString(), in.readString());
+      }
+   };
+
+   static final Schema<StorageMetadata> STORAGE_METADATA = new Schema<StorageMetadata>(14, StorageMetadata.class) {
+      @Override
+      void write(StorageMetadata value, BinaryOutput out) throws IOException {
+         out.writeInterned(value.getType());
+         out.writeInterned(value.getProviderId());
+         out.writeString(value.getName());
+         out.writeString(value.getUri());
+         out.writeStringMap(value.getUserMetadata());
+         out.writeString(value.geteTag());
+         out.writeString(value.getCreationDate());
+         out.writeString(value.getLastModifiedDate());
+      }
+
+      @Override
+      StorageMetadata read(BinaryInput in, int version) throws IOException {
+         return new StorageMetadata(in.readString(), in.readString(), in.readString(), in.readString(),
+                 in.readStringMap(), in.readString(), in.readString(), in.readString());
+      }
+   };
+
+   static final Schema<BlobMetadata> BLOB_METADATA = new Schema<BlobMetadata>(15, BlobMetadata.class) {
+      @Override
+      void write(BlobMetadata value, BinaryOutput out) throws IOException {
+         out.writeInterned(value.getType());
+         out.writeInterned(value.getProviderId());
+         out.writeString(value.getName());
+         out.writeString(value.getUri());
+         out.writeStringMap(value.getUserMetadata());
+         out.writeString(value.geteTag());
+         out.writeString(value.getCreationDate());
+         out.writeString(value.getLastModifiedDate());
+         out.writeString(value.getPublicUri());
+         out.writeNullable(value.getContentMetadata(), CONTENT_METADATA);
+      }
+
+      @Override
+      BlobMetadata read(BinaryInput in, int version) throws IOException {
+         return new BlobMetadata(in.readString(), in.readString(), in.readString(), in.readString(),
+                 in.readStringMap(), in.readString(), in.readString(), in.readString(), in.readString(),
+                 in.readNullable(CONTENT_METADATA, version));
+      }
+   };
+
+   static final Schema<Blob> BLOB = new Schema<Blob>(16, Blob.class) {
+      @Override
+      void write(Blob value, BinaryOutput out) throws IOException {
+         out.writeMultimap(value.getAllHeaders());
+         out.writeNullable(value.getBlobMetadata(), BLOB_METADATA);
+      }
+
+      @Override
+      Blob read(BinaryInput in, int version) throws IOException {
+         return new Blob(in.readMultimap(), in.readNullable(BLOB_METADATA, version));
+      }
+   };
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.representations.binary;
+
+import com.google.common.collect.Lists;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.jclouds.compute.representations.NodeMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Charsets.UTF_8;
+
+/**
+ * Compares the binary codec with Java serialization and JSON on a list of nodes. Run with
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *    -Dexec.mainClass=org.jclouds.representations.binary.BinaryCodecBenchmark
+ * </pre>
+ * The encoded sizes are printed before the benchmarks start.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class BinaryCodecBenchmark {
+
+   private static final Type NODE_LIST = new TypeToken<List<NodeMetadata>>() { }.getType();
+
+   @Param({"10", "1000"})
+   public int nodes;
+
+   private final Gson gson = new Gson();
+   private ArrayList<NodeMetadata> list;
+   private byte[] binary;
+   private byte[] serialized;
+   private byte[] json;
+
+   @Setup
+   public void setUp() throws IOException {
+      list = Lists.newArrayList();
+      for (int i = 0; i < nodes; i++) {
+         list.add(BinaryCodecTest.node(i));
+      }
+      binary = binaryEncode();
+      serialized = javaEncode();
+      json = jsonEncode();
+   }
+
+   @Benchmark
+   public byte[] binaryEncode() throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      BinaryCodec.NODE_METADATA.encodeAll(list, out);
+      return out.toByteArray();
+   }
+
+   @Benchmark
+   public List<NodeMetadata> binaryDecode() throws IOException {
+      return BinaryCodec.NODE_METADATA.decodeAll(new ByteArrayInputStream(binary));
+   }
+
+   @Benchmark
+   public byte[] javaEncode() throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      ObjectOutputStream out = new ObjectOutputStream(bytes);
+      out.writeObject(list);
+      out.close();
+      return bytes.toByteArray();
+   }
+
+   @Benchmark
+   public Object javaDecode() throws IOException, ClassNotFoundException {
+      ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized));
+      try {
+         return in.readObject();
+      } finally {
+         in.close();
+      }
+   }
+
+   @Benchmark
+   public byte[] jsonEncode() {
+      return gson.toJson(list).getBytes(UTF_8);
+   }
+
+   @Benchmark
+   public List<NodeMetadata> jsonDecode() {
+      return gson.fromJson(new String(json, UTF_8), NODE_LIST);
+   }
+
+   public static void main(String[] args) throws IOException, RunnerException {
+      for (int nodes : new int[]{10, 1000}) {
+         BinaryCodecBenchmark benchmark = new BinaryCodecBenchmark();
+         benchmark.nodes = nodes;
+         benchmark.setUp();
+         System.out.printf("%d nodes: binary %d bytes, serialized %d bytes, json %d bytes%n", nodes,
+                 benchmark.binary.length, benchmark.serialized.length, benchmark.json.length);
+      }
+      new Runner(new OptionsBuilder().include(BinaryCodecBenchmark.class.getSimpleName()).build()).run();
+   }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.representations.binary;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import org.jclouds.blobstore.representations.Blob;
+import org.jclouds.blobstore.representations.BlobMetadata;
+import org.jclouds.blobstore.representations.ContentMetadata;
+import org.jclouds.compute.representations.Hardware;
+import org.jclouds.compute.representations.Image;
+import org.jclouds.compute.representations.LoginCredentials;
+import org.jclouds.compute.representations.NodeMetadata;
+import org.jclouds.compute.representations.OperatingSystem;
+import org.jclouds.compute.representations.Processor;
+import org.jclouds.compute.representations.Volume;
+import org.jclouds.representations.Location;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class BinaryCodecTest {
+
+   static NodeMetadata node(int i) {
+      return NodeMetadata.builder().id("us-east-1/i-" + i).name("test-node-" + i).status("RUNNING")
+                         .hostname("ip-10-0-0-" + i).locationId("us-east-1a").imageId("us-east-1/ami-12345")
+                         .group("test-group").tags(ImmutableSet.of("web"))
+                         .metadata(ImmutableMap.of("Name", "test-node-" + i))
+                         .defaultCredentials(LoginCredentials.builder().username("root").password("password" + i)
+                                                             .authenticateSudo(true).build())
+                         .build();
+   }
+
+   public void testNodeMetadataRoundTrip() throws IOException {
+      NodeMetadata node = node(1);
+      NodeMetadata decoded = BinaryCodec.NODE_METADATA.decode(BinaryCodec.NODE_METADATA.encode(node));
+      assertEquals(decoded, node);
+      assertEquals(decoded.getDefaultCredentials().getPassword(), "password1");
+   }
+
+   public void testNullFieldsRoundTrip() throws IOException {
+      NodeMetadata node = new NodeMetadata(null, null, null, null, null, null, null, -1, null,
+              ImmutableSet.<String>of(), ImmutableMap.<String, String>of(), null);
+      NodeMetadata decoded = BinaryCodec.NODE_METADATA.decode(BinaryCodec.NODE_METADATA.encode(node));
+      assertEquals(decoded, node);
+      assertEquals(decoded.getLoginPort(), -1);
+      assertNull(decoded.getDefaultCredentials());
+   }
+
+   public void testImageAndHardwareRoundTrip() throws IOException {
+      Image image = Image.builder().id("us-east-1/ami-12345").name("ubuntu").version("14.04").status("AVAILABLE")
+                         .operatingSystem(OperatingSystem.builder().family("UBUNTU").arch("x86_64").is64Bit(true).build())
+                         .tags(ImmutableSet.of("lts")).build();
+      assertEquals(BinaryCodec.IMAGE.decode(BinaryCodec.IMAGE.encode(image)), image);
+
+      Hardware hardware = Hardware.builder().id("m1.small").name("m1.small").ram(1740)
+                                  .processors(ImmutableList.of(Processor.builder().cores(1).speed(1.0).build()))
+                                  .volumes(ImmutableList.of(Volume.builder().type("LOCAL").size(160f)
+                                                                  .device("/dev/sda1").bootDevice(true).build()))
+                                  .build();
+      Hardware decoded = BinaryCodec.HARDWARE.decode(BinaryCodec.HARDWARE.encode(hardware));
+      assertEquals(decoded, hardware);
+      assertEquals(decoded.getVolumes().get(0).getSize(), Float.valueOf(160f));
+   }
+
+   public void testLocationRoundTrip() throws IOException {
+      Location location = Location.builder().id("us-east-1a").scope("ZONE").parentId("us-east-1")
+                                  .iso3166Codes(ImmutableSet.of("US-VA")).build();
+      assertEquals(BinaryCodec.LOCATION.decode(BinaryCodec.LOCATION.encode(location)), location);
+   }
+
+   public void testBlobRoundTrip() throws IOException {
+      byte[] md5 = {1, 2, 3, 4};
+      BlobMetadata metadata = BlobMetadata.builder().type("BLOB").name("dir/blob").eTag("\"abc\"")
+                                          .userMetadata(ImmutableMap.of("owner", "me"))
+                                          .content(ContentMetadata.builder().length(5L * Integer.MAX_VALUE)
+                                                                  .type("text/plain").md5(md5).build())
+                                          .build();
+      Blob blob = Blob.builder().blobMetadata(metadata)
+                      .allHeaders(ImmutableMap.<String, Collection<String>>of("ETag", ImmutableList.of("\"abc\"")))
+                      .build();
+      Blob decoded = BinaryCodec.BLOB.decode(BinaryCodec.BLOB.encode(blob));
+      assertEquals(decoded.getAllHeaders(), blob.getAllHeaders());
+      assertEquals(decoded.getBlobMetadata().getName(), "dir/blob");
+      assertEquals(decoded.getBlobMetadata().getUserMetadata(), ImmutableMap.of("owner", "me"));
+      assertEquals(decoded.getBlobMetadata().getContentMetadata().getLength(), Long.valueOf(5L * Integer.MAX_VALUE));
+      assertTrue(Arrays.equals(decoded.getBlobMetadata().getContentMetadata().getMd5(), md5));
+   }
+
+   public void testStreamInternsRepeatedIds() throws IOException {
+      List<NodeMetadata> nodes = Lists.newArrayList();
+      for (int i = 0; i < 100; i++) {
+         nodes.add(node(i));
+      }
+      ByteArrayOutputStream binary = new ByteArrayOutputStream();
+      BinaryCodec.NODE_METADATA.encodeAll(nodes, binary);
+      ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+      ObjectOutputStream out = new ObjectOutputStream(serialized);
+      out.writeObject(Lists.newArrayList(nodes));
+      out.close();
+      assertTrue(binary.size() * 2 < serialized.size(), binary.size() + " vs " + serialized.size());
+
+      List<NodeMetadata> decoded = BinaryCodec.NODE_METADATA.decodeAll(new ByteArrayInputStream(binary.toByteArray()));
+      assertEquals(decoded, nodes);
+      assertSame(decoded.get(0).getImageId(), decoded.get(99).getImageId());
+   }
+
+   @Test(expectedExceptions = EOFException.class)
+   public void testTruncatedStream() throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      BinaryCodec.Encoder<NodeMetadata> encoder = BinaryCodec.NODE_METADATA.newEncoder(bytes);
+      encoder.write(node(1));
+      encoder.flush();
+      BinaryCodec.NODE_METADATA.decodeAll(new ByteArrayInputStream(bytes.toByteArray()));
+   }
+
+   @Test(expectedExceptions = StreamCorruptedException.class)
+   public void testNewerSchemaVersionRejected() throws IOException {
+      byte[] bytes = BinaryCodec.LOCATION.encode(Location.builder().id("us-east-1").build());
+      bytes[2] = (byte) (BinaryCodec.SCHEMA_VERSION + 1);
+      BinaryCodec.LOCATION.decode(bytes);
+   }
+
+   @Test(expectedExceptions = StreamCorruptedException.class)
+   public void testWrongTypeRejected() throws IOException {
+      BinaryCodec.IMAGE.decode(BinaryCodec.NODE_METADATA.encode(node(1)));
+   }
+}
@@ -19,6 +19,8 @@ package org.jclouds.jenkins.v1;
 import org.jclouds.jenkins.v1.domain.Node;
 import org.jclouds.jenkins.v1.features.ComputerApi;
 import org.jclouds.jenkins.v1.features.JobApi;
+import org.jclouds.jenkins.v1.features.QueueApi;
+import org.jclouds.jenkins.v1.options.TreeOptions;
 import org.jclouds.rest.annotations.Delegate;
 
 /**
@@ -35,6 +37,13 @@ public interface JenkinsApi {
     */
    Node getMaster();
    
+   /**
+    * @param options
+    *           the properties to return, such as {@link TreeOptions#node()}
+    * @return the master computer, holding only the properties asked for
+    */
+   Node getMaster(TreeOptions options);
+   
    /**
     * Provides synchronous access to Computer features.
     */
@@ -46,4 +55,10 @@ public interface JenkinsApi {
     */
    @Delegate
    JobApi getJobApi();
+   
+   /**
+    * Provides synchronous access to Queue features.
+    */
+   @Delegate
+   QueueApi getQueueApi();
 }
@@ -16,8 +16,12 @@
  */
 package org.jclouds.jenkins.v1;
 
+import static org.jclouds.jenkins.v1.config.JenkinsProperties.BUILD_POLL_PERIOD;
+import static org.jclouds.jenkins.v1.config.JenkinsProperties.BUILD_TIMEOUT;
+
 import java.net.URI;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import org.jclouds.apis.ApiMetadata;
 import org.jclouds.jenkins.v1.config.JenkinsRestClientModule;
@@ -56,6 +60,8 @@ public class JenkinsApiMetadata extends BaseRestApiMetadata {
 
    public static Properties defaultProperties() {
       Properties properties = BaseRestApiMetadata.defaultProperties();
+      properties.setProperty(BUILD_POLL_PERIOD, "2000");
+      properties.setProperty(BUILD_TIMEOUT, String.valueOf(TimeUnit.HOURS.toMillis(1)));
       return properties;
    }
 
@@ -26,7 +26,9 @@ import org.jclouds.Fallbacks.NullOnNotFoundOr404;
 import org.jclouds.jenkins.v1.domain.Node;
 import org.jclouds.jenkins.v1.features.ComputerAsyncApi;
 import org.jclouds.jenkins.v1.features.JobAsyncApi;
+import org.jclouds.jenkins.v1.features.QueueAsyncApi;
 import org.jclouds.jenkins.v1.filters.BasicAuthenticationUnlessAnonymous;
+import org.jclouds.jenkins.v1.options.TreeOptions;
 import org.jclouds.rest.annotations.Delegate;
 import org.jclouds.rest.annotations.Fallback;
 import org.jclouds.rest.annotations.RequestFilters;
@@ -54,6 +56,16 @@ public interface JenkinsAsyncApi {
    @Fallback(NullOnNotFoundOr404.class)
    ListenableFuture<Node> getMaster();
    
+   /**
+    * @see JenkinsApi#getMaster(TreeOptions)
+    */
+   @Named("GetMaster")
+   @GET
+   @Path("/api/json")
+   @Consumes(MediaType.APPLICATION_JSON)
+   @Fallback(NullOnNotFoundOr404.class)
+   ListenableFuture<Node> getMaster(TreeOptions options);
+   
    /**
     * Provides asynchronous access to Computer features.
     */
@@ -65,4 +77,10 @@ public interface JenkinsAsyncApi {
     */
    @Delegate
    JobAsyncApi getJobApi();
+   
+   /**
+    * Provides asynchronous access to Queue features.
+    */
+   @Delegate
+   QueueAsyncApi getQueueApi();
 }
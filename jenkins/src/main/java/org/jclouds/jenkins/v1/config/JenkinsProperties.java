@@ -23,4 +23,16 @@ package org.jclouds.jenkins.v1.config;
  */
 public class JenkinsProperties {
 
+   /**
+    * How often, in milliseconds, the builds watched by
+    * {@link org.jclouds.jenkins.v1.util.BuildTracker} are polled. Defaults to 2000.
+    */
+   public static final String BUILD_POLL_PERIOD = "jclouds.jenkins.build-poll-period";
+
+   /**
+    * How long, in milliseconds, {@link org.jclouds.jenkins.v1.util.BuildTracker} waits for a build to
+    * leave the queue and finish. Defaults to one hour.
+    */
+   public static final String BUILD_TIMEOUT = "jclouds.jenkins.build-timeout";
+
 }
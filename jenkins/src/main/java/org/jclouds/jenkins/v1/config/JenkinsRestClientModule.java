@@ -28,6 +28,8 @@ import org.jclouds.jenkins.v1.features.ComputerAsyncApi;
 import org.jclouds.jenkins.v1.features.ComputerApi;
 import org.jclouds.jenkins.v1.features.JobAsyncApi;
 import org.jclouds.jenkins.v1.features.JobApi;
+import org.jclouds.jenkins.v1.features.QueueAsyncApi;
+import org.jclouds.jenkins.v1.features.QueueApi;
 import org.jclouds.jenkins.v1.handlers.JenkinsErrorHandler;
 import org.jclouds.rest.ConfiguresRestClient;
 import org.jclouds.rest.config.RestClientModule;
@@ -45,6 +47,7 @@ public class JenkinsRestClientModule extends RestClientModule<JenkinsApi, Jenkin
    public static final Map<Class<?>, Class<?>> DELEGATE_MAP = ImmutableMap.<Class<?>, Class<?>> builder()
          .put(ComputerApi.class, ComputerAsyncApi.class)
          .put(JobApi.class, JobAsyncApi.class)
+         .put(QueueApi.class, QueueAsyncApi.class)
          .build();
 
    public JenkinsRestClientModule() {
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jenkins.v1.domain;
+
+import static com.google.common.base.Objects.equal;
+import static com.google.common.base.Objects.toStringHelper;
+
+import java.net.URI;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Objects.ToStringHelper;
+
+/**
+ * The state of one build of a job
+ *
+ * GET http://host/job/project/139/api/json
+ */
+public class Build {
+
+   public static Builder builder() {
+      return new Builder();
+   }
+
+   public Builder toBuilder() {
+      return builder().fromBuild(this);
+   }
+
+   public static class Builder {
+      protected int number;
+      protected URI url;
+      protected boolean building;
+      protected String result;
+      protected long duration;
+      protected long timestamp;
+
+      /**
+       * @see Build#getNumber()
+       */
+      public Builder number(int number) {
+         this.number = number;
+         return this;
+      }
+
+      /**
+       * @see Build#getUrl()
+       */
+      public Builder url(URI url) {
+         this.url = url;
+         return this;
+      }
+
+      /**
+       * @see Build#isBuilding()
+       */
+      public Builder building(boolean building) {
+         this.building = building;
+         return this;
+      }
+
+      /**
+       * @see Build#getResult()
+       */
+      public Builder result(String result) {
+         this.result = result;
+         return this;
+      }
+
+      /**
+       * @see Build#getDuration()
+       */
+      public Builder duration(long duration) {
+         this.duration = duration;
+         return this;
+      }
+
+      /**
+       * @see Build#getTimestamp()
+       */
+      public Builder timestamp(long timestamp) {
+         this.timestamp = timestamp;
+         return this;
+      }
+
+      public Build build() {
+         return new Build(number, url, building, result, duration, timestamp);
+      }
+
+      public Builder fromBuild(Build from) {
+         return number(from.getNumber()).url(from.getUrl()).building(from.isBuilding()).result(from.getResult())
+                  .duration(from.getDuration()).timestamp(from.getTimestamp());
+      }
+   }
+
+   protected final int number;
+   protected final URI url;
+   protected final boolean building;
+   protected final String result;
+   protected final long duration;
+   protected final long timestamp;
+
+   public Build(int number, URI url, boolean building, @Nullable String result, long duration, long timestamp) {
+      this.number = number;
+      this.url = url;
+      this.building = building;
+      this.result = result;
+      this.duration = duration;
+      this.timestamp = timestamp;
+   }
+
+   /**
+    * @return the build number
+    */
+   public int getNumber() {
+      return number;
+   }
+
+   /**
+    * @return the url of the build
+    */
+   public URI getUrl() {
+      return url;
+   }
+
+   /**
+    * @return true while the build is running
+    */
+   public boolean isBuilding() {
+      return building;
+   }
+
+   /**
+    * @return the result, such as {@code SUCCESS}, {@code UNSTABLE}, {@code FAILURE} or {@code ABORTED}, or null
+    *         while the build is running
+    */
+   @Nullable
+   public String getResult() {
+      return result;
+   }
+
+   /**
+    * @return how long the build took in milliseconds, or 0 while it is running
+    */
+   public long getDuration() {
+      return duration;
+   }
+
+   /**
+    * @return when the build started, in milliseconds since the epoch
+    */
+   public long getTimestamp() {
+      return timestamp;
+   }
+
+   @Override
+   public boolean equals(Object object) {
+      if (this == object) {
+         return true;
+      }
+      if (object instanceof Build) {
+         final Build other = Build.class.cast(object);
+         return equal(getNumber(), other.getNumber()) && equal(getUrl(), other.getUrl())
+                  && equal(isBuilding(), other.isBuilding()) && equal(getResult(), other.getResult())
+                  && equal(getDuration(), other.getDuration()) && equal(getTimestamp(), other.getTimestamp());
+      } else {
+         return false;
+      }
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(getNumber(), getUrl(), isBuilding(), getResult(), getDuration(), getTimestamp());
+   }
+
+   @Override
+   public String toString() {
+      return string().toString();
+   }
+
+   protected ToStringHelper string() {
+      return toStringHelper("").add("number", getNumber()).add("url", getUrl()).add("building", isBuilding())
+               .add("result", getResult()).add("duration", getDuration()).add("timestamp", getTimestamp());
+   }
+}
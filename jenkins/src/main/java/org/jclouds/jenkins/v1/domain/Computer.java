@@ -22,6 +22,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Objects.ToStringHelper;
+import com.google.common.collect.Ordering;
 
 /**
  * @author Adrian Cole
@@ -89,7 +90,8 @@ public class Computer implements Comparable<Computer> {
 
    /**
     * 
-    * @return the displayName of the computer
+    * @return the displayName of the computer, or null if it was left out of a
+    *         {@link org.jclouds.jenkins.v1.options.TreeOptions tree}
     */
    public String getDisplayName() {
       return displayName;
@@ -144,7 +146,7 @@ public class Computer implements Comparable<Computer> {
          return 1;
       if (this == that)
          return 0;
-      return this.getDisplayName().compareTo(that.getDisplayName());
+      return Ordering.natural().nullsFirst().compare(this.getDisplayName(), that.getDisplayName());
    }
 
 }
@@ -25,6 +25,7 @@ import java.util.Set;
 import com.google.common.base.Objects;
 import com.google.common.base.Objects.ToStringHelper;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Ordering;
 import com.google.gson.annotations.SerializedName;
 
 /**
@@ -112,7 +113,8 @@ public class ComputerView implements Comparable<ComputerView> {
 
    /**
     * 
-    * @return the displayName of the computer
+    * @return the displayName of the computer, or null if it was left out of a
+    *         {@link org.jclouds.jenkins.v1.options.TreeOptions tree}
     */
    public String getDisplayName() {
       return displayName;
@@ -134,11 +136,12 @@ public class ComputerView implements Comparable<ComputerView> {
    }
    
    /**
-    * @return the computers in this set
+    * @return the computers in this set, empty if they were left out of a
+    *         {@link org.jclouds.jenkins.v1.options.TreeOptions tree}
     */
    //TODO: create type adapter for gson that understands ForwardingSet so that we can implement the Set interface
    public Set<Computer> getComputers() {
-      return computers;
+      return computers != null ? computers : ImmutableSet.<Computer> of();
    }
    
    @Override
@@ -176,7 +179,7 @@ public class ComputerView implements Comparable<ComputerView> {
          return 1;
       if (this == that)
          return 0;
-      return this.getDisplayName().compareTo(that.getDisplayName());
+      return Ordering.natural().nullsFirst().compare(this.getDisplayName(), that.getDisplayName());
    }
 
 
@@ -21,6 +21,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.net.URI;
 
+import org.jclouds.javax.annotation.Nullable;
+
 import com.google.common.base.Objects;
 import com.google.common.base.Objects.ToStringHelper;
 
@@ -91,8 +93,8 @@ public class Job {
 
    protected Job(Builder<?> builder) {
       this.name = checkNotNull(builder.name, "name");
-      this.color = checkNotNull(builder.color, "color");
-      this.url = checkNotNull(builder.url, "url");
+      this.color = builder.color;
+      this.url = builder.url;
    }
 
    /**
@@ -104,16 +106,20 @@ public class Job {
 
    /**
     * 
-    * color of the job
+    * color of the job, or null if it was left out of a
+    * {@link org.jclouds.jenkins.v1.options.TreeOptions tree}
     */
+   @Nullable
    public String getColor() {
       return color;
    }
 
    /**
     * 
-    * url of the job
+    * url of the job, or null if it was left out of a
+    * {@link org.jclouds.jenkins.v1.options.TreeOptions tree}
     */
+   @Nullable
    public URI getUrl() {
       return url;
    }
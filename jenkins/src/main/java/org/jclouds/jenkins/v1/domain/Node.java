@@ -25,6 +25,7 @@ import java.util.Set;
 import com.google.common.base.Objects;
 import com.google.common.base.Objects.ToStringHelper;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Ordering;
 import com.google.gson.annotations.SerializedName;
 
 /**
@@ -102,7 +103,8 @@ public class Node implements Comparable<Node> {
 
    /**
     * 
-    * @return the name of the node
+    * @return the name of the node, or null if it was left out of a
+    *         {@link org.jclouds.jenkins.v1.options.TreeOptions tree}
     */
    public String getName() {
       return name;
@@ -117,10 +119,11 @@ public class Node implements Comparable<Node> {
    }
 
    /**
-    * @return the jobs on this node
+    * @return the jobs on this node, empty if they were left out of a
+    *         {@link org.jclouds.jenkins.v1.options.TreeOptions tree}
     */
    public Set<Job> getJobs() {
-      return jobs;
+      return jobs != null ? jobs : ImmutableSet.<Job> of();
    }
 
    @Override
@@ -157,7 +160,7 @@ public class Node implements Comparable<Node> {
          return 1;
       if (this == that)
          return 0;
-      return this.getName().compareTo(that.getName());
+      return Ordering.natural().nullsFirst().compare(this.getName(), that.getName());
    }
 
 }
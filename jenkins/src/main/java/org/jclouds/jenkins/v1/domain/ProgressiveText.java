@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jenkins.v1.domain;
+
+import static com.google.common.base.Objects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.jclouds.io.Payload;
+
+/**
+ * A slice of a build's console log, as returned by Jenkins' {@code progressiveText} endpoint
+ *
+ * GET http://host/job/project/139/logText/progressiveText?start=0
+ */
+public class ProgressiveText {
+
+   protected final Payload payload;
+   protected final long textSize;
+   protected final boolean moreData;
+
+   public ProgressiveText(Payload payload, long textSize, boolean moreData) {
+      this.payload = checkNotNull(payload, "payload");
+      this.textSize = textSize;
+      this.moreData = moreData;
+   }
+
+   /**
+    * @return the console text written since the requested start, streamed from the response. It must
+    *         be read or released by the caller.
+    */
+   public Payload getPayload() {
+      return payload;
+   }
+
+   /**
+    * @return the size of the log so far, from the {@code X-Text-Size} header; pass it as the start of
+    *         the next request to receive only what is written after this slice
+    */
+   public long getTextSize() {
+      return textSize;
+   }
+
+   /**
+    * @return true while the build is running and more text may follow, from the {@code X-More-Data}
+    *         header
+    */
+   public boolean hasMoreData() {
+      return moreData;
+   }
+
+   @Override
+   public String toString() {
+      return toStringHelper("").add("textSize", getTextSize()).add("moreData", hasMoreData()).toString();
+   }
+}
@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jenkins.v1.domain;
+
+import static com.google.common.base.Objects.equal;
+import static com.google.common.base.Objects.toStringHelper;
+
+import java.net.URI;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Objects.ToStringHelper;
+
+/**
+ * A build waiting in the queue, or that has left it
+ *
+ * GET http://host/queue/item/12/api/json
+ */
+public class QueueItem {
+
+   /**
+    * The build a queue item turned into
+    */
+   public static class Executable {
+      protected final int number;
+      protected final URI url;
+
+      public Executable(int number, URI url) {
+         this.number = number;
+         this.url = url;
+      }
+
+      public int getNumber() {
+         return number;
+      }
+
+      public URI getUrl() {
+         return url;
+      }
+
+      @Override
+      public boolean equals(Object object) {
+         if (this == object) {
+            return true;
+         }
+         if (object instanceof Executable) {
+            final Executable other = Executable.class.cast(object);
+            return equal(getNumber(), other.getNumber()) && equal(getUrl(), other.getUrl());
+         } else {
+            return false;
+         }
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hashCode(getNumber(), getUrl());
+      }
+
+      @Override
+      public String toString() {
+         return toStringHelper("").add("number", getNumber()).add("url", getUrl()).toString();
+      }
+   }
+
+   public static Builder builder() {
+      return new Builder();
+   }
+
+   public Builder toBuilder() {
+      return builder().fromQueueItem(this);
+   }
+
+   public static class Builder {
+      protected int id;
+      protected boolean cancelled;
+      protected String why;
+      protected Executable executable;
+
+      /**
+       * @see QueueItem#getId()
+       */
+      public Builder id(int id) {
+         this.id = id;
+         return this;
+      }
+
+      /**
+       * @see QueueItem#isCancelled()
+       */
+      public Builder cancelled(boolean cancelled) {
+         this.cancelled = cancelled;
+         return this;
+      }
+
+      /**
+       * @see QueueItem#getWhy()
+       */
+      public Builder why(String why) {
+         this.why = why;
+         return this;
+      }
+
+      /**
+       * @see QueueItem#getExecutable()
+       */
+      public Builder executable(Executable executable) {
+         this.executable = executable;
+         return this;
+      }
+
+      public QueueItem build() {
+         return new QueueItem(id, cancelled, why, executable);
+      }
+
+      public Builder fromQueueItem(QueueItem from) {
+         return id(from.getId()).cancelled(from.isCancelled()).why(from.getWhy()).executable(from.getExecutable());
+      }
+   }
+
+   protected final int id;
+   protected final boolean cancelled;
+   protected final String why;
+   protected final Executable executable;
+
+   public QueueItem(int id, boolean cancelled, @Nullable String why, @Nullable Executable executable) {
+      this.id = id;
+      this.cancelled = cancelled;
+      this.why = why;
+      this.executable = executable;
+   }
+
+   /**
+    * @return the id of the item, as found in the location returned when a build is triggered
+    */
+   public int getId() {
+      return id;
+   }
+
+   /**
+    * @return true if the item was taken off the queue without being built
+    */
+   public boolean isCancelled() {
+      return cancelled;
+   }
+
+   /**
+    * @return why the item is still waiting, or null once it has left the queue
+    */
+   @Nullable
+   public String getWhy() {
+      return why;
+   }
+
+   /**
+    * @return the build started for this item, or null while it is waiting
+    */
+   @Nullable
+   public Executable getExecutable() {
+      return executable;
+   }
+
+   @Override
+   public boolean equals(Object object) {
+      if (this == object) {
+         return true;
+      }
+      if (object instanceof QueueItem) {
+         final QueueItem other = QueueItem.class.cast(object);
+         return equal(getId(), other.getId()) && equal(isCancelled(), other.isCancelled())
+                  && equal(getWhy(), other.getWhy()) && equal(getExecutable(), other.getExecutable());
+      } else {
+         return false;
+      }
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(getId(), isCancelled(), getWhy(), getExecutable());
+   }
+
+   @Override
+   public String toString() {
+      return string().toString();
+   }
+
+   protected ToStringHelper string() {
+      return toStringHelper("").add("id", getId()).add("cancelled", isCancelled()).add("why", getWhy())
+               .add("executable", getExecutable());
+   }
+}
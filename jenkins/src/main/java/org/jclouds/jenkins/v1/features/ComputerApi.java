@@ -18,6 +18,7 @@ package org.jclouds.jenkins.v1.features;
 
 import org.jclouds.jenkins.v1.domain.Computer;
 import org.jclouds.jenkins.v1.domain.ComputerView;
+import org.jclouds.jenkins.v1.options.TreeOptions;
 
 /**
  * Computer Services
@@ -33,6 +34,13 @@ public interface ComputerApi {
     */
    ComputerView getView();
    
+   /**
+    * @param options
+    *           the properties to return, such as {@link TreeOptions#computerView()}
+    * @return overview of all configured computers, holding only the properties asked for
+    */
+   ComputerView getView(TreeOptions options);
+   
    /**
     * 
     * @param displayName display name of the computer
@@ -40,4 +48,12 @@ public interface ComputerApi {
     */
    Computer get(String displayName);
    
+   /**
+    * 
+    * @param displayName display name of the computer
+    * @param options the properties to return, such as {@link TreeOptions#computer()}
+    * @return computer holding only the properties asked for, or null if not found
+    */
+   Computer get(String displayName, TreeOptions options);
+   
 }
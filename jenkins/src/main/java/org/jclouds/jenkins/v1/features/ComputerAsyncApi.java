@@ -27,6 +27,7 @@ import org.jclouds.Fallbacks.NullOnNotFoundOr404;
 import org.jclouds.jenkins.v1.domain.Computer;
 import org.jclouds.jenkins.v1.domain.ComputerView;
 import org.jclouds.jenkins.v1.filters.BasicAuthenticationUnlessAnonymous;
+import org.jclouds.jenkins.v1.options.TreeOptions;
 import org.jclouds.rest.annotations.Fallback;
 import org.jclouds.rest.annotations.RequestFilters;
 
@@ -53,6 +54,15 @@ public interface ComputerAsyncApi {
    @Consumes(MediaType.APPLICATION_JSON)
    ListenableFuture<ComputerView> getView();
    
+   /**
+    * @see ComputerApi#getView(TreeOptions)
+    */
+   @Named("ListComputers")
+   @GET
+   @Path("/computer/api/json")
+   @Consumes(MediaType.APPLICATION_JSON)
+   ListenableFuture<ComputerView> getView(TreeOptions options);
+   
    /**
     * @see ComputerApi#get
     */
@@ -62,5 +72,15 @@ public interface ComputerAsyncApi {
    @Consumes(MediaType.APPLICATION_JSON)
    @Fallback(NullOnNotFoundOr404.class)
    ListenableFuture<Computer> get(@PathParam("displayName") String displayName);
+   
+   /**
+    * @see ComputerApi#get(String, TreeOptions)
+    */
+   @Named("GetComputer")
+   @GET
+   @Path("/computer/{displayName}/api/json")
+   @Consumes(MediaType.APPLICATION_JSON)
+   @Fallback(NullOnNotFoundOr404.class)
+   ListenableFuture<Computer> get(@PathParam("displayName") String displayName, TreeOptions options);
 
 }
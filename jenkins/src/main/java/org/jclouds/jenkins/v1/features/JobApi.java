@@ -17,8 +17,11 @@
 package org.jclouds.jenkins.v1.features;
 
 import java.util.Map;
+import org.jclouds.jenkins.v1.domain.Build;
 import org.jclouds.jenkins.v1.domain.JobDetails;
 import org.jclouds.jenkins.v1.domain.LastBuild;
+import org.jclouds.jenkins.v1.domain.ProgressiveText;
+import org.jclouds.jenkins.v1.options.TreeOptions;
 
 /**
  * Job Services
@@ -39,6 +42,13 @@ public interface JobApi {
 
    JobDetails get(String displayName);
 
+   /**
+    * @param displayName
+    * @param options the properties to return, such as {@link TreeOptions#jobDetails()}
+    * @return the job holding only the properties asked for, or null if not found
+    */
+   JobDetails get(String displayName, TreeOptions options);
+
    void delete(String displayName);
    
    /**
@@ -48,12 +58,34 @@ public interface JobApi {
     * Another alternative (but deprecated) is to configure the 'Trigger builds remotely' section in the job configuration.
     * 
     * @param displayName
+    * @return the id of the queue item the build is waiting in, or null if Jenkins did not say
+    * @see org.jclouds.jenkins.v1.features.QueueApi#get
     */
-   void build(String displayName);
+   Integer build(String displayName);
 
-   void buildWithParameters(String displayName, Map<String, String> parameters);
+   /**
+    * @see #build
+    */
+   Integer buildWithParameters(String displayName, Map<String, String> parameters);
    
    String fetchConfigXML(String displayName);
    
    LastBuild lastBuild(String displayName);
+
+   /**
+    * @return the build, or null if the job or build does not exist
+    */
+   Build getBuild(String displayName, int buildNumber);
+
+   /**
+    * Reads the console log of a build from the given offset. Only the text written since the offset is
+    * transferred; follow a running build by passing {@link ProgressiveText#getTextSize()} as the next
+    * start while {@link ProgressiveText#hasMoreData()} is true.
+    * 
+    * @param displayName
+    * @param buildNumber
+    * @param start the offset in bytes to read from, 0 for the whole log
+    * @return the console text since start, or null if the job or build does not exist
+    */
+   ProgressiveText progressiveText(String displayName, int buildNumber, long start);
 }
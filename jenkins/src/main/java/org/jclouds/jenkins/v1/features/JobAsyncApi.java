@@ -31,12 +31,18 @@ import javax.ws.rs.core.MediaType;
 import org.jclouds.Fallbacks.NullOnNotFoundOr404;
 import org.jclouds.jenkins.v1.JenkinsFallbacks.VoidOn302Or404;
 import org.jclouds.jenkins.v1.binders.BindMapToOptionalParams;
+import org.jclouds.jenkins.v1.domain.Build;
 import org.jclouds.jenkins.v1.domain.JobDetails;
 import org.jclouds.jenkins.v1.domain.LastBuild;
+import org.jclouds.jenkins.v1.domain.ProgressiveText;
 import org.jclouds.jenkins.v1.filters.BasicAuthenticationUnlessAnonymous;
+import org.jclouds.jenkins.v1.functions.ParseProgressiveText;
+import org.jclouds.jenkins.v1.functions.ParseQueueItemIdFromLocation;
+import org.jclouds.jenkins.v1.options.TreeOptions;
 import org.jclouds.rest.annotations.BinderParam;
 import org.jclouds.rest.annotations.Fallback;
 import org.jclouds.rest.annotations.RequestFilters;
+import org.jclouds.rest.annotations.ResponseParser;
 import org.jclouds.rest.binders.BindToStringPayload;
 
 import com.google.common.util.concurrent.ListenableFuture;
@@ -70,6 +76,16 @@ public interface JobAsyncApi {
    @Fallback(NullOnNotFoundOr404.class)
    ListenableFuture<JobDetails> get(@PathParam("displayName") String displayName);
    
+   /**
+    * @see JobApi#get(String, TreeOptions)
+    */
+   @Named("GetJob")
+   @GET
+   @Path("/job/{displayName}/api/json")
+   @Consumes(MediaType.APPLICATION_JSON)
+   @Fallback(NullOnNotFoundOr404.class)
+   ListenableFuture<JobDetails> get(@PathParam("displayName") String displayName, TreeOptions options);
+   
    /**
     * @see JobApi#delete
     */
@@ -85,8 +101,9 @@ public interface JobAsyncApi {
    @Named("Build")
    @POST
    @Path("/job/{displayName}/build")
+   @ResponseParser(ParseQueueItemIdFromLocation.class)
    @Fallback(NullOnNotFoundOr404.class)
-   ListenableFuture<Void> build(@PathParam("displayName") String displayName);
+   ListenableFuture<Integer> build(@PathParam("displayName") String displayName);
    
    /**
     * @see JobApi#buildJobWithParameters
@@ -94,8 +111,9 @@ public interface JobAsyncApi {
    @Named("BuildWithParameters")
    @POST
    @Path("/job/{displayName}/buildWithParameters")
+   @ResponseParser(ParseQueueItemIdFromLocation.class)
    @Fallback(NullOnNotFoundOr404.class)
-   ListenableFuture<Void> buildWithParameters(@PathParam("displayName") String displayName,
+   ListenableFuture<Integer> buildWithParameters(@PathParam("displayName") String displayName,
             @BinderParam(BindMapToOptionalParams.class) Map<String, String> parameters);
    
    /**
@@ -116,4 +134,26 @@ public interface JobAsyncApi {
    @Consumes(MediaType.APPLICATION_JSON)
    @Fallback(NullOnNotFoundOr404.class)
    ListenableFuture<LastBuild> lastBuild(@PathParam("displayName") String displayName);
+   
+   /**
+    * @see JobApi#getBuild
+    */
+   @Named("GetBuild")
+   @GET
+   @Path("/job/{displayName}/{buildNumber}/api/json")
+   @Consumes(MediaType.APPLICATION_JSON)
+   @Fallback(NullOnNotFoundOr404.class)
+   ListenableFuture<Build> getBuild(@PathParam("displayName") String displayName,
+            @PathParam("buildNumber") int buildNumber);
+   
+   /**
+    * @see JobApi#progressiveText
+    */
+   @Named("GetProgressiveText")
+   @GET
+   @Path("/job/{displayName}/{buildNumber}/logText/progressiveText")
+   @ResponseParser(ParseProgressiveText.class)
+   @Fallback(NullOnNotFoundOr404.class)
+   ListenableFuture<ProgressiveText> progressiveText(@PathParam("displayName") String displayName,
+            @PathParam("buildNumber") int buildNumber, @QueryParam("start") long start);
 }
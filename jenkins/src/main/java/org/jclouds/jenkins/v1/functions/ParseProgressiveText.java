@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jenkins.v1.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.jenkins.v1.domain.ProgressiveText;
+
+import com.google.common.base.Function;
+
+/**
+ * This parses {@link ProgressiveText} from the HTTP headers, leaving the payload unread so the console
+ * text can be streamed.
+ */
+@Singleton
+public class ParseProgressiveText implements Function<HttpResponse, ProgressiveText> {
+   public static final String TEXT_SIZE = "X-Text-Size";
+   public static final String MORE_DATA = "X-More-Data";
+
+   public ProgressiveText apply(HttpResponse from) {
+      long textSize = Long.parseLong(checkNotNull(from.getFirstHeaderOrNull(TEXT_SIZE), TEXT_SIZE));
+      boolean moreData = Boolean.parseBoolean(from.getFirstHeaderOrNull(MORE_DATA));
+      Payload payload = from.getPayload() != null ? from.getPayload() : Payloads.newByteArrayPayload(new byte[0]);
+      return new ProgressiveText(payload, textSize, moreData);
+   }
+}
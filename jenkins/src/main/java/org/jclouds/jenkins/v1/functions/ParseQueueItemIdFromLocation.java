@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jenkins.v1.functions;
+
+import static org.jclouds.http.HttpUtils.releasePayload;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.inject.Singleton;
+import javax.ws.rs.core.HttpHeaders;
+
+import org.jclouds.http.HttpResponse;
+
+import com.google.common.base.Function;
+
+/**
+ * This parses the id of the queue item a build was put in from the {@code Location} header. Jenkins
+ * versions before 1.519 do not send one, in which case the id is null.
+ */
+@Singleton
+public class ParseQueueItemIdFromLocation implements Function<HttpResponse, Integer> {
+   static final Pattern pattern = Pattern.compile("/queue/item/(\\d+)/?$");
+
+   public Integer apply(HttpResponse from) {
+      releasePayload(from);
+      String location = from.getFirstHeaderOrNull(HttpHeaders.LOCATION);
+      if (location == null)
+         return null;
+      Matcher matcher = pattern.matcher(location);
+      return matcher.find() ? Integer.valueOf(matcher.group(1)) : null;
+   }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jenkins.v1.options;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.jclouds.http.options.BaseHttpRequestOptions;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Limits what Jenkins puts in a JSON response, via its {@code tree} and {@code depth} parameters.
+ * <p/>
+ * The default responses include every property of a resource and can run to megabytes on a large
+ * master. A tree names only the properties wanted, nesting the properties of a collection in brackets:
+ * 
+ * <pre>
+ * Node master = api.getMaster(tree(&quot;nodeName&quot;, nested(&quot;jobs&quot;, &quot;name&quot;, &quot;color&quot;)));
+ * </pre>
+ * 
+ * The objects returned hold only what was asked for; properties left out of the tree are null, false,
+ * zero or empty. {@link #node()}, {@link #computerView()}, {@link #computer()} and {@link #jobDetails()}
+ * ask for exactly what the corresponding domain objects hold.
+ * @see <a href="https://wiki.jenkins-ci.org/display/JENKINS/Remote+access+API">api doc</a>
+ */
+public class TreeOptions extends BaseHttpRequestOptions {
+
+   /**
+    * The properties of {@link org.jclouds.jenkins.v1.domain.Job}.
+    */
+   public static final String JOB_TREE = "name,url,color";
+
+   /**
+    * The properties of {@link org.jclouds.jenkins.v1.domain.JobDetails}.
+    */
+   public static final String JOB_DETAILS_TREE = JOB_TREE;
+
+   /**
+    * The properties of {@link org.jclouds.jenkins.v1.domain.Node}.
+    */
+   public static final String NODE_TREE = "nodeName,nodeDescription,jobs[" + JOB_TREE + "]";
+
+   /**
+    * The properties of {@link org.jclouds.jenkins.v1.domain.Computer}.
+    */
+   public static final String COMPUTER_TREE = "displayName,idle,offline";
+
+   /**
+    * The properties of {@link org.jclouds.jenkins.v1.domain.ComputerView}.
+    */
+   public static final String COMPUTER_VIEW_TREE = "displayName,busyExecutors,totalExecutors,computer["
+            + COMPUTER_TREE + "]";
+
+   private static final Joiner COMMA = Joiner.on(',');
+
+   /**
+    * @param fields
+    *           properties to return, such as {@code name} or {@code jobs[name,color]}
+    */
+   public TreeOptions tree(String... fields) {
+      checkArgument(checkNotNull(fields, "fields").length > 0, "tree must name at least one field");
+      queryParameters.replaceValues("tree", ImmutableSet.of(COMMA.join(fields)));
+      return this;
+   }
+
+   /**
+    * @param depth
+    *           how many levels of nested objects to expand, where {@code 0} is the Jenkins default.
+    *           Ignored by Jenkins when a {@link #tree} is given.
+    */
+   public TreeOptions depth(int depth) {
+      checkArgument(depth >= 0, "depth must be non-negative");
+      queryParameters.replaceValues("depth", ImmutableSet.of(Integer.toString(depth)));
+      return this;
+   }
+
+   /**
+    * @return the tree expression for a collection property, such as {@code jobs[name,color]}
+    */
+   public static String nested(String property, String... fields) {
+      checkNotNull(property, "property");
+      checkArgument(checkNotNull(fields, "fields").length > 0, "%s must name at least one field", property);
+      return property + "[" + COMMA.join(fields) + "]";
+   }
+
+   /**
+    * @see org.jclouds.jenkins.v1.JenkinsApi#getMaster(TreeOptions)
+    */
+   public static TreeOptions node() {
+      return new TreeOptions().tree(NODE_TREE);
+   }
+
+   /**
+    * @see org.jclouds.jenkins.v1.features.ComputerApi#getView(TreeOptions)
+    */
+   public static TreeOptions computerView() {
+      return new TreeOptions().tree(COMPUTER_VIEW_TREE);
+   }
+
+   /**
+    * @see org.jclouds.jenkins.v1.features.ComputerApi#get(String, TreeOptions)
+    */
+   public static TreeOptions computer() {
+      return new TreeOptions().tree(COMPUTER_TREE);
+   }
+
+   /**
+    * @see org.jclouds.jenkins.v1.features.JobApi#get(String, TreeOptions)
+    */
+   public static TreeOptions jobDetails() {
+      return new TreeOptions().tree(JOB_DETAILS_TREE);
+   }
+
+   public static class Builder {
+
+      /**
+       * @see TreeOptions#tree
+       */
+      public static TreeOptions tree(String... fields) {
+         return new TreeOptions().tree(fields);
+      }
+
+      /**
+       * @see TreeOptions#depth
+       */
+      public static TreeOptions depth(int depth) {
+         return new TreeOptions().depth(depth);
+      }
+   }
+}
@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jenkins.v1.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.jenkins.v1.config.JenkinsProperties.BUILD_POLL_PERIOD;
+import static org.jclouds.jenkins.v1.config.JenkinsProperties.BUILD_TIMEOUT;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.jenkins.v1.JenkinsApi;
+import org.jclouds.jenkins.v1.domain.Build;
+import org.jclouds.jenkins.v1.domain.QueueItem;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Turns triggered builds into futures of their result. Every watched queue item and build is polled
+ * by one scheduled job, so following many builds costs a request per build each period rather than a
+ * blocked thread per build. The job is cancelled once nothing is left to track, and scheduled again
+ * when a build is next tracked.
+ *
+ * <pre>
+ * BuildTracker tracker = context.utils().injector().getInstance(BuildTracker.class);
+ * Build build = tracker.build(&quot;my-job&quot;).get();
+ * </pre>
+ */
+@Singleton
+public class BuildTracker {
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final JenkinsApi api;
+   private final ScheduledExecutorService scheduler;
+   private final long timeout;
+   private final long period;
+   private final ConcurrentMap<String, Tracked> outstanding = Maps.newConcurrentMap();
+   private ScheduledFuture<?> poller;
+
+   @Inject
+   BuildTracker(JenkinsApi api, @Named(Constants.PROPERTY_SCHEDULER_THREADS) ScheduledExecutorService scheduler,
+         @Named(BUILD_TIMEOUT) long timeout, @Named(BUILD_POLL_PERIOD) long period) {
+      this.api = checkNotNull(api, "api");
+      this.scheduler = checkNotNull(scheduler, "scheduler");
+      this.timeout = timeout;
+      this.period = period;
+   }
+
+   private static class Tracked {
+      private final SettableFuture<Build> future = SettableFuture.create();
+      private final String displayName;
+      private final Integer queueItemId;
+      private final long deadline;
+      private volatile Integer buildNumber;
+
+      private Tracked(String displayName, Integer queueItemId, Integer buildNumber, long deadline) {
+         this.displayName = displayName;
+         this.queueItemId = queueItemId;
+         this.buildNumber = buildNumber;
+         this.deadline = deadline;
+      }
+   }
+
+   /**
+    * Triggers a build of the job and tracks it.
+    *
+    * @see #trackQueueItem
+    */
+   public ListenableFuture<Build> build(String displayName) {
+      return trackTriggered(displayName, api.getJobApi().build(displayName));
+   }
+
+   /**
+    * Triggers a build of the job with parameters and tracks it.
+    *
+    * @see #trackQueueItem
+    */
+   public ListenableFuture<Build> buildWithParameters(String displayName, Map<String, String> parameters) {
+      return trackTriggered(displayName, api.getJobApi().buildWithParameters(displayName, parameters));
+   }
+
+   private ListenableFuture<Build> trackTriggered(String displayName, Integer queueItemId) {
+      if (queueItemId == null)
+         return Futures.immediateFailedFuture(new IllegalStateException(String.format(
+               "job %s does not exist, or Jenkins did not return the queue item of its build", displayName)));
+      return trackQueueItem(displayName, queueItemId);
+   }
+
+   /**
+    * @param displayName
+    *           the job the item builds
+    * @param queueItemId
+    *           as returned by {@link org.jclouds.jenkins.v1.features.JobApi#build}
+    * @return the build as it was when it finished; cancelled if the item is taken off the queue, and
+    *         failed if the build does not finish within
+    *         {@link org.jclouds.jenkins.v1.config.JenkinsProperties#BUILD_TIMEOUT}
+    */
+   public ListenableFuture<Build> trackQueueItem(String displayName, int queueItemId) {
+      checkNotNull(displayName, "displayName");
+      return track(displayName + "/queue/" + queueItemId, new Tracked(displayName, queueItemId, null,
+            System.currentTimeMillis() + timeout));
+   }
+
+   /**
+    * @return the build as it was when it finished
+    * @see #trackQueueItem
+    */
+   public ListenableFuture<Build> trackBuild(String displayName, int buildNumber) {
+      checkNotNull(displayName, "displayName");
+      return track(displayName + "/" + buildNumber, new Tracked(displayName, null, buildNumber,
+            System.currentTimeMillis() + timeout));
+   }
+
+   private ListenableFuture<Build> track(String key, Tracked tracked) {
+      Tracked existing = outstanding.putIfAbsent(key, tracked);
+      if (existing != null)
+         return existing.future;
+      startPolling();
+      return tracked.future;
+   }
+
+   private synchronized void startPolling() {
+      if (poller == null) {
+         poller = scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+               poll();
+            }
+         }, period, period, TimeUnit.MILLISECONDS);
+      }
+   }
+
+   private synchronized void stopPollingIfIdle() {
+      if (poller != null && outstanding.isEmpty()) {
+         poller.cancel(false);
+         poller = null;
+      }
+   }
+
+   @VisibleForTesting
+   synchronized boolean isPolling() {
+      return poller != null;
+   }
+
+   /**
+    * Refreshes every outstanding queue item and build once, completing those that have finished or
+    * timed out.
+    */
+   void poll() {
+      for (Map.Entry<String, Tracked> entry : outstanding.entrySet()) {
+         Tracked tracked = entry.getValue();
+         if (!tracked.future.isDone() && System.currentTimeMillis() > tracked.deadline) {
+            tracked.future.setException(new TimeoutException(String.format("%s did not finish within %sms",
+                  entry.getKey(), timeout)));
+            outstanding.remove(entry.getKey(), tracked);
+            continue;
+         }
+         try {
+            if (tracked.future.isDone() || complete(tracked))
+               outstanding.remove(entry.getKey(), tracked);
+         } catch (RuntimeException e) {
+            logger.warn(e, "error polling %s", entry.getKey());
+         }
+      }
+      stopPollingIfIdle();
+   }
+
+   /**
+    * @return true if the build has finished or will never run, in which case the future has been
+    *         completed
+    */
+   private boolean complete(Tracked tracked) {
+      if (tracked.buildNumber == null) {
+         QueueItem item = api.getQueueApi().get(tracked.queueItemId);
+         if (item == null) {
+            tracked.future.setException(new IllegalStateException(String.format(
+                  "queue item %s of %s no longer exists", tracked.queueItemId, tracked.displayName)));
+            return true;
+         }
+         if (item.isCancelled()) {
+            tracked.future.cancel(false);
+            return true;
+         }
+         if (item.getExecutable() == null) {
+            logger.trace("%s: queue item %s waiting: %s", tracked.displayName, item.getId(), item.getWhy());
+            return false;
+         }
+         tracked.buildNumber = item.getExecutable().getNumber();
+      }
+      Build build = api.getJobApi().getBuild(tracked.displayName, tracked.buildNumber);
+      if (build == null || build.isBuilding() || build.getResult() == null) {
+         logger.trace("%s: build %s running", tracked.displayName, tracked.buildNumber);
+         return false;
+      }
+      tracked.future.set(build);
+      return true;
+   }
+
+   @PreDestroy
+   public synchronized void close() {
+      if (poller != null) {
+         poller.cancel(false);
+         poller = null;
+      }
+      for (Tracked tracked : outstanding.values())
+         tracked.future.cancel(false);
+      outstanding.clear();
+   }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jenkins.v1.options;
+
+import static com.google.common.base.Charsets.UTF_8;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.jenkins.v1.domain.ComputerView;
+import org.jclouds.jenkins.v1.domain.Node;
+import org.jclouds.json.Json;
+import org.jclouds.json.config.GsonModule;
+import org.jclouds.util.Strings2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.inject.Guice;
+
+/**
+ * Compares the size and parse time of the default master and computer responses with those returned for
+ * {@link TreeOptions#node()} and {@link TreeOptions#computerView()}. The large responses are built by
+ * repeating the jobs and computers of the test resources, the master listing its jobs as it does at
+ * {@code depth=1}. Run with
+ * 
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *    -Dexec.mainClass=org.jclouds.jenkins.v1.options.TreeOptionsBenchmark
+ * </pre>
+ * 
+ * The response sizes are printed before the benchmarks start.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class TreeOptionsBenchmark {
+
+   @Param({ "100", "5000" })
+   public int items;
+
+   private final Json json = Guice.createInjector(new GsonModule()).getInstance(Json.class);
+   private String master;
+   private String masterTree;
+   private String computerView;
+   private String computerViewTree;
+
+   @Setup
+   public void setUp() throws IOException {
+      JsonParser parser = new JsonParser();
+      JsonObject job = parser.parse(resource("/job.json")).getAsJsonObject();
+      JsonObject node = parser.parse(resource("/master.json")).getAsJsonObject();
+      JsonObject nodeTree = project(node, "nodeName", "nodeDescription");
+      JsonArray jobs = new JsonArray();
+      JsonArray jobsTree = new JsonArray();
+      for (int i = 0; i < items; i++) {
+         JsonObject copy = rename(job, "name", "job-" + i);
+         jobs.add(copy);
+         jobsTree.add(project(copy, "name", "url", "color"));
+      }
+      node.add("jobs", jobs);
+      nodeTree.add("jobs", jobsTree);
+      master = node.toString();
+      masterTree = nodeTree.toString();
+
+      JsonObject view = parser.parse(resource("/computerview.json")).getAsJsonObject();
+      JsonObject computer = view.getAsJsonArray("computer").get(0).getAsJsonObject();
+      JsonObject viewTree = project(view, "displayName", "busyExecutors", "totalExecutors");
+      JsonArray computers = new JsonArray();
+      JsonArray computersTree = new JsonArray();
+      for (int i = 0; i < items; i++) {
+         JsonObject copy = rename(computer, "displayName", "agent-" + i);
+         computers.add(copy);
+         computersTree.add(project(copy, "displayName", "idle", "offline"));
+      }
+      view.add("computer", computers);
+      viewTree.add("computer", computersTree);
+      computerView = view.toString();
+      computerViewTree = viewTree.toString();
+   }
+
+   private static String resource(String name) throws IOException {
+      return Strings2.toStringAndClose(TreeOptionsBenchmark.class.getResourceAsStream(name));
+   }
+
+   private static JsonObject rename(JsonObject in, String property, String name) {
+      JsonObject copy = new JsonParser().parse(in.toString()).getAsJsonObject();
+      copy.add(property, new JsonPrimitive(name));
+      return copy;
+   }
+
+   private static JsonObject project(JsonObject in, String... properties) {
+      JsonObject out = new JsonObject();
+      for (String property : properties)
+         out.add(property, in.get(property));
+      return out;
+   }
+
+   @Benchmark
+   public Node parseMaster() {
+      return json.fromJson(master, Node.class);
+   }
+
+   @Benchmark
+   public Node parseMasterTree() {
+      return json.fromJson(masterTree, Node.class);
+   }
+
+   @Benchmark
+   public ComputerView parseComputerView() {
+      return json.fromJson(computerView, ComputerView.class);
+   }
+
+   @Benchmark
+   public ComputerView parseComputerViewTree() {
+      return json.fromJson(computerViewTree, ComputerView.class);
+   }
+
+   public static void main(String[] args) throws IOException, RunnerException {
+      for (int items : new int[] { 100, 5000 }) {
+         TreeOptionsBenchmark benchmark = new TreeOptionsBenchmark();
+         benchmark.items = items;
+         benchmark.setUp();
+         System.out.printf("%d items: master %d bytes, with tree %d bytes; computers %d bytes, with tree %d bytes%n",
+               items, benchmark.master.getBytes(UTF_8).length, benchmark.masterTree.getBytes(UTF_8).length,
+               benchmark.computerView.getBytes(UTF_8).length, benchmark.computerViewTree.getBytes(UTF_8).length);
+      }
+      new Runner(new OptionsBuilder().include(TreeOptionsBenchmark.class.getSimpleName()).build()).run();
+   }
+}
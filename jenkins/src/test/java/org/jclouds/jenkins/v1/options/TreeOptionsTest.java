@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jenkins.v1.options;
+
+import static org.jclouds.jenkins.v1.options.TreeOptions.nested;
+import static org.jclouds.jenkins.v1.options.TreeOptions.Builder.depth;
+import static org.jclouds.jenkins.v1.options.TreeOptions.Builder.tree;
+import static org.testng.Assert.assertEquals;
+
+import org.jclouds.http.options.HttpRequestOptions;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests possible uses of TreeOptions and TreeOptions.Builder.*
+ */
+@Test(groups = "unit", testName = "TreeOptionsTest")
+public class TreeOptionsTest {
+
+   public void testAssignability() {
+      assert HttpRequestOptions.class.isAssignableFrom(TreeOptions.class);
+   }
+
+   public void testNoOptionsQueryString() {
+      assertEquals(new TreeOptions().buildQueryParameters().size(), 0);
+   }
+
+   public void testTreeStatic() {
+      TreeOptions options = tree("nodeName", nested("jobs", "name", "color"));
+      assertEquals(options.buildQueryParameters().get("tree"), ImmutableList.of("nodeName,jobs[name,color]"));
+   }
+
+   public void testTreeReplaces() {
+      TreeOptions options = tree("nodeName").tree("nodeDescription");
+      assertEquals(options.buildQueryParameters().get("tree"), ImmutableList.of("nodeDescription"));
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testTreeEmpty() {
+      tree();
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testNestedEmpty() {
+      nested("jobs");
+   }
+
+   public void testDepthStatic() {
+      TreeOptions options = depth(1);
+      assertEquals(options.buildQueryParameters().get("depth"), ImmutableList.of("1"));
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testDepthNegative() {
+      depth(-1);
+   }
+
+   public void testNode() {
+      assertEquals(TreeOptions.node().buildQueryParameters().get("tree"),
+            ImmutableList.of("nodeName,nodeDescription,jobs[name,url,color]"));
+   }
+
+   public void testComputerView() {
+      assertEquals(TreeOptions.computerView().buildQueryParameters().get("tree"),
+            ImmutableList.of("displayName,busyExecutors,totalExecutors,computer[displayName,idle,offline]"));
+   }
+
+   public void testComputer() {
+      assertEquals(TreeOptions.computer().buildQueryParameters().get("tree"),
+            ImmutableList.of("displayName,idle,offline"));
+   }
+
+   public void testJobDetails() {
+      assertEquals(TreeOptions.jobDetails().buildQueryParameters().get("tree"), ImmutableList.of("name,url,color"));
+   }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jenkins.v1.parse;
+
+import java.net.URI;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.core.MediaType;
+
+import org.jclouds.jenkins.v1.domain.Build;
+import org.jclouds.json.BaseItemParserTest;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "ParseBuildTest")
+public class ParseBuildTest extends BaseItemParserTest<Build> {
+
+   @Override
+   public String resource() {
+      return "/lastBuild.json";
+   }
+
+   @Override
+   @Consumes(MediaType.APPLICATION_JSON)
+   public Build expected() {
+      return Build.builder()
+                  .number(139)
+                  .url(URI.create("http://dal36.poweredman.com:8080/job/poweredman-web-build/139/"))
+                  .building(false)
+                  .result("SUCCESS")
+                  .duration(505777)
+                  .timestamp(1341997357461L)
+                  .build();
+   }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jenkins.v1.parse;
+
+import java.net.URI;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.core.MediaType;
+
+import org.jclouds.jenkins.v1.domain.QueueItem;
+import org.jclouds.json.BaseItemParserTest;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "ParseQueueItemTest")
+public class ParseQueueItemTest extends BaseItemParserTest<QueueItem> {
+
+   @Override
+   public String resource() {
+      return "/queueItem.json";
+   }
+
+   @Override
+   @Consumes(MediaType.APPLICATION_JSON)
+   public QueueItem expected() {
+      return QueueItem.builder()
+                  .id(12)
+                  .cancelled(false)
+                  .executable(new QueueItem.Executable(139,
+                           URI.create("http://dal36.poweredman.com:8080/job/poweredman-web-build/139/")))
+                  .build();
+   }
+}
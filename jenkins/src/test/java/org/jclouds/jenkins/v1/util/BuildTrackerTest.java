@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.jenkins.v1.util;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.net.URI;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeoutException;
+
+import org.jclouds.jenkins.v1.JenkinsApi;
+import org.jclouds.jenkins.v1.domain.Build;
+import org.jclouds.jenkins.v1.domain.QueueItem;
+import org.jclouds.jenkins.v1.features.JobApi;
+import org.jclouds.jenkins.v1.features.QueueApi;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+@Test(groups = "unit", testName = "BuildTrackerTest")
+public class BuildTrackerTest {
+
+   private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+   @AfterClass(alwaysRun = true)
+   public void tearDown() {
+      scheduler.shutdownNow();
+   }
+
+   static QueueItem waiting(int id) {
+      return QueueItem.builder().id(id).why("Waiting for next available executor").build();
+   }
+
+   static QueueItem started(int id, int number) {
+      return QueueItem.builder().id(id)
+            .executable(new QueueItem.Executable(number, URI.create("http://localhost:8080/job/ddd/" + number + "/")))
+            .build();
+   }
+
+   static Build build(int number, String result) {
+      return Build.builder().number(number).url(URI.create("http://localhost:8080/job/ddd/" + number + "/"))
+            .building(result == null).result(result).build();
+   }
+
+   public void testTriggeredBuildIsFollowedFromQueueToResult() throws Exception {
+      JenkinsApi api = createMock(JenkinsApi.class);
+      JobApi jobApi = createMock(JobApi.class);
+      QueueApi queueApi = createMock(QueueApi.class);
+      expect(api.getJobApi()).andReturn(jobApi).anyTimes();
+      expect(api.getQueueApi()).andReturn(queueApi).anyTimes();
+      expect(jobApi.build("ddd")).andReturn(12);
+      expect(queueApi.get(12)).andReturn(waiting(12));
+      expect(queueApi.get(12)).andReturn(started(12, 139));
+      expect(jobApi.getBuild("ddd", 139)).andReturn(build(139, null));
+      expect(jobApi.getBuild("ddd", 139)).andReturn(build(139, "SUCCESS"));
+      replay(api, jobApi, queueApi);
+
+      // the scheduled poll never runs during the test; polls are driven by hand
+      BuildTracker tracker = new BuildTracker(api, scheduler, 60000, 60000);
+      ListenableFuture<Build> build = tracker.build("ddd");
+      assertSame(tracker.trackQueueItem("ddd", 12), build);
+
+      tracker.poll();
+      assertFalse(build.isDone());
+      tracker.poll();
+      assertFalse(build.isDone());
+      tracker.poll();
+      assertEquals(build.get().getResult(), "SUCCESS");
+      tracker.poll();
+
+      verify(api, jobApi, queueApi);
+      tracker.close();
+   }
+
+   public void testOnePollRefreshesEveryWatchedBuild() throws Exception {
+      JenkinsApi api = createMock(JenkinsApi.class);
+      JobApi jobApi = createMock(JobApi.class);
+      expect(api.getJobApi()).andReturn(jobApi).anyTimes();
+      expect(jobApi.getBuild("ddd", 139)).andReturn(build(139, "SUCCESS"));
+      expect(jobApi.getBuild("ddd", 140)).andReturn(build(140, "FAILURE"));
+      replay(api, jobApi);
+
+      BuildTracker tracker = new BuildTracker(api, scheduler, 60000, 60000);
+      ListenableFuture<Build> first = tracker.trackBuild("ddd", 139);
+      ListenableFuture<Build> second = tracker.trackBuild("ddd", 140);
+      tracker.poll();
+      assertEquals(first.get().getResult(), "SUCCESS");
+      assertEquals(second.get().getResult(), "FAILURE");
+
+      verify(api, jobApi);
+      tracker.close();
+   }
+
+   public void testPollingStopsWhenNothingIsTracked() throws Exception {
+      JenkinsApi api = createMock(JenkinsApi.class);
+      JobApi jobApi = createMock(JobApi.class);
+      expect(api.getJobApi()).andReturn(jobApi).anyTimes();
+      expect(jobApi.getBuild("ddd", 139)).andReturn(build(139, "SUCCESS"));
+      expect(jobApi.getBuild("ddd", 140)).andReturn(build(140, null));
+      replay(api, jobApi);
+
+      BuildTracker tracker = new BuildTracker(api, scheduler, 60000, 60000);
+      assertFalse(tracker.isPolling());
+      tracker.trackBuild("ddd", 139);
+      assertTrue(tracker.isPolling());
+      tracker.poll();
+      assertFalse(tracker.isPolling());
+
+      tracker.trackBuild("ddd", 140);
+      assertTrue(tracker.isPolling());
+      tracker.poll();
+      assertTrue(tracker.isPolling());
+      tracker.close();
+      assertFalse(tracker.isPolling());
+
+      verify(api, jobApi);
+   }
+
+   public void testBuildTimesOutWhenPollingFails() throws Exception {
+      JenkinsApi api = createMock(JenkinsApi.class);
+      QueueApi queueApi = createMock(QueueApi.class);
+      expect(api.getQueueApi()).andReturn(queueApi).anyTimes();
+      expect(queueApi.get(13)).andThrow(new RuntimeException("connection refused"));
+      replay(api, queueApi);
+
+      BuildTracker tracker = new BuildTracker(api, scheduler, 1000, 60000);
+      ListenableFuture<Build> build = tracker.trackQueueItem("ddd", 13);
+      tracker.poll();
+      assertFalse(build.isDone());
+      Thread.sleep(1100);
+      tracker.poll();
+      try {
+         build.get();
+         fail("expected the build to time out");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof TimeoutException, e.getCause().toString());
+      }
+      assertFalse(tracker.isPolling());
+
+      verify(api, queueApi);
+      tracker.close();
+   }
+
+   public void testCancelledQueueItemCancelsItsFuture() throws Exception {
+      JenkinsApi api = createMock(JenkinsApi.class);
+      QueueApi queueApi = createMock(QueueApi.class);
+      expect(api.getQueueApi()).andReturn(queueApi).anyTimes();
+      expect(queueApi.get(13)).andReturn(QueueItem.builder().id(13).cancelled(true).build());
+      replay(api, queueApi);
+
+      BuildTracker tracker = new BuildTracker(api, scheduler, 60000, 60000);
+      ListenableFuture<Build> build = tracker.trackQueueItem("ddd", 13);
+      tracker.poll();
+      assertTrue(build.isCancelled());
+
+      verify(api, queueApi);
+      tracker.close();
+   }
+
+   public void testBuildWithoutQueueItemFails() throws Exception {
+      JenkinsApi api = createMock(JenkinsApi.class);
+      JobApi jobApi = createMock(JobApi.class);
+      expect(api.getJobApi()).andReturn(jobApi).anyTimes();
+      expect(jobApi.build("ddd")).andReturn(null);
+      replay(api, jobApi);
+
+      BuildTracker tracker = new BuildTracker(api, scheduler, 60000, 60000);
+      try {
+         tracker.build("ddd").get();
+         fail("expected the build to fail");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof IllegalStateException, e.getCause().toString());
+      }
+
+      verify(api, jobApi);
+      tracker.close();
+   }
+}
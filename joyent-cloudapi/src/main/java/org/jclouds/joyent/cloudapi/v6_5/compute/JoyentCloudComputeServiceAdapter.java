@@ -18,6 +18,7 @@ package org.jclouds.joyent.cloudapi.v6_5.compute;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.contains;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.transform;
@@ -45,7 +46,9 @@ import org.jclouds.joyent.cloudapi.v6_5.domain.datacenterscoped.DatacenterAndId;
 import org.jclouds.joyent.cloudapi.v6_5.domain.datacenterscoped.DatasetInDatacenter;
 import org.jclouds.joyent.cloudapi.v6_5.domain.datacenterscoped.MachineInDatacenter;
 import org.jclouds.joyent.cloudapi.v6_5.domain.datacenterscoped.PackageInDatacenter;
+import org.jclouds.joyent.cloudapi.v6_5.features.MachineApi;
 import org.jclouds.joyent.cloudapi.v6_5.options.CreateMachineOptions;
+import org.jclouds.joyent.cloudapi.v6_5.options.ListMachineOptions;
 import org.jclouds.location.Zone;
 import org.jclouds.logging.Logger;
 
@@ -141,16 +144,18 @@ public class JoyentCloudComputeServiceAdapter implements
 
    @Override
    public Iterable<MachineInDatacenter> listNodes() {
-      Builder<MachineInDatacenter> builder = ImmutableSet.builder();
-      for (final String datacenterId : datacenterIds.get()) {
-         builder.addAll(transform(cloudApiApi.getMachineApiForDatacenter(datacenterId).list(),
-               new Function<Machine, MachineInDatacenter>() {
-                  public MachineInDatacenter apply(Machine arg0) {
-                     return new MachineInDatacenter(arg0, datacenterId);
-                  }
-               }));
-      }
-      return builder.build();
+      // each datacenter is only queried, a page at a time, as the result is iterated
+      return concat(transform(datacenterIds.get(), new Function<String, Iterable<MachineInDatacenter>>() {
+         public Iterable<MachineInDatacenter> apply(final String datacenterId) {
+            MachineApi machineApi = cloudApiApi.getMachineApiForDatacenter(datacenterId);
+            return transform(machineApi.listInPages(new ListMachineOptions()).concat(),
+                  new Function<Machine, MachineInDatacenter>() {
+                     public MachineInDatacenter apply(Machine arg0) {
+                        return new MachineInDatacenter(arg0, datacenterId);
+                     }
+                  });
+         }
+      }));
    }
 
    @Override
@@ -17,8 +17,12 @@
 package org.jclouds.joyent.cloudapi.v6_5.features;
 
 import java.util.Set;
+
+import org.jclouds.collect.IterableWithMarker;
+import org.jclouds.collect.PagedIterable;
 import org.jclouds.joyent.cloudapi.v6_5.domain.Machine;
 import org.jclouds.joyent.cloudapi.v6_5.options.CreateMachineOptions;
+import org.jclouds.joyent.cloudapi.v6_5.options.ListMachineOptions;
 
 /**
  * Provides synchronous access to Machine.
@@ -37,6 +41,25 @@ public interface MachineApi {
     */
    Set<Machine> list();
 
+   /**
+    * Lists one page of the machines matching the server-side filters in {@code options}.
+    * 
+    * @param options
+    *           filters, offset and limit of the page
+    * @return the page, with a marker to the next page if the server reports more matches
+    */
+   IterableWithMarker<Machine> list(ListMachineOptions options);
+
+   /**
+    * Lists all machines matching the server-side filters in {@code options}. Pages are only fetched as the result
+    * is iterated, starting at the offset in {@code options}.
+    * 
+    * @param options
+    *           filters and page size to use
+    * @return lazily advancing pages of matching machines
+    */
+   PagedIterable<Machine> listInPages(ListMachineOptions options);
+
    /**
     * Gets the details for an individual machine.
     * 
@@ -29,17 +29,25 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 
+import org.jclouds.Fallbacks.EmptyIterableWithMarkerOnNotFoundOr404;
+import org.jclouds.Fallbacks.EmptyPagedIterableOnNotFoundOr404;
 import org.jclouds.Fallbacks.EmptySetOnNotFoundOr404;
 import org.jclouds.Fallbacks.NullOnNotFoundOr404;
 import org.jclouds.Fallbacks.VoidOnNotFoundOr404;
+import org.jclouds.collect.IterableWithMarker;
+import org.jclouds.collect.PagedIterable;
 import org.jclouds.http.filters.BasicAuthentication;
 import org.jclouds.joyent.cloudapi.v6_5.domain.Machine;
+import org.jclouds.joyent.cloudapi.v6_5.functions.ParseMachines;
 import org.jclouds.joyent.cloudapi.v6_5.options.CreateMachineOptions;
+import org.jclouds.joyent.cloudapi.v6_5.options.ListMachineOptions;
 import org.jclouds.rest.annotations.Fallback;
 import org.jclouds.rest.annotations.Headers;
 import org.jclouds.rest.annotations.Payload;
 import org.jclouds.rest.annotations.PayloadParam;
 import org.jclouds.rest.annotations.RequestFilters;
+import org.jclouds.rest.annotations.ResponseParser;
+import org.jclouds.rest.annotations.Transform;
 
 import com.google.common.util.concurrent.ListenableFuture;
 
@@ -65,6 +73,29 @@ public interface MachineAsyncApi {
    @Fallback(EmptySetOnNotFoundOr404.class)
    ListenableFuture<Set<Machine>> list();
 
+   /**
+    * @see MachineApi#list(ListMachineOptions)
+    */
+   @Named("ListMachines")
+   @GET
+   @Path("/my/machines")
+   @Consumes(MediaType.APPLICATION_JSON)
+   @ResponseParser(ParseMachines.class)
+   @Fallback(EmptyIterableWithMarkerOnNotFoundOr404.class)
+   ListenableFuture<IterableWithMarker<Machine>> list(ListMachineOptions options);
+
+   /**
+    * @see MachineApi#listInPages
+    */
+   @Named("ListMachines")
+   @GET
+   @Path("/my/machines")
+   @Consumes(MediaType.APPLICATION_JSON)
+   @ResponseParser(ParseMachines.class)
+   @Transform(ParseMachines.ToPagedIterable.class)
+   @Fallback(EmptyPagedIterableOnNotFoundOr404.class)
+   ListenableFuture<PagedIterable<Machine>> listInPages(ListMachineOptions options);
+
    /**
     * @see MachineApi#get
     */
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.joyent.cloudapi.v6_5.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Iterables.filter;
+import static com.google.common.collect.Iterables.getFirst;
+import static org.jclouds.collect.PagedIterables.advance;
+
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.jclouds.collect.IterableWithMarker;
+import org.jclouds.collect.IterableWithMarkers;
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseJson;
+import org.jclouds.joyent.cloudapi.v6_5.JoyentCloudApi;
+import org.jclouds.joyent.cloudapi.v6_5.domain.Machine;
+import org.jclouds.joyent.cloudapi.v6_5.options.ListMachineOptions;
+import org.jclouds.json.Json;
+import org.jclouds.rest.InvocationContext;
+import org.jclouds.rest.internal.GeneratedHttpRequest;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.primitives.Ints;
+import com.google.inject.TypeLiteral;
+
+/**
+ * Parses one page of a machine listing. CloudAPI returns a bare json array, so the position of the next page is
+ * derived from the {@code x-resource-count} and {@code x-query-limit} response headers and the offset of the request.
+ */
+public class ParseMachines implements Function<HttpResponse, IterableWithMarker<Machine>>,
+      InvocationContext<ParseMachines> {
+   public static final String RESOURCE_COUNT = "x-resource-count";
+   public static final String QUERY_LIMIT = "x-query-limit";
+
+   private final ParseJson<List<Machine>> parser;
+   private ListMachineOptions options;
+
+   @Inject
+   public ParseMachines(Json json) {
+      this.parser = new ParseJson<List<Machine>>(checkNotNull(json, "json"), new TypeLiteral<List<Machine>>() {
+      });
+   }
+
+   @Override
+   public IterableWithMarker<Machine> apply(HttpResponse response) {
+      List<Machine> machines = parser.apply(response);
+      int offset = options != null && options.getOffset() != null ? options.getOffset() : 0;
+      Integer total = intHeader(response, RESOURCE_COUNT);
+      Integer limit = options != null && options.getLimit() != null ? options.getLimit() : intHeader(response,
+            QUERY_LIMIT);
+      int next = offset + machines.size();
+      boolean more = total != null ? next < total : limit != null && machines.size() >= limit;
+      if (!more || machines.isEmpty())
+         return IterableWithMarkers.from(machines);
+      ListMachineOptions nextPage = options != null ? options.atOffset(next) : ListMachineOptions.Builder
+            .offset(next);
+      return IterableWithMarkers.from(machines, nextPage);
+   }
+
+   private static Integer intHeader(HttpResponse response, String name) {
+      String value = response.getFirstHeaderOrNull(name);
+      return value == null ? null : Ints.tryParse(value.trim());
+   }
+
+   @Override
+   public ParseMachines setContext(HttpRequest request) {
+      this.options = null;
+      if (request instanceof GeneratedHttpRequest) {
+         this.options = getFirst(filter(GeneratedHttpRequest.class.cast(request).getInvocation().getArgs(),
+               ListMachineOptions.class), null);
+      }
+      return this;
+   }
+
+   /**
+    * Follows the markers of {@link ParseMachines} using the datacenter of the calling
+    * {@link JoyentCloudApi#getMachineApiForDatacenter}.
+    */
+   public static class ToPagedIterable implements Function<IterableWithMarker<Machine>, PagedIterable<Machine>>,
+         InvocationContext<ToPagedIterable> {
+
+      private final JoyentCloudApi api;
+      private GeneratedHttpRequest request;
+
+      @Inject
+      public ToPagedIterable(JoyentCloudApi api) {
+         this.api = checkNotNull(api, "api");
+      }
+
+      @Override
+      public PagedIterable<Machine> apply(IterableWithMarker<Machine> input) {
+         final String datacenter = String.class.cast(request.getCaller().get().getArgs().get(0));
+         return advance(input, new Function<Object, IterableWithMarker<Machine>>() {
+
+            @Override
+            public IterableWithMarker<Machine> apply(Object marker) {
+               return api.getMachineApiForDatacenter(datacenter).list(ListMachineOptions.class.cast(marker));
+            }
+
+            @Override
+            public String toString() {
+               return "listMachinesInDatacenter(" + datacenter + ")";
+            }
+         });
+      }
+
+      @Override
+      public ToPagedIterable setContext(HttpRequest request) {
+         this.request = GeneratedHttpRequest.class.cast(request);
+         return this;
+      }
+   }
+}
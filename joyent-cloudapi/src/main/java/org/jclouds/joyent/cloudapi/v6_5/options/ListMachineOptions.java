@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.joyent.cloudapi.v6_5.options;
+
+import static com.google.common.base.Objects.equal;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+
+import org.jclouds.http.options.BaseHttpRequestOptions;
+import org.jclouds.joyent.cloudapi.v6_5.domain.Machine.State;
+import org.jclouds.joyent.cloudapi.v6_5.domain.Machine.Type;
+import org.jclouds.util.Maps2;
+
+import com.google.common.base.Function;
+import com.google.common.base.Objects;
+import com.google.common.base.Objects.ToStringHelper;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+
+/**
+ * Server-side filters and paging for {@link org.jclouds.joyent.cloudapi.v6_5.features.MachineApi#list}.
+ * @see <a href= "http://apidocs.joyent.com/sdcapidoc/cloudapi/index.html#ListMachines" />
+ */
+public class ListMachineOptions extends BaseHttpRequestOptions {
+   private Integer offset;
+   private Integer limit;
+   private String name;
+   private State state;
+   private Type type;
+   private String dataset;
+   private Map<String, String> tags = ImmutableMap.of();
+
+   @Override
+   public boolean equals(Object object) {
+      if (this == object) {
+         return true;
+      }
+      if (object instanceof ListMachineOptions) {
+         final ListMachineOptions other = ListMachineOptions.class.cast(object);
+         return equal(offset, other.offset) && equal(limit, other.limit) && equal(name, other.name)
+               && equal(state, other.state) && equal(type, other.type) && equal(dataset, other.dataset)
+               && equal(tags, other.tags);
+      } else {
+         return false;
+      }
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(offset, limit, name, state, type, dataset, tags);
+   }
+
+   @Override
+   public String toString() {
+      ToStringHelper toString = Objects.toStringHelper("").omitNullValues();
+      toString.add("offset", offset).add("limit", limit).add("name", name).add("state", state).add("type", type)
+            .add("dataset", dataset);
+      if (tags.size() > 0)
+         toString.add("tags", tags);
+      return toString.toString();
+   }
+
+   @Override
+   public Multimap<String, String> buildQueryParameters() {
+      Multimap<String, String> params = super.buildQueryParameters();
+      if (name != null)
+         params.put("name", name);
+      if (state != null)
+         params.put("state", state.value().toLowerCase());
+      if (type != null)
+         params.put("type", type.value().toLowerCase());
+      if (dataset != null)
+         params.put("dataset", dataset);
+      params.putAll(Multimaps.forMap(Maps2.transformKeys(tags, new Function<String, String>() {
+
+         @Override
+         public String apply(String input) {
+            return "tag." + input;
+         }
+
+      })));
+      if (offset != null)
+         params.put("offset", offset.toString());
+      if (limit != null)
+         params.put("limit", limit.toString());
+      return params;
+   }
+
+   /**
+    * index of the first machine to return; default is {@code 0}
+    */
+   public ListMachineOptions offset(int offset) {
+      checkArgument(offset >= 0, "offset must be non-negative");
+      this.offset = offset;
+      return this;
+   }
+
+   /**
+    * maximum number of machines to return in one page; the server caps this at 1000
+    */
+   public ListMachineOptions limit(int limit) {
+      checkArgument(limit > 0, "limit must be positive");
+      this.limit = limit;
+      return this;
+   }
+
+   /**
+    * only return the machine with this exact name
+    */
+   public ListMachineOptions name(String name) {
+      this.name = checkNotNull(name, "name");
+      return this;
+   }
+
+   /**
+    * only return machines in this state
+    */
+   public ListMachineOptions state(State state) {
+      this.state = checkNotNull(state, "state");
+      return this;
+   }
+
+   /**
+    * only return machines of this type
+    */
+   public ListMachineOptions type(Type type) {
+      this.type = checkNotNull(type, "type");
+      return this;
+   }
+
+   /**
+    * only return machines provisioned from this dataset urn
+    */
+   public ListMachineOptions dataset(String dataset) {
+      this.dataset = checkNotNull(dataset, "dataset");
+      return this;
+   }
+
+   /**
+    * only return machines carrying all of these tags
+    */
+   public ListMachineOptions tags(Map<String, String> tags) {
+      checkNotNull(tags, "tags");
+      this.tags = ImmutableMap.copyOf(tags);
+      return this;
+   }
+
+   public Integer getOffset() {
+      return offset;
+   }
+
+   public Integer getLimit() {
+      return limit;
+   }
+
+   /**
+    * @return a copy of these options, positioned at the given offset
+    */
+   public ListMachineOptions atOffset(int offset) {
+      ListMachineOptions options = new ListMachineOptions();
+      options.limit = limit;
+      options.name = name;
+      options.state = state;
+      options.type = type;
+      options.dataset = dataset;
+      options.tags = tags;
+      return options.offset(offset);
+   }
+
+   public static class Builder {
+
+      /**
+       * @see ListMachineOptions#offset
+       */
+      public static ListMachineOptions offset(int offset) {
+         ListMachineOptions options = new ListMachineOptions();
+         return options.offset(offset);
+      }
+
+      /**
+       * @see ListMachineOptions#limit
+       */
+      public static ListMachineOptions limit(int limit) {
+         ListMachineOptions options = new ListMachineOptions();
+         return options.limit(limit);
+      }
+
+      /**
+       * @see ListMachineOptions#name
+       */
+      public static ListMachineOptions name(String name) {
+         ListMachineOptions options = new ListMachineOptions();
+         return options.name(name);
+      }
+
+      /**
+       * @see ListMachineOptions#state
+       */
+      public static ListMachineOptions state(State state) {
+         ListMachineOptions options = new ListMachineOptions();
+         return options.state(state);
+      }
+
+      /**
+       * @see ListMachineOptions#type
+       */
+      public static ListMachineOptions type(Type type) {
+         ListMachineOptions options = new ListMachineOptions();
+         return options.type(type);
+      }
+
+      /**
+       * @see ListMachineOptions#dataset
+       */
+      public static ListMachineOptions dataset(String dataset) {
+         ListMachineOptions options = new ListMachineOptions();
+         return options.dataset(dataset);
+      }
+
+      /**
+       * @see ListMachineOptions#tags(Map<String, String>)
+       */
+      public static ListMachineOptions tags(Map<String, String> tags) {
+         ListMachineOptions options = new ListMachineOptions();
+         return options.tags(tags);
+      }
+
+   }
+
+}
@@ -17,17 +17,25 @@
 package org.jclouds.joyent.cloudapi.v6_5.features;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 
+import java.util.Set;
+
+import org.jclouds.collect.IterableWithMarker;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.joyent.cloudapi.v6_5.JoyentCloudApi;
+import org.jclouds.joyent.cloudapi.v6_5.domain.Machine;
 import org.jclouds.joyent.cloudapi.v6_5.internal.BaseJoyentCloudApiExpectTest;
 import org.jclouds.joyent.cloudapi.v6_5.options.CreateMachineOptions;
+import org.jclouds.joyent.cloudapi.v6_5.options.ListMachineOptions;
 import org.jclouds.joyent.cloudapi.v6_5.parse.ParseCreatedMachineTest;
 import org.jclouds.joyent.cloudapi.v6_5.parse.ParseMachineListTest;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 
 /**
  * @author Gerald Pereira
@@ -58,6 +66,39 @@ public class MachineApiExpectTest extends BaseJoyentCloudApiExpectTest {
       assertEquals(listWhenNone.getMachineApiForDatacenter("us-sw-1").list(), ImmutableSet.of());
    }
 
+   public void testListMachinesInPagesFollowsResourceCount() {
+      HttpRequest firstPage = list.toBuilder()
+            .endpoint("https://us-sw-1.api.joyentcloud.com/my/machines?state=running&limit=2").build();
+      HttpResponse firstPageResponse = listResponse.toBuilder().addHeader("x-resource-count", "4").build();
+      HttpRequest secondPage = list.toBuilder()
+            .endpoint("https://us-sw-1.api.joyentcloud.com/my/machines?state=running&offset=2&limit=2").build();
+      HttpResponse secondPageResponse = HttpResponse.builder().statusCode(200)
+            .payload(payloadFromResource("/machine_list.json")).addHeader("x-resource-count", "4").build();
+
+      JoyentCloudApi apiWhenMachinesExists = requestsSendResponses(getDatacenters, getDatacentersResponse,
+            firstPage, firstPageResponse, secondPage, secondPageResponse);
+
+      Set<Machine> expected = new ParseMachineListTest().expected();
+      assertEquals(
+            ImmutableList.copyOf(apiWhenMachinesExists.getMachineApiForDatacenter("us-sw-1")
+                  .listInPages(ListMachineOptions.Builder.state(Machine.State.RUNNING).limit(2)).concat()),
+            ImmutableList.copyOf(Iterables.concat(expected, expected)));
+   }
+
+   public void testListMachinesPageWithoutMoreResultsHasNoMarker() {
+      HttpRequest page = list.toBuilder()
+            .endpoint("https://us-sw-1.api.joyentcloud.com/my/machines?offset=2&limit=2").build();
+      HttpResponse pageResponse = listResponse.toBuilder().addHeader("x-resource-count", "4").build();
+
+      JoyentCloudApi apiWhenMachinesExists = requestsSendResponses(getDatacenters, getDatacentersResponse, page,
+            pageResponse);
+
+      IterableWithMarker<Machine> machines = apiWhenMachinesExists.getMachineApiForDatacenter("us-sw-1").list(
+            ListMachineOptions.Builder.offset(2).limit(2));
+      assertEquals(ImmutableSet.copyOf(machines), new ParseMachineListTest().expected());
+      assertFalse(machines.nextMarker().isPresent());
+   }
+
    public void testCreateMachineWhenResponseIs202() throws Exception {
       HttpRequest createWithDataset = HttpRequest
                .builder()
@@ -17,7 +17,11 @@
 package org.jclouds.savvis.vpdc;
 
 import static org.jclouds.reflect.Reflection2.typeToken;
+import static org.jclouds.savvis.vpdc.reference.VPDCConstants.PROPERTY_VPDC_MAX_CONCURRENT_REQUESTS;
+import static org.jclouds.savvis.vpdc.reference.VPDCConstants.PROPERTY_VPDC_STRUCTURE_CACHE_TTL;
+import static org.jclouds.savvis.vpdc.reference.VPDCConstants.PROPERTY_VPDC_TASK_POLL_PERIOD;
 import static org.jclouds.savvis.vpdc.reference.VPDCConstants.PROPERTY_VPDC_TIMEOUT_TASK_COMPLETED;
+import static org.jclouds.savvis.vpdc.reference.VPDCConstants.PROPERTY_VPDC_VM_BATCH_WINDOW;
 
 import java.net.URI;
 import java.util.Properties;
@@ -59,6 +63,10 @@ public class VPDCApiMetadata extends BaseRestApiMetadata {
    public static Properties defaultProperties() {
       Properties properties = BaseRestApiMetadata.defaultProperties();
       properties.setProperty(PROPERTY_VPDC_TIMEOUT_TASK_COMPLETED, 600l * 1000l + "");
+      properties.setProperty(PROPERTY_VPDC_MAX_CONCURRENT_REQUESTS, "10");
+      properties.setProperty(PROPERTY_VPDC_STRUCTURE_CACHE_TTL, "10000");
+      properties.setProperty(PROPERTY_VPDC_TASK_POLL_PERIOD, "5000");
+      properties.setProperty(PROPERTY_VPDC_VM_BATCH_WINDOW, "500");
       return properties;
    }
 
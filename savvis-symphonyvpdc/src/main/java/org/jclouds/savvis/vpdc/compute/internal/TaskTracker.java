@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.savvis.vpdc.compute.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.savvis.vpdc.reference.VPDCConstants.PROPERTY_VPDC_TASK_POLL_PERIOD;
+import static org.jclouds.savvis.vpdc.reference.VPDCConstants.PROPERTY_VPDC_TIMEOUT_TASK_COMPLETED;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.logging.Logger;
+import org.jclouds.savvis.vpdc.VPDCApi;
+import org.jclouds.savvis.vpdc.domain.Task;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Waits for tasks to complete. All outstanding tasks are polled by one scheduled job, so waiting
+ * for many tasks costs a poll per task each period rather than a blocked thread per task. The job
+ * only schedules the polls, which run on the user executor, and it is cancelled once no task is
+ * left to track.
+ */
+@Singleton
+public class TaskTracker {
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final VPDCApi api;
+   private final ListeningExecutorService userExecutor;
+   private final ScheduledExecutorService scheduler;
+   private final long timeout;
+   private final long period;
+   private final ConcurrentMap<String, Tracked> outstanding = Maps.newConcurrentMap();
+   private ScheduledFuture<?> poller;
+
+   @Inject
+   TaskTracker(VPDCApi api, @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(Constants.PROPERTY_SCHEDULER_THREADS) ScheduledExecutorService scheduler,
+         @Named(PROPERTY_VPDC_TIMEOUT_TASK_COMPLETED) long timeout,
+         @Named(PROPERTY_VPDC_TASK_POLL_PERIOD) long period) {
+      this.api = checkNotNull(api, "api");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.scheduler = checkNotNull(scheduler, "scheduler");
+      this.timeout = timeout;
+      this.period = period;
+   }
+
+   private static class Tracked {
+      private final SettableFuture<Task> future = SettableFuture.create();
+      private final long deadline;
+      private final AtomicBoolean polling = new AtomicBoolean();
+
+      private Tracked(long deadline) {
+         this.deadline = deadline;
+      }
+   }
+
+   /**
+    * @return the task as it was when it succeeded; fails if the task fails or does not complete
+    *         within {@link org.jclouds.savvis.vpdc.reference.VPDCConstants#PROPERTY_VPDC_TIMEOUT_TASK_COMPLETED}
+    */
+   public ListenableFuture<Task> track(Task task) {
+      checkNotNull(task, "task");
+      Tracked tracked = new Tracked(System.currentTimeMillis() + timeout);
+      if (complete(tracked, task))
+         return tracked.future;
+      Tracked existing = outstanding.putIfAbsent(task.getId(), tracked);
+      if (existing != null)
+         return existing.future;
+      startPolling();
+      return tracked.future;
+   }
+
+   private synchronized void startPolling() {
+      if (poller == null) {
+         poller = scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+               poll();
+            }
+         }, period, period, TimeUnit.MILLISECONDS);
+      }
+   }
+
+   private synchronized void stopPollingIfIdle() {
+      if (poller != null && outstanding.isEmpty()) {
+         poller.cancel(false);
+         poller = null;
+      }
+   }
+
+   @VisibleForTesting
+   synchronized boolean isPolling() {
+      return poller != null;
+   }
+
+   /**
+    * Refreshes every outstanding task once on the user executor, completing those that have finished
+    * or timed out. A task whose previous refresh is still running is skipped.
+    */
+   void poll() {
+      for (Map.Entry<String, Tracked> entry : outstanding.entrySet()) {
+         final String taskId = entry.getKey();
+         final Tracked tracked = entry.getValue();
+         if (System.currentTimeMillis() > tracked.deadline) {
+            tracked.future.setException(new TimeoutException(String.format("task %s did not complete within %sms",
+                  taskId, timeout)));
+            outstanding.remove(taskId, tracked);
+         } else if (tracked.polling.compareAndSet(false, true)) {
+            userExecutor.execute(new Runnable() {
+               @Override
+               public void run() {
+                  try {
+                     refresh(taskId, tracked);
+                  } finally {
+                     tracked.polling.set(false);
+                  }
+               }
+            });
+         }
+      }
+      stopPollingIfIdle();
+   }
+
+   private void refresh(String taskId, Tracked tracked) {
+      try {
+         Task task = api.getBrowsingApi().getTask(taskId);
+         if (task != null && complete(tracked, task)) {
+            outstanding.remove(taskId, tracked);
+            stopPollingIfIdle();
+         }
+      } catch (RuntimeException e) {
+         logger.warn(e, "error polling task %s", taskId);
+      }
+   }
+
+   /**
+    * @return true if the task has finished, in which case the future has been completed
+    */
+   private boolean complete(Tracked tracked, Task task) {
+      logger.trace("%s: looking for task status %s: currently: %s", task.getId(), Task.Status.SUCCESS,
+            task.getStatus());
+      if (task.getError() != null) {
+         tracked.future.setException(new IllegalStateException(String.format("task %s failed with exception %s",
+               task.getId(), task.getError().toString())));
+         return true;
+      }
+      switch (task.getStatus()) {
+         case SUCCESS:
+            tracked.future.set(task);
+            return true;
+         case ERROR:
+         case NONE:
+            tracked.future.setException(new IllegalStateException(String.format("task %s failed with status %s",
+                  task.getId(), task.getStatus())));
+            return true;
+         default:
+            return false;
+      }
+   }
+
+   @PreDestroy
+   public synchronized void close() {
+      if (poller != null) {
+         poller.cancel(false);
+         poller = null;
+      }
+      for (Tracked tracked : outstanding.values())
+         tracked.future.cancel(false);
+      outstanding.clear();
+   }
+}
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.savvis.vpdc.compute.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.savvis.vpdc.reference.VPDCConstants.PROPERTY_VPDC_MAX_CONCURRENT_REQUESTS;
+import static org.jclouds.savvis.vpdc.reference.VPDCConstants.PROPERTY_VPDC_STRUCTURE_CACHE_TTL;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.savvis.vpdc.VPDCApi;
+import org.jclouds.savvis.vpdc.domain.Org;
+import org.jclouds.savvis.vpdc.domain.Resource;
+import org.jclouds.savvis.vpdc.domain.VDC;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * The orgs and VDCs visible to the current user, walked concurrently and cached briefly so that
+ * listing nodes and listing locations share one walk.
+ * <p/>
+ * Requests made through {@link #submit} and {@link #fetchAll} run on the user executor, at most
+ * {@link org.jclouds.savvis.vpdc.reference.VPDCConstants#PROPERTY_VPDC_MAX_CONCURRENT_REQUESTS}
+ * at a time.
+ */
+@Singleton
+public class VDCStructure {
+
+   /**
+    * A VDC together with the org, or billing site, it belongs to.
+    */
+   public static class VDCInOrg {
+      private final String orgId;
+      private final VDC vdc;
+
+      public VDCInOrg(String orgId, VDC vdc) {
+         this.orgId = checkNotNull(orgId, "orgId");
+         this.vdc = checkNotNull(vdc, "vdc");
+      }
+
+      public String getOrgId() {
+         return orgId;
+      }
+
+      public VDC getVDC() {
+         return vdc;
+      }
+   }
+
+   private static final String ALL = "all";
+
+   private final VPDCApi api;
+   private final ListeningExecutorService userExecutor;
+   private final Semaphore requests;
+   private final LoadingCache<String, List<VDCInOrg>> vdcs;
+
+   @Inject
+   VDCStructure(VPDCApi api, @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(PROPERTY_VPDC_MAX_CONCURRENT_REQUESTS) int maxConcurrentRequests,
+         @Named(PROPERTY_VPDC_STRUCTURE_CACHE_TTL) long structureCacheTtl) {
+      this.api = checkNotNull(api, "api");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.requests = new Semaphore(maxConcurrentRequests, true);
+      this.vdcs = CacheBuilder.newBuilder().expireAfterWrite(structureCacheTtl, TimeUnit.MILLISECONDS)
+            .build(new CacheLoader<String, List<VDCInOrg>>() {
+               @Override
+               public List<VDCInOrg> load(String key) {
+                  return walk();
+               }
+            });
+   }
+
+   /**
+    * @return every VDC in every org, from a walk taken within the cache ttl
+    */
+   public List<VDCInOrg> getVDCs() {
+      try {
+         return vdcs.getUnchecked(ALL);
+      } catch (UncheckedExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      }
+   }
+
+   /**
+    * Forgets the cached walk, for example after vApps have been added or removed.
+    */
+   public void invalidate() {
+      vdcs.invalidateAll();
+   }
+
+   /**
+    * Fetches all orgs concurrently, then the VDCs of each org as soon as that org arrives.
+    */
+   private List<VDCInOrg> walk() {
+      ImmutableList.Builder<ListenableFuture<Org>> orgs = ImmutableList.builder();
+      for (final Resource org : api.listOrgs()) {
+         orgs.add(submit(new Callable<Org>() {
+            @Override
+            public Org call() {
+               return api.getBrowsingApi().getOrg(org.getId());
+            }
+         }));
+      }
+      ImmutableList.Builder<ListenableFuture<VDCInOrg>> vdcFetches = ImmutableList.builder();
+      for (ListenableFuture<Org> future : orgs.build()) {
+         final Org org = getUnchecked(future);
+         if (org == null)
+            continue;
+         for (final Resource vdc : org.getVDCs()) {
+            vdcFetches.add(submit(new Callable<VDCInOrg>() {
+               @Override
+               public VDCInOrg call() {
+                  VDC in = api.getBrowsingApi().getVDCInOrg(org.getId(), vdc.getId());
+                  return in != null ? new VDCInOrg(org.getId(), in) : null;
+               }
+            }));
+         }
+      }
+      ImmutableList.Builder<VDCInOrg> builder = ImmutableList.builder();
+      for (ListenableFuture<VDCInOrg> future : vdcFetches.build()) {
+         VDCInOrg vdc = getUnchecked(future);
+         if (vdc != null)
+            builder.add(vdc);
+      }
+      return builder.build();
+   }
+
+   /**
+    * Runs a request on the user executor once fewer than the maximum number of requests are in
+    * flight.
+    */
+   public <T> ListenableFuture<T> submit(final Callable<T> request) {
+      return userExecutor.submit(new Callable<T>() {
+         @Override
+         public T call() throws Exception {
+            requests.acquire();
+            try {
+               return request.call();
+            } finally {
+               requests.release();
+            }
+         }
+      });
+   }
+
+   /**
+    * Submits all requests at once and returns their results as they arrive. Iterating blocks only
+    * until the next request completes, so callers can consume early results while the rest are
+    * still in flight. Null results, such as resources deleted while being listed, are skipped.
+    */
+   public <T> Iterable<T> fetchAll(Iterable<? extends Callable<T>> requests) {
+      ImmutableList.Builder<ListenableFuture<T>> builder = ImmutableList.builder();
+      for (Callable<T> request : requests)
+         builder.add(submit(request));
+      final List<ListenableFuture<T>> futures = builder.build();
+      return new FluentIterable<T>() {
+         @Override
+         public Iterator<T> iterator() {
+            final BlockingQueue<ListenableFuture<T>> completed = new LinkedBlockingQueue<ListenableFuture<T>>();
+            for (final ListenableFuture<T> future : futures) {
+               future.addListener(new Runnable() {
+                  @Override
+                  public void run() {
+                     completed.add(future);
+                  }
+               }, MoreExecutors.sameThreadExecutor());
+            }
+            return new AbstractIterator<T>() {
+               private int remaining = futures.size();
+
+               @Override
+               protected T computeNext() {
+                  while (remaining > 0) {
+                     remaining--;
+                     T next = getUnchecked(Uninterruptibles.takeUninterruptibly(completed));
+                     if (next != null)
+                        return next;
+                  }
+                  return endOfData();
+               }
+            };
+         }
+      };
+   }
+
+   private static <T> T getUnchecked(ListenableFuture<T> future) {
+      try {
+         return Futures.getUnchecked(future);
+      } catch (UncheckedExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      }
+   }
+}
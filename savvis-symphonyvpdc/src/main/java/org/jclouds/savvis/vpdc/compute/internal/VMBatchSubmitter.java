@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.savvis.vpdc.compute.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.savvis.vpdc.reference.VPDCConstants.PROPERTY_VPDC_VM_BATCH_WINDOW;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.savvis.vpdc.VPDCApi;
+import org.jclouds.savvis.vpdc.domain.Task;
+import org.jclouds.savvis.vpdc.domain.VMSpec;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Adds VMs to VDCs in batches. VMs requested for the same VDC within a short window, such as the
+ * nodes of a group being created concurrently, are submitted with a single
+ * {@link org.jclouds.savvis.vpdc.features.VMApi#addMultipleVMsIntoVDC} call, and their tasks are
+ * then waited for by the shared {@link TaskTracker}.
+ */
+@Singleton
+public class VMBatchSubmitter {
+
+   private final VPDCApi api;
+   private final TaskTracker tasks;
+   private final ScheduledExecutorService scheduler;
+   private final long window;
+   private final Map<List<String>, Batch> pending = Maps.newHashMap();
+
+   @Inject
+   VMBatchSubmitter(VPDCApi api, TaskTracker tasks,
+         @Named(Constants.PROPERTY_SCHEDULER_THREADS) ScheduledExecutorService scheduler,
+         @Named(PROPERTY_VPDC_VM_BATCH_WINDOW) long window) {
+      this.api = checkNotNull(api, "api");
+      this.tasks = checkNotNull(tasks, "tasks");
+      this.scheduler = checkNotNull(scheduler, "scheduler");
+      this.window = window;
+   }
+
+   private class Batch {
+      private final String billingSiteId;
+      private final String vpdcId;
+      private final List<VMSpec> specs = Lists.newArrayList();
+      private final SettableFuture<Set<Task>> submitted = SettableFuture.create();
+
+      private Batch(String billingSiteId, String vpdcId) {
+         this.billingSiteId = billingSiteId;
+         this.vpdcId = vpdcId;
+      }
+
+      /**
+       * Each task returned by {@code addMultipleVMsIntoVDC} names the vApp it creates as its
+       * result.
+       */
+      private Task taskFor(VMSpec spec, Set<Task> submitted) {
+         for (Task task : submitted) {
+            if (task.getResult() != null && spec.getName().equals(task.getResult().getName()))
+               return task;
+         }
+         if (specs.size() == 1 && submitted.size() == 1)
+            return submitted.iterator().next();
+         throw new IllegalStateException(String.format("no task adding vm %s in %s", spec.getName(), submitted));
+      }
+
+      private void submit() {
+         try {
+            submitted.set(api.getVMApi().addMultipleVMsIntoVDC(billingSiteId, vpdcId, specs));
+         } catch (RuntimeException e) {
+            submitted.setException(e);
+         }
+      }
+   }
+
+   /**
+    * @return the task adding the VM, once it has succeeded
+    */
+   public ListenableFuture<Task> addVMIntoVDC(String billingSiteId, String vpdcId, final VMSpec spec) {
+      checkNotNull(spec, "spec");
+      final List<String> key = ImmutableList.of(checkNotNull(billingSiteId, "billingSiteId"),
+            checkNotNull(vpdcId, "vpdcId"));
+      Batch batch;
+      synchronized (pending) {
+         batch = pending.get(key);
+         if (batch == null) {
+            batch = new Batch(billingSiteId, vpdcId);
+            pending.put(key, batch);
+            final Batch toSubmit = batch;
+            scheduler.schedule(new Runnable() {
+               @Override
+               public void run() {
+                  synchronized (pending) {
+                     pending.remove(key);
+                  }
+                  toSubmit.submit();
+               }
+            }, window, TimeUnit.MILLISECONDS);
+         }
+         batch.specs.add(spec);
+      }
+      final Batch submittedWith = batch;
+      return Futures.transform(batch.submitted, new AsyncFunction<Set<Task>, Task>() {
+         @Override
+         public ListenableFuture<Task> apply(Set<Task> submitted) {
+            return tasks.track(submittedWith.taskFor(spec, submitted));
+         }
+      });
+   }
+}
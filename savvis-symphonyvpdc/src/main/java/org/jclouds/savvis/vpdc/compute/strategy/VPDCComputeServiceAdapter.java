@@ -17,12 +17,11 @@
 package org.jclouds.savvis.vpdc.compute.strategy;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static java.util.concurrent.TimeUnit.SECONDS;
-import static org.jclouds.util.Predicates2.retry;
 import static org.jclouds.savvis.vpdc.options.GetVMOptions.Builder.withPowerState;
 import static org.jclouds.savvis.vpdc.reference.VPDCConstants.PROPERTY_VPDC_VDC_EMAIL;
 
 import java.net.URI;
+import java.util.concurrent.Callable;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -32,21 +31,28 @@ import org.jclouds.compute.ComputeServiceAdapter;
 import org.jclouds.compute.domain.CIMOperatingSystem;
 import org.jclouds.compute.domain.Template;
 import org.jclouds.compute.domain.Volume;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.logging.Logger;
 import org.jclouds.savvis.vpdc.VPDCApi;
+import org.jclouds.savvis.vpdc.compute.internal.TaskTracker;
+import org.jclouds.savvis.vpdc.compute.internal.VDCStructure;
+import org.jclouds.savvis.vpdc.compute.internal.VDCStructure.VDCInOrg;
+import org.jclouds.savvis.vpdc.compute.internal.VMBatchSubmitter;
 import org.jclouds.savvis.vpdc.domain.Network;
-import org.jclouds.savvis.vpdc.domain.Org;
 import org.jclouds.savvis.vpdc.domain.Resource;
 import org.jclouds.savvis.vpdc.domain.Task;
-import org.jclouds.savvis.vpdc.domain.VDC;
 import org.jclouds.savvis.vpdc.domain.VM;
 import org.jclouds.savvis.vpdc.domain.VMSpec;
-import org.jclouds.savvis.vpdc.predicates.TaskSuccess;
 import org.jclouds.savvis.vpdc.reference.VCloudMediaType;
 
 import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.ImmutableSet.Builder;
 import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.Inject;
 
 ;
@@ -58,19 +64,32 @@ import com.google.inject.Inject;
  */
 @Singleton
 public class VPDCComputeServiceAdapter implements ComputeServiceAdapter<VM, VMSpec, CIMOperatingSystem, Network> {
+   @javax.annotation.Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
    private final VPDCApi api;
-   private final Predicate<String> taskTester;
+   private final VDCStructure structure;
+   private final VMBatchSubmitter vmSubmitter;
+   private final TaskTracker tasks;
    @Inject(optional = true)
    @Named(PROPERTY_VPDC_VDC_EMAIL)
    String email;
 
    @Inject
-   public VPDCComputeServiceAdapter(VPDCApi api, TaskSuccess taskSuccess) {
+   public VPDCComputeServiceAdapter(VPDCApi api, VDCStructure structure, VMBatchSubmitter vmSubmitter,
+         TaskTracker tasks) {
       this.api = checkNotNull(api, "api");
-      // TODO: parameterize
-      this.taskTester = retry(checkNotNull(taskSuccess, "taskSuccess"), 650, 10, SECONDS);
+      this.structure = checkNotNull(structure, "structure");
+      this.vmSubmitter = checkNotNull(vmSubmitter, "vmSubmitter");
+      this.tasks = checkNotNull(tasks, "tasks");
    }
 
+   /**
+    * Nodes of a group are created concurrently, so their VMs are added with one request per VDC.
+    * 
+    * @see VMBatchSubmitter
+    */
    @Override
    public NodeAndInitialCredentials<VM> createNodeWithGroupEncodedIntoName(String tag, String name, Template template) {
       String networkTierName = template.getLocation().getId();
@@ -91,22 +110,17 @@ public class VPDCComputeServiceAdapter implements ComputeServiceAdapter<VM, VMSp
             specBuilder.addDataDrive(volume.getDevice(), volume.getSize().intValue());
       }
 
-      Task task = api.getVMApi().addVMIntoVDC(billingSiteId, vpdcId, specBuilder.build());
-      // make sure there's no error
-      if (task.getError() != null)
-         throw new RuntimeException("cloud not add vm: " + task.getError().toString());
-
-      if (taskTester.apply(task.getId())) {
-         try {
-            VM returnVal = this.getNode(task.getResult().getHref().toASCIIString());
-            return new NodeAndInitialCredentials<VM>(returnVal, returnVal.getId(), null);
-         } finally {
-            // TODO: get the credentials relevant to the billingSiteId/Org
-            // credentialStore.put(id, new Credentials(orgId, orgUser));
-         }
-      } else {
-         throw new RuntimeException("task timed out: " + task);
+      Task task;
+      try {
+         task = await(vmSubmitter.addVMIntoVDC(billingSiteId, vpdcId, specBuilder.build()));
+      } finally {
+         // the new vApp is only listed in its VDC once the task completes
+         structure.invalidate();
       }
+      // TODO: get the credentials relevant to the billingSiteId/Org
+      // credentialStore.put(id, new Credentials(orgId, orgUser));
+      VM returnVal = this.getNode(task.getResult().getHref().toASCIIString());
+      return new NodeAndInitialCredentials<VM>(returnVal, returnVal.getId(), null);
    }
 
    @Override
@@ -134,45 +148,61 @@ public class VPDCComputeServiceAdapter implements ComputeServiceAdapter<VM, VMSp
       }, null);
    }
    
+   /**
+    * Fetches the VMs of all VDCs concurrently, returning them as they arrive.
+    * 
+    * @see VDCStructure
+    */
    @Override
    public Iterable<VM> listNodes() {
-      Builder<VM> builder = ImmutableSet.builder();
-      for (Resource org1 : api.listOrgs()) {
-         Org org = api.getBrowsingApi().getOrg(org1.getId());
-         for (Resource vdc : org.getVDCs()) {
-            VDC VDC = api.getBrowsingApi().getVDCInOrg(org.getId(), vdc.getId());
-            for (Resource vApp : Iterables.filter(VDC.getResourceEntities(), new Predicate<Resource>() {
+      ImmutableList.Builder<Callable<VM>> requests = ImmutableList.builder();
+      for (final VDCInOrg vdc : structure.getVDCs()) {
+         for (final Resource vApp : Iterables.filter(vdc.getVDC().getResourceEntities(), new Predicate<Resource>() {
+
+            @Override
+            public boolean apply(Resource arg0) {
+               return VCloudMediaType.VAPP_XML.equals(arg0.getType());
+            }
+
+         })) {
+            requests.add(new Callable<VM>() {
 
                @Override
-               public boolean apply(Resource arg0) {
-                  return VCloudMediaType.VAPP_XML.equals(arg0.getType());
+               public VM call() {
+                  return api.getBrowsingApi().getVMInVDC(vdc.getOrgId(), vdc.getVDC().getId(), vApp.getId(),
+                        withPowerState());
                }
 
-            })) {
-               builder.add(api.getBrowsingApi().getVMInVDC(org.getId(), vdc.getId(), vApp.getId(),
-                     withPowerState()));
-            }
+            });
          }
       }
-      return builder.build();
+      return structure.fetchAll(requests.build());
    }
 
+   /**
+    * Fetches the networks of all VDCs concurrently, returning them as they arrive.
+    * 
+    * @see VDCStructure
+    */
    @Override
    public Iterable<Network> listLocations() {
-      Builder<Network> builder = ImmutableSet.builder();
-      for (Resource org1 : api.listOrgs()) {
-         Org org = api.getBrowsingApi().getOrg(org1.getId());
-         for (Resource vdc : org.getVDCs()) {
-            VDC VDC = api.getBrowsingApi().getVDCInOrg(org.getId(), vdc.getId());
-            // optionally constrain locations
-            if (email != null && VDC.getDescription().indexOf(email) != -1)
-               continue;
-            for (Resource network : VDC.getAvailableNetworks()) {
-               builder.add(api.getBrowsingApi().getNetworkInVDC(org.getId(), vdc.getId(), network.getId()));
-            }
+      ImmutableList.Builder<Callable<Network>> requests = ImmutableList.builder();
+      for (final VDCInOrg vdc : structure.getVDCs()) {
+         // optionally constrain locations
+         if (email != null && vdc.getVDC().getDescription().indexOf(email) != -1)
+            continue;
+         for (final Resource network : vdc.getVDC().getAvailableNetworks()) {
+            requests.add(new Callable<Network>() {
+
+               @Override
+               public Network call() {
+                  return api.getBrowsingApi().getNetworkInVDC(vdc.getOrgId(), vdc.getVDC().getId(), network.getId());
+               }
+
+            });
          }
       }
-      return builder.build();
+      return structure.fetchAll(requests.build());
    }
 
    @Override
@@ -182,7 +212,11 @@ public class VPDCComputeServiceAdapter implements ComputeServiceAdapter<VM, VMSp
 
    @Override
    public void destroyNode(String id) {
-      taskTester.apply(api.getVMApi().removeVM(URI.create(checkNotNull(id, "id"))).getId());
+      try {
+         awaitQuietly(tasks.track(api.getVMApi().removeVM(URI.create(checkNotNull(id, "id")))), "remove", id);
+      } finally {
+         structure.invalidate();
+      }
    }
 
    @Override
@@ -194,11 +228,33 @@ public class VPDCComputeServiceAdapter implements ComputeServiceAdapter<VM, VMSp
 
    @Override
    public void resumeNode(String id) {
-      taskTester.apply(api.getServiceManagementApi().powerOnVM(URI.create(checkNotNull(id, "id"))).getId());
+      awaitQuietly(tasks.track(api.getServiceManagementApi().powerOnVM(URI.create(checkNotNull(id, "id")))),
+            "power on", id);
    }
 
    @Override
    public void suspendNode(String id) {
-      taskTester.apply(api.getServiceManagementApi().powerOffVM(URI.create(checkNotNull(id, "id"))).getId());
+      awaitQuietly(tasks.track(api.getServiceManagementApi().powerOffVM(URI.create(checkNotNull(id, "id")))),
+            "power off", id);
+   }
+
+   private static Task await(ListenableFuture<Task> task) {
+      try {
+         return Futures.getUnchecked(task);
+      } catch (UncheckedExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      }
+   }
+
+   /**
+    * Waits for the task without failing when it does not succeed, as power and remove operations
+    * always have.
+    */
+   private void awaitQuietly(ListenableFuture<Task> task, String operation, String id) {
+      try {
+         Futures.getUnchecked(task);
+      } catch (UncheckedExecutionException e) {
+         logger.warn(e.getCause(), "%s of %s did not succeed", operation, id);
+      }
    }
 }
@@ -30,4 +30,24 @@ public interface VPDCConstants {
 
    public static final String PROPERTY_VPDC_TIMEOUT_TASK_COMPLETED = "jclouds.vpdc.timeout.task-complete";
 
+   /**
+    * maximum number of browsing requests in flight while listing nodes and locations
+    */
+   public static final String PROPERTY_VPDC_MAX_CONCURRENT_REQUESTS = "jclouds.vpdc.max-concurrent-requests";
+
+   /**
+    * milliseconds that the org and VDC structure is reused between listings
+    */
+   public static final String PROPERTY_VPDC_STRUCTURE_CACHE_TTL = "jclouds.vpdc.structure-cache-ttl";
+
+   /**
+    * milliseconds between polls of outstanding tasks
+    */
+   public static final String PROPERTY_VPDC_TASK_POLL_PERIOD = "jclouds.vpdc.task-poll-period";
+
+   /**
+    * milliseconds that VMs requested for the same VDC are collected before being added together
+    */
+   public static final String PROPERTY_VPDC_VM_BATCH_WINDOW = "jclouds.vpdc.vm-batch-window";
+
 }
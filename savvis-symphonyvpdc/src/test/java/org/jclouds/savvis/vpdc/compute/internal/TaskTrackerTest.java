@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.savvis.vpdc.compute.internal;
+
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.net.URI;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeoutException;
+
+import org.jclouds.savvis.vpdc.VPDCApi;
+import org.jclouds.savvis.vpdc.domain.Task;
+import org.jclouds.savvis.vpdc.features.BrowsingApi;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+@Test(groups = "unit", testName = "TaskTrackerTest")
+public class TaskTrackerTest {
+
+   private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+   @AfterClass(alwaysRun = true)
+   public void tearDown() {
+      scheduler.shutdownNow();
+   }
+
+   static Task task(String id, Task.Status status) {
+      return Task.builder().id(id).href(URI.create("https://api.savvis.net/rest/api/v0.8/task/" + id)).status(status)
+            .build();
+   }
+
+   public void testTaskIsPolledUntilItSucceeds() throws Exception {
+      VPDCApi api = createMock(VPDCApi.class);
+      BrowsingApi browsing = createMock(BrowsingApi.class);
+      expect(api.getBrowsingApi()).andReturn(browsing).anyTimes();
+      expect(browsing.getTask("21-1002")).andReturn(task("21-1002", Task.Status.RUNNING));
+      expect(browsing.getTask("21-1002")).andReturn(task("21-1002", Task.Status.SUCCESS));
+      replay(api, browsing);
+
+      // the scheduled poll never runs during the test; polls are driven by hand and refresh in this thread
+      TaskTracker tracker = new TaskTracker(api, sameThreadExecutor(), scheduler, 60000, 60000);
+      ListenableFuture<Task> task = tracker.track(task("21-1002", Task.Status.QUEUED));
+      assertEquals(tracker.track(task("21-1002", Task.Status.QUEUED)), task);
+
+      tracker.poll();
+      assertFalse(task.isDone());
+      tracker.poll();
+      assertEquals(task.get().getStatus(), Task.Status.SUCCESS);
+      tracker.poll();
+
+      verify(api, browsing);
+      tracker.close();
+   }
+
+   public void testFailedTaskFailsItsFuture() throws Exception {
+      VPDCApi api = createMock(VPDCApi.class);
+      BrowsingApi browsing = createMock(BrowsingApi.class);
+      expect(api.getBrowsingApi()).andReturn(browsing).anyTimes();
+      expect(browsing.getTask("113927-1005")).andReturn(task("113927-1005", Task.Status.ERROR));
+      replay(api, browsing);
+
+      TaskTracker tracker = new TaskTracker(api, sameThreadExecutor(), scheduler, 60000, 60000);
+      ListenableFuture<Task> task = tracker.track(task("113927-1005", Task.Status.RUNNING));
+      tracker.poll();
+      try {
+         task.get();
+         fail("expected the task to fail");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof IllegalStateException, e.getCause().toString());
+      }
+
+      verify(api, browsing);
+      tracker.close();
+   }
+
+   public void testCompletedTaskIsNotPolled() throws Exception {
+      VPDCApi api = createMock(VPDCApi.class);
+      replay(api);
+
+      TaskTracker tracker = new TaskTracker(api, sameThreadExecutor(), scheduler, 60000, 60000);
+      assertEquals(tracker.track(task("1", Task.Status.SUCCESS)).get().getId(), "1");
+      tracker.poll();
+
+      verify(api);
+      tracker.close();
+   }
+
+   public void testTaskTimesOutWhenPollingFails() throws Exception {
+      VPDCApi api = createMock(VPDCApi.class);
+      BrowsingApi browsing = createMock(BrowsingApi.class);
+      expect(api.getBrowsingApi()).andReturn(browsing).anyTimes();
+      expect(browsing.getTask("21-1002")).andThrow(new RuntimeException("connection reset"));
+      replay(api, browsing);
+
+      TaskTracker tracker = new TaskTracker(api, sameThreadExecutor(), scheduler, 1000, 60000);
+      ListenableFuture<Task> task = tracker.track(task("21-1002", Task.Status.QUEUED));
+      tracker.poll();
+      assertFalse(task.isDone());
+      Thread.sleep(1100);
+      tracker.poll();
+      try {
+         task.get();
+         fail("expected the task to time out");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof TimeoutException, e.getCause().toString());
+      }
+
+      verify(api, browsing);
+      tracker.close();
+   }
+
+   public void testPollingStopsWhenNothingIsTracked() throws Exception {
+      VPDCApi api = createMock(VPDCApi.class);
+      BrowsingApi browsing = createMock(BrowsingApi.class);
+      expect(api.getBrowsingApi()).andReturn(browsing).anyTimes();
+      expect(browsing.getTask("21-1002")).andReturn(task("21-1002", Task.Status.SUCCESS));
+      replay(api, browsing);
+
+      TaskTracker tracker = new TaskTracker(api, sameThreadExecutor(), scheduler, 60000, 60000);
+      assertFalse(tracker.isPolling());
+      tracker.track(task("21-1002", Task.Status.QUEUED));
+      assertTrue(tracker.isPolling());
+      tracker.poll();
+      assertFalse(tracker.isPolling());
+
+      verify(api, browsing);
+      tracker.close();
+   }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.savvis.vpdc.compute.internal;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.savvis.vpdc.VPDCApi;
+import org.jclouds.savvis.vpdc.compute.internal.VDCStructure.VDCInOrg;
+import org.jclouds.savvis.vpdc.domain.Link;
+import org.jclouds.savvis.vpdc.domain.Org;
+import org.jclouds.savvis.vpdc.domain.Resource;
+import org.jclouds.savvis.vpdc.domain.ResourceImpl;
+import org.jclouds.savvis.vpdc.domain.VDC;
+import org.jclouds.savvis.vpdc.features.BrowsingApi;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "VDCStructureTest")
+public class VDCStructureTest {
+
+   private final ListeningExecutorService userExecutor = MoreExecutors.listeningDecorator(Executors
+         .newCachedThreadPool());
+
+   @AfterClass(alwaysRun = true)
+   public void tearDown() {
+      userExecutor.shutdownNow();
+   }
+
+   public void testWalkIsSharedWithinTtl() {
+      VPDCApi api = createMock(VPDCApi.class);
+      BrowsingApi browsing = createMock(BrowsingApi.class);
+      VDC vdc = VDC.builder().id("2736").name("demo_vpdcname").status(VDC.Status.DEPLOYED).build();
+
+      expect(api.getBrowsingApi()).andReturn(browsing).anyTimes();
+      expect(api.listOrgs()).andReturn(
+            ImmutableSet.<Resource> of(new ResourceImpl("100000.0", "org", null, URI
+                  .create("https://api.sandbox.savvis.net/rest/api/v0.8/org/100000.0")))).once();
+      expect(browsing.getOrg("100000.0")).andReturn(
+            Org.builder().id("100000.0").vDC(
+                  new Link("2736", "demo_vpdcname", "application/vnd.vmware.vcloud.vdc+xml", URI
+                        .create("https://api.sandbox.savvis.net/rest/api/v0.8/org/100000.0/vdc/2736"), "down"))
+                  .build()).once();
+      expect(browsing.getVDCInOrg("100000.0", "2736")).andReturn(vdc).once();
+      replay(api, browsing);
+
+      VDCStructure structure = new VDCStructure(api, userExecutor, 2, 60000);
+      List<VDCInOrg> vdcs = structure.getVDCs();
+      assertEquals(vdcs.size(), 1);
+      assertEquals(vdcs.get(0).getOrgId(), "100000.0");
+      assertEquals(vdcs.get(0).getVDC(), vdc);
+      assertEquals(structure.getVDCs(), vdcs);
+
+      verify(api, browsing);
+   }
+
+   public void testFetchAllReturnsResultsAsTheyArrive() {
+      VDCStructure structure = new VDCStructure(createMock(VPDCApi.class), userExecutor, 2, 60000);
+      final CountDownLatch firstRead = new CountDownLatch(1);
+
+      Iterator<String> results = structure.fetchAll(ImmutableList.<Callable<String>> of(new Callable<String>() {
+         @Override
+         public String call() throws Exception {
+            firstRead.await(5, TimeUnit.SECONDS);
+            return "slow";
+         }
+      }, new Callable<String>() {
+         @Override
+         public String call() {
+            return "fast";
+         }
+      }, new Callable<String>() {
+         @Override
+         public String call() {
+            return null;
+         }
+      })).iterator();
+
+      assertEquals(results.next(), "fast");
+      firstRead.countDown();
+      assertEquals(results.next(), "slow");
+      assertFalse(results.hasNext());
+   }
+}
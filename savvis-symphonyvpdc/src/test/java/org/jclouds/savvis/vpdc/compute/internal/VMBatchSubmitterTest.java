@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.savvis.vpdc.compute.internal;
+
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.cim.OSType;
+import org.jclouds.compute.domain.CIMOperatingSystem;
+import org.jclouds.savvis.vpdc.VPDCApi;
+import org.jclouds.savvis.vpdc.domain.ResourceImpl;
+import org.jclouds.savvis.vpdc.domain.Task;
+import org.jclouds.savvis.vpdc.domain.VMSpec;
+import org.jclouds.savvis.vpdc.features.VMApi;
+import org.jclouds.util.Strings2;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.gson.Gson;
+import com.google.inject.TypeLiteral;
+
+@Test(groups = "unit", testName = "VMBatchSubmitterTest")
+public class VMBatchSubmitterTest {
+
+   private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+   @AfterClass(alwaysRun = true)
+   public void tearDown() {
+      scheduler.shutdownNow();
+   }
+
+   public void testVMsForTheSameVDCAreAddedTogether() throws Exception {
+      VMSpec first = spec("node-1");
+      VMSpec second = spec("node-2");
+      Task firstTask = addTask("113927-1005", "node-1", "1005");
+      Task secondTask = addTask("113927-1006", "node-2", "1006");
+
+      VPDCApi api = createMock(VPDCApi.class);
+      VMApi vmApi = createMock(VMApi.class);
+      expect(api.getVMApi()).andReturn(vmApi).anyTimes();
+      expect(vmApi.addMultipleVMsIntoVDC(eq("606677.0"), eq("4253"), eq(ImmutableList.of(first, second))))
+            .andReturn(ImmutableSet.of(secondTask, firstTask)).once();
+      replay(api, vmApi);
+
+      VMBatchSubmitter submitter = new VMBatchSubmitter(api, new TaskTracker(api, sameThreadExecutor(), scheduler,
+            60000, 60000), scheduler, 200);
+      ListenableFuture<Task> firstAdded = submitter.addVMIntoVDC("606677.0", "4253", first);
+      ListenableFuture<Task> secondAdded = submitter.addVMIntoVDC("606677.0", "4253", second);
+
+      assertEquals(firstAdded.get(5, TimeUnit.SECONDS), firstTask);
+      assertEquals(secondAdded.get(5, TimeUnit.SECONDS), secondTask);
+      verify(api, vmApi);
+   }
+
+   private static Task addTask(String id, String vmName, String vAppId) {
+      return Task.builder().id(id).href(URI.create("https://api.savvis.net/rest/api/v0.8/task/" + id))
+            .status(Task.Status.SUCCESS).result(new ResourceImpl(vAppId, vmName,
+                  "application/vnd.vmware.vcloud.vApp+xml", URI
+                        .create("https://api.savvis.net/rest/api/v0.8/org/606677.0/vdc/4253/vApp/" + vAppId)))
+            .build();
+   }
+
+   private VMSpec spec(String name) throws IOException {
+      CIMOperatingSystem os = Iterables.find(new Gson().<Set<CIMOperatingSystem>> fromJson(Strings2
+               .toStringAndClose(getClass()
+                        .getResourceAsStream("/savvis-symphonyvpdc/predefined_operatingsystems.json")),
+               new TypeLiteral<Set<CIMOperatingSystem>>() {
+               }.getType()), new Predicate<CIMOperatingSystem>() {
+
+         @Override
+         public boolean apply(CIMOperatingSystem arg0) {
+            return arg0.getOsType() == OSType.RHEL_64;
+         }
+
+      });
+      return VMSpec.builder().name(name).operatingSystem(os).networkTierName("VM Tier01").build();
+   }
+}
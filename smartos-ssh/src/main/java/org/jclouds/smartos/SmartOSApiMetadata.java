@@ -16,7 +16,13 @@
  */
 package org.jclouds.smartos;
 
+import static org.jclouds.smartos.compute.config.SmartOSProperties.DATASET_CACHE_TTL;
+import static org.jclouds.smartos.compute.config.SmartOSProperties.MAX_VMADM_COMMANDS;
+import static org.jclouds.smartos.compute.config.SmartOSProperties.SSH_HEALTH_CHECK_IDLE;
+import static org.jclouds.smartos.compute.config.SmartOSProperties.SSH_SESSIONS;
+
 import java.net.URI;
+import java.util.Properties;
 
 import org.jclouds.apis.internal.BaseApiMetadata;
 import org.jclouds.compute.ComputeServiceContext;
@@ -46,6 +52,15 @@ public class SmartOSApiMetadata extends BaseApiMetadata {
       super(builder);
    }
 
+   public static Properties defaultProperties() {
+      Properties properties = BaseApiMetadata.defaultProperties();
+      properties.setProperty(SSH_SESSIONS, "4");
+      properties.setProperty(MAX_VMADM_COMMANDS, "3");
+      properties.setProperty(SSH_HEALTH_CHECK_IDLE, "30000");
+      properties.setProperty(DATASET_CACHE_TTL, "60000");
+      return properties;
+   }
+
    public static class Builder extends BaseApiMetadata.Builder<Builder> {
 
       protected Builder() {
@@ -56,6 +71,7 @@ public class SmartOSApiMetadata extends BaseApiMetadata {
          .defaultCredential("smartos")
          .defaultEndpoint("http://localhost")
          .documentation(URI.create("http://http://wiki.smartos.org/display/DOC/How+to+create+a+Virtual+Machine+in+SmartOS"))
+         .defaultProperties(SmartOSApiMetadata.defaultProperties())
          .view(ComputeServiceContext.class)
          .defaultModules(ImmutableSet.<Class<? extends Module>>builder()
                                      .add(SmartOSComputeServiceContextModule.class)
@@ -16,45 +16,63 @@
  */
 package org.jclouds.smartos;
 
-import static com.google.common.base.Preconditions.checkNotNull;
-
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.StringReader;
 import java.net.URI;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
 
+import org.jclouds.compute.domain.ExecResponse;
 import org.jclouds.domain.Credentials;
-import org.jclouds.domain.LoginCredentials;
 import org.jclouds.json.Json;
 import org.jclouds.location.Provider;
+import org.jclouds.smartos.compute.config.SmartOSProperties;
 import org.jclouds.smartos.compute.domain.DataSet;
 import org.jclouds.smartos.compute.domain.VM;
 import org.jclouds.smartos.compute.domain.VmSpecification;
+import org.jclouds.smartos.compute.internal.SshSessionPool;
+import org.jclouds.smartos.compute.internal.VMReadinessTracker;
 import org.jclouds.ssh.SshClient;
 
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
 import com.google.common.base.Splitter;
 import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.net.HostAndPort;
-import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.collect.Maps;
+import com.google.common.net.InetAddresses;
+import com.google.common.util.concurrent.ListenableFuture;
 
 /**
  * A host machine that runs smartOS
  */
+@Singleton
 public class SmartOSHostController {
+   /**
+    * Fields printed by {@code vmadm list}, in the order {@link VM.Builder#fromVmadmString} expects
+    * them.
+    */
+   public static final String VM_LIST_FIELDS = "uuid,type,ram,state,alias,nics.0.ip";
+
    protected final String hostname;
    protected final Supplier<Credentials> creds;
    protected final SshClient.Factory sshClientFactory;
    protected final Json json;
-
-   protected transient SshClient _connection;
+   protected final VMReadinessTracker readinessTracker;
+   protected final SshSessionPool sessions;
+   protected final long datasetCacheTtl;
+   protected volatile Supplier<Map<UUID, DataSet>> localDatasets;
 
    public static class HostException extends RuntimeException {
 
@@ -75,11 +93,35 @@ public class SmartOSHostController {
 
    @Inject
    protected SmartOSHostController(@Provider Supplier<URI> provider,
-         @org.jclouds.location.Provider final Supplier<Credentials> creds, SshClient.Factory sshFactory, Json json) {
+         @org.jclouds.location.Provider final Supplier<Credentials> creds, SshClient.Factory sshFactory, Json json,
+         VMReadinessTracker readinessTracker, SshSessionPool sessions,
+         @Named(SmartOSProperties.DATASET_CACHE_TTL) long datasetCacheTtl) {
       this.hostname = provider.get().getHost();
       this.creds = creds;
       this.sshClientFactory = sshFactory;
       this.json = json;
+      this.readinessTracker = readinessTracker;
+      this.sessions = sessions;
+      this.datasetCacheTtl = datasetCacheTtl;
+      this.localDatasets = listLocalDatasets();
+   }
+
+   /**
+    * @return a fresh listing of the imported datasets, cached for
+    *         {@link SmartOSProperties#DATASET_CACHE_TTL}
+    */
+   private Supplier<Map<UUID, DataSet>> listLocalDatasets() {
+      return Suppliers.memoizeWithExpiration(new Supplier<Map<UUID, DataSet>>() {
+         @Override
+         public Map<UUID, DataSet> get() {
+            return Maps.uniqueIndex(toSpecList(exec("dsadm list")), new Function<DataSet, UUID>() {
+               @Override
+               public UUID apply(DataSet input) {
+                  return input.getUuid();
+               }
+            });
+         }
+      }, datasetCacheTtl, TimeUnit.MILLISECONDS);
    }
 
    public String getDescription() {
@@ -94,33 +136,23 @@ public class SmartOSHostController {
       return sshClientFactory;
    }
 
-   protected SshClient getConnection() {
-      if (_connection == null) {
-         Credentials currentCreds = checkNotNull(creds.get(), "credential supplier returned null");
-
-         LoginCredentials credentials = new LoginCredentials.Builder().user(currentCreds.identity)
-               .password(currentCreds.credential).build();
-
-         _connection = getSshClientFactory().create(HostAndPort.fromParts(hostname, 22), credentials);
-
-         _connection.connect();
-
-      }
-      return _connection;
-   }
-
+   /**
+    * Runs a command on the host. Commands run in parallel, each on a pooled SSH session.
+    * 
+    * @see SshSessionPool
+    */
    public String exec(String cmd) {
-      return getConnection().exec(cmd).getOutput();
+      return sessions.exec(cmd).getOutput();
    }
 
    public String vmList() {
-      return exec("vmadm list -p");
+      return exec("vmadm list -p -o " + VM_LIST_FIELDS);
    }
 
    public Map<String, String> getVMIpAddresses(UUID vmId) {
       ImmutableMap.Builder<String, String> netMapBuilder = ImmutableMap.builder();
 
-      String response = getConnection().exec("zlogin " + vmId.toString() + " ifconfig -a4").getOutput();
+      String response = sessions.exec("zlogin " + vmId.toString() + " ifconfig -a4").getOutput();
 
       if (response.length() == 0)
          return ImmutableMap.of();
@@ -152,18 +184,39 @@ public class SmartOSHostController {
       return toSpecList(exec("dsadm avail"));
    }
 
+   /**
+    * Lists the datasets imported on the host. The listing is cached for
+    * {@link SmartOSProperties#DATASET_CACHE_TTL}.
+    */
    public Iterable<DataSet> getLocalDatasets() {
-      return toSpecList(exec("dsadm list"));
+      return localDatasets.get().values();
    }
 
+   /**
+    * Lists all VMs with a single {@code vmadm list}. Addresses that {@code vmadm} does not know,
+    * because they are assigned by DHCP, are filled in from the {@link VMReadinessTracker} as they
+    * are discovered; listing never waits for them.
+    */
    public Iterable<VM> getVMs() {
-      return toVMList(exec("vmadm list -p"));
+      return toVMList(vmList());
+   }
+
+   /**
+    * @return the address of the VM once it is known, discovering it in the background if needed
+    */
+   public ListenableFuture<String> trackAddress(UUID vmId) {
+      return readinessTracker.track(vmId, new Function<UUID, Map<String, String>>() {
+         @Override
+         public Map<String, String> apply(UUID input) {
+            return getVMIpAddresses(input);
+         }
+      });
    }
 
    public VM createVM(VmSpecification specification) {
 
       String specAsJson = json.toJson(specification);
-      String response = getConnection().exec("(cat <<END\n" + specAsJson + "\nEND\n) | vmadm create").getOutput();
+      String response = sessions.exec("(cat <<END\n" + specAsJson + "\nEND\n) | vmadm create").getOutput();
 
       Pattern uuidPattern = Pattern.compile("[a-f0-9]{8}-[a-f0-9]{4}-[a-f0-9]{4}-[a-f0-9]{4}-[a-f0-9]{12}");
       Matcher matcher = uuidPattern.matcher(response);
@@ -200,25 +253,8 @@ public class SmartOSHostController {
          String line;
          ImmutableList.Builder<VM> resultBuilder = ImmutableList.builder();
          while ((line = r.readLine()) != null) {
-            VM vm = VM.builder().fromVmadmString(line).build();
-
-            Map<String, String> ipAddresses;
-            RateLimiter limiter = RateLimiter.create(1.0);
-            for (int i = 0; i < 30; i++) {
-               ipAddresses = getVMIpAddresses(vm.getUuid());
-               if (!ipAddresses.isEmpty()) {
-                  // Got some
-                  String ip = ipAddresses.get("net0");
-                  if (ip != null && !ip.equals("0.0.0.0")) {
-                     vm = vm.toBuilder().publicAddress(ip).build();
-                     break;
-                  }
-               }
-
-               limiter.acquire();
-            }
-
-            resultBuilder.add(vm);
+            if (line.length() > 0)
+               resultBuilder.add(withDiscoveredAddress(VM.builder().fromVmadmString(line).build()));
          }
          return resultBuilder.build();
       } catch (IOException e) {
@@ -226,23 +262,85 @@ public class SmartOSHostController {
       }
    }
 
+   /**
+    * Fills in the address of a running VM that has none from the readiness tracker, and starts
+    * tracking it if its address has not been discovered yet.
+    */
+   private VM withDiscoveredAddress(VM vm) {
+      if (vm.getPublicAddress().isPresent() || vm.getState() != VM.State.RUNNING)
+         return vm;
+      Optional<String> address = readinessTracker.getAddress(vm.getUuid());
+      if (address.isPresent())
+         return vm.toBuilder().publicAddress(address.get()).build();
+      trackAddress(vm.getUuid());
+      return vm;
+   }
+
+   /**
+    * Gets a single VM with {@code vmadm get}.
+    * 
+    * @return the VM, or null if there is none with that id
+    */
    public VM getVM(UUID serverId) {
-      for (VM vm : getVMs())
-         if (vm.getUuid().equals(serverId))
-            return vm;
-      return null;
+      ExecResponse response = sessions.exec("vmadm get " + serverId);
+      if (response.getExitStatus() != 0 || response.getOutput().trim().isEmpty())
+         return null;
+      VmadmProperties properties = json.fromJson(response.getOutput(), VmadmProperties.class);
+      VM.Builder builder = VM.builder().uuid(serverId).type("kvm".equals(properties.brand) ? "KVM" : "OS")
+            .alias(properties.alias);
+      // a VM being provisioned may not report a state yet
+      if (properties.state != null)
+         builder.state(properties.state);
+      Integer ram = properties.ram != null ? properties.ram : properties.maxPhysicalMemory;
+      if (ram != null)
+         builder.ram(ram.toString());
+      if (properties.nics != null && !properties.nics.isEmpty()) {
+         String ip = properties.nics.get(0).ip;
+         if (ip != null && InetAddresses.isInetAddress(ip) && !ip.equals("0.0.0.0"))
+            builder.publicAddress(ip);
+      }
+      return withDiscoveredAddress(builder.build());
    }
 
-   public DataSet getDataSet(UUID imageId) {
-      for (DataSet ds : getLocalDatasets()) {
-         if (ds.getUuid().equals(imageId))
-            return ds;
+   /**
+    * The properties printed by {@code vmadm get} that a {@link VM} is built from.
+    */
+   private static class VmadmProperties {
+      private String brand;
+      private Integer ram;
+      @Named("max_physical_memory")
+      private Integer maxPhysicalMemory;
+      private String state;
+      private String alias;
+      private List<Nic> nics;
+
+      private static class Nic {
+         private String ip;
       }
-      return null;
+   }
+
+   /**
+    * @return the locally imported dataset, or null if there is none with that id
+    */
+   public DataSet getDataSet(UUID imageId) {
+      return localDatasets.get().get(imageId);
+   }
+
+   /**
+    * Imports a dataset that is available to the host, and lists the imported datasets again so that
+    * it shows up right away.
+    * 
+    * @return the imported dataset, or null if it could not be imported
+    */
+   public DataSet importDataSet(UUID imageId) {
+      exec("dsadm import " + imageId);
+      localDatasets = listLocalDatasets();
+      return getDataSet(imageId);
    }
 
    public void destroyHost(UUID uuid) {
       exec("vmadm delete " + uuid.toString());
+      readinessTracker.forget(uuid);
    }
 
    public void rebootHost(UUID uuid) {
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.smartos.compute.config;
+
+/**
+ * Configuration properties and constants used in SmartOS connections.
+ */
+public class SmartOSProperties {
+
+   /**
+    * Maximum number of SSH sessions opened to the host. Each command runs on a session of its own,
+    * so this is also the number of commands that can run at the same time.
+    */
+   public static final String SSH_SESSIONS = "jclouds.smartos.ssh.sessions";
+
+   /**
+    * Maximum number of {@code vmadm} commands run at the same time, so that long running commands
+    * such as {@code vmadm create} leave sessions free for listings.
+    */
+   public static final String MAX_VMADM_COMMANDS = "jclouds.smartos.ssh.max-vmadm-commands";
+
+   /**
+    * Sessions idle for longer than this, in milliseconds, are checked before they are reused and
+    * replaced if the connection has dropped.
+    */
+   public static final String SSH_HEALTH_CHECK_IDLE = "jclouds.smartos.ssh.health-check-idle";
+
+   /**
+    * How long, in milliseconds, the listing of datasets imported on the host is cached.
+    */
+   public static final String DATASET_CACHE_TTL = "jclouds.smartos.dataset-cache-ttl";
+
+}
@@ -20,6 +20,7 @@ import java.util.UUID;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Optional;
+import com.google.common.net.InetAddresses;
 
 /**
  * Representing a Virtual Machine (Zone / KVM )
@@ -72,8 +73,15 @@ public class VM {
          return this;
       }
 
+      /**
+       * States other than running and stopped, such as provisioning, are incomplete.
+       */
       public Builder state(String state) {
-         this.state = State.valueOf(state.toUpperCase());
+         try {
+            this.state = State.valueOf(state.toUpperCase());
+         } catch (IllegalArgumentException e) {
+            this.state = State.INCOMPLETE;
+         }
          return this;
       }
 
@@ -87,6 +95,11 @@ public class VM {
          return this;
       }
 
+      /**
+       * Parses a line of {@code vmadm list -p}, or of {@code vmadm list -p -o} with the fields
+       * {@code uuid,type,ram,state,alias,nics.0.ip}. The address is only used if it is static, as
+       * it is reported as {@code dhcp} otherwise.
+       */
       public Builder fromVmadmString(String string) {
          String[] sections = string.split(":");
 
@@ -96,9 +109,12 @@ public class VM {
          ram(sections[2]);
          state(sections[3]);
 
-         if (sections.length > 4)
+         if (sections.length > 4 && !sections[4].isEmpty())
             alias(sections[4]);
 
+         if (sections.length > 5 && InetAddresses.isInetAddress(sections[5]) && !sections[5].equals("0.0.0.0"))
+            publicAddress(sections[5]);
+
          return this;
       }
 
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.smartos.compute.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.smartos.compute.config.SmartOSProperties.MAX_VMADM_COMMANDS;
+import static org.jclouds.smartos.compute.config.SmartOSProperties.SSH_HEALTH_CHECK_IDLE;
+import static org.jclouds.smartos.compute.config.SmartOSProperties.SSH_SESSIONS;
+
+import java.net.URI;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.domain.ExecResponse;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.domain.Credentials;
+import org.jclouds.domain.LoginCredentials;
+import org.jclouds.location.Provider;
+import org.jclouds.logging.Logger;
+import org.jclouds.ssh.SshClient;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.net.HostAndPort;
+
+/**
+ * Runs commands on the SmartOS host over a bounded pool of SSH sessions, so that concurrent
+ * creates, deletes and listings run in parallel instead of queueing on one connection.
+ * <p/>
+ * Each command borrows a session for as long as it runs. Sessions are opened on demand up to the
+ * configured maximum, and ones that have been idle for a while are checked before reuse and
+ * replaced if their connection has dropped. A session whose command fails is discarded rather
+ * than retried, as {@code vmadm} commands are not idempotent.
+ */
+@Singleton
+public class SshSessionPool {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final HostAndPort host;
+   private final Supplier<Credentials> creds;
+   private final SshClient.Factory sshClientFactory;
+   private final long healthCheckIdleNanos;
+   private final BlockingQueue<Session> idle = new LinkedBlockingQueue<Session>();
+   private final Semaphore sessions;
+   private final Semaphore vmadmCommands;
+   private volatile boolean closed;
+
+   @Inject
+   SshSessionPool(@Provider Supplier<URI> provider, @Provider Supplier<Credentials> creds,
+            SshClient.Factory sshClientFactory, @Named(SSH_SESSIONS) int maxSessions,
+            @Named(MAX_VMADM_COMMANDS) int maxVmadmCommands, @Named(SSH_HEALTH_CHECK_IDLE) long healthCheckIdleMillis) {
+      checkArgument(maxSessions > 0, "maxSessions must be positive");
+      checkArgument(maxVmadmCommands > 0, "maxVmadmCommands must be positive");
+      this.host = HostAndPort.fromParts(provider.get().getHost(), 22);
+      this.creds = checkNotNull(creds, "creds");
+      this.sshClientFactory = checkNotNull(sshClientFactory, "sshClientFactory");
+      this.healthCheckIdleNanos = TimeUnit.MILLISECONDS.toNanos(healthCheckIdleMillis);
+      this.sessions = new Semaphore(maxSessions, true);
+      this.vmadmCommands = new Semaphore(maxVmadmCommands, true);
+   }
+
+   /**
+    * Runs a command on a pooled session, waiting for one to be free.
+    */
+   public ExecResponse exec(String command) {
+      boolean vmadm = command.contains("vmadm ");
+      try {
+         if (vmadm)
+            vmadmCommands.acquire();
+         try {
+            sessions.acquire();
+            try {
+               return execOnSession(command);
+            } finally {
+               sessions.release();
+            }
+         } finally {
+            if (vmadm)
+               vmadmCommands.release();
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(e);
+      }
+   }
+
+   private ExecResponse execOnSession(String command) {
+      Session session = borrow();
+      try {
+         ExecResponse response = session.client.exec(command);
+         session.lastUsed = System.nanoTime();
+         idle.offer(session);
+         if (closed)
+            close();
+         return response;
+      } catch (RuntimeException e) {
+         logger.warn("<< discarding session to %s after error running %s: %s", host, command, e.getMessage());
+         disconnect(session);
+         throw e;
+      }
+   }
+
+   /**
+    * @return an idle session that is still connected, or a new one
+    */
+   private Session borrow() {
+      for (Session session = idle.poll(); session != null; session = idle.poll()) {
+         if (System.nanoTime() - session.lastUsed < healthCheckIdleNanos || isHealthy(session))
+            return session;
+         logger.debug("<< session to %s dropped while idle; reconnecting", host);
+         disconnect(session);
+      }
+      return connect();
+   }
+
+   private boolean isHealthy(Session session) {
+      try {
+         return session.client.exec("true").getExitStatus() == 0;
+      } catch (RuntimeException e) {
+         return false;
+      }
+   }
+
+   private Session connect() {
+      Credentials currentCreds = checkNotNull(creds.get(), "credential supplier returned null");
+      LoginCredentials credentials = LoginCredentials.builder().user(currentCreds.identity)
+               .password(currentCreds.credential).build();
+      SshClient client = sshClientFactory.create(host, credentials);
+      logger.debug(">> opening session to %s", host);
+      client.connect();
+      return new Session(client);
+   }
+
+   private void disconnect(Session session) {
+      try {
+         session.client.disconnect();
+      } catch (RuntimeException e) {
+         logger.debug(e, "<< error closing session to %s", host);
+      }
+   }
+
+   /**
+    * Closes the idle sessions. Sessions in use are closed as their commands complete.
+    */
+   @PreDestroy
+   public void close() {
+      closed = true;
+      for (Session session = idle.poll(); session != null; session = idle.poll())
+         disconnect(session);
+   }
+
+   private static class Session {
+      private final SshClient client;
+      private volatile long lastUsed = System.nanoTime();
+
+      private Session(SshClient client) {
+         this.client = client;
+      }
+   }
+}
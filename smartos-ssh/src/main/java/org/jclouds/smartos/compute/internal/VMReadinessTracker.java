@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.smartos.compute.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.String.format;
+import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Discovers the addresses of VMs that get theirs through DHCP, which {@code vmadm} does not know
+ * about. Each tracked VM is probed in the background until its primary interface has an address,
+ * so listings can report what has been found so far instead of waiting for VMs to boot. The probes
+ * run on the user executor; the scheduler only times them.
+ */
+@Singleton
+public class VMReadinessTracker {
+
+   public static final String PRIMARY_INTERFACE = "net0";
+   public static final long DEFAULT_PERIOD_MILLIS = 1000;
+   public static final int DEFAULT_MAX_ATTEMPTS = 30;
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final ExecutorService userExecutor;
+   private final ScheduledExecutorService scheduler;
+   private final long periodMillis;
+   private final int maxAttempts;
+   private final ConcurrentMap<UUID, String> addresses = Maps.newConcurrentMap();
+   private final ConcurrentMap<UUID, SettableFuture<String>> pending = Maps.newConcurrentMap();
+
+   @Inject
+   VMReadinessTracker(@Named(PROPERTY_USER_THREADS) ExecutorService userExecutor,
+            @Named(PROPERTY_SCHEDULER_THREADS) ScheduledExecutorService scheduler) {
+      this(userExecutor, scheduler, DEFAULT_PERIOD_MILLIS, DEFAULT_MAX_ATTEMPTS);
+   }
+
+   public VMReadinessTracker(ExecutorService userExecutor, ScheduledExecutorService scheduler, long periodMillis,
+            int maxAttempts) {
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.scheduler = checkNotNull(scheduler, "scheduler");
+      this.periodMillis = periodMillis;
+      this.maxAttempts = maxAttempts;
+   }
+
+   /**
+    * @return the address discovered for the VM, if any
+    */
+   public Optional<String> getAddress(UUID vm) {
+      return Optional.fromNullable(addresses.get(vm));
+   }
+
+   /**
+    * Starts probing the VM, unless its address is already known or it has been tracked before.
+    * 
+    * @param interfaceAddresses
+    *           returns the IPv4 address of each interface of a VM, by interface name
+    * @return the address of the VM once it is known. Fails with a {@link TimeoutException} if no
+    *         address shows up in time; the VM is then not probed again until it is
+    *         {@link #forget forgotten}.
+    */
+   public ListenableFuture<String> track(UUID vm, Function<UUID, Map<String, String>> interfaceAddresses) {
+      String known = addresses.get(vm);
+      if (known != null)
+         return Futures.immediateFuture(known);
+      SettableFuture<String> address = SettableFuture.create();
+      SettableFuture<String> existing = pending.putIfAbsent(vm, address);
+      if (existing != null)
+         return existing;
+      userExecutor.execute(new Probe(vm, interfaceAddresses, address, 1));
+      return address;
+   }
+
+   /**
+    * Stops tracking a VM and drops its address, for example once it has been destroyed. A VM whose
+    * tracking timed out can then be tracked again.
+    */
+   public void forget(UUID vm) {
+      addresses.remove(vm);
+      SettableFuture<String> address = pending.remove(vm);
+      if (address != null)
+         address.cancel(false);
+   }
+
+   private class Probe implements Runnable {
+      private final UUID vm;
+      private final Function<UUID, Map<String, String>> interfaceAddresses;
+      private final SettableFuture<String> address;
+      private final int attempt;
+
+      private Probe(UUID vm, Function<UUID, Map<String, String>> interfaceAddresses, SettableFuture<String> address,
+               int attempt) {
+         this.vm = vm;
+         this.interfaceAddresses = interfaceAddresses;
+         this.address = address;
+         this.attempt = attempt;
+      }
+
+      @Override
+      public void run() {
+         if (address.isDone())
+            return;
+         String ip = null;
+         try {
+            ip = primaryAddress(interfaceAddresses.apply(vm));
+         } catch (RuntimeException e) {
+            logger.debug(e, "<< error probing the interfaces of %s", vm);
+         }
+         if (ip != null) {
+            addresses.put(vm, ip);
+            pending.remove(vm, address);
+            address.set(ip);
+         } else if (attempt >= maxAttempts) {
+            // stays pending, so listings do not start probing the VM over again
+            address.setException(new TimeoutException(format("no address for %s after %d attempts", vm, attempt)));
+         } else {
+            final Probe next = new Probe(vm, interfaceAddresses, address, attempt + 1);
+            scheduler.schedule(new Runnable() {
+               @Override
+               public void run() {
+                  userExecutor.execute(next);
+               }
+            }, periodMillis, TimeUnit.MILLISECONDS);
+         }
+      }
+   }
+
+   /**
+    * @return the address of the primary interface, or null if it is not configured yet
+    */
+   public static String primaryAddress(Map<String, String> interfaceAddresses) {
+      String ip = interfaceAddresses.get(PRIMARY_INTERFACE);
+      return ip != null && !ip.equals("0.0.0.0") ? ip : null;
+   }
+}
@@ -21,13 +21,18 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import java.util.Collection;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
 
+import javax.annotation.Resource;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.jclouds.compute.ComputeServiceAdapter;
 import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.domain.LoginCredentials;
+import org.jclouds.logging.Logger;
 import org.jclouds.smartos.SmartOSHostController;
 import org.jclouds.smartos.compute.domain.DataSet;
 import org.jclouds.smartos.compute.domain.VM;
@@ -35,6 +40,7 @@ import org.jclouds.smartos.compute.domain.VmNIC;
 import org.jclouds.smartos.compute.domain.VmSpecification;
 
 import com.google.common.base.Function;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -46,6 +52,10 @@ import com.google.common.collect.Maps;
  */
 @Singleton
 public class SmartOSComputeServiceAdapter implements ComputeServiceAdapter<VM, VmSpecification, DataSet, SmartOSHostController> {
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
    private final SmartOSHostController host;
    private final Map<String, VmSpecification> specificationMap;
 
@@ -93,11 +103,15 @@ public class SmartOSComputeServiceAdapter implements ComputeServiceAdapter<VM, V
           builder.nic(VmNIC.builder().simpleDHCPNic().build());
       }
 
-      VmSpecification specification = builder.alias(name)
-               .dataset(getHost().getDataSet(UUID.fromString(template.getImage().getProviderId())))
-               .build();
+      UUID imageId = UUID.fromString(template.getImage().getProviderId());
+      DataSet dataset = getHost().getDataSet(imageId);
+      // an image that is only available remotely is imported first
+      if (dataset == null)
+         dataset = getHost().importDataSet(imageId);
+      VmSpecification specification = builder.alias(name).dataset(dataset).build();
 
       VM from = getHost().createVM(specification);
+      from = withAddress(from);
 
       return new NodeAndInitialCredentials<VM>(from, from.getUuid() + "", LoginCredentials.builder().user("smartos")
                .password("smartos").build());
@@ -105,6 +119,24 @@ public class SmartOSComputeServiceAdapter implements ComputeServiceAdapter<VM, V
 
 
 
+   /**
+    * Waits for the address of a new VM, which is only known once it has booted if it came from
+    * DHCP. Listings do not wait for it.
+    */
+   private VM withAddress(VM vm) {
+      if (vm.getPublicAddress().isPresent())
+         return vm;
+      try {
+         return vm.toBuilder().publicAddress(getHost().trackAddress(vm.getUuid()).get()).build();
+      } catch (ExecutionException e) {
+         logger.warn(e.getCause(), "<< no address for %s", vm.getUuid());
+         return vm;
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(e);
+      }
+   }
+
    @Override
    public Iterable<VmSpecification> listHardwareProfiles() {
       return specificationMap.values();
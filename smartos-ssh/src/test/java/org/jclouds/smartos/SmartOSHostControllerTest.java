@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.smartos;
+
+import static org.easymock.EasyMock.and;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.endsWith;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.startsWith;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.net.URI;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.jclouds.compute.domain.ExecResponse;
+import org.jclouds.domain.Credentials;
+import org.jclouds.json.Json;
+import org.jclouds.json.config.GsonModule;
+import org.jclouds.smartos.compute.config.SmartOSParserModule;
+import org.jclouds.smartos.compute.domain.DataSet;
+import org.jclouds.smartos.compute.domain.VM;
+import org.jclouds.smartos.compute.domain.VmNIC;
+import org.jclouds.smartos.compute.domain.VmSpecification;
+import org.jclouds.smartos.compute.internal.SshSessionPool;
+import org.jclouds.smartos.compute.internal.VMReadinessTracker;
+import org.jclouds.ssh.SshClient;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.Iterables;
+import com.google.inject.Guice;
+
+@Test(groups = "unit", testName = "SmartOSHostControllerTest")
+public class SmartOSHostControllerTest {
+
+   private static final String DSADM_LIST = "UUID                                 OS      PUBLISHED  URN\n"
+            + "c0ffee88-883e-47cf-80d1-ad71cc872180 smartos 2012-05-02 nrm:nrm:realtime-jenkins:1.7\n"
+            + "56108678-1183-11e1-83c3-ff3185a5b47f linux   2011-11-18 sdc:sdc:ubuntu10.04:0.1.0\n";
+
+   private static final UUID VM_ID = UUID.fromString("a8799014-7680-481f-b7de-76b501dbd803");
+
+   private final ExecutorService userExecutor = Executors.newCachedThreadPool();
+   private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+   @AfterClass(alwaysRun = true)
+   public void tearDown() {
+      userExecutor.shutdownNow();
+      scheduler.shutdownNow();
+   }
+
+   public void testLocalDatasetsAreListedOnceWithinTheirTtl() {
+      SshSessionPool sessions = createMock(SshSessionPool.class);
+      expect(sessions.exec("dsadm list")).andReturn(new ExecResponse(DSADM_LIST, "", 0)).once();
+      replay(sessions);
+
+      SmartOSHostController host = host(sessions);
+      assertEquals(Iterables.size(host.getLocalDatasets()), 2);
+      assertEquals(host.getDataSet(UUID.fromString("56108678-1183-11e1-83c3-ff3185a5b47f")).getUrn(),
+               "sdc:sdc:ubuntu10.04:0.1.0");
+      assertNull(host.getDataSet(UUID.randomUUID()));
+
+      verify(sessions);
+   }
+
+   public void testImportedDatasetIsListedRightAway() {
+      UUID imported = UUID.fromString("f9e4be48-9466-11e1-bc41-9f993f5dff36");
+      SshSessionPool sessions = createMock(SshSessionPool.class);
+      expect(sessions.exec("dsadm list")).andReturn(new ExecResponse(DSADM_LIST, "", 0));
+      expect(sessions.exec("dsadm import " + imported)).andReturn(new ExecResponse("", "", 0));
+      expect(sessions.exec("dsadm list")).andReturn(new ExecResponse(DSADM_LIST
+               + "f9e4be48-9466-11e1-bc41-9f993f5dff36 smartos 2012-05-02 sdc:sdc:smartos64:1.6.3\n", "", 0));
+      replay(sessions);
+
+      SmartOSHostController host = host(sessions);
+      assertNull(host.getDataSet(imported));
+      assertEquals(host.importDataSet(imported).getUrn(), "sdc:sdc:smartos64:1.6.3");
+      assertEquals(Iterables.size(host.getLocalDatasets()), 3);
+
+      verify(sessions);
+   }
+
+   public void testCreateVMGetsOnlyTheNewVM() {
+      SshSessionPool sessions = createMock(SshSessionPool.class);
+      expect(sessions.exec(and(startsWith("(cat <<END\n"), endsWith("| vmadm create")))).andReturn(
+               new ExecResponse("Successfully created " + VM_ID, "", 0));
+      expect(sessions.exec("vmadm get " + VM_ID)).andReturn(
+               new ExecResponse("{\"brand\":\"joyent\",\"max_physical_memory\":1024,\"state\":\"running\","
+                        + "\"alias\":\"instance1-3b5\",\"nics\":[{\"ip\":\"10.0.0.5\"}]}", "", 0));
+      replay(sessions);
+
+      VM vm = host(sessions).createVM(VmSpecification.builder().alias("instance1-3b5").ram(1024)
+               .dataset(DataSet.builder().uuid("56108678-1183-11e1-83c3-ff3185a5b47f").build())
+               .nic(VmNIC.builder().simpleDHCPNic().build()).build());
+
+      assertEquals(vm.getUuid(), VM_ID);
+      assertEquals(vm.getAlias(), "instance1-3b5");
+      assertEquals(vm.getRam(), "1024");
+      assertEquals(vm.getState(), VM.State.RUNNING);
+      assertEquals(vm.getPublicAddress().get(), "10.0.0.5");
+
+      verify(sessions);
+   }
+
+   public void testGetVMWithoutStateIsNotParsedAsAState() {
+      SshSessionPool sessions = createMock(SshSessionPool.class);
+      expect(sessions.exec("vmadm get " + VM_ID)).andReturn(
+               new ExecResponse("{\"brand\":\"joyent\",\"alias\":\"instance1-3b5\"}", "", 0));
+      replay(sessions);
+
+      VM vm = host(sessions).getVM(VM_ID);
+      assertEquals(vm.getUuid(), VM_ID);
+      assertEquals(vm.getState(), VM.State.STOPPED);
+
+      verify(sessions);
+   }
+
+   public void testGetVMOfUnknownIdIsNull() {
+      SshSessionPool sessions = createMock(SshSessionPool.class);
+      expect(sessions.exec("vmadm get " + VM_ID)).andReturn(new ExecResponse("", "vmadm: no such VM", 1));
+      replay(sessions);
+
+      assertNull(host(sessions).getVM(VM_ID));
+
+      verify(sessions);
+   }
+
+   private SmartOSHostController host(SshSessionPool sessions) {
+      Json json = Guice.createInjector(new SmartOSParserModule(), new GsonModule()).getInstance(Json.class);
+      return new SmartOSHostController(Suppliers.ofInstance(URI.create("http://smartos.local")),
+               Suppliers.ofInstance(new Credentials("root", "password")), createMock(SshClient.Factory.class), json,
+               new VMReadinessTracker(userExecutor, scheduler, 10, 3), sessions, 60000);
+   }
+}
@@ -52,4 +52,18 @@ public class VMTest {
       Assert.assertEquals(VM.State.STOPPED, vmList.get(0).getState());
 
    }
+
+   @Test
+   public void testParseWithFields() {
+      // Response line from a 'vmadm list -p -o uuid,type,ram,state,alias,nics.0.ip'
+      VM vm = VM.builder().fromVmadmString("a8799014-7680-481f-b7de-76b501dbd803:OS:256:running:instance1-3b5:10.0.0.5")
+               .build();
+      Assert.assertEquals(vm.getAlias(), "instance1-3b5");
+      Assert.assertEquals(vm.getPublicAddress().get(), "10.0.0.5");
+
+      VM dhcp = VM.builder().fromVmadmString("60bd2ae5-4e4d-4952-88f9-1b850259d914:OS:256:provisioning::dhcp").build();
+      Assert.assertNull(dhcp.getAlias());
+      Assert.assertFalse(dhcp.getPublicAddress().isPresent());
+      Assert.assertEquals(dhcp.getState(), VM.State.INCOMPLETE);
+   }
 }
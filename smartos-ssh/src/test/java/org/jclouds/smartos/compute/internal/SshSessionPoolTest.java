@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.smartos.compute.internal;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.net.URI;
+
+import org.jclouds.compute.domain.ExecResponse;
+import org.jclouds.domain.Credentials;
+import org.jclouds.domain.LoginCredentials;
+import org.jclouds.ssh.SshClient;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Suppliers;
+import com.google.common.net.HostAndPort;
+
+@Test(groups = "unit", testName = "SshSessionPoolTest")
+public class SshSessionPoolTest {
+
+   public void testSessionIsReused() {
+      SshClient client = createMock(SshClient.class);
+      SshClient.Factory factory = createMock(SshClient.Factory.class);
+      expect(factory.create(anyObject(HostAndPort.class), anyObject(LoginCredentials.class))).andReturn(client);
+      client.connect();
+      expect(client.exec("vmadm list -p")).andReturn(new ExecResponse("vm1", "", 0));
+      expect(client.exec("vmadm list -p")).andReturn(new ExecResponse("vm2", "", 0));
+      replay(client, factory);
+
+      SshSessionPool pool = pool(factory);
+      assertEquals(pool.exec("vmadm list -p").getOutput(), "vm1");
+      assertEquals(pool.exec("vmadm list -p").getOutput(), "vm2");
+
+      verify(client, factory);
+   }
+
+   public void testFailedSessionIsReplaced() {
+      SshClient broken = createMock(SshClient.class);
+      SshClient client = createMock(SshClient.class);
+      SshClient.Factory factory = createMock(SshClient.Factory.class);
+      expect(factory.create(anyObject(HostAndPort.class), anyObject(LoginCredentials.class))).andReturn(broken);
+      expect(factory.create(anyObject(HostAndPort.class), anyObject(LoginCredentials.class))).andReturn(client);
+      broken.connect();
+      expect(broken.exec("vmadm list -p")).andThrow(new IllegalStateException("connection reset"));
+      broken.disconnect();
+      client.connect();
+      expect(client.exec("vmadm list -p")).andReturn(new ExecResponse("vm1", "", 0));
+      replay(broken, client, factory);
+
+      SshSessionPool pool = pool(factory);
+      try {
+         pool.exec("vmadm list -p");
+         fail("expected the error of the dropped session");
+      } catch (IllegalStateException e) {
+         assertEquals(e.getMessage(), "connection reset");
+      }
+      assertEquals(pool.exec("vmadm list -p").getOutput(), "vm1");
+
+      verify(broken, client, factory);
+   }
+
+   public void testIdleSessionIsCheckedBeforeReuse() {
+      SshClient dropped = createMock(SshClient.class);
+      SshClient client = createMock(SshClient.class);
+      SshClient.Factory factory = createMock(SshClient.Factory.class);
+      expect(factory.create(anyObject(HostAndPort.class), anyObject(LoginCredentials.class))).andReturn(dropped);
+      expect(factory.create(anyObject(HostAndPort.class), anyObject(LoginCredentials.class))).andReturn(client);
+      dropped.connect();
+      expect(dropped.exec("vmadm list -p")).andReturn(new ExecResponse("vm1", "", 0));
+      expect(dropped.exec("true")).andThrow(new IllegalStateException("connection reset"));
+      dropped.disconnect();
+      client.connect();
+      expect(client.exec("vmadm list -p")).andReturn(new ExecResponse("vm1", "", 0));
+      replay(dropped, client, factory);
+
+      // every idle session is checked
+      SshSessionPool pool = new SshSessionPool(Suppliers.ofInstance(URI.create("http://localhost")),
+               Suppliers.ofInstance(new Credentials("root", "smartos")), factory, 2, 2, -1);
+      pool.exec("vmadm list -p");
+      pool.exec("vmadm list -p");
+
+      verify(dropped, client, factory);
+   }
+
+   private static SshSessionPool pool(SshClient.Factory factory) {
+      return new SshSessionPool(Suppliers.ofInstance(URI.create("http://localhost")),
+               Suppliers.ofInstance(new Credentials("root", "smartos")), factory, 2, 2, 30000);
+   }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.smartos.compute.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+
+@Test(groups = "unit", testName = "VMReadinessTrackerTest")
+public class VMReadinessTrackerTest {
+
+   private final ExecutorService userExecutor = Executors.newCachedThreadPool();
+   private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+   @AfterClass(alwaysRun = true)
+   public void tearDown() {
+      userExecutor.shutdownNow();
+      scheduler.shutdownNow();
+   }
+
+   public void testAddressIsDiscoveredInTheBackground() throws Exception {
+      VMReadinessTracker tracker = new VMReadinessTracker(userExecutor, scheduler, 10, 30);
+      UUID vm = UUID.randomUUID();
+      final AtomicInteger probes = new AtomicInteger();
+      Function<UUID, Map<String, String>> interfaces = new Function<UUID, Map<String, String>>() {
+         @Override
+         public Map<String, String> apply(UUID input) {
+            return probes.incrementAndGet() < 3 ? ImmutableMap.of("net0", "0.0.0.0") : ImmutableMap.of("net0",
+                     "10.0.0.5");
+         }
+      };
+
+      ListenableFuture<String> address = tracker.track(vm, interfaces);
+      assertSame(tracker.track(vm, interfaces), address);
+      assertEquals(address.get(5, TimeUnit.SECONDS), "10.0.0.5");
+      assertEquals(probes.get(), 3);
+      assertEquals(tracker.getAddress(vm).get(), "10.0.0.5");
+
+      tracker.forget(vm);
+      assertFalse(tracker.getAddress(vm).isPresent());
+   }
+
+   public void testTrackingGivesUpAfterMaxAttempts() throws Exception {
+      VMReadinessTracker tracker = new VMReadinessTracker(userExecutor, scheduler, 10, 3);
+      UUID vm = UUID.randomUUID();
+      Function<UUID, Map<String, String>> interfaces = new Function<UUID, Map<String, String>>() {
+         @Override
+         public Map<String, String> apply(UUID input) {
+            return ImmutableMap.of();
+         }
+      };
+
+      ListenableFuture<String> address = tracker.track(vm, interfaces);
+      try {
+         address.get(5, TimeUnit.SECONDS);
+         throw new AssertionError("expected the tracking to time out");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof TimeoutException, e.getCause().toString());
+      }
+      assertSame(tracker.track(vm, interfaces), address, "a timed out VM is not probed again");
+
+      tracker.forget(vm);
+      assertFalse(tracker.track(vm, interfaces) == address, "a forgotten VM can be tracked again");
+   }
+}
@@ -18,7 +18,15 @@ package org.jclouds.vcloud.director.v1_5;
 
 import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
 import static org.jclouds.reflect.Reflection2.typeToken;
+import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_ENTITY_CACHE_REFRESH;
+import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_ENTITY_CACHE_SIZE;
+import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_QUERY_PAGE_SIZE;
+import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_QUERY_PREFETCH;
+import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_SESSION_RENEW_AHEAD;
+import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_TASK_POLL_MAX_PERIOD;
+import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_TASK_POLL_PERIOD;
 import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_TIMEOUT_TASK_COMPLETED;
+import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_UPLOAD_CHUNK_SIZE;
 import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_VERSION_SCHEMA;
 import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_XML_NAMESPACE;
 import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_XML_SCHEMA;
@@ -26,12 +34,16 @@ import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_
 import java.net.URI;
 import java.util.Properties;
 
+import org.jclouds.compute.ComputeServiceContext;
 import org.jclouds.rest.internal.BaseRestApiMetadata;
+import org.jclouds.vcloud.director.v1_5.compute.config.VCloudDirectorComputeServiceContextModule;
 import org.jclouds.vcloud.director.v1_5.config.VCloudDirectorRestClientModule;
 import org.jclouds.vcloud.director.v1_5.user.VCloudDirectorApi;
 import org.jclouds.vcloud.director.v1_5.user.VCloudDirectorAsyncApi;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.reflect.TypeToken;
+import com.google.inject.Module;
 
 /**
  * Implementation of {@link ApiMetadata} for VCloudDirector 1.5 API
@@ -68,6 +80,14 @@ public class VCloudDirectorApiMetadata extends BaseRestApiMetadata {
       // TODO integrate these with the {@link ComputeTimeouts} instead of having a single timeout for everything.
       properties.setProperty(PROPERTY_SESSION_INTERVAL, Integer.toString(300));
       properties.setProperty(PROPERTY_VCLOUD_DIRECTOR_TIMEOUT_TASK_COMPLETED, Long.toString(1200l * 1000l));
+      properties.setProperty(PROPERTY_VCLOUD_DIRECTOR_TASK_POLL_PERIOD, Long.toString(1000l));
+      properties.setProperty(PROPERTY_VCLOUD_DIRECTOR_TASK_POLL_MAX_PERIOD, Long.toString(15l * 1000l));
+      properties.setProperty(PROPERTY_VCLOUD_DIRECTOR_UPLOAD_CHUNK_SIZE, Long.toString(64l * 1024l * 1024l));
+      properties.setProperty(PROPERTY_VCLOUD_DIRECTOR_QUERY_PAGE_SIZE, Integer.toString(128));
+      properties.setProperty(PROPERTY_VCLOUD_DIRECTOR_QUERY_PREFETCH, Integer.toString(2));
+      properties.setProperty(PROPERTY_VCLOUD_DIRECTOR_SESSION_RENEW_AHEAD, Integer.toString(60));
+      properties.setProperty(PROPERTY_VCLOUD_DIRECTOR_ENTITY_CACHE_SIZE, Long.toString(10000l));
+      properties.setProperty(PROPERTY_VCLOUD_DIRECTOR_ENTITY_CACHE_REFRESH, Integer.toString(60));
 
       return properties;
    }
@@ -84,7 +104,9 @@ public class VCloudDirectorApiMetadata extends BaseRestApiMetadata {
          .version("1.5")
          .defaultProperties(VCloudDirectorApiMetadata.defaultProperties())
          .context(typeToken(VCloudDirectorContext.class))
-         .defaultModule(VCloudDirectorRestClientModule.class);
+         .view(typeToken(ComputeServiceContext.class))
+         .defaultModules(ImmutableSet.<Class<? extends Module>>of(VCloudDirectorRestClientModule.class,
+               VCloudDirectorComputeServiceContextModule.class));
       }
 
       @Override
@@ -37,6 +37,36 @@ public class VCloudDirectorConstants {
    /** The property used to configure the timeout for task completion. */
    public static final String PROPERTY_VCLOUD_DIRECTOR_TIMEOUT_TASK_COMPLETED = "jclouds.vcloud-director.timeout.task-complete";
 
+   /** Milliseconds between polls of outstanding tasks, while any of them is making progress. */
+   public static final String PROPERTY_VCLOUD_DIRECTOR_TASK_POLL_PERIOD = "jclouds.vcloud-director.task-poll.period";
+
+   /** Milliseconds the poll of outstanding tasks backs off to while none of them makes progress. */
+   public static final String PROPERTY_VCLOUD_DIRECTOR_TASK_POLL_MAX_PERIOD = "jclouds.vcloud-director.task-poll.max-period";
+
+   /** Files larger than this many bytes are uploaded to the transfer site in parts of this size. */
+   public static final String PROPERTY_VCLOUD_DIRECTOR_UPLOAD_CHUNK_SIZE = "jclouds.vcloud-director.upload.chunk-size";
+
+   /** The number of records to ask for in each page of a query; vCloud Director caps it at 128 by default. */
+   public static final String PROPERTY_VCLOUD_DIRECTOR_QUERY_PAGE_SIZE = "jclouds.vcloud-director.query.page-size";
+
+   /** The number of query pages to fetch concurrently, ahead of the one being read. */
+   public static final String PROPERTY_VCLOUD_DIRECTOR_QUERY_PREFETCH = "jclouds.vcloud-director.query.prefetch";
+
+   /**
+    * Seconds before a session would expire at which its next use renews it in the background; at most
+    * half of {@link org.jclouds.Constants#PROPERTY_SESSION_INTERVAL}.
+    */
+   public static final String PROPERTY_VCLOUD_DIRECTOR_SESSION_RENEW_AHEAD = "jclouds.vcloud-director.session.renew-ahead";
+
+   /** The number of URNs whose resolved entity, or absence of one, is kept by the entity resolver cache. */
+   public static final String PROPERTY_VCLOUD_DIRECTOR_ENTITY_CACHE_SIZE = "jclouds.vcloud-director.entity-cache.size";
+
+   /**
+    * Seconds after which the next use of a cached URN resolves it again in the background; an unknown URN
+    * is retried no more often than this.
+    */
+   public static final String PROPERTY_VCLOUD_DIRECTOR_ENTITY_CACHE_REFRESH = "jclouds.vcloud-director.entity-cache.refresh";
+
    public static final String PROPERTY_VCLOUD_DIRECTOR_VERSION_SCHEMA = "jclouds.vcloud-director.version.schema";
 
    /** Name of the default org that your vApp will join, if an org isn't explicitly specified. */
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.compute.config;
+
+import java.util.Map;
+
+import javax.inject.Singleton;
+
+import org.jclouds.compute.ComputeServiceAdapter;
+import org.jclouds.compute.config.ComputeServiceAdapterContextModule;
+import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.options.TemplateOptions;
+import org.jclouds.domain.Location;
+import org.jclouds.vcloud.director.v1_5.compute.functions.VAppTemplateRecordToImage;
+import org.jclouds.vcloud.director.v1_5.compute.functions.VdcToLocation;
+import org.jclouds.vcloud.director.v1_5.compute.functions.VmRecordToHardware;
+import org.jclouds.vcloud.director.v1_5.compute.functions.VmRecordToNodeMetadata;
+import org.jclouds.vcloud.director.v1_5.compute.options.VCloudDirectorTemplateOptions;
+import org.jclouds.vcloud.director.v1_5.compute.strategy.VCloudDirectorComputeServiceAdapter;
+import org.jclouds.vcloud.director.v1_5.domain.ResourceEntity.Status;
+import org.jclouds.vcloud.director.v1_5.domain.Vdc;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultVAppTemplateRecord;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultVMRecord;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Provides;
+import com.google.inject.TypeLiteral;
+
+/**
+ * Configures the compute service classes for the vCloud Director 1.5 API.
+ */
+public class VCloudDirectorComputeServiceContextModule extends
+      ComputeServiceAdapterContextModule<QueryResultVMRecord, QueryResultVMRecord, QueryResultVAppTemplateRecord, Vdc> {
+
+   @Override
+   protected void configure() {
+      super.configure();
+      bind(new TypeLiteral<ComputeServiceAdapter<QueryResultVMRecord, QueryResultVMRecord, QueryResultVAppTemplateRecord, Vdc>>() {
+      }).to(VCloudDirectorComputeServiceAdapter.class);
+      bind(new TypeLiteral<Function<QueryResultVMRecord, NodeMetadata>>() {
+      }).to(VmRecordToNodeMetadata.class);
+      bind(new TypeLiteral<Function<QueryResultVMRecord, Hardware>>() {
+      }).to(VmRecordToHardware.class);
+      bind(new TypeLiteral<Function<QueryResultVAppTemplateRecord, Image>>() {
+      }).to(VAppTemplateRecordToImage.class);
+      bind(new TypeLiteral<Function<Vdc, Location>>() {
+      }).to(VdcToLocation.class);
+      install(new LocationsFromComputeServiceAdapterModule<QueryResultVMRecord, QueryResultVMRecord, QueryResultVAppTemplateRecord, Vdc>() {
+      });
+      bind(TemplateOptions.class).to(VCloudDirectorTemplateOptions.class);
+   }
+
+   @Provides
+   @Singleton
+   protected Map<Status, NodeMetadata.Status> provideVAppStatusToNodeStatus() {
+      return ImmutableMap.<Status, NodeMetadata.Status> builder()
+            .put(Status.POWERED_ON, NodeMetadata.Status.RUNNING)
+            .put(Status.POWERED_OFF, NodeMetadata.Status.SUSPENDED)
+            .put(Status.SUSPENDED, NodeMetadata.Status.SUSPENDED)
+            .put(Status.WAITING_FOR_INPUT, NodeMetadata.Status.PENDING)
+            .put(Status.RESOLVED, NodeMetadata.Status.PENDING)
+            .put(Status.UNRESOLVED, NodeMetadata.Status.PENDING)
+            .put(Status.DEPLOYED, NodeMetadata.Status.PENDING)
+            .put(Status.MIXED, NodeMetadata.Status.PENDING)
+            .put(Status.FAILED_CREATION, NodeMetadata.Status.ERROR)
+            .put(Status.INCONSISTENT_STATE, NodeMetadata.Status.ERROR)
+            .put(Status.UNKNOWN, NodeMetadata.Status.UNRECOGNIZED)
+            .put(Status.UNRECOGNIZED, NodeMetadata.Status.UNRECOGNIZED)
+            .put(Status.UNRECOGNIZED_VALUE, NodeMetadata.Status.UNRECOGNIZED)
+            .build();
+   }
+
+   @Provides
+   @Singleton
+   protected Map<Status, Image.Status> provideVAppTemplateStatusToImageStatus() {
+      return ImmutableMap.<Status, Image.Status> builder()
+            .put(Status.RESOLVED, Image.Status.AVAILABLE)
+            .put(Status.POWERED_OFF, Image.Status.AVAILABLE)
+            .put(Status.UNRESOLVED, Image.Status.PENDING)
+            .put(Status.UPLOAD_OVF_PENDING, Image.Status.PENDING)
+            .put(Status.UPLOAD_COPYING, Image.Status.PENDING)
+            .put(Status.UPLOAD_DISK_PENDING, Image.Status.PENDING)
+            .put(Status.FAILED_CREATION, Image.Status.ERROR)
+            .put(Status.UPLOAD_QUARANTINED, Image.Status.ERROR)
+            .put(Status.UPLOAD_QUARANTINE_EXPIRED, Image.Status.ERROR)
+            .put(Status.UNKNOWN, Image.Status.UNRECOGNIZED)
+            .put(Status.UNRECOGNIZED, Image.Status.UNRECOGNIZED)
+            .put(Status.UNRECOGNIZED_VALUE, Image.Status.UNRECOGNIZED)
+            .build();
+   }
+}
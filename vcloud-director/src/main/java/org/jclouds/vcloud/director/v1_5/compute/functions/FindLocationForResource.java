@@ -17,6 +17,7 @@
 package org.jclouds.vcloud.director.v1_5.compute.functions;
 
 import java.net.URI;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 
@@ -31,8 +32,13 @@ import org.jclouds.vcloud.director.v1_5.domain.Reference;
 
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
+import com.google.common.collect.Maps;
 
 /**
+ * Finds the location of a resource by its href. The locations and their parents are indexed by id
+ * once for each set of locations the memoized supplier returns, rather than walked for every
+ * resource.
+ * 
  * @author danikov
  */
 @Singleton
@@ -42,12 +48,39 @@ public class FindLocationForResource implements Function<Reference, Location> {
    protected Logger logger = Logger.NULL;
 
    final Supplier<Set<? extends Location>> locations;
+   private volatile LocationIndex index;
 
    @Inject
    public FindLocationForResource(@Memoized Supplier<Set<? extends Location>> locations) {
       this.locations = locations;
    }
 
+   private static class LocationIndex {
+      private final Set<? extends Location> locations;
+      private final Map<URI, Location> byHref = Maps.newHashMap();
+
+      private LocationIndex(Set<? extends Location> locations) {
+         this.locations = locations;
+         for (Location input : locations) {
+            do {
+               // The "name" isn't always present, ex inside a vApp we have a rel
+               // link that only includes href and type.
+               URI href = toHref(input.getId());
+               if (href != null && !byHref.containsKey(href))
+                  byHref.put(href, input);
+            } while ((input = input.getParent()) != null);
+         }
+      }
+
+      private static URI toHref(String id) {
+         try {
+            return URI.create(id);
+         } catch (IllegalArgumentException e) {
+            return null;
+         }
+      }
+   }
+
    /**
     * searches for a location associated with this resource.
     * 
@@ -55,15 +88,14 @@ public class FindLocationForResource implements Function<Reference, Location> {
     *            if not found
     */
    public Location apply(Reference resource) {
-      for (Location input : locations.get()) {
-         do {
-            // The "name" isn't always present, ex inside a vApp we have a rel
-            // link that only includes href and type.
-            if (URI.create(input.getId()).equals(resource.getHref()))
-               return input;
-         } while ((input = input.getParent()) != null);
-      }
-      throw new NoSuchElementException(String.format("resource: %s not found in locations: %s", resource,
-            locations.get()));
+      Set<? extends Location> current = locations.get();
+      LocationIndex index = this.index;
+      if (index == null || index.locations != current)
+         this.index = index = new LocationIndex(current);
+      Location location = index.byHref.get(resource.getHref());
+      if (location == null)
+         throw new NoSuchElementException(String.format("resource: %s not found in locations: %s", resource,
+               current));
+      return location;
    }
 }
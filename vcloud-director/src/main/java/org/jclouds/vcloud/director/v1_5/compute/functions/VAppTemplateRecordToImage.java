@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.compute.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.compute.util.ComputeServiceUtils.parseOsFamilyOrUnrecognized;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.logging.Logger;
+import org.jclouds.vcloud.director.v1_5.domain.Reference;
+import org.jclouds.vcloud.director.v1_5.domain.ResourceEntity.Status;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultVAppTemplateRecord;
+
+import com.google.common.base.Enums;
+import com.google.common.base.Function;
+
+/**
+ * Builds an image from a vApp template query record, without fetching the template or its OVF
+ * envelope. The operating system is therefore guessed from the template name; use
+ * {@link ImageForVAppTemplate} when the full template is at hand.
+ */
+@Singleton
+public class VAppTemplateRecordToImage implements Function<QueryResultVAppTemplateRecord, Image> {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   public Logger logger = Logger.NULL;
+
+   private final Map<Status, Image.Status> toPortableImageStatus;
+   private final FindLocationForResource findLocationForResource;
+
+   @Inject
+   protected VAppTemplateRecordToImage(Map<Status, Image.Status> toPortableImageStatus,
+         FindLocationForResource findLocationForResource) {
+      this.toPortableImageStatus = checkNotNull(toPortableImageStatus, "toPortableImageStatus");
+      this.findLocationForResource = checkNotNull(findLocationForResource, "findLocationForResource");
+   }
+
+   @Override
+   public Image apply(QueryResultVAppTemplateRecord from) {
+      checkNotNull(from, "QueryResultVAppTemplateRecord");
+      ImageBuilder builder = new ImageBuilder();
+      builder.ids(from.getHref().toASCIIString());
+      builder.uri(from.getHref());
+      builder.name(from.getName());
+      builder.description(from.getName());
+      if (from.getVdc() != null) {
+         try {
+            builder.location(findLocationForResource.apply(Reference.builder().href(URI.create(from.getVdc())).build()));
+         } catch (NoSuchElementException e) {
+            logger.debug("vdc %s of template %s is not a location of this context", from.getVdc(), from.getName());
+         }
+      } else {
+         // otherwise, it could be in a public catalog, which is not assigned to a VDC
+      }
+      builder.operatingSystem(OperatingSystem.builder().family(parseOsFamilyOrUnrecognized(from.getName()))
+            .description(from.getName()).build());
+      Status status = from.getStatus() != null ? Enums.getIfPresent(Status.class, from.getStatus()).or(
+            Status.UNRECOGNIZED) : Status.UNRECOGNIZED;
+      builder.status(toPortableImageStatus.containsKey(status) ? toPortableImageStatus.get(status)
+            : Image.Status.UNRECOGNIZED);
+      builder.backendStatus(from.getStatus());
+      return builder.build();
+   }
+}
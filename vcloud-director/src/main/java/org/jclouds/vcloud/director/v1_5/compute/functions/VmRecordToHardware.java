@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.compute.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.compute.predicates.ImagePredicates.idEquals;
+
+import javax.inject.Singleton;
+
+import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.HardwareBuilder;
+import org.jclouds.compute.domain.Processor;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultVMRecord;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Builds the hardware of a vm from its query record alone.
+ * <p/>
+ * The vms inside vApp templates are the hardware profiles: as a template is instantiated as-is,
+ * the hardware of a template vm is identified by, and only supports, the template that contains it.
+ */
+@Singleton
+public class VmRecordToHardware implements Function<QueryResultVMRecord, Hardware> {
+
+   @Override
+   public Hardware apply(QueryResultVMRecord from) {
+      checkNotNull(from, "QueryResultVMRecord");
+      HardwareBuilder builder = new HardwareBuilder();
+      if (Boolean.TRUE.equals(from.isVAppTemplate()) && from.getContainer() != null) {
+         builder.ids(from.getContainer());
+         builder.name(from.getContainerName());
+         builder.supportsImage(idEquals(from.getContainer()));
+      } else {
+         builder.ids(from.getHref().toASCIIString());
+         builder.name(from.getName());
+      }
+      if (from.getNumberOfCpus() != null)
+         builder.processors(ImmutableList.of(new Processor(from.getNumberOfCpus(), 1.0)));
+      if (from.getMemoryMB() != null)
+         builder.ram(from.getMemoryMB());
+      return builder.build();
+   }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.compute.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.compute.util.ComputeServiceUtils.parseOsFamilyOrUnrecognized;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.logging.Logger;
+import org.jclouds.vcloud.director.v1_5.domain.Reference;
+import org.jclouds.vcloud.director.v1_5.domain.ResourceEntity.Status;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultVMRecord;
+
+import com.google.common.base.Enums;
+import com.google.common.base.Function;
+
+/**
+ * Builds a node from a vm query record, so that listing nodes costs a few paged queries instead of
+ * fetching every vApp and vm.
+ * <p/>
+ * Query records carry neither the network connections nor the guest customization of the vm, so
+ * the nodes have no addresses or credentials; use {@link VmToNodeMetadata} on the full {@code Vm}
+ * when those are needed.
+ * <p/>
+ * Nodes are named after the vApp that contains the vm, which is the name they were created with.
+ */
+@Singleton
+public class VmRecordToNodeMetadata implements Function<QueryResultVMRecord, NodeMetadata> {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   protected final FindLocationForResource findLocationForResourceInVDC;
+   protected final Function<QueryResultVMRecord, Hardware> hardwareForVm;
+   protected final Map<Status, NodeMetadata.Status> vAppStatusToNodeStatus;
+   protected final GroupNamingConvention nodeNamingConvention;
+
+   @Inject
+   protected VmRecordToNodeMetadata(Map<Status, NodeMetadata.Status> vAppStatusToNodeStatus,
+         FindLocationForResource findLocationForResourceInVDC, Function<QueryResultVMRecord, Hardware> hardwareForVm,
+         GroupNamingConvention.Factory namingConvention) {
+      this.nodeNamingConvention = checkNotNull(namingConvention, "namingConvention").createWithoutPrefix();
+      this.hardwareForVm = checkNotNull(hardwareForVm, "hardwareForVm");
+      this.findLocationForResourceInVDC = checkNotNull(findLocationForResourceInVDC, "findLocationForResourceInVDC");
+      this.vAppStatusToNodeStatus = checkNotNull(vAppStatusToNodeStatus, "vAppStatusToNodeStatus");
+   }
+
+   @Override
+   public NodeMetadata apply(QueryResultVMRecord from) {
+      checkNotNull(from, "QueryResultVMRecord");
+      NodeMetadataBuilder builder = new NodeMetadataBuilder();
+      builder.ids(from.getHref().toASCIIString());
+      builder.uri(from.getHref());
+      // nodes are created as a vApp with the name of the node, holding the vm of the template
+      String name = from.getContainerName() != null ? from.getContainerName() : from.getName();
+      builder.name(name);
+      builder.hostname(from.getName());
+      if (from.getVdc() != null) {
+         try {
+            builder.location(findLocationForResourceInVDC.apply(Reference.builder().href(URI.create(from.getVdc()))
+                  .build()));
+         } catch (NoSuchElementException e) {
+            logger.debug("vdc %s of vm %s is not a location of this context", from.getVdc(), from.getName());
+         }
+      }
+      builder.group(nodeNamingConvention.groupInUniqueNameOrNull(name));
+      if (from.getGuestOs() != null)
+         builder.operatingSystem(OperatingSystem.builder().family(parseOsFamilyOrUnrecognized(from.getGuestOs()))
+               .description(from.getGuestOs()).build());
+      builder.hardware(hardwareForVm.apply(from));
+      Status status = from.getStatus() != null ? Enums.getIfPresent(Status.class, from.getStatus()).or(
+            Status.UNRECOGNIZED) : Status.UNRECOGNIZED;
+      builder.status(vAppStatusToNodeStatus.containsKey(status) ? vAppStatusToNodeStatus.get(status)
+            : NodeMetadata.Status.UNRECOGNIZED);
+      builder.backendStatus(from.getStatus());
+      return builder.build();
+   }
+}
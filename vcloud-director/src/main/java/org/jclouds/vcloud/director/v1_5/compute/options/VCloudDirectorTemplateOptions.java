@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.compute.options;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.jclouds.compute.options.TemplateOptions;
+import org.jclouds.vcloud.director.v1_5.domain.network.NetworkConnection.IpAddressAllocationMode;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Objects.ToStringHelper;
+
+/**
+ * Contains options supported in the {@code ComputeService#runNode} operation on the
+ * "vcloud-director" provider.
+ */
+public class VCloudDirectorTemplateOptions extends TemplateOptions implements Cloneable {
+
+   private IpAddressAllocationMode ipAddressAllocationMode;
+
+   /**
+    * How the ip address of the node's network connections should be allocated. When unset, the
+    * allocation mode of the template is kept.
+    */
+   public VCloudDirectorTemplateOptions ipAddressAllocationMode(IpAddressAllocationMode ipAddressAllocationMode) {
+      this.ipAddressAllocationMode = checkNotNull(ipAddressAllocationMode, "ipAddressAllocationMode");
+      return this;
+   }
+
+   public IpAddressAllocationMode getIpAddressAllocationMode() {
+      return ipAddressAllocationMode;
+   }
+
+   @Override
+   public VCloudDirectorTemplateOptions clone() {
+      VCloudDirectorTemplateOptions options = new VCloudDirectorTemplateOptions();
+      copyTo(options);
+      return options;
+   }
+
+   @Override
+   public void copyTo(TemplateOptions to) {
+      super.copyTo(to);
+      if (to instanceof VCloudDirectorTemplateOptions) {
+         VCloudDirectorTemplateOptions eTo = VCloudDirectorTemplateOptions.class.cast(to);
+         if (ipAddressAllocationMode != null) {
+            eTo.ipAddressAllocationMode(ipAddressAllocationMode);
+         }
+      }
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(super.hashCode(), ipAddressAllocationMode);
+   }
+
+   @Override
+   public boolean equals(Object obj) {
+      if (this == obj) {
+         return true;
+      }
+      if (!super.equals(obj) || getClass() != obj.getClass()) {
+         return false;
+      }
+      VCloudDirectorTemplateOptions other = VCloudDirectorTemplateOptions.class.cast(obj);
+      return Objects.equal(ipAddressAllocationMode, other.ipAddressAllocationMode);
+   }
+
+   @Override
+   public ToStringHelper string() {
+      return super.string().omitNullValues().add("ipAddressAllocationMode", ipAddressAllocationMode);
+   }
+
+   public static class Builder {
+
+      /**
+       * @see VCloudDirectorTemplateOptions#ipAddressAllocationMode
+       */
+      public static VCloudDirectorTemplateOptions ipAddressAllocationMode(
+            IpAddressAllocationMode ipAddressAllocationMode) {
+         VCloudDirectorTemplateOptions options = new VCloudDirectorTemplateOptions();
+         return options.ipAddressAllocationMode(ipAddressAllocationMode);
+      }
+   }
+}
@@ -0,0 +1,293 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Throwables.propagate;
+import static com.google.common.base.Throwables.propagateIfPossible;
+import static com.google.common.collect.Iterables.contains;
+import static com.google.common.collect.Iterables.getFirst;
+import static com.google.common.collect.Iterables.tryFind;
+import static org.jclouds.vcloud.director.v1_5.compute.util.VCloudDirectorComputeUtils.getCredentialsFrom;
+import static org.jclouds.vcloud.director.v1_5.options.QueryOptions.Builder.filter;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.ComputeServiceAdapter;
+import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.domain.LoginCredentials;
+import org.jclouds.logging.Logger;
+import org.jclouds.vcloud.director.v1_5.VCloudDirectorMediaType;
+import org.jclouds.vcloud.director.v1_5.compute.options.VCloudDirectorTemplateOptions;
+import org.jclouds.vcloud.director.v1_5.domain.Link;
+import org.jclouds.vcloud.director.v1_5.domain.Reference;
+import org.jclouds.vcloud.director.v1_5.domain.Task;
+import org.jclouds.vcloud.director.v1_5.domain.VApp;
+import org.jclouds.vcloud.director.v1_5.domain.Vdc;
+import org.jclouds.vcloud.director.v1_5.domain.Vm;
+import org.jclouds.vcloud.director.v1_5.domain.network.NetworkConnection;
+import org.jclouds.vcloud.director.v1_5.domain.org.Org;
+import org.jclouds.vcloud.director.v1_5.domain.params.DeployVAppParams;
+import org.jclouds.vcloud.director.v1_5.domain.params.InstantiateVAppTemplateParams;
+import org.jclouds.vcloud.director.v1_5.domain.params.UndeployVAppParams;
+import org.jclouds.vcloud.director.v1_5.domain.params.UndeployVAppParams.PowerAction;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultVAppTemplateRecord;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultVMRecord;
+import org.jclouds.vcloud.director.v1_5.domain.section.NetworkConnectionSection;
+import org.jclouds.vcloud.director.v1_5.predicates.LinkPredicates;
+import org.jclouds.vcloud.director.v1_5.user.VCloudDirectorApi;
+import org.jclouds.vcloud.director.v1_5.util.QueryPages;
+import org.jclouds.vcloud.director.v1_5.util.TaskTracker;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Defines the connection between the {@link VCloudDirectorApi} implementation and the jclouds
+ * {@link org.jclouds.compute.ComputeService}.
+ * <p/>
+ * Nodes, hardware and images are listed with the query service through {@link QueryPages}, a few
+ * pages of records at a time, rather than by walking every org, vDC and vApp. Full {@link Vm}
+ * documents are only fetched when a node is created or destroyed.
+ */
+@Singleton
+public class VCloudDirectorComputeServiceAdapter implements
+      ComputeServiceAdapter<QueryResultVMRecord, QueryResultVMRecord, QueryResultVAppTemplateRecord, Vdc> {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final VCloudDirectorApi api;
+   private final QueryPages queryPages;
+   private final TaskTracker taskTracker;
+
+   @Inject
+   protected VCloudDirectorComputeServiceAdapter(VCloudDirectorApi api, QueryPages queryPages,
+         TaskTracker taskTracker) {
+      this.api = checkNotNull(api, "api");
+      this.queryPages = checkNotNull(queryPages, "queryPages");
+      this.taskTracker = checkNotNull(taskTracker, "taskTracker");
+   }
+
+   @Override
+   public NodeAndInitialCredentials<QueryResultVMRecord> createNodeWithGroupEncodedIntoName(String group, String name,
+         Template template) {
+      URI vdc = URI.create(template.getLocation().getId());
+      InstantiateVAppTemplateParams params = InstantiateVAppTemplateParams.builder().name(name).notDeploy()
+            .notPowerOn().source(Reference.builder().href(URI.create(template.getImage().getId())).build()).build();
+
+      VApp vApp = api.getVdcApi().instantiateVApp(vdc, params);
+      try {
+         return startNode(name, vApp, template);
+      } catch (RuntimeException e) {
+         removeQuietly(vApp.getHref(), name);
+         throw e;
+      }
+   }
+
+   private NodeAndInitialCredentials<QueryResultVMRecord> startNode(String name, VApp vApp, Template template) {
+      waitForTasks(vApp.getTasks(), "instantiate " + name);
+      vApp = api.getVAppApi().get(vApp.getHref());
+      Vm vm = getFirst(vApp.getChildren().getVms(), null);
+      checkState(vm != null, "vApp %s was instantiated without a vm", vApp.getHref());
+
+      VCloudDirectorTemplateOptions options = template.getOptions().as(VCloudDirectorTemplateOptions.class);
+      if (options.getIpAddressAllocationMode() != null)
+         editIpAddressAllocationMode(vm, options.getIpAddressAllocationMode());
+
+      waitForTask(api.getVAppApi().deploy(vApp.getHref(), DeployVAppParams.builder().powerOn().build()), "deploy "
+            + name);
+      vm = api.getVmApi().get(vm.getHref());
+
+      QueryResultVMRecord record = recordOf(vm.getHref());
+      checkState(record != null, "vm %s of vApp %s was not found by the query service", vm.getHref(),
+            vApp.getHref());
+
+      LoginCredentials credentials = getCredentialsFrom(vm);
+      return new NodeAndInitialCredentials<QueryResultVMRecord>(record, vm.getHref().toASCIIString(), credentials);
+   }
+
+   /**
+    * Removes the vApp of a node that could not be started, so that a failed creation does not leave
+    * it behind. The vApp is undeployed first if the failure happened after it was deployed.
+    */
+   private void removeQuietly(URI vApp, String name) {
+      try {
+         VApp current = api.getVAppApi().get(vApp);
+         if (current == null)
+            return;
+         if (Boolean.TRUE.equals(current.isDeployed()))
+            waitForTask(api.getVAppApi().undeploy(vApp,
+                  UndeployVAppParams.builder().undeployPowerAction(PowerAction.POWER_OFF).build()), "undeploy " + vApp);
+         waitForTask(api.getVAppApi().remove(vApp), "remove " + vApp);
+      } catch (RuntimeException e) {
+         logger.warn(e, "<< could not remove vApp %s of node %s, which failed to start", vApp, name);
+      }
+   }
+
+   private void editIpAddressAllocationMode(Vm vm, NetworkConnection.IpAddressAllocationMode mode) {
+      NetworkConnectionSection section = api.getVmApi().getNetworkConnectionSection(vm.getHref());
+      ImmutableSet.Builder<NetworkConnection> connections = ImmutableSet.builder();
+      for (NetworkConnection connection : section.getNetworkConnections())
+         connections.add(connection.toBuilder().ipAddressAllocationMode(mode).build());
+      NetworkConnectionSection edited = section.toBuilder().networkConnections(connections.build()).build();
+      waitForTask(api.getVmApi().editNetworkConnectionSection(vm.getHref(), edited), "edit network of "
+            + vm.getName());
+   }
+
+   /**
+    * The vms inside vApp templates: as templates are instantiated as they are, each describes the
+    * only hardware its template supports.
+    */
+   @Override
+   public Iterable<QueryResultVMRecord> listHardwareProfiles() {
+      return queryPages.records("vm", filter("isVAppTemplate==true"), QueryResultVMRecord.class).toSet();
+   }
+
+   @Override
+   public Iterable<QueryResultVAppTemplateRecord> listImages() {
+      return queryPages.records("vAppTemplate", filter("isEnabled==true"), QueryResultVAppTemplateRecord.class)
+            .toSet();
+   }
+
+   /**
+    * Queries the record of a single template rather than listing them all.
+    */
+   @Override
+   public QueryResultVAppTemplateRecord getImage(String id) {
+      return queryPages.records("vAppTemplate", filter("isEnabled==true;href==" + id),
+            QueryResultVAppTemplateRecord.class).first().orNull();
+   }
+
+   @Override
+   public Iterable<Vdc> listLocations() {
+      ImmutableSet.Builder<Vdc> vdcs = ImmutableSet.builder();
+      for (Reference orgRef : api.getOrgApi().list()) {
+         Org org = api.getOrgApi().get(orgRef.getHref());
+         if (org == null)
+            continue;
+         for (Link link : Iterables.filter(org.getLinks(), LinkPredicates.typeEquals(VCloudDirectorMediaType.VDC))) {
+            Vdc vdc = api.getVdcApi().get(link.getHref());
+            if (vdc != null)
+               vdcs.add(vdc);
+         }
+      }
+      return vdcs.build();
+   }
+
+   @Override
+   public QueryResultVMRecord getNode(String id) {
+      return recordOf(URI.create(id));
+   }
+
+   @Override
+   public Iterable<QueryResultVMRecord> listNodes() {
+      return queryPages.records("vm", filter("isVAppTemplate==false"), QueryResultVMRecord.class).toSet();
+   }
+
+   @Override
+   public Iterable<QueryResultVMRecord> listNodesByIds(final Iterable<String> ids) {
+      return Iterables.filter(listNodes(), new Predicate<QueryResultVMRecord>() {
+         @Override
+         public boolean apply(QueryResultVMRecord input) {
+            return contains(ids, input.getHref().toASCIIString());
+         }
+      });
+   }
+
+   @Override
+   public void destroyNode(String id) {
+      Vm vm = api.getVmApi().get(URI.create(id));
+      if (vm == null)
+         return;
+      URI vApp = parentOf(vm);
+      Task undeploy = api.getVAppApi().undeploy(vApp,
+            UndeployVAppParams.builder().undeployPowerAction(PowerAction.POWER_OFF).build());
+      waitForTask(undeploy, "undeploy " + vApp);
+      waitForTask(api.getVAppApi().remove(vApp), "remove " + vApp);
+   }
+
+   @Override
+   public void rebootNode(String id) {
+      waitForTask(api.getVmApi().reboot(URI.create(id)), "reboot " + id);
+   }
+
+   @Override
+   public void resumeNode(String id) {
+      waitForTask(api.getVmApi().powerOn(URI.create(id)), "power on " + id);
+   }
+
+   @Override
+   public void suspendNode(String id) {
+      waitForTask(api.getVmApi().suspend(URI.create(id)), "suspend " + id);
+   }
+
+   private static URI parentOf(Vm vm) {
+      Optional<Link> up = tryFind(vm.getLinks(), LinkPredicates.typeEquals(VCloudDirectorMediaType.VAPP));
+      checkState(up.isPresent(), "vm %s has no link to its vApp", vm.getHref());
+      return up.get().getHref();
+   }
+
+   /**
+    * Queries the record of a single vm, so that nodes read one at a time and from a listing carry
+    * the same fields, such as the name of their vApp, their guest os and their hardware.
+    */
+   private QueryResultVMRecord recordOf(URI vm) {
+      return queryPages.records("vm", filter("href==" + vm.toASCIIString()), QueryResultVMRecord.class).first()
+            .orNull();
+   }
+
+   private void waitForTasks(Iterable<Task> tasks, String operation) {
+      List<ListenableFuture<Task>> tracked = Lists.newArrayList();
+      for (Task task : tasks)
+         tracked.add(taskTracker.track(task));
+      waitFor(Futures.allAsList(tracked), operation);
+   }
+
+   private void waitForTask(Task task, String operation) {
+      waitFor(taskTracker.track(task), operation);
+   }
+
+   private void waitFor(ListenableFuture<?> tasks, String operation) {
+      logger.debug(">> %s", operation);
+      try {
+         tasks.get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw propagate(e);
+      } catch (ExecutionException e) {
+         propagateIfPossible(e.getCause());
+         throw new IllegalStateException(String.format("%s did not complete", operation), e.getCause());
+      }
+      logger.debug("<< %s", operation);
+   }
+}
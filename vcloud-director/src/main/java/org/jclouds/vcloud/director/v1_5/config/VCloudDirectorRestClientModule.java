@@ -17,13 +17,14 @@
 package org.jclouds.vcloud.director.v1_5.config;
 
 import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
+import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_ENTITY_CACHE_REFRESH;
+import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_ENTITY_CACHE_SIZE;
 import static org.jclouds.rest.config.BinderUtils.bindSyncToAsyncHttpApi;
 
 import java.net.URI;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
-import org.jclouds.domain.Credentials;
 import org.jclouds.http.HttpErrorHandler;
 import org.jclouds.http.HttpRetryHandler;
 import org.jclouds.http.annotation.ClientError;
@@ -80,14 +81,15 @@ import org.jclouds.vcloud.director.v1_5.features.admin.UserApi;
 import org.jclouds.vcloud.director.v1_5.features.admin.UserAsyncApi;
 import org.jclouds.vcloud.director.v1_5.handlers.InvalidateSessionAndRetryOn401AndLogoutOnClose;
 import org.jclouds.vcloud.director.v1_5.handlers.VCloudDirectorErrorHandler;
-import org.jclouds.vcloud.director.v1_5.loaders.LoginUserInOrgWithPassword;
 import org.jclouds.vcloud.director.v1_5.loaders.ResolveEntity;
 import org.jclouds.vcloud.director.v1_5.login.SessionApi;
 import org.jclouds.vcloud.director.v1_5.login.SessionAsyncApi;
+import org.jclouds.vcloud.director.v1_5.login.SessionManager;
 import org.jclouds.vcloud.director.v1_5.user.VCloudDirectorApi;
 import org.jclouds.vcloud.director.v1_5.user.VCloudDirectorAsyncApi;
 
 import com.google.common.base.Function;
+import com.google.common.base.Optional;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.cache.CacheBuilder;
@@ -207,28 +209,17 @@ public class VCloudDirectorRestClientModule extends RestClientModule<VCloudDirec
 
    @Provides
    @Singleton
-   LoadingCache<String, Entity> resolveEntityCache(ResolveEntity loader, @Named(PROPERTY_SESSION_INTERVAL) int seconds) {
-      return CacheBuilder.newBuilder().expireAfterWrite(seconds, TimeUnit.SECONDS).build(loader);
+   LoadingCache<String, Optional<Entity>> resolveEntityCache(ResolveEntity loader,
+         @Named(PROPERTY_SESSION_INTERVAL) int seconds,
+         @Named(PROPERTY_VCLOUD_DIRECTOR_ENTITY_CACHE_SIZE) long maximumSize,
+         @Named(PROPERTY_VCLOUD_DIRECTOR_ENTITY_CACHE_REFRESH) int refreshSeconds) {
+      return CacheBuilder.newBuilder().maximumSize(maximumSize).expireAfterWrite(seconds, TimeUnit.SECONDS)
+            .refreshAfterWrite(refreshSeconds, TimeUnit.SECONDS).recordStats().build(loader);
    }
 
    @Provides
    @Singleton
-   LoadingCache<Credentials, SessionWithToken> provideSessionWithTokenCache(LoginUserInOrgWithPassword loader,
-         @Named(PROPERTY_SESSION_INTERVAL) int seconds) {
-      return CacheBuilder.newBuilder().expireAfterWrite(seconds, TimeUnit.SECONDS).build(loader);
-   }
-   
-   // Temporary conversion of a cache to a supplier until there is a single-element cache
-   // http://code.google.com/p/guava-libraries/issues/detail?id=872
-   @Provides
-   @Singleton
-   protected Supplier<SessionWithToken> provideSessionWithTokenSupplier(
-         final LoadingCache<Credentials, SessionWithToken> cache, @Provider final Supplier<Credentials> creds) {
-      return new Supplier<SessionWithToken>() {
-         @Override
-         public SessionWithToken get() {
-            return cache.getUnchecked(creds.get());
-         }
-      };
+   protected Supplier<SessionWithToken> provideSessionWithTokenSupplier(SessionManager sessionManager) {
+      return sessionManager;
    }
 }
@@ -19,6 +19,7 @@ package org.jclouds.vcloud.director.v1_5.domain;
 import static com.google.common.base.Objects.equal;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.Map;
 import java.util.Set;
 
 import javax.xml.bind.annotation.XmlAttribute;
@@ -44,7 +45,9 @@ import org.jclouds.vcloud.director.v1_5.domain.section.VirtualHardwareSection;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Objects.ToStringHelper;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 /**
@@ -154,6 +157,8 @@ public abstract class AbstractVAppType extends ResourceEntity {
    private Set<SectionType> sections = Sets.newLinkedHashSet();
    @XmlAttribute
    private Boolean deployed;
+   /** The first section of each type and supertype, built the first time a section is looked up. */
+   private transient volatile Map<Class<?>, SectionType> sectionsByType;
 
    protected AbstractVAppType() {
       // for JAXB and Builders
@@ -201,6 +206,34 @@ public abstract class AbstractVAppType extends ResourceEntity {
       return sections != null ? ImmutableSet.copyOf(sections) : ImmutableSet.<SectionType>of();
    }
 
+   /**
+    * Finds a section without copying or scanning the sections each time; they are indexed by type
+    * on the first call.
+    * 
+    * @return the first section of the given type, or null if there is none
+    */
+   public <S extends SectionType> S getSection(Class<S> type) {
+      Map<Class<?>, SectionType> index = sectionsByType;
+      if (index == null)
+         sectionsByType = index = indexSections();
+      return type.cast(index.get(type));
+   }
+
+   private Map<Class<?>, SectionType> indexSections() {
+      if (sections == null)
+         return ImmutableMap.of();
+      Map<Class<?>, SectionType> index = Maps.newHashMap();
+      for (SectionType section : sections) {
+         Class<?> type = section.getClass();
+         while (type != null && SectionType.class.isAssignableFrom(type)) {
+            if (!index.containsKey(type))
+               index.put(type, section);
+            type = type.getSuperclass();
+         }
+      }
+      return index;
+   }
+
    /**
     * Gets the value of the deployed property.
     */
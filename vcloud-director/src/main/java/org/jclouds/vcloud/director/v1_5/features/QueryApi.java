@@ -16,10 +16,15 @@
  */
 package org.jclouds.vcloud.director.v1_5.features;
 
+import java.net.URI;
+
+import org.jclouds.collect.PagedIterable;
 import org.jclouds.vcloud.director.v1_5.domain.query.CatalogReferences;
 import org.jclouds.vcloud.director.v1_5.domain.query.QueryList;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultRecordType;
 import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultRecords;
 import org.jclouds.vcloud.director.v1_5.domain.query.VAppReferences;
+import org.jclouds.vcloud.director.v1_5.options.QueryOptions;
 
 /**
  * Provides synchronous access to the REST API query interface.
@@ -63,6 +68,35 @@ public interface QueryApi {
    /** @see #queryAll() */
    QueryResultRecords query(Integer page, Integer pageSize, String format, String type, String filter);
 
+   /**
+    * Retrieves one page of records by using REST API general QueryHandler.
+    *
+    * <pre>
+    * GET /query?type={type}&format=records
+    * </pre>
+    *
+    * @see QueryOptions
+    */
+   QueryResultRecords query(String type, QueryOptions options);
+
+   /**
+    * Retrieves the page of records a {@code nextPage}, {@code previousPage}, {@code firstPage} or
+    * {@code lastPage} link of another page points to.
+    *
+    * @return null if the page is not found
+    */
+   QueryResultRecords queryPage(URI pageHref);
+
+   /**
+    * Retrieves the records of every page of a query. Only the first page is fetched by this call;
+    * the others are fetched by following {@code nextPage} links as iteration reaches them, so at
+    * most one page is held at a time unless the caller keeps the records.
+    *
+    * @see #query(String, QueryOptions)
+    * @see org.jclouds.vcloud.director.v1_5.util.QueryPages to fetch pages ahead of iteration
+    */
+   PagedIterable<QueryResultRecordType> queryInPages(String type, QueryOptions options);
+
    /**
     * Retrieves a list of {@link Catalog}s by using REST API general QueryHandler.
     *
@@ -112,6 +146,9 @@ public interface QueryApi {
    /** @see #queryAll() */
    QueryResultRecords vAppTemplatesQuery(String filter);
 
+   /** @see #queryAll() */
+   QueryResultRecords vAppTemplatesQuery(Integer page, Integer pageSize, String filter);
+
    /**
     * Retrieves a list of {@link VApp}s by using REST API general QueryHandler.
     *
@@ -161,6 +198,9 @@ public interface QueryApi {
    /** @see #queryAll() */
    QueryResultRecords vmsQuery(String filter);
 
+   /** @see #queryAll() */
+   QueryResultRecords vmsQuery(Integer page, Integer pageSize, String filter);
+
    /**
     * Retrieves a list of {@link Media}s by using REST API general QueryHandler.
     *
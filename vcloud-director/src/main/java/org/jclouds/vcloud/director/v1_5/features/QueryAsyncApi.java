@@ -16,19 +16,30 @@
  */
 package org.jclouds.vcloud.director.v1_5.features;
 
+import java.net.URI;
+
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.QueryParam;
 
+import org.jclouds.Fallbacks.EmptyPagedIterableOnNotFoundOr404;
+import org.jclouds.Fallbacks.NullOnNotFoundOr404;
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.rest.annotations.EndpointParam;
+import org.jclouds.rest.annotations.Fallback;
 import org.jclouds.rest.annotations.JAXBResponseParser;
 import org.jclouds.rest.annotations.QueryParams;
 import org.jclouds.rest.annotations.RequestFilters;
+import org.jclouds.rest.annotations.Transform;
 import org.jclouds.vcloud.director.v1_5.domain.query.CatalogReferences;
 import org.jclouds.vcloud.director.v1_5.domain.query.QueryList;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultRecordType;
 import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultRecords;
 import org.jclouds.vcloud.director.v1_5.domain.query.VAppReferences;
 import org.jclouds.vcloud.director.v1_5.filters.AddVCloudAuthorizationAndCookieToRequest;
+import org.jclouds.vcloud.director.v1_5.functions.QueryResultRecordsToPagedIterable;
+import org.jclouds.vcloud.director.v1_5.options.QueryOptions;
 
 import com.google.common.util.concurrent.ListenableFuture;
 
@@ -67,6 +78,29 @@ public interface QueryAsyncApi {
    ListenableFuture<QueryResultRecords> query(@QueryParam("page") Integer page, @QueryParam("pageSize") Integer pageSize,
          @QueryParam("format") String format, @QueryParam("type") String type, @QueryParam("filter") String filter);
 
+   @GET
+   @Path("/query")
+   @Consumes
+   @QueryParams(keys = { "format" }, values = { "records" })
+   @JAXBResponseParser
+   ListenableFuture<QueryResultRecords> query(@QueryParam("type") String type, QueryOptions options);
+
+   @GET
+   @Consumes
+   @JAXBResponseParser
+   @Fallback(NullOnNotFoundOr404.class)
+   ListenableFuture<QueryResultRecords> queryPage(@EndpointParam URI pageHref);
+
+   @GET
+   @Path("/query")
+   @Consumes
+   @QueryParams(keys = { "format" }, values = { "records" })
+   @JAXBResponseParser
+   @Transform(QueryResultRecordsToPagedIterable.class)
+   @Fallback(EmptyPagedIterableOnNotFoundOr404.class)
+   ListenableFuture<PagedIterable<QueryResultRecordType>> queryInPages(@QueryParam("type") String type,
+         QueryOptions options);
+
    /**
     * Retrieves a list of {@link Catalog}s by using REST API general QueryHandler.
     */
@@ -123,6 +157,13 @@ public interface QueryAsyncApi {
    @JAXBResponseParser
    ListenableFuture<QueryResultRecords> vAppTemplatesQuery(@QueryParam("filter") String filter);
 
+   @GET
+   @Path("/vAppTemplates/query")
+   @Consumes
+   @JAXBResponseParser
+   ListenableFuture<QueryResultRecords> vAppTemplatesQuery(@QueryParam("page") Integer page, @QueryParam("pageSize") Integer pageSize,
+         @QueryParam("filter") String filter);
+
    /**
     * Retrieves a list of {@link VApp}s by using REST API general QueryHandler.
     */
@@ -178,6 +219,13 @@ public interface QueryAsyncApi {
    @Consumes
    @JAXBResponseParser
    ListenableFuture<QueryResultRecords> vmsQuery(@QueryParam("filter") String filter);
+
+   @GET
+   @Path("/vms/query")
+   @Consumes
+   @JAXBResponseParser
+   ListenableFuture<QueryResultRecords> vmsQuery(@QueryParam("page") Integer page, @QueryParam("pageSize") Integer pageSize,
+         @QueryParam("filter") String filter);
    
    @GET
    @Path("/mediaList/query")
@@ -18,6 +18,7 @@ package org.jclouds.vcloud.director.v1_5.features;
 
 import java.net.URI;
 import org.jclouds.io.Payload;
+import org.jclouds.vcloud.director.v1_5.domain.File;
 
 /**
  * Provides synchronous access to upload.
@@ -31,5 +32,15 @@ public interface UploadApi {
     * @return eTag
     */
    void upload(URI location, Payload payload);
-   
+
+   /**
+    * Uploads part of a file to the transfer site, so that a large file can be sent in several
+    * requests, and an interrupted upload continued from the {@link File#getBytesTransferred() bytes
+    * already transferred}.
+    * 
+    * @param contentRange
+    *           the bytes of the file the payload holds, such as {@code bytes 0-1048575/4194304}
+    */
+   void uploadRange(URI location, String contentRange, Payload payload);
+
 }
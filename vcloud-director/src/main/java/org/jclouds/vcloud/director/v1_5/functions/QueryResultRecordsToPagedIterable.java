@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Iterables.tryFind;
+import static org.jclouds.collect.PagedIterables.advance;
+
+import java.net.URI;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.collect.IterableWithMarker;
+import org.jclouds.collect.IterableWithMarkers;
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.vcloud.director.v1_5.domain.Link;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultRecordType;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultRecords;
+import org.jclouds.vcloud.director.v1_5.predicates.LinkPredicates;
+import org.jclouds.vcloud.director.v1_5.user.VCloudDirectorApi;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Turns the first page of a query into the records of every page, fetching each following page
+ * through its {@code nextPage} link only when iteration reaches it. The link carries the type,
+ * filter, fields and sort order of the original query, so nothing needs to be rebuilt from the
+ * arguments of the call.
+ */
+@Singleton
+public class QueryResultRecordsToPagedIterable implements
+      Function<QueryResultRecords, PagedIterable<QueryResultRecordType>> {
+
+   private final VCloudDirectorApi api;
+
+   @Inject
+   public QueryResultRecordsToPagedIterable(VCloudDirectorApi api) {
+      this.api = checkNotNull(api, "api");
+   }
+
+   @Override
+   public PagedIterable<QueryResultRecordType> apply(QueryResultRecords firstPage) {
+      return advance(toIterableWithMarker(firstPage), new NextPage());
+   }
+
+   private class NextPage implements Function<Object, IterableWithMarker<QueryResultRecordType>> {
+
+      @Override
+      public IterableWithMarker<QueryResultRecordType> apply(Object nextPage) {
+         return toIterableWithMarker(api.getQueryApi().queryPage(URI.class.cast(nextPage)));
+      }
+
+      @Override
+      public String toString() {
+         return "queryPage()";
+      }
+   }
+
+   /**
+    * @return the records of the page, marked with the href of the next page if there is one
+    */
+   public static IterableWithMarker<QueryResultRecordType> toIterableWithMarker(QueryResultRecords page) {
+      if (page == null)
+         return IterableWithMarkers.from(ImmutableSet.<QueryResultRecordType> of());
+      Optional<Link> next = tryFind(page.getLinks(), LinkPredicates.relEquals(Link.Rel.NEXT_PAGE));
+      if (!next.isPresent() || page.getRecords().isEmpty())
+         return IterableWithMarkers.from(page.getRecords());
+      return IterableWithMarkers.from(page.getRecords(), next.get().getHref());
+   }
+}
@@ -41,22 +41,34 @@ import com.google.common.collect.Iterables;
  */
 @Singleton
 public final class URNToAdminHref implements Function<Object, URI> {
-   private final LoadingCache<String, Entity> resolveEntityCache;
+   private final LoadingCache<String, Optional<Entity>> resolveEntityCache;
 
    @Inject
-   public URNToAdminHref(LoadingCache<String, Entity> resolveEntityCache) {
+   public URNToAdminHref(LoadingCache<String, Optional<Entity>> resolveEntityCache) {
       this.resolveEntityCache = checkNotNull(resolveEntityCache, "resolveEntityCache");
    }
 
    @Override
    public URI apply(@Nullable Object from) {
       checkArgument(checkNotNull(from, "urn") instanceof String, "urn is a String argument");
-      Entity entity = resolveEntityCache.getUnchecked(from.toString());
+      Entity entity = resolve(from.toString());
       Optional<Link> link = Iterables.tryFind(entity.getLinks(), typeContainsAdmin);
+      if (!link.isPresent() && entity.getHref() == null) {
+         // warmed from a query record, which only links to the user view of the entity
+         resolveEntityCache.invalidate(from.toString());
+         entity = resolve(from.toString());
+         link = Iterables.tryFind(entity.getLinks(), typeContainsAdmin);
+      }
       checkArgument(link.isPresent(), "no admin link found for entity %s", entity);
       return link.get().getHref();
    }
 
+   private Entity resolve(String urn) {
+      Optional<Entity> entity = resolveEntityCache.getUnchecked(urn);
+      checkArgument(entity.isPresent(), "no entity found for urn %s", urn);
+      return entity.get();
+   }
+
    private static final Predicate<Link> typeContainsAdmin = new Predicate<Link>() {
       @Override
       public boolean apply(Link in) {
@@ -29,6 +29,7 @@ import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.vcloud.director.v1_5.domain.Entity;
 
 import com.google.common.base.Function;
+import com.google.common.base.Optional;
 import com.google.common.cache.LoadingCache;
 
 /**
@@ -38,17 +39,19 @@ import com.google.common.cache.LoadingCache;
  */
 @Singleton
 public final class URNToHref implements Function<Object, URI> {
-   private final LoadingCache<String, Entity> resolveEntityCache;
+   private final LoadingCache<String, Optional<Entity>> resolveEntityCache;
 
    @Inject
-   public URNToHref(LoadingCache<String, Entity> resolveEntityCache) {
+   public URNToHref(LoadingCache<String, Optional<Entity>> resolveEntityCache) {
       this.resolveEntityCache = checkNotNull(resolveEntityCache, "resolveEntityCache");
    }
 
    @Override
    public URI apply(@Nullable Object from) {
       checkArgument(checkNotNull(from, "urn") instanceof String, "urn is a String argument");
-      Entity entity = resolveEntityCache.getUnchecked(from.toString());
+      Optional<Entity> resolved = resolveEntityCache.getUnchecked(from.toString());
+      checkArgument(resolved.isPresent(), "no entity found for urn %s", from);
+      Entity entity = resolved.get();
       checkArgument(entity.getLinks().size() > 0, "no links found for entity %s", entity);
       return get(entity.getLinks(), 0).getHref();
    }
@@ -22,15 +22,12 @@ import static org.jclouds.http.HttpUtils.releasePayload;
 import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 
-import org.jclouds.domain.Credentials;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
 import org.jclouds.logging.Logger;
-import org.jclouds.vcloud.director.v1_5.domain.SessionWithToken;
-import org.jclouds.vcloud.director.v1_5.login.SessionApi;
+import org.jclouds.vcloud.director.v1_5.login.SessionManager;
 
-import com.google.common.cache.LoadingCache;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
@@ -39,23 +36,24 @@ import com.google.inject.Singleton;
  * expired, the server returns HTTP response code 401. The token expires after a configurable
  * interval of api inactivity. The default is 30 minutes after the token is created. After the
  * token expires, you must log in again to obtain a new token.
+ * <p/>
+ * Only a 401 for the token currently in use renews the session; requests that were sent with an
+ * older token are simply retried with the current one.
  * 
  * @author Adrian Cole
  * 
+ * @see SessionManager
  */
 @Singleton
 public class InvalidateSessionAndRetryOn401AndLogoutOnClose extends BackoffLimitedRetryHandler {
    @Resource
    protected Logger logger = Logger.NULL;
 
-   private final LoadingCache<Credentials, SessionWithToken> authenticationResponseCache;
-   private final SessionApi sessionApi;
+   private final SessionManager sessionManager;
 
    @Inject
-   protected InvalidateSessionAndRetryOn401AndLogoutOnClose(
-            LoadingCache<Credentials, SessionWithToken> authenticationResponseCache, SessionApi sessionApi) {
-      this.authenticationResponseCache = authenticationResponseCache;
-      this.sessionApi = sessionApi;
+   protected InvalidateSessionAndRetryOn401AndLogoutOnClose(SessionManager sessionManager) {
+      this.sessionManager = sessionManager;
    }
 
    @Override
@@ -64,8 +62,7 @@ public class InvalidateSessionAndRetryOn401AndLogoutOnClose extends BackoffLimit
       try {
          if (response.getStatusCode() == 401) {
             closeClientButKeepContentStream(response);
-            logger.debug("invalidating session");
-            authenticationResponseCache.invalidateAll();
+            sessionManager.invalidate(command.getCurrentRequest().getFirstHeaderOrNull("x-vcloud-authorization"));
             retry = super.shouldRetryRequest(command, response);
          }
          return retry;
@@ -79,12 +76,6 @@ public class InvalidateSessionAndRetryOn401AndLogoutOnClose extends BackoffLimit
     */
    @PreDestroy
    public void logoutOnClose() {
-      for (SessionWithToken s : authenticationResponseCache.asMap().values()) {
-         try {
-            sessionApi.logoutSessionWithToken(s.getSession().getHref(), s.getToken());
-         } catch (Exception e) {
-            logger.error(e, "error logging out session %s", s.getSession());
-         }
-      }
+      sessionManager.logout();
    }
 }
@@ -17,27 +17,56 @@
 package org.jclouds.vcloud.director.v1_5.loaders;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import java.util.concurrent.Callable;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.jclouds.vcloud.director.v1_5.domain.Entity;
 import org.jclouds.vcloud.director.v1_5.user.VCloudDirectorApi;
 
+import com.google.common.base.Optional;
 import com.google.common.cache.CacheLoader;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
+/**
+ * Resolves a URN with the entity resolver. A URN the resolver does not know is loaded as
+ * {@link Optional#absent()}, so that it is cached like the others instead of being resolved again on
+ * every use. Refreshes run on the user executor, while callers keep reading the previous value.
+ */
 @Singleton
-public class ResolveEntity extends CacheLoader<String, Entity> {
+public class ResolveEntity extends CacheLoader<String, Optional<Entity>> {
    private final VCloudDirectorApi api;
+   private final ListeningExecutorService userExecutor;
 
    @Inject
-   public ResolveEntity(VCloudDirectorApi api) {
+   public ResolveEntity(VCloudDirectorApi api, @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
       this.api = checkNotNull(api, "api");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+   }
+
+   @Override
+   public Optional<Entity> load(String input) {
+      return Optional.fromNullable(api.resolveEntity(checkNotNull(input, "urn")));
    }
 
    @Override
-   public Entity load(String input) {
-      return api.resolveEntity(checkNotNull(input, "urn"));
+   public ListenableFuture<Optional<Entity>> reload(final String input, Optional<Entity> oldValue) {
+      return userExecutor.submit(new Callable<Optional<Entity>>() {
+         @Override
+         public Optional<Entity> call() {
+            return load(input);
+         }
+
+         @Override
+         public String toString() {
+            return "resolveEntity(" + input + ")";
+         }
+      });
    }
 
    @Override
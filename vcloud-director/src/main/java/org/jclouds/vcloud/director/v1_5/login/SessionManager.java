@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.login;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_SESSION_RENEW_AHEAD;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.domain.Credentials;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.location.Provider;
+import org.jclouds.logging.Logger;
+import org.jclouds.vcloud.director.v1_5.domain.SessionWithToken;
+import org.jclouds.vcloud.director.v1_5.loaders.LoginUserInOrgWithPassword;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Supplier;
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Holds the one session used by every request, and renews it single-flight: however many threads
+ * find the session expired, or get a 401 with it, only one of them logs in again.
+ * <p/>
+ * vCloud Director expires a token after
+ * {@link org.jclouds.Constants#PROPERTY_SESSION_INTERVAL} of inactivity. Once a session is within
+ * {@link org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants#PROPERTY_VCLOUD_DIRECTOR_SESSION_RENEW_AHEAD}
+ * of that, the next use starts a login on the user executor and carries on with the current token,
+ * so requests do not stall at the expiry boundary. An idle session is left to expire.
+ * <p/>
+ * Sessions that are replaced are not logged out, as requests that started with them may still be
+ * running; the server expires them.
+ */
+@Singleton
+public class SessionManager implements Supplier<SessionWithToken> {
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final LoginUserInOrgWithPassword login;
+   private final Supplier<Credentials> credentials;
+   private final SessionApi sessionApi;
+   private final ListeningExecutorService userExecutor;
+   private final long intervalNanos;
+   private final long renewAheadNanos;
+   private final Ticker ticker;
+
+   private final Object renewLock = new Object();
+   private final AtomicBoolean renewingAhead = new AtomicBoolean();
+   private volatile Generation current;
+
+   @Inject
+   SessionManager(LoginUserInOrgWithPassword login, @Provider Supplier<Credentials> credentials,
+         SessionApi sessionApi, @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(PROPERTY_SESSION_INTERVAL) int intervalSeconds,
+         @Named(PROPERTY_VCLOUD_DIRECTOR_SESSION_RENEW_AHEAD) int renewAheadSeconds) {
+      this(login, credentials, sessionApi, userExecutor, intervalSeconds, renewAheadSeconds, Ticker.systemTicker());
+   }
+
+   SessionManager(LoginUserInOrgWithPassword login, Supplier<Credentials> credentials, SessionApi sessionApi,
+         ListeningExecutorService userExecutor, int intervalSeconds, int renewAheadSeconds, Ticker ticker) {
+      this.login = checkNotNull(login, "login");
+      this.credentials = checkNotNull(credentials, "credentials");
+      this.sessionApi = checkNotNull(sessionApi, "sessionApi");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      checkArgument(intervalSeconds > 0, "session interval must be positive");
+      checkArgument(renewAheadSeconds >= 0, "renew ahead must not be negative");
+      this.intervalNanos = TimeUnit.SECONDS.toNanos(intervalSeconds);
+      // never renew more often than every half interval, however large renew ahead is
+      this.renewAheadNanos = Math.min(TimeUnit.SECONDS.toNanos(renewAheadSeconds), intervalNanos / 2);
+      this.ticker = checkNotNull(ticker, "ticker");
+   }
+
+   /**
+    * @return the current session, logging in first if there is none, it has expired or the
+    *         credentials have changed
+    */
+   @Override
+   public SessionWithToken get() {
+      Generation seen = current;
+      long now = ticker.read();
+      if (seen == null || now - seen.expiresAt >= 0 || !seen.credentials.equals(credentials.get()))
+         return renew(seen).session;
+      if (now - seen.renewAt >= 0 && renewingAhead.compareAndSet(false, true))
+         renewAhead(seen);
+      return seen.session;
+   }
+
+   /**
+    * Renews the session if a request was refused with the current token. A request refused with a
+    * token that has since been replaced will succeed once retried, so that does not log in again.
+    * 
+    * @param token
+    *           the token the refused request was sent with
+    */
+   public void invalidate(@Nullable String token) {
+      Generation seen = current;
+      if (seen != null && Objects.equal(seen.session.getToken(), token)) {
+         logger.debug("renewing session after token was refused");
+         renew(seen);
+      } else {
+         logger.debug("request was refused with a token that has already been replaced");
+      }
+   }
+
+   /**
+    * Logs out of the current session, if any.
+    */
+   public void logout() {
+      Generation seen;
+      synchronized (renewLock) {
+         seen = current;
+         current = null;
+      }
+      if (seen != null) {
+         try {
+            sessionApi.logoutSessionWithToken(seen.session.getSession().getHref(), seen.session.getToken());
+         } catch (Exception e) {
+            logger.error(e, "error logging out session %s", seen.session.getSession());
+         }
+      }
+   }
+
+   private Generation renew(@Nullable Generation seen) {
+      synchronized (renewLock) {
+         Generation latest = current;
+         // another thread has already replaced the generation this one saw
+         if (latest != seen && latest != null)
+            return latest;
+         Credentials creds = credentials.get();
+         long loginTime = ticker.read();
+         Generation next = new Generation(creds, login.load(creds), loginTime + intervalNanos - renewAheadNanos,
+               loginTime + intervalNanos);
+         current = next;
+         return next;
+      }
+   }
+
+   private void renewAhead(final Generation seen) {
+      try {
+         userExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+               try {
+                  renew(seen);
+               } catch (RuntimeException e) {
+                  logger.warn(e, "could not renew session ahead of expiry");
+               } finally {
+                  renewingAhead.set(false);
+               }
+            }
+
+            @Override
+            public String toString() {
+               return "renewSession()";
+            }
+         });
+      } catch (RuntimeException e) {
+         renewingAhead.set(false);
+         logger.warn(e, "could not schedule session renewal");
+      }
+   }
+
+   private static class Generation {
+      private final Credentials credentials;
+      private final SessionWithToken session;
+      private final long renewAt;
+      private final long expiresAt;
+
+      private Generation(Credentials credentials, SessionWithToken session, long renewAt, long expiresAt) {
+         this.credentials = checkNotNull(credentials, "credentials");
+         this.session = checkNotNull(session, "session");
+         this.renewAt = renewAt;
+         this.expiresAt = expiresAt;
+      }
+   }
+}
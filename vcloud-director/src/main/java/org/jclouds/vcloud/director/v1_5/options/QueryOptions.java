@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.options;
+
+import static com.google.common.base.Objects.equal;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+
+import org.jclouds.http.options.BaseHttpRequestOptions;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Objects;
+import com.google.common.base.Objects.ToStringHelper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multimap;
+
+/**
+ * Paging, filtering, sorting and projection of a query in the records format.
+ * @see org.jclouds.vcloud.director.v1_5.features.QueryApi#query(String, QueryOptions)
+ */
+public class QueryOptions extends BaseHttpRequestOptions {
+   private Integer page;
+   private Integer pageSize;
+   private String filter;
+   private List<String> fields = ImmutableList.of();
+   private String sortAsc;
+   private String sortDesc;
+
+   @Override
+   public boolean equals(Object object) {
+      if (this == object) {
+         return true;
+      }
+      if (object instanceof QueryOptions) {
+         final QueryOptions other = QueryOptions.class.cast(object);
+         return equal(page, other.page) && equal(pageSize, other.pageSize) && equal(filter, other.filter)
+               && equal(fields, other.fields) && equal(sortAsc, other.sortAsc) && equal(sortDesc, other.sortDesc);
+      } else {
+         return false;
+      }
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(page, pageSize, filter, fields, sortAsc, sortDesc);
+   }
+
+   @Override
+   public String toString() {
+      ToStringHelper toString = Objects.toStringHelper("").omitNullValues();
+      toString.add("page", page).add("pageSize", pageSize).add("filter", filter);
+      if (fields.size() > 0)
+         toString.add("fields", fields);
+      return toString.add("sortAsc", sortAsc).add("sortDesc", sortDesc).toString();
+   }
+
+   @Override
+   public Multimap<String, String> buildQueryParameters() {
+      Multimap<String, String> params = super.buildQueryParameters();
+      if (page != null)
+         params.put("page", page.toString());
+      if (pageSize != null)
+         params.put("pageSize", pageSize.toString());
+      if (filter != null)
+         params.put("filter", filter);
+      if (fields.size() > 0)
+         params.put("fields", Joiner.on(',').join(fields));
+      if (sortAsc != null)
+         params.put("sortAsc", sortAsc);
+      if (sortDesc != null)
+         params.put("sortDesc", sortDesc);
+      return params;
+   }
+
+   /**
+    * the page to return, counting from {@code 1}
+    */
+   public QueryOptions page(int page) {
+      checkArgument(page > 0, "page must be positive");
+      this.page = page;
+      return this;
+   }
+
+   /**
+    * the number of records in each page; the server caps this, at {@code 128} by default
+    */
+   public QueryOptions pageSize(int pageSize) {
+      checkArgument(pageSize > 0, "pageSize must be positive");
+      this.pageSize = pageSize;
+      return this;
+   }
+
+   /**
+    * only return records matching this filter, such as {@code isVAppTemplate==false;status==POWERED_ON}
+    */
+   public QueryOptions filter(String filter) {
+      this.filter = checkNotNull(filter, "filter");
+      return this;
+   }
+
+   /**
+    * only fill in these attributes of each record, leaving the others {@code null}. Requesting only
+    * what will be read keeps large result sets small on the wire and in memory.
+    */
+   public QueryOptions fields(String... fields) {
+      checkArgument(checkNotNull(fields, "fields").length > 0, "specify at least one field");
+      this.fields = ImmutableList.copyOf(fields);
+      return this;
+   }
+
+   /**
+    * sort the records by this attribute, ascending
+    */
+   public QueryOptions sortAsc(String attribute) {
+      this.sortAsc = checkNotNull(attribute, "attribute");
+      return this;
+   }
+
+   /**
+    * sort the records by this attribute, descending
+    */
+   public QueryOptions sortDesc(String attribute) {
+      this.sortDesc = checkNotNull(attribute, "attribute");
+      return this;
+   }
+
+   public Integer getPage() {
+      return page;
+   }
+
+   public Integer getPageSize() {
+      return pageSize;
+   }
+
+   public String getFilter() {
+      return filter;
+   }
+
+   public List<String> getFields() {
+      return fields;
+   }
+
+   public String getSortAsc() {
+      return sortAsc;
+   }
+
+   public String getSortDesc() {
+      return sortDesc;
+   }
+
+   /**
+    * @return a copy of these options that asks for the given page
+    */
+   public QueryOptions forPage(int page) {
+      QueryOptions copy = new QueryOptions();
+      copy.pageSize = pageSize;
+      copy.filter = filter;
+      copy.fields = fields;
+      copy.sortAsc = sortAsc;
+      copy.sortDesc = sortDesc;
+      return copy.page(page);
+   }
+
+   public static class Builder {
+
+      /**
+       * @see QueryOptions#page
+       */
+      public static QueryOptions page(int page) {
+         return new QueryOptions().page(page);
+      }
+
+      /**
+       * @see QueryOptions#pageSize
+       */
+      public static QueryOptions pageSize(int pageSize) {
+         return new QueryOptions().pageSize(pageSize);
+      }
+
+      /**
+       * @see QueryOptions#filter
+       */
+      public static QueryOptions filter(String filter) {
+         return new QueryOptions().filter(filter);
+      }
+
+      /**
+       * @see QueryOptions#fields
+       */
+      public static QueryOptions fields(String... fields) {
+         return new QueryOptions().fields(fields);
+      }
+
+      /**
+       * @see QueryOptions#sortAsc
+       */
+      public static QueryOptions sortAsc(String attribute) {
+         return new QueryOptions().sortAsc(attribute);
+      }
+
+      /**
+       * @see QueryOptions#sortDesc
+       */
+      public static QueryOptions sortDesc(String attribute) {
+         return new QueryOptions().sortDesc(attribute);
+      }
+   }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.vcloud.director.v1_5.VCloudDirectorMediaType;
+import org.jclouds.vcloud.director.v1_5.domain.Entity;
+import org.jclouds.vcloud.director.v1_5.domain.Link;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultRecordType;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * Fills and reports on the cache the {@link org.jclouds.vcloud.director.v1_5.functions.URNToHref} and
+ * {@link org.jclouds.vcloud.director.v1_5.functions.URNToAdminHref} functions resolve URNs with.
+ * <p/>
+ * Query records already carry the href of their entity, and its URN either as their id or in the
+ * last segment of the href, so warming the cache with the records of a query spares one call to the
+ * entity resolver per entity. Entities already resolved are kept, as they also link to the admin
+ * view; URNs found unknown are replaced.
+ * 
+ * <pre>
+ * EntityCache entities = context.utils().injector().getInstance(EntityCache.class);
+ * entities.warm(queryPages.records(&quot;vApp&quot;, filter(&quot;isDeployed==true&quot;)));
+ * logger.debug(&quot;entity cache: %s&quot;, entities.stats());
+ * </pre>
+ */
+@Singleton
+public class EntityCache {
+
+   private static final String UUID = "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}";
+
+   /** the type segment of the href, then the uuid, optionally prefixed with a more specific type */
+   private static final Pattern HREF_URN = Pattern.compile(".*/([a-zA-Z]+)/(?:([a-zA-Z]+)-)?(" + UUID + ")");
+
+   private final LoadingCache<String, Optional<Entity>> resolveEntityCache;
+
+   @Inject
+   EntityCache(LoadingCache<String, Optional<Entity>> resolveEntityCache) {
+      this.resolveEntityCache = checkNotNull(resolveEntityCache, "resolveEntityCache");
+   }
+
+   /**
+    * @return the number of URNs added to the cache; records whose URN can't be told are skipped
+    */
+   public int warm(Iterable<? extends QueryResultRecordType> records) {
+      ConcurrentMap<String, Optional<Entity>> entities = resolveEntityCache.asMap();
+      int added = 0;
+      for (QueryResultRecordType record : checkNotNull(records, "records")) {
+         String urn = urn(record);
+         if (urn == null)
+            continue;
+         Optional<Entity> entity = Optional.of(Entity.builder().id(urn).name(urn)
+               .type(VCloudDirectorMediaType.ENTITY)
+               .link(Link.builder().rel(Link.Rel.ALTERNATE).type(record.getType()).href(record.getHref()).build())
+               .build());
+         Optional<Entity> previous = entities.putIfAbsent(urn, entity);
+         if (previous == null || !previous.isPresent() && entities.replace(urn, previous, entity))
+            added++;
+      }
+      return added;
+   }
+
+   /**
+    * @return hits, misses and load times of the cache, including the resolutions of unknown URNs
+    */
+   public CacheStats stats() {
+      return resolveEntityCache.stats();
+   }
+
+   @Nullable
+   static String urn(QueryResultRecordType record) {
+      if (record.getId() != null && record.getId().startsWith("urn:"))
+         return record.getId();
+      URI href = record.getHref();
+      if (href == null || href.getPath() == null)
+         return null;
+      Matcher matcher = HREF_URN.matcher(href.getPath());
+      if (!matcher.matches())
+         return null;
+      String type = matcher.group(2) != null ? matcher.group(2) : matcher.group(1);
+      return "urn:vcloud:" + type.toLowerCase() + ":" + matcher.group(3).toLowerCase();
+   }
+}
@@ -0,0 +1,261 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Throwables.propagate;
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static com.google.common.collect.Iterables.tryFind;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.util.Predicates2.retry;
+import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_TIMEOUT_TASK_COMPLETED;
+import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_UPLOAD_CHUNK_SIZE;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.logging.Logger;
+import org.jclouds.vcloud.director.v1_5.domain.File;
+import org.jclouds.vcloud.director.v1_5.domain.Link;
+import org.jclouds.vcloud.director.v1_5.domain.Media;
+import org.jclouds.vcloud.director.v1_5.domain.ResourceEntity;
+import org.jclouds.vcloud.director.v1_5.domain.VAppTemplate;
+import org.jclouds.vcloud.director.v1_5.domain.params.UploadVAppTemplateParams;
+import org.jclouds.vcloud.director.v1_5.predicates.LinkPredicates;
+import org.jclouds.vcloud.director.v1_5.user.VCloudDirectorApi;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.io.ByteSource;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Uploads the OVF descriptor and disks of a {@link VAppTemplate}, or the image of a {@link Media},
+ * to the transfer site.
+ * <p/>
+ * The files of an entity are uploaded concurrently on the user executor. Files larger than
+ * {@link org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants#PROPERTY_VCLOUD_DIRECTOR_UPLOAD_CHUNK_SIZE}
+ * are sent as a series of ranged PUTs, each read straight from its slice of the local file. Every
+ * file starts from the {@link File#getBytesTransferred() bytes transferred} that vCloud Director
+ * reports for it, so calling {@link #resumeVAppTemplate} or {@link #resumeMedia} after a failure
+ * only sends what is missing.
+ * 
+ * <pre>
+ * FileUploader uploader = context.utils().injector().getInstance(FileUploader.class);
+ * VAppTemplate template = uploader.uploadVAppTemplate(vdcHref, params, ovf,
+ *       ImmutableMap.of(&quot;disk1.vmdk&quot;, disk));
+ * taskTracker.track(getOnlyElement(template.getTasks())).get();
+ * </pre>
+ */
+@Singleton
+public class FileUploader {
+
+   /** The name vCloud Director gives the OVF descriptor of a vApp template being uploaded. */
+   public static final String OVF_DESCRIPTOR = "descriptor.ovf";
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final VCloudDirectorApi api;
+   private final ListeningExecutorService userExecutor;
+   private final long chunkSize;
+   private final long timeout;
+
+   @Inject
+   FileUploader(VCloudDirectorApi api, @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(PROPERTY_VCLOUD_DIRECTOR_UPLOAD_CHUNK_SIZE) long chunkSize,
+         @Named(PROPERTY_VCLOUD_DIRECTOR_TIMEOUT_TASK_COMPLETED) long timeout) {
+      this.api = checkNotNull(api, "api");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      checkArgument(chunkSize > 0, "chunkSize must be positive");
+      this.chunkSize = chunkSize;
+      this.timeout = timeout;
+   }
+
+   /**
+    * Creates a vApp template in a vDC, and uploads its descriptor and disks.
+    * 
+    * @param disks
+    *           the files the descriptor references, by the name it gives them
+    * @return the vApp template, whose task completes once vCloud Director has imported the upload
+    */
+   public VAppTemplate uploadVAppTemplate(URI vdcHref, UploadVAppTemplateParams params, java.io.File ovf,
+         Map<String, java.io.File> disks) {
+      VAppTemplate template = api.getVdcApi().uploadVAppTemplate(vdcHref, params);
+      return resumeVAppTemplate(template.getHref(), ovf, disks);
+   }
+
+   /**
+    * Uploads whatever part of the descriptor and disks of a vApp template has not reached the
+    * transfer site yet.
+    * 
+    * @see #uploadVAppTemplate
+    */
+   public VAppTemplate resumeVAppTemplate(URI templateHref, java.io.File ovf, Map<String, java.io.File> disks) {
+      VAppTemplate template = api.getVAppTemplateApi().get(templateHref);
+      checkState(template != null, "vApp template %s not found", templateHref);
+      await(upload(filesOf(template), ImmutableMap.of(OVF_DESCRIPTOR, ovf)));
+
+      // the disks are only listed once vCloud Director has read the descriptor
+      final Set<String> names = disks.keySet();
+      checkState(retry(new Predicate<URI>() {
+         @Override
+         public boolean apply(URI input) {
+            Set<String> listed = Sets.newHashSet();
+            for (File file : filesOf(api.getVAppTemplateApi().get(input)))
+               listed.add(file.getName());
+            return listed.containsAll(names);
+         }
+      }, timeout, 1, TimeUnit.SECONDS).apply(templateHref), "vApp template %s did not list files %s within %sms",
+            templateHref, names, timeout);
+      await(upload(filesOf(api.getVAppTemplateApi().get(templateHref)), disks));
+      return api.getVAppTemplateApi().get(templateHref);
+   }
+
+   /**
+    * Creates a media in a vDC, and uploads its image.
+    * 
+    * @return the media, whose task completes once vCloud Director has imported the upload
+    */
+   public Media addMedia(URI vdcHref, Media media, java.io.File image) {
+      Media added = api.getVdcApi().addMedia(vdcHref, media);
+      return resumeMedia(added.getHref(), image);
+   }
+
+   /**
+    * Uploads whatever part of the image of a media has not reached the transfer site yet.
+    * 
+    * @see #addMedia
+    */
+   public Media resumeMedia(URI mediaHref, java.io.File image) {
+      Media media = api.getMediaApi().get(mediaHref);
+      checkState(media != null, "media %s not found", mediaHref);
+      File file = getOnlyElement(filesOf(media));
+      await(upload(ImmutableSet.of(file), ImmutableMap.of(file.getName(), image)));
+      return api.getMediaApi().get(mediaHref);
+   }
+
+   /**
+    * Uploads each local file to the file of an entity with the same name, concurrently. Files with
+    * no local counterpart are skipped.
+    */
+   public ListenableFuture<List<Void>> upload(Iterable<File> files, Map<String, java.io.File> sources) {
+      List<ListenableFuture<Void>> uploads = Lists.newArrayList();
+      for (final File file : files) {
+         final java.io.File source = sources.get(file.getName());
+         if (source == null)
+            continue;
+         uploads.add(userExecutor.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+               upload(file, source);
+               return null;
+            }
+
+            @Override
+            public String toString() {
+               return "upload(" + file.getName() + ", " + source + ")";
+            }
+         }));
+      }
+      return Futures.allAsList(uploads);
+   }
+
+   private void upload(File file, java.io.File source) {
+      long length = source.length();
+      long offset = resumeOffset(file, length);
+      if (offset >= length) {
+         logger.debug("%s: already uploaded", file.getName());
+         return;
+      }
+      Optional<Link> uploadLink = tryFind(file.getLinks(), LinkPredicates.relEquals(Link.Rel.UPLOAD_DEFAULT));
+      checkState(uploadLink.isPresent(), "file %s has no upload link", file.getName());
+      URI href = uploadLink.get().getHref();
+      ByteSource bytes = Files.asByteSource(source);
+      if (offset == 0 && length <= chunkSize) {
+         logger.debug(">> uploading %s (%s bytes)", file.getName(), length);
+         api.getUploadApi().upload(href, payload(bytes, 0, length));
+         logger.debug("<< uploaded %s", file.getName());
+         return;
+      }
+      logger.debug(">> uploading %s (%s bytes) from byte %s", file.getName(), length, offset);
+      while (offset < length) {
+         long count = Math.min(chunkSize, length - offset);
+         api.getUploadApi().uploadRange(href, contentRange(offset, count, length), payload(bytes, offset, count));
+         offset += count;
+         logger.trace("%s: uploaded %s of %s bytes", file.getName(), offset, length);
+      }
+      logger.debug("<< uploaded %s", file.getName());
+   }
+
+   /**
+    * @return the byte to continue uploading from; zero unless vCloud Director has part of a file of
+    *         this length. The size of a file it knows nothing of yet, such as a descriptor, is -1.
+    */
+   static long resumeOffset(File file, long length) {
+      if (file.getSize() == null || file.getSize() != length || file.getBytesTransferred() == null)
+         return 0;
+      return Math.max(0, Math.min(file.getBytesTransferred(), length));
+   }
+
+   static String contentRange(long offset, long count, long length) {
+      return String.format("bytes %d-%d/%d", offset, offset + count - 1, length);
+   }
+
+   private static Payload payload(ByteSource bytes, long offset, long count) {
+      Payload payload = Payloads.newByteSourcePayload(bytes.slice(offset, count));
+      payload.getContentMetadata().setContentLength(count);
+      payload.getContentMetadata().setContentType("application/octet-stream");
+      return payload;
+   }
+
+   private static Set<File> filesOf(ResourceEntity entity) {
+      return entity == null || entity.getFiles() == null ? ImmutableSet.<File> of() : entity.getFiles();
+   }
+
+   private static void await(ListenableFuture<?> uploads) {
+      try {
+         uploads.get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw propagate(e);
+      } catch (ExecutionException e) {
+         throw propagate(e.getCause());
+      }
+   }
+}
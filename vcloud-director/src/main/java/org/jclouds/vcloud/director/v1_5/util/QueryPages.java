@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
+import static com.google.common.collect.Iterables.any;
+import static com.google.common.util.concurrent.Futures.getUnchecked;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_QUERY_PAGE_SIZE;
+import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_QUERY_PREFETCH;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.vcloud.director.v1_5.domain.Link;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultRecordType;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultRecords;
+import org.jclouds.vcloud.director.v1_5.options.QueryOptions;
+import org.jclouds.vcloud.director.v1_5.predicates.LinkPredicates;
+import org.jclouds.vcloud.director.v1_5.user.VCloudDirectorApi;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Iterates over every record of a query, fetching up to
+ * {@link org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants#PROPERTY_VCLOUD_DIRECTOR_QUERY_PREFETCH}
+ * pages ahead of the caller on the user executor.
+ * <p/>
+ * Once the first page gives the total, the following pages are requested by number, so they can be
+ * fetched concurrently rather than one {@code nextPage} link at a time as with
+ * {@link org.jclouds.vcloud.director.v1_5.features.QueryApi#queryInPages}. At most the current page
+ * and the prefetched ones are held, whatever the size of the result.
+ * 
+ * <pre>
+ * QueryPages pages = context.utils().injector().getInstance(QueryPages.class);
+ * for (QueryResultVMRecord vm : pages.records(&quot;vm&quot;, filter(&quot;isVAppTemplate==false&quot;), QueryResultVMRecord.class))
+ *    ...
+ * </pre>
+ */
+@Singleton
+public class QueryPages {
+
+   private final VCloudDirectorApi api;
+   private final ListeningExecutorService userExecutor;
+   private final int pageSize;
+   private final int prefetch;
+
+   @Inject
+   QueryPages(VCloudDirectorApi api, @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(PROPERTY_VCLOUD_DIRECTOR_QUERY_PAGE_SIZE) int pageSize,
+         @Named(PROPERTY_VCLOUD_DIRECTOR_QUERY_PREFETCH) int prefetch) {
+      this.api = checkNotNull(api, "api");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      checkArgument(pageSize > 0, "pageSize must be positive");
+      checkArgument(prefetch > 0, "prefetch must be positive");
+      this.pageSize = pageSize;
+      this.prefetch = prefetch;
+   }
+
+   /**
+    * @param type
+    *           the query type, such as {@code vm} or {@code vAppTemplate}
+    * @param options
+    *           filter, projection and sort order of the query; the page is ignored, and the page size
+    *           defaults to
+    *           {@link org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants#PROPERTY_VCLOUD_DIRECTOR_QUERY_PAGE_SIZE}
+    * @return the records of every page; each iteration runs the query again
+    */
+   public FluentIterable<QueryResultRecordType> records(final String type, QueryOptions options) {
+      checkNotNull(type, "type");
+      final QueryOptions firstPage = checkNotNull(options, "options").forPage(1);
+      if (firstPage.getPageSize() == null)
+         firstPage.pageSize(pageSize);
+      return new FluentIterable<QueryResultRecordType>() {
+         @Override
+         public Iterator<QueryResultRecordType> iterator() {
+            return Iterators.concat(new Pages(type, firstPage));
+         }
+      };
+   }
+
+   /**
+    * @see #records(String, QueryOptions)
+    */
+   public <T extends QueryResultRecordType> FluentIterable<T> records(String type, QueryOptions options,
+         Class<T> recordType) {
+      return records(type, options).filter(recordType);
+   }
+
+   private class Pages extends AbstractIterator<Iterator<QueryResultRecordType>> {
+      private final String type;
+      private final QueryOptions firstPage;
+      private final Queue<ListenableFuture<QueryResultRecords>> prefetched = Lists.newLinkedList();
+      private int lastPage;
+      private int requested;
+
+      private Pages(String type, QueryOptions firstPage) {
+         this.type = type;
+         this.firstPage = firstPage;
+      }
+
+      @Override
+      protected Iterator<QueryResultRecordType> computeNext() {
+         QueryResultRecords page;
+         if (requested == 0) {
+            page = api.getQueryApi().query(type, firstPage);
+            requested = lastPage = 1;
+            if (page != null && page.getTotal() != null && page.getPageSize() != null && page.getPageSize() > 0)
+               // the server may have capped the page size, so count pages with the one it used
+               lastPage = (int) ((page.getTotal() + page.getPageSize() - 1) / page.getPageSize());
+         } else {
+            ListenableFuture<QueryResultRecords> next = prefetched.poll();
+            if (next == null)
+               return endOfData();
+            try {
+               page = getUnchecked(next);
+            } catch (UncheckedExecutionException e) {
+               throw propagate(e.getCause());
+            }
+         }
+         if (page == null)
+            return endOfData();
+         if (page.getTotal() == null && page.getPage() != null && hasNextPage(page))
+            // without a total, only the nextPage link says whether there is more
+            lastPage = Math.max(lastPage, page.getPage() + 1);
+         prefetch();
+         return page.getRecords().iterator();
+      }
+
+      private void prefetch() {
+         while (requested < lastPage && prefetched.size() < prefetch) {
+            final QueryOptions options = firstPage.forPage(++requested);
+            prefetched.add(userExecutor.submit(new Callable<QueryResultRecords>() {
+               @Override
+               public QueryResultRecords call() {
+                  return api.getQueryApi().query(type, options);
+               }
+
+               @Override
+               public String toString() {
+                  return "query(" + type + ", " + options + ")";
+               }
+            }));
+         }
+      }
+   }
+
+   private static boolean hasNextPage(QueryResultRecords page) {
+      return any(page.getLinks(), LinkPredicates.relEquals(Link.Rel.NEXT_PAGE));
+   }
+}
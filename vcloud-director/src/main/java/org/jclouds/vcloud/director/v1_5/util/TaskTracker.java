@@ -0,0 +1,300 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Iterables.tryFind;
+import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_TASK_POLL_MAX_PERIOD;
+import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_TASK_POLL_PERIOD;
+import static org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_TIMEOUT_TASK_COMPLETED;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.logging.Logger;
+import org.jclouds.vcloud.director.v1_5.VCloudDirectorException;
+import org.jclouds.vcloud.director.v1_5.VCloudDirectorMediaType;
+import org.jclouds.vcloud.director.v1_5.domain.Link;
+import org.jclouds.vcloud.director.v1_5.domain.Task;
+import org.jclouds.vcloud.director.v1_5.domain.TasksList;
+import org.jclouds.vcloud.director.v1_5.domain.org.Org;
+import org.jclouds.vcloud.director.v1_5.predicates.LinkPredicates;
+import org.jclouds.vcloud.director.v1_5.user.VCloudDirectorApi;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Waits for tasks returned by the {@link org.jclouds.vcloud.director.v1_5.features.VAppApi},
+ * {@link org.jclouds.vcloud.director.v1_5.features.VmApi},
+ * {@link org.jclouds.vcloud.director.v1_5.features.VdcApi} and other apis to complete. All
+ * outstanding tasks are polled by one scheduled job rather than by a blocked thread each.
+ * <p/>
+ * When several outstanding tasks belong to the same org, they are refreshed together from the org's
+ * {@link TasksList}; the others are fetched one by one. Polls start every
+ * {@link org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants#PROPERTY_VCLOUD_DIRECTOR_TASK_POLL_PERIOD}
+ * and back off, up to
+ * {@link org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants#PROPERTY_VCLOUD_DIRECTOR_TASK_POLL_MAX_PERIOD},
+ * while none of the tasks makes progress.
+ * 
+ * <pre>
+ * TaskTracker tracker = context.utils().injector().getInstance(TaskTracker.class);
+ * Task task = tracker.track(api.getVAppApi().powerOn(vAppHref)).get();
+ * </pre>
+ */
+@Singleton
+public class TaskTracker {
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final VCloudDirectorApi api;
+   private final ScheduledExecutorService scheduler;
+   private final long timeout;
+   private final long period;
+   private final long maxPeriod;
+   private final ConcurrentMap<URI, Tracked> outstanding = Maps.newConcurrentMap();
+   private final ConcurrentMap<URI, Optional<URI>> tasksListByOrg = Maps.newConcurrentMap();
+   private ScheduledFuture<?> poller;
+   private long delay;
+   private long nextPoll;
+
+   @Inject
+   TaskTracker(VCloudDirectorApi api, @Named(Constants.PROPERTY_SCHEDULER_THREADS) ScheduledExecutorService scheduler,
+         @Named(PROPERTY_VCLOUD_DIRECTOR_TIMEOUT_TASK_COMPLETED) long timeout,
+         @Named(PROPERTY_VCLOUD_DIRECTOR_TASK_POLL_PERIOD) long period,
+         @Named(PROPERTY_VCLOUD_DIRECTOR_TASK_POLL_MAX_PERIOD) long maxPeriod) {
+      this.api = checkNotNull(api, "api");
+      this.scheduler = checkNotNull(scheduler, "scheduler");
+      checkArgument(period > 0, "period must be positive");
+      checkArgument(maxPeriod >= period, "max period must not be less than period");
+      this.timeout = timeout;
+      this.period = period;
+      this.maxPeriod = maxPeriod;
+   }
+
+   private static class Tracked {
+      private final SettableFuture<Task> future = SettableFuture.create();
+      private final long deadline;
+      private Task last;
+
+      private Tracked(Task task, long deadline) {
+         this.last = task;
+         this.deadline = deadline;
+      }
+
+      /**
+       * @return true if the task has moved on since it was last seen
+       */
+      private boolean update(Task task) {
+         boolean changed = task.getStatus() != last.getStatus()
+               || !Objects.equal(task.getProgress(), last.getProgress());
+         last = task;
+         return changed;
+      }
+   }
+
+   /**
+    * @return the task as it was when it succeeded; fails with a {@link VCloudDirectorException} if
+    *         the task fails, is canceled or aborted, or with a {@link TimeoutException} if it does not
+    *         complete within
+    *         {@link org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants#PROPERTY_VCLOUD_DIRECTOR_TIMEOUT_TASK_COMPLETED}
+    */
+   public ListenableFuture<Task> track(Task task) {
+      checkNotNull(task, "task");
+      checkNotNull(task.getHref(), "href of task %s", task);
+      Tracked tracked = new Tracked(task, System.currentTimeMillis() + timeout);
+      if (complete(tracked, task))
+         return tracked.future;
+      Tracked existing = outstanding.putIfAbsent(task.getHref(), tracked);
+      if (existing != null)
+         return existing.future;
+      startPolling();
+      return tracked.future;
+   }
+
+   private synchronized void startPolling() {
+      // a new task resets the back off, but waits for the poll already due
+      delay = period;
+      long now = System.currentTimeMillis();
+      if (poller == null) {
+         nextPoll = now + period;
+         poller = scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+               tick();
+            }
+
+            @Override
+            public String toString() {
+               return "pollTasks()";
+            }
+         }, period, period, TimeUnit.MILLISECONDS);
+      } else {
+         nextPoll = Math.min(nextPoll, now + period);
+      }
+   }
+
+   private void tick() {
+      synchronized (this) {
+         if (outstanding.isEmpty()) {
+            poller.cancel(false);
+            poller = null;
+            tasksListByOrg.clear();
+            return;
+         }
+         if (System.currentTimeMillis() < nextPoll)
+            return;
+      }
+      boolean changed = poll();
+      synchronized (this) {
+         delay = changed ? period : Math.min(delay * 2, maxPeriod);
+         nextPoll = System.currentTimeMillis() + delay;
+      }
+   }
+
+   /**
+    * Refreshes every outstanding task once, completing those that have finished or timed out.
+    * 
+    * @return true if any task has made progress
+    */
+   boolean poll() {
+      boolean changed = false;
+      Map<URI, Task> listed = refreshFromTasksLists();
+      for (Map.Entry<URI, Tracked> entry : outstanding.entrySet()) {
+         URI href = entry.getKey();
+         Tracked tracked = entry.getValue();
+         if (tracked.future.isDone()) {
+            // canceled by the caller
+            outstanding.remove(href, tracked);
+            continue;
+         }
+         if (System.currentTimeMillis() > tracked.deadline) {
+            tracked.future.setException(new TimeoutException(String.format("task %s did not complete within %sms",
+                  href, timeout)));
+            outstanding.remove(href, tracked);
+            continue;
+         }
+         try {
+            Task task = listed.get(href);
+            if (task == null)
+               task = api.getTaskApi().get(href);
+            if (task != null) {
+               changed |= tracked.update(task);
+               if (complete(tracked, task))
+                  outstanding.remove(href, tracked);
+            }
+         } catch (RuntimeException e) {
+            logger.warn(e, "error polling task %s", href);
+         }
+      }
+      return changed;
+   }
+
+   private Map<URI, Task> refreshFromTasksLists() {
+      SetMultimap<URI, URI> tasksByOrg = HashMultimap.create();
+      for (Map.Entry<URI, Tracked> entry : outstanding.entrySet()) {
+         Task task = entry.getValue().last;
+         if (!entry.getValue().future.isDone() && task.get() != null && task.get().getHref() != null)
+            tasksByOrg.put(task.get().getHref(), entry.getKey());
+      }
+      // forget the tasks lists of orgs without pending tasks
+      tasksListByOrg.keySet().retainAll(tasksByOrg.keySet());
+      Map<URI, Task> listed = Maps.newHashMap();
+      for (Map.Entry<URI, Collection<URI>> org : tasksByOrg.asMap().entrySet()) {
+         // a lone task is as cheap to get by itself
+         if (org.getValue().size() < 2)
+            continue;
+         try {
+            Optional<URI> tasksListHref = tasksListOf(org.getKey());
+            TasksList tasksList = tasksListHref.isPresent() ? api.getTaskApi().getTasksList(tasksListHref.get())
+                  : null;
+            if (tasksList == null)
+               continue;
+            for (Task task : tasksList)
+               if (org.getValue().contains(task.getHref()))
+                  listed.put(task.getHref(), task);
+         } catch (RuntimeException e) {
+            logger.warn(e, "error listing tasks of org %s", org.getKey());
+         }
+      }
+      return listed;
+   }
+
+   private Optional<URI> tasksListOf(URI orgHref) {
+      Optional<URI> tasksListHref = tasksListByOrg.get(orgHref);
+      if (tasksListHref == null) {
+         Org org = api.getOrgApi().get(orgHref);
+         Optional<Link> link = org == null ? Optional.<Link> absent() : tryFind(org.getLinks(),
+               LinkPredicates.typeEquals(VCloudDirectorMediaType.TASKS_LIST));
+         tasksListHref = link.isPresent() ? Optional.of(link.get().getHref()) : Optional.<URI> absent();
+         tasksListByOrg.put(orgHref, tasksListHref);
+      }
+      return tasksListHref;
+   }
+
+   /**
+    * @return true if the task has finished, in which case the future has been completed
+    */
+   private boolean complete(Tracked tracked, Task task) {
+      logger.trace("%s: looking for task status %s: currently: %s", task.getOperationName(), Task.Status.SUCCESS,
+            task.getStatus());
+      if (task.getStatus() == null)
+         return false;
+      switch (task.getStatus()) {
+         case SUCCESS:
+            tracked.future.set(task);
+            return true;
+         case ERROR:
+         case CANCELED:
+         case ABORTED:
+            tracked.future.setException(new VCloudDirectorException(task));
+            return true;
+         default:
+            return false;
+      }
+   }
+
+   @PreDestroy
+   public synchronized void close() {
+      if (poller != null)
+         poller.cancel(false);
+      poller = null;
+      for (Tracked tracked : outstanding.values())
+         tracked.future.cancel(false);
+      outstanding.clear();
+   }
+}
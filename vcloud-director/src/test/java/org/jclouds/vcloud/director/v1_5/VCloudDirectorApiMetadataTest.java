@@ -16,22 +16,17 @@
  */
 package org.jclouds.vcloud.director.v1_5;
 
-import org.jclouds.View;
-import org.jclouds.rest.internal.BaseRestApiMetadataTest;
+import org.jclouds.compute.internal.BaseComputeServiceApiMetadataTest;
 import org.testng.annotations.Test;
 
-import com.google.common.collect.ImmutableSet;
-import com.google.common.reflect.TypeToken;
-
 /**
  * 
  * @author Adrian Cole
  */
 @Test(groups = "unit", testName = "VCloudDirectorApiMetadataTest")
-//TODO: BaseComputeServiceApiMetadataTest
-public class VCloudDirectorApiMetadataTest extends BaseRestApiMetadataTest {
+public class VCloudDirectorApiMetadataTest extends BaseComputeServiceApiMetadataTest {
 
    public VCloudDirectorApiMetadataTest() {
-      super(new VCloudDirectorApiMetadata(), ImmutableSet.<TypeToken<? extends View>>of());
+      super(new VCloudDirectorApiMetadata());
    }
 }
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.compute.functions;
+
+import static org.jclouds.vcloud.director.v1_5.compute.functions.VmRecordToNodeMetadataTest.VDC;
+import static org.jclouds.vcloud.director.v1_5.compute.functions.VmRecordToNodeMetadataTest.ZONE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.net.URI;
+import java.util.Set;
+
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.OsFamily;
+import org.jclouds.domain.Location;
+import org.jclouds.vcloud.director.v1_5.domain.ResourceEntity.Status;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultVAppTemplateRecord;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+@Test(groups = "unit", testName = "VAppTemplateRecordToImageTest")
+public class VAppTemplateRecordToImageTest {
+
+   static final URI TEMPLATE = URI.create(VmRecordToHardwareTest.TEMPLATE);
+
+   private final VAppTemplateRecordToImage toImage = new VAppTemplateRecordToImage(
+         ImmutableMap.of(Status.RESOLVED, Image.Status.AVAILABLE, Status.FAILED_CREATION, Image.Status.ERROR),
+         new FindLocationForResource(Suppliers.<Set<? extends Location>> ofInstance(ImmutableSet.of(ZONE))));
+
+   private static QueryResultVAppTemplateRecord.Builder<?> template() {
+      return QueryResultVAppTemplateRecord.builder()
+            .href(TEMPLATE)
+            .name("Ubuntu 12.04 Server (64-bit)")
+            .vdc(VDC)
+            .isEnabled(true)
+            .status("RESOLVED");
+   }
+
+   public void testImageFromTemplateRecord() {
+      Image image = toImage.apply(template().build());
+
+      assertEquals(image.getId(), TEMPLATE.toASCIIString());
+      assertEquals(image.getUri(), TEMPLATE);
+      assertEquals(image.getName(), "Ubuntu 12.04 Server (64-bit)");
+      assertEquals(image.getDescription(), "Ubuntu 12.04 Server (64-bit)");
+      assertEquals(image.getLocation(), ZONE);
+      assertEquals(image.getOperatingSystem().getFamily(), OsFamily.UBUNTU);
+      assertEquals(image.getStatus(), Image.Status.AVAILABLE);
+      assertEquals(image.getBackendStatus(), "RESOLVED");
+   }
+
+   public void testTemplateOutsideAnyVdcHasNoLocation() {
+      Image image = toImage.apply(template().vdc(null).build());
+
+      assertNull(image.getLocation());
+   }
+
+   public void testTemplateInAnUnknownVdcHasNoLocation() {
+      Image image = toImage.apply(template().vdc("https://vcloudbeta.bluelock.com/api/vdc/unknown").build());
+
+      assertNull(image.getLocation());
+   }
+
+   public void testUnmappedStatusIsUnrecognized() {
+      Image failed = toImage.apply(template().status("FAILED_CREATION").build());
+      Image unknown = toImage.apply(template().status("NOT_A_STATUS").build());
+
+      assertEquals(failed.getStatus(), Image.Status.ERROR);
+      assertEquals(unknown.getStatus(), Image.Status.UNRECOGNIZED);
+      assertEquals(unknown.getBackendStatus(), "NOT_A_STATUS");
+   }
+}
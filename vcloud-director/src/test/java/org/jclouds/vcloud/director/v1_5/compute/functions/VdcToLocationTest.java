@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.compute.functions;
+
+import static org.jclouds.vcloud.director.v1_5.compute.functions.VmRecordToNodeMetadataTest.VDC;
+import static org.testng.Assert.assertEquals;
+
+import java.net.URI;
+import java.util.Set;
+
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationScope;
+import org.jclouds.vcloud.director.v1_5.domain.Reference;
+import org.jclouds.vcloud.director.v1_5.domain.Vdc;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSet;
+
+@Test(groups = "unit", testName = "VdcToLocationTest")
+public class VdcToLocationTest {
+
+   private final VdcToLocation toLocation = new VdcToLocation(ImmutableSet.of("US-CA"), "vcloud-director",
+         Suppliers.ofInstance(URI.create("https://vcloudbeta.bluelock.com/api")));
+
+   public void testVdcIsAZoneOfTheProvider() {
+      Location location = toLocation.apply(Vdc.builder().href(URI.create(VDC)).name("Cluster01-JClouds")
+            .description("JClouds vDC").build());
+
+      assertEquals(location.getScope(), LocationScope.ZONE);
+      assertEquals(location.getId(), VDC);
+      assertEquals(location.getDescription(), "JClouds vDC");
+      assertEquals(location.getParent().getScope(), LocationScope.PROVIDER);
+      assertEquals(location.getParent().getId(), "vcloud-director");
+      assertEquals(location.getParent().getDescription(), "https://vcloudbeta.bluelock.com/api");
+      assertEquals(location.getParent().getIso3166Codes(), ImmutableSet.of("US-CA"));
+   }
+
+   public void testVdcWithoutDescriptionIsDescribedByItsName() {
+      Location location = toLocation.apply(Vdc.builder().href(URI.create(VDC)).name("Cluster01-JClouds").build());
+
+      assertEquals(location.getDescription(), "Cluster01-JClouds");
+   }
+
+   public void testResourcesFindTheirVdcLocation() {
+      Location location = toLocation.apply(Vdc.builder().href(URI.create(VDC)).name("Cluster01-JClouds").build());
+      FindLocationForResource findLocation = new FindLocationForResource(
+            Suppliers.<Set<? extends Location>> ofInstance(ImmutableSet.of(location)));
+
+      assertEquals(findLocation.apply(Reference.builder().href(URI.create(VDC)).build()), location);
+   }
+}
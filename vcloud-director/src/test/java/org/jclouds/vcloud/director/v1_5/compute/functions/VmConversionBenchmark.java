@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.compute.functions;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.dmtf.ovf.SectionType;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.jclouds.util.Strings2;
+import org.jclouds.vcloud.director.v1_5.VCloudDirectorMediaType;
+import org.jclouds.vcloud.director.v1_5.domain.Reference;
+import org.jclouds.vcloud.director.v1_5.domain.Vm;
+import org.jclouds.vcloud.director.v1_5.domain.section.GuestCustomizationSection;
+import org.jclouds.vcloud.director.v1_5.domain.section.NetworkConnectionSection;
+import org.jclouds.vcloud.director.v1_5.domain.section.OperatingSystemSection;
+import org.jclouds.vcloud.director.v1_5.domain.section.VirtualHardwareSection;
+import org.jclouds.xml.internal.JAXBParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Compares the section and location lookups made to convert one {@link Vm} of the test resources
+ * into a node: looking up each section by scanning a copy of the sections, as opposed to through
+ * {@link Vm#getSection}, and walking every location for its vDC, as opposed to through
+ * {@link FindLocationForResource}. Each section benchmark starts from a copy of the vm, so that the
+ * index is built once per conversion as it is for a listed vm. Run with
+ * 
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *    -Dexec.mainClass=org.jclouds.vcloud.director.v1_5.compute.functions.VmConversionBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class VmConversionBenchmark {
+
+   @Param({ "10", "1000" })
+   public int vdcs;
+
+   private Vm vm;
+   private Set<Location> locations;
+   private Reference vdc;
+   private FindLocationForResource findLocationForResource;
+
+   @Setup
+   public void setUp() throws IOException {
+      vm = new JAXBParser("false").fromXML(
+            Strings2.toStringAndClose(VmConversionBenchmark.class.getResourceAsStream("/vm/vm.xml")), Vm.class);
+      Location provider = new LocationBuilder().scope(LocationScope.PROVIDER).id("vcloud-director")
+            .description("vcloud-director").build();
+      ImmutableSet.Builder<Location> zones = ImmutableSet.builder();
+      for (int i = 0; i < vdcs; i++)
+         zones.add(new LocationBuilder().scope(LocationScope.ZONE).id(vdcHref(i)).description("vdc-" + i)
+               .parent(provider).build());
+      locations = zones.build();
+      // the last vDC is the one a walk reaches last
+      vdc = Reference.builder().href(URI.create(vdcHref(vdcs - 1))).type(VCloudDirectorMediaType.VDC).build();
+      findLocationForResource = new FindLocationForResource(Suppliers.<Set<? extends Location>> ofInstance(locations));
+   }
+
+   private static String vdcHref(int i) {
+      return String.format("https://vcloudbeta.bluelock.com/api/vdc/%08x-b7f2-4e0e-9c1d-6f5ab8e2d3a1", i);
+   }
+
+   private static <S extends SectionType> S scan(Vm vm, Class<S> type) {
+      for (SectionType section : vm.getSections())
+         if (type.isInstance(section))
+            return type.cast(section);
+      return null;
+   }
+
+   @Benchmark
+   public void sectionsScanned(Blackhole blackhole) {
+      Vm copy = vm.toBuilder().build();
+      blackhole.consume(scan(copy, OperatingSystemSection.class));
+      blackhole.consume(scan(copy, VirtualHardwareSection.class));
+      blackhole.consume(scan(copy, NetworkConnectionSection.class));
+      blackhole.consume(scan(copy, GuestCustomizationSection.class));
+   }
+
+   @Benchmark
+   public void sectionsIndexed(Blackhole blackhole) {
+      Vm copy = vm.toBuilder().build();
+      blackhole.consume(copy.getSection(OperatingSystemSection.class));
+      blackhole.consume(copy.getSection(VirtualHardwareSection.class));
+      blackhole.consume(copy.getSection(NetworkConnectionSection.class));
+      blackhole.consume(copy.getSection(GuestCustomizationSection.class));
+   }
+
+   @Benchmark
+   public Location locationWalked() {
+      for (Location input : locations) {
+         do {
+            if (URI.create(input.getId()).equals(vdc.getHref()))
+               return input;
+         } while ((input = input.getParent()) != null);
+      }
+      throw new NoSuchElementException(vdc.toString());
+   }
+
+   @Benchmark
+   public Location locationIndexed() {
+      return findLocationForResource.apply(vdc);
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder().include(VmConversionBenchmark.class.getSimpleName()).build()).run();
+   }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.compute.functions;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.net.URI;
+
+import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.OsFamily;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultVMRecord;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "VmRecordToHardwareTest")
+public class VmRecordToHardwareTest {
+
+   static final String TEMPLATE =
+         "https://vcloudbeta.bluelock.com/api/vAppTemplate/vappTemplate-ef4415e6-d413-4cbb-9262-f9bbec5f2ea9";
+   static final URI TEMPLATE_VM =
+         URI.create("https://vcloudbeta.bluelock.com/api/vAppTemplate/vm-2e6fbd4f-8e1c-4b2a-9e7e-6c2d0b3e5a11");
+
+   private final VmRecordToHardware toHardware = new VmRecordToHardware();
+
+   private static Image image(String id) {
+      return new ImageBuilder().ids(id).name(id).status(Image.Status.AVAILABLE)
+            .operatingSystem(OperatingSystem.builder().family(OsFamily.UBUNTU).description("ubuntu").build())
+            .build();
+   }
+
+   public void testTemplateVmIsTheHardwareOfItsTemplate() {
+      Hardware hardware = toHardware.apply(QueryResultVMRecord.builder()
+            .href(TEMPLATE_VM)
+            .name("ubuntu")
+            .containerName("Ubuntu 12.04 Server")
+            .container(TEMPLATE)
+            .isVAppTemplate(true)
+            .numberOfCpus(4)
+            .memoryMB(2048)
+            .build());
+
+      assertEquals(hardware.getId(), TEMPLATE);
+      assertEquals(hardware.getName(), "Ubuntu 12.04 Server");
+      assertEquals(hardware.getProcessors().size(), 1);
+      assertEquals(hardware.getProcessors().get(0).getCores(), 4.0);
+      assertEquals(hardware.getRam(), 2048);
+      assertTrue(hardware.supportsImage().apply(image(TEMPLATE)));
+      assertFalse(hardware.supportsImage().apply(image(TEMPLATE + "-other")));
+   }
+
+   public void testNodeVmIsItsOwnHardware() {
+      Hardware hardware = toHardware.apply(VmRecordToNodeMetadataTest.vm().build());
+
+      assertEquals(hardware.getId(), VmRecordToNodeMetadataTest.VM.toASCIIString());
+      assertEquals(hardware.getName(), "ubuntu");
+      assertEquals(hardware.getProcessors().get(0).getCores(), 2.0);
+      assertEquals(hardware.getRam(), 1024);
+   }
+
+   public void testVmWithoutCpusOrMemoryHasNoProcessorsOrRam() {
+      Hardware hardware = toHardware.apply(VmRecordToNodeMetadataTest.vm().numberOfCpus(null).memoryMB(null)
+            .build());
+
+      assertTrue(hardware.getProcessors().isEmpty());
+      assertEquals(hardware.getRam(), 0);
+   }
+}
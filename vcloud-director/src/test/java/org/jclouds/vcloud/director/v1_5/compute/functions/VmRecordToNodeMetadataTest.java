@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.compute.functions;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.net.URI;
+import java.util.Set;
+
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.OsFamily;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.jclouds.vcloud.director.v1_5.domain.ResourceEntity.Status;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultVMRecord;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Guice;
+
+@Test(groups = "unit", testName = "VmRecordToNodeMetadataTest")
+public class VmRecordToNodeMetadataTest {
+
+   static final String VDC = "https://vcloudbeta.bluelock.com/api/vdc/cf6ea168-a2ac-4576-9234-dcc13c0f0ac2";
+   static final URI VM = URI.create("https://vcloudbeta.bluelock.com/api/vApp/vm-a3dc8a4e-1d1c-4b73-9d3b-2b8c1e33e1f4");
+   static final String VAPP = "https://vcloudbeta.bluelock.com/api/vApp/vapp-6f5a7e7f-f8b6-4b2e-8a3a-8b7b3b06f1a1";
+
+   static final Location PROVIDER = new LocationBuilder().scope(LocationScope.PROVIDER).id("vcloud-director")
+         .description("https://vcloudbeta.bluelock.com/api").build();
+   static final Location ZONE = new LocationBuilder().scope(LocationScope.ZONE).id(VDC).description("jclouds")
+         .parent(PROVIDER).build();
+
+   private final VmRecordToNodeMetadata toNode = new VmRecordToNodeMetadata(
+         ImmutableMap.of(Status.POWERED_ON, NodeMetadata.Status.RUNNING, Status.POWERED_OFF,
+               NodeMetadata.Status.SUSPENDED),
+         new FindLocationForResource(Suppliers.<Set<? extends Location>> ofInstance(ImmutableSet.of(ZONE))),
+         new VmRecordToHardware(), Guice.createInjector().getInstance(GroupNamingConvention.Factory.class));
+
+   static QueryResultVMRecord.Builder<?> vm() {
+      return QueryResultVMRecord.builder()
+            .href(VM)
+            .name("ubuntu")
+            .containerName("web-1f4")
+            .container(VAPP)
+            .vdc(VDC)
+            .isVAppTemplate(false)
+            .guestOs("Ubuntu Linux (64-bit)")
+            .numberOfCpus(2)
+            .memoryMB(1024)
+            .status("POWERED_ON");
+   }
+
+   public void testNodeIsNamedAfterItsVApp() {
+      NodeMetadata node = toNode.apply(vm().build());
+
+      assertEquals(node.getId(), VM.toASCIIString());
+      assertEquals(node.getUri(), VM);
+      assertEquals(node.getName(), "web-1f4");
+      assertEquals(node.getGroup(), "web");
+      assertEquals(node.getHostname(), "ubuntu");
+      assertEquals(node.getLocation(), ZONE);
+      assertEquals(node.getOperatingSystem().getFamily(), OsFamily.UBUNTU);
+      assertEquals(node.getOperatingSystem().getDescription(), "Ubuntu Linux (64-bit)");
+      assertEquals(node.getHardware().getProcessors().get(0).getCores(), 2.0);
+      assertEquals(node.getHardware().getRam(), 1024);
+      assertEquals(node.getStatus(), NodeMetadata.Status.RUNNING);
+      assertEquals(node.getBackendStatus(), "POWERED_ON");
+   }
+
+   public void testNodeWithoutVAppNameIsNamedAfterItsVm() {
+      NodeMetadata node = toNode.apply(vm().name("db-7c2").containerName(null).build());
+
+      assertEquals(node.getName(), "db-7c2");
+      assertEquals(node.getGroup(), "db");
+      assertEquals(node.getHostname(), "db-7c2");
+   }
+
+   public void testNodeInAnUnknownVdcHasNoLocation() {
+      NodeMetadata node = toNode.apply(vm().vdc("https://vcloudbeta.bluelock.com/api/vdc/unknown").build());
+
+      assertNull(node.getLocation());
+   }
+
+   public void testUnmappedStatusIsUnrecognized() {
+      NodeMetadata suspended = toNode.apply(vm().status("SUSPENDED").build());
+      NodeMetadata unknown = toNode.apply(vm().status("NOT_A_STATUS").build());
+
+      assertEquals(suspended.getStatus(), NodeMetadata.Status.UNRECOGNIZED);
+      assertEquals(unknown.getStatus(), NodeMetadata.Status.UNRECOGNIZED);
+      assertEquals(unknown.getBackendStatus(), "NOT_A_STATUS");
+   }
+}
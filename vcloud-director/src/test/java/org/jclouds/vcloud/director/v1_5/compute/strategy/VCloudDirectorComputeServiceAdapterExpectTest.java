@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.compute.strategy;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.Properties;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.vcloud.director.v1_5.VCloudDirectorConstants;
+import org.jclouds.vcloud.director.v1_5.VCloudDirectorMediaType;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultVAppTemplateRecord;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultVMRecord;
+import org.jclouds.vcloud.director.v1_5.internal.BaseVCloudDirectorExpectTest;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.net.HttpHeaders;
+import com.google.inject.Module;
+
+@Test(groups = "unit", testName = "VCloudDirectorComputeServiceAdapterExpectTest")
+public class VCloudDirectorComputeServiceAdapterExpectTest extends
+      BaseVCloudDirectorExpectTest<VCloudDirectorComputeServiceAdapter> {
+
+   static final String VM = "https://vcloudbeta.bluelock.com/api/vApp/vm-a3dc8a4e-1d1c-4b73-9d3b-2b8c1e33e1f4";
+   static final String TEMPLATE =
+         "https://vcloudbeta.bluelock.com/api/vAppTemplate/vappTemplate-ef4415e6-d413-4cbb-9262-f9bbec5f2ea9";
+   static final String MISSING_VM = "https://vcloudbeta.bluelock.com/api/vApp/vm-00000000-0000-0000-0000-000000000000";
+
+   @Override
+   public Properties setupProperties() {
+      Properties props = super.setupProperties();
+      props.setProperty(VCloudDirectorConstants.PROPERTY_VCLOUD_DIRECTOR_QUERY_PAGE_SIZE, "2");
+      return props;
+   }
+
+   @Override
+   public VCloudDirectorComputeServiceAdapter createClient(Function<HttpRequest, HttpResponse> fn, Module module,
+         Properties props) {
+      return createInjector(fn, module, props).getInstance(VCloudDirectorComputeServiceAdapter.class);
+   }
+
+   private static HttpRequest query(String query) {
+      return query("vm", query);
+   }
+
+   private static HttpRequest query(String type, String query) {
+      return HttpRequest.builder()
+              .method("GET")
+              .endpoint(endpoint + "/query?format=records&type=" + type + "&" + query)
+              .addHeader("Accept", "*/*")
+              .addHeader("x-vcloud-authorization", token)
+              .addHeader(HttpHeaders.COOKIE, "vcloud-token=" + token)
+              .build();
+   }
+
+   private HttpResponse records(String resource) {
+      return HttpResponse.builder()
+              .statusCode(200)
+              .payload(payloadFromResourceWithContentType(resource, VCloudDirectorMediaType.QUERY_RESULT_RECORDS
+                    + ";version=1.5"))
+              .build();
+   }
+
+   public void testGetNodeQueriesTheRecordOfTheVm() {
+      VCloudDirectorComputeServiceAdapter adapter = requestsSendResponses(loginRequest, sessionResponse,
+            query("page=1&pageSize=2&filter=href%3D%3Dhttps%3A%2F%2Fvcloudbeta.bluelock.com%2Fapi%2FvApp%2F"
+                  + "vm-a3dc8a4e-1d1c-4b73-9d3b-2b8c1e33e1f4"), records("/query/vmRecord.xml"));
+
+      QueryResultVMRecord vm = adapter.getNode(VM);
+
+      // the fields a Vm document does not carry, and nodes are named and sized with
+      assertEquals(vm.getHref().toASCIIString(), VM);
+      assertEquals(vm.getName(), "ubuntu");
+      assertEquals(vm.getContainerName(), "web-1f4");
+      assertEquals(vm.getGuestOs(), "Ubuntu Linux (64-bit)");
+      assertEquals(vm.getNumberOfCpus(), Integer.valueOf(1));
+      assertEquals(vm.getMemoryMB(), Integer.valueOf(1024));
+   }
+
+   public void testGetNodeReturnsNullWhenTheVmIsNotFound() {
+      VCloudDirectorComputeServiceAdapter adapter = requestsSendResponses(loginRequest, sessionResponse,
+            query("page=1&pageSize=2&filter=href%3D%3Dhttps%3A%2F%2Fvcloudbeta.bluelock.com%2Fapi%2FvApp%2F"
+                  + "vm-00000000-0000-0000-0000-000000000000"), records("/query/vmRecordNotFound.xml"));
+
+      assertNull(adapter.getNode(MISSING_VM));
+   }
+
+   public void testListNodesQueriesEveryPage() {
+      VCloudDirectorComputeServiceAdapter adapter = requestsSendResponses(loginRequest, sessionResponse,
+            query("page=1&pageSize=2&filter=isVAppTemplate%3D%3Dfalse"), records("/query/vmsQueryPage1.xml"),
+            query("page=2&pageSize=2&filter=isVAppTemplate%3D%3Dfalse"), records("/query/vmsQueryPage2.xml"));
+
+      assertEquals(names(adapter.listNodes()), ImmutableList.of("web-1f4", "db-7c2", "cache-9a0"));
+   }
+
+   public void testListNodesByIdsKeepsTheGivenNodes() {
+      VCloudDirectorComputeServiceAdapter adapter = requestsSendResponses(loginRequest, sessionResponse,
+            query("page=1&pageSize=2&filter=isVAppTemplate%3D%3Dfalse"), records("/query/vmsQueryPage1.xml"),
+            query("page=2&pageSize=2&filter=isVAppTemplate%3D%3Dfalse"), records("/query/vmsQueryPage2.xml"));
+
+      assertEquals(names(adapter.listNodesByIds(ImmutableSet.of(VM))), ImmutableList.of("web-1f4"));
+   }
+
+   public void testGetImageQueriesTheRecordOfTheTemplate() {
+      VCloudDirectorComputeServiceAdapter adapter = requestsSendResponses(loginRequest, sessionResponse,
+            query("vAppTemplate", "page=1&pageSize=2&filter=isEnabled%3D%3Dtrue%3Bhref%3D%3Dhttps%3A%2F%2F"
+                  + "vcloudbeta.bluelock.com%2Fapi%2FvAppTemplate%2F"
+                  + "vappTemplate-ef4415e6-d413-4cbb-9262-f9bbec5f2ea9"),
+            records("/query/vAppTemplateRecord.xml"));
+
+      QueryResultVAppTemplateRecord image = adapter.getImage(TEMPLATE);
+
+      assertEquals(image.getHref().toASCIIString(), TEMPLATE);
+      assertEquals(image.getName(), "ubuntu-12.04");
+   }
+
+   private static ImmutableList<String> names(Iterable<QueryResultVMRecord> vms) {
+      return FluentIterable.from(vms).transform(new Function<QueryResultVMRecord, String>() {
+         @Override
+         public String apply(QueryResultVMRecord input) {
+            return input.getName();
+         }
+      }).toList();
+   }
+}
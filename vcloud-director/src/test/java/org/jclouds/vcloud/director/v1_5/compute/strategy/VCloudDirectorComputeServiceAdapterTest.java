@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.compute.strategy;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.net.URI;
+
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.Template;
+import org.jclouds.domain.Location;
+import org.jclouds.vcloud.director.v1_5.domain.Task;
+import org.jclouds.vcloud.director.v1_5.domain.VApp;
+import org.jclouds.vcloud.director.v1_5.domain.params.InstantiateVAppTemplateParams;
+import org.jclouds.vcloud.director.v1_5.features.VAppApi;
+import org.jclouds.vcloud.director.v1_5.features.VdcApi;
+import org.jclouds.vcloud.director.v1_5.user.VCloudDirectorApi;
+import org.jclouds.vcloud.director.v1_5.util.QueryPages;
+import org.jclouds.vcloud.director.v1_5.util.TaskTracker;
+import org.testng.annotations.Test;
+
+import com.google.common.util.concurrent.Futures;
+
+@Test(groups = "unit", testName = "VCloudDirectorComputeServiceAdapterTest")
+public class VCloudDirectorComputeServiceAdapterTest {
+
+   static final URI VDC = URI.create("https://vcloudbeta.bluelock.com/api/vdc/cf6ea168-a2ac-4576-9234-dcc13c0f0ac2");
+   static final URI TEMPLATE = URI
+         .create("https://vcloudbeta.bluelock.com/api/vAppTemplate/vappTemplate-ef4415e6-d413-4cbb-9262-f9bbec5f2ea9");
+   static final URI VAPP = URI
+         .create("https://vcloudbeta.bluelock.com/api/vApp/vapp-6f5a7e7f-f8b6-4b2e-8a3a-8b7b3b06f1a1");
+
+   static Task task(String id) {
+      return Task.builder().id("urn:vcloud:task:" + id)
+            .href(URI.create("https://vcloudbeta.bluelock.com/api/task/" + id)).status(Task.Status.QUEUED).build();
+   }
+
+   public void testVAppIsRemovedWhenTheNodeFailsToStart() {
+      VCloudDirectorApi api = createMock(VCloudDirectorApi.class);
+      VdcApi vdcApi = createMock(VdcApi.class);
+      VAppApi vAppApi = createMock(VAppApi.class);
+      TaskTracker taskTracker = createMock(TaskTracker.class);
+      Template template = template();
+      Task instantiate = task("5fcd9b25");
+      Task remove = task("8a2c41b0");
+      IllegalStateException error = new IllegalStateException("instantiate failed");
+
+      expect(api.getVdcApi()).andReturn(vdcApi).anyTimes();
+      expect(api.getVAppApi()).andReturn(vAppApi).anyTimes();
+      expect(vdcApi.instantiateVApp(eq(VDC), anyObject(InstantiateVAppTemplateParams.class))).andReturn(
+            VApp.builder().href(VAPP).task(instantiate).build());
+      expect(taskTracker.track(instantiate)).andReturn(Futures.<Task> immediateFailedFuture(error));
+      expect(vAppApi.get(VAPP)).andReturn(VApp.builder().href(VAPP).isDeployed(false).build());
+      expect(vAppApi.remove(VAPP)).andReturn(remove);
+      expect(taskTracker.track(remove)).andReturn(Futures.immediateFuture(remove));
+      replay(api, vdcApi, vAppApi, taskTracker, template);
+
+      VCloudDirectorComputeServiceAdapter adapter = new VCloudDirectorComputeServiceAdapter(api,
+            createMock(QueryPages.class), taskTracker);
+      try {
+         adapter.createNodeWithGroupEncodedIntoName("web", "web-1f4", template);
+         fail("the node should not have started");
+      } catch (IllegalStateException e) {
+         assertEquals(e, error);
+      }
+      verify(api, vdcApi, vAppApi, taskTracker);
+   }
+
+   private static Template template() {
+      Template template = createMock(Template.class);
+      Location location = createMock(Location.class);
+      Image image = createMock(Image.class);
+      expect(template.getLocation()).andReturn(location).anyTimes();
+      expect(template.getImage()).andReturn(image).anyTimes();
+      expect(location.getId()).andReturn(VDC.toASCIIString()).anyTimes();
+      expect(image.getId()).andReturn(TEMPLATE.toASCIIString()).anyTimes();
+      replay(location, image);
+      return template;
+   }
+}
@@ -16,12 +16,14 @@
  */
 package org.jclouds.vcloud.director.v1_5.features;
 
+import static org.jclouds.vcloud.director.v1_5.options.QueryOptions.Builder.filter;
 import static org.testng.Assert.assertEquals;
 
 import java.net.URI;
 
 import javax.ws.rs.core.HttpHeaders;
 
+import org.jclouds.collect.PagedIterable;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.vcloud.director.v1_5.VCloudDirectorMediaType;
@@ -29,11 +31,18 @@ import org.jclouds.vcloud.director.v1_5.domain.CatalogReference;
 import org.jclouds.vcloud.director.v1_5.domain.Link;
 import org.jclouds.vcloud.director.v1_5.domain.query.CatalogReferences;
 import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultCatalogRecord;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultRecordType;
 import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultRecords;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultVMRecord;
 import org.jclouds.vcloud.director.v1_5.internal.VCloudDirectorAdminApiExpectTest;
 import org.jclouds.vcloud.director.v1_5.user.VCloudDirectorApi;
 import org.testng.annotations.Test;
 
+import com.google.common.base.Function;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
 /**
  * Test the {@link QueryApi} by observing its side effects.
  * 
@@ -175,5 +184,103 @@ public class QueryApiExpectTest extends VCloudDirectorAdminApiExpectTest {
       
       assertEquals(api.getQueryApi().catalogReferencesQueryAll(), expected);
    }
+
+   @Test
+   public void testQueryVmsPage() {
+      HttpRequest queryRequest = HttpRequest.builder()
+              .method("GET")
+              .endpoint(endpoint + "/vms/query?page=1&pageSize=2&filter=isVAppTemplate%3D%3Dfalse")
+              .addHeader("Accept", "*/*")
+              .addHeader("x-vcloud-authorization", token)
+              .addHeader(HttpHeaders.COOKIE, "vcloud-token=" + token)
+              .build();
+
+      HttpResponse queryResponse = HttpResponse.builder()
+              .statusCode(200)
+              .payload(payloadFromResourceWithContentType("/query/vmsPage.xml", VCloudDirectorMediaType.QUERY_RESULT_RECORDS + ";version=1.5"))
+              .build();
+
+      VCloudDirectorApi api = requestsSendResponses(loginRequest, sessionResponse, queryRequest, queryResponse);
+
+      QueryResultRecords page = api.getQueryApi().vmsQuery(1, 2, "isVAppTemplate==false");
+      assertEquals(page.getPage(), Integer.valueOf(1));
+      assertEquals(page.getPageSize(), Integer.valueOf(2));
+      assertEquals(page.getTotal(), Long.valueOf(3));
+      assertEquals(page.getRecords(), ImmutableSet.<QueryResultRecordType>of(
+            QueryResultVMRecord.builder()
+                        .vdc("https://vcloudbeta.bluelock.com/api/vdc/cf6ea168-a2ac-4576-9234-dcc13c0f0ac2")
+                        .status("POWERED_ON")
+                        .numberOfCpus(1)
+                        .name("web-1f4")
+                        .memoryMB(1024)
+                        .isVAppTemplate(false)
+                        .isPublished(false)
+                        .isDeployed(true)
+                        .isDeleted(false)
+                        .isBusy(false)
+                        .guestOs("Ubuntu Linux (64-bit)")
+                        .containerName("web-1f4")
+                        .container("https://vcloudbeta.bluelock.com/api/vApp/vapp-6f5a7e7f-f8b6-4b2e-8a3a-8b7b3b06f1a1")
+                        .href(URI.create("https://vcloudbeta.bluelock.com/api/vApp/vm-a3dc8a4e-1d1c-4b73-9d3b-2b8c1e33e1f4"))
+                        .build(),
+            QueryResultVMRecord.builder()
+                        .vdc("https://vcloudbeta.bluelock.com/api/vdc/cf6ea168-a2ac-4576-9234-dcc13c0f0ac2")
+                        .status("POWERED_OFF")
+                        .numberOfCpus(2)
+                        .name("db-7c2")
+                        .memoryMB(2048)
+                        .isVAppTemplate(false)
+                        .isPublished(false)
+                        .isDeployed(false)
+                        .isDeleted(false)
+                        .isBusy(false)
+                        .guestOs("CentOS 4/5/6 (64-bit)")
+                        .containerName("db-7c2")
+                        .container("https://vcloudbeta.bluelock.com/api/vApp/vapp-2e4c5d7f-0b1a-4d3e-9f6a-7c8b9a0d17c2")
+                        .href(URI.create("https://vcloudbeta.bluelock.com/api/vApp/vm-5b6c7d8e-9f0a-4b1c-8d2e-3f4a5b6c77c2"))
+                        .build()));
+   }
+
+   @Test
+   public void testQueryInPagesFollowsNextPage() {
+      HttpRequest firstPageRequest = HttpRequest.builder()
+              .method("GET")
+              .endpoint(endpoint + "/query?format=records&type=vm&pageSize=2&filter=isVAppTemplate%3D%3Dfalse")
+              .addHeader("Accept", "*/*")
+              .addHeader("x-vcloud-authorization", token)
+              .addHeader(HttpHeaders.COOKIE, "vcloud-token=" + token)
+              .build();
+
+      HttpResponse firstPageResponse = HttpResponse.builder()
+              .statusCode(200)
+              .payload(payloadFromResourceWithContentType("/query/vmsQueryPage1.xml", VCloudDirectorMediaType.QUERY_RESULT_RECORDS + ";version=1.5"))
+              .build();
+
+      HttpRequest nextPageRequest = HttpRequest.builder()
+              .method("GET")
+              .endpoint(endpoint + "/query?type=vm&page=2&pageSize=2&format=records&filter=isVAppTemplate==false")
+              .addHeader("Accept", "*/*")
+              .addHeader("x-vcloud-authorization", token)
+              .addHeader(HttpHeaders.COOKIE, "vcloud-token=" + token)
+              .build();
+
+      HttpResponse nextPageResponse = HttpResponse.builder()
+              .statusCode(200)
+              .payload(payloadFromResourceWithContentType("/query/vmsQueryPage2.xml", VCloudDirectorMediaType.QUERY_RESULT_RECORDS + ";version=1.5"))
+              .build();
+
+      VCloudDirectorApi api = requestsSendResponses(loginRequest, sessionResponse, firstPageRequest, firstPageResponse,
+            nextPageRequest, nextPageResponse);
+
+      PagedIterable<QueryResultRecordType> pages = api.getQueryApi().queryInPages("vm",
+            filter("isVAppTemplate==false").pageSize(2));
+      FluentIterable<String> names = pages.concat().filter(QueryResultVMRecord.class)
+            .transform(new Function<QueryResultVMRecord, String>() {
+               @Override
+               public String apply(QueryResultVMRecord input) {
+                  return input.getName();
+               }
+            });
+      assertEquals(names.toList(), ImmutableList.of("web-1f4", "db-7c2", "cache-9a0"));
+   }
 }
-		
@@ -24,15 +24,12 @@ import static org.easymock.EasyMock.verify;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
-import org.jclouds.domain.Credentials;
 import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
-import org.jclouds.vcloud.director.v1_5.domain.SessionWithToken;
-import org.jclouds.vcloud.director.v1_5.login.SessionApi;
+import org.jclouds.vcloud.director.v1_5.login.SessionManager;
 import org.testng.annotations.Test;
 
-import com.google.common.cache.LoadingCache;
-
 /**
  * Tests behavior of {@code InvalidateSessionAndRetryOn401AndLogoutOnClose} handler
  * 
@@ -40,48 +37,47 @@ import com.google.common.cache.LoadingCache;
  */
 @Test(groups = "unit", testName = "InvalidateSessionAndRetryOn401AndLogoutOnCloseTest")
 public class InvalidateSessionAndRetryOn401AndLogoutOnCloseTest {
-   @SuppressWarnings("unchecked")
    @Test
-   public void test401ShouldInvalidateSessionAndRetry() {
+   public void test401ShouldInvalidateSessionUsedByRequestAndRetry() {
       HttpCommand command = createMock(HttpCommand.class);
-      SessionApi sessionApi = createMock(SessionApi.class);
-      LoadingCache<Credentials, SessionWithToken> cache = createMock(LoadingCache.class);
+      SessionManager sessionManager = createMock(SessionManager.class);
+      HttpRequest request = HttpRequest.builder().method("GET").endpoint("https://vcloud/api/vApp/vapp-1")
+               .addHeader("x-vcloud-authorization", "token-1").build();
 
-      cache.invalidateAll();
+      expect(command.getCurrentRequest()).andReturn(request);
+      sessionManager.invalidate("token-1");
       expectLastCall();
       expect(command.incrementFailureCount()).andReturn(1);
       expect(command.isReplayable()).andReturn(true);
       expect(command.getFailureCount()).andReturn(1).atLeastOnce();
 
-      replay(cache, command);
+      replay(sessionManager, command);
 
       HttpResponse response = HttpResponse.builder().statusCode(401).build();
 
-      InvalidateSessionAndRetryOn401AndLogoutOnClose retry = new InvalidateSessionAndRetryOn401AndLogoutOnClose(cache,
-               sessionApi);
+      InvalidateSessionAndRetryOn401AndLogoutOnClose retry = new InvalidateSessionAndRetryOn401AndLogoutOnClose(
+               sessionManager);
 
       assertTrue(retry.shouldRetryRequest(command, response));
 
-      verify(cache, command);
+      verify(sessionManager, command);
    }
 
-   @SuppressWarnings("unchecked")
    @Test
    public void test403ShouldNotInvalidateSessionOrRetry() {
       HttpCommand command = createMock(HttpCommand.class);
-      SessionApi sessionApi = createMock(SessionApi.class);
-      LoadingCache<Credentials, SessionWithToken> cache = createMock(LoadingCache.class);
+      SessionManager sessionManager = createMock(SessionManager.class);
 
-      replay(cache, command);
+      replay(sessionManager, command);
 
       HttpResponse response = HttpResponse.builder().statusCode(403).build();
 
-      InvalidateSessionAndRetryOn401AndLogoutOnClose retry = new InvalidateSessionAndRetryOn401AndLogoutOnClose(cache,
-               sessionApi);
+      InvalidateSessionAndRetryOn401AndLogoutOnClose retry = new InvalidateSessionAndRetryOn401AndLogoutOnClose(
+               sessionManager);
 
       assertFalse(retry.shouldRetryRequest(command, response));
 
-      verify(cache, command);
+      verify(sessionManager, command);
    }
 
 }
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.login;
+
+import static org.easymock.EasyMock.createMock;
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jclouds.domain.Credentials;
+import org.jclouds.vcloud.director.v1_5.domain.SessionWithToken;
+import org.jclouds.vcloud.director.v1_5.loaders.LoginUserInOrgWithPassword;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ForwardingListeningExecutorService;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Tests behavior of {@code SessionManager}
+ */
+@Test(groups = "unit", testName = "SessionManagerTest")
+public class SessionManagerTest {
+
+   private final Supplier<Credentials> credentials = Suppliers.ofInstance(new Credentials("user@org", "password"));
+   private final AtomicLong nanos = new AtomicLong();
+   private final Ticker ticker = new Ticker() {
+      @Override
+      public long read() {
+         return nanos.get();
+      }
+   };
+   private AtomicInteger logins;
+   private LoginUserInOrgWithPassword login;
+
+   @BeforeMethod
+   public void setUp() {
+      logins = new AtomicInteger();
+      login = new LoginUserInOrgWithPassword(null, null) {
+         @Override
+         public SessionWithToken load(Credentials input) {
+            return SessionWithToken.builder().token("token-" + logins.incrementAndGet()).build();
+         }
+      };
+   }
+
+   private SessionManager sessionManager(ListeningExecutorService userExecutor) {
+      return new SessionManager(login, credentials, createMock(SessionApi.class), userExecutor, 300, 60, ticker);
+   }
+
+   public void testConcurrentFirstUseLogsInOnce() throws Exception {
+      final CountDownLatch start = new CountDownLatch(1);
+      login = new LoginUserInOrgWithPassword(null, null) {
+         @Override
+         public SessionWithToken load(Credentials input) {
+            try {
+               Thread.sleep(50);
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            }
+            return SessionWithToken.builder().token("token-" + logins.incrementAndGet()).build();
+         }
+      };
+      ListeningExecutorService threads = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(8));
+      try {
+         final SessionManager sessionManager = sessionManager(MoreExecutors.sameThreadExecutor());
+         List<ListenableFuture<String>> tokens = Lists.newArrayList();
+         for (int i = 0; i < 8; i++) {
+            tokens.add(threads.submit(new Callable<String>() {
+               @Override
+               public String call() throws Exception {
+                  start.await();
+                  return sessionManager.get().getToken();
+               }
+            }));
+         }
+         start.countDown();
+         assertEquals(ImmutableSet.copyOf(Futures.allAsList(tokens).get(10, TimeUnit.SECONDS)),
+               ImmutableSet.of("token-1"));
+         assertEquals(logins.get(), 1);
+      } finally {
+         threads.shutdownNow();
+      }
+   }
+
+   public void testInvalidateWithReplacedTokenDoesNotLogIn() {
+      SessionManager sessionManager = sessionManager(MoreExecutors.sameThreadExecutor());
+      assertEquals(sessionManager.get().getToken(), "token-1");
+      sessionManager.invalidate("token-1");
+      assertEquals(sessionManager.get().getToken(), "token-2");
+
+      // a request that was in flight with the first token
+      sessionManager.invalidate("token-1");
+      assertEquals(sessionManager.get().getToken(), "token-2");
+      assertEquals(logins.get(), 2);
+   }
+
+   public void testRenewsInBackgroundBeforeExpiry() {
+      final List<Runnable> submitted = Lists.newArrayList();
+      ListeningExecutorService userExecutor = new ForwardingListeningExecutorService() {
+         @Override
+         protected ListeningExecutorService delegate() {
+            return MoreExecutors.sameThreadExecutor();
+         }
+
+         @Override
+         public ListenableFuture<?> submit(Runnable task) {
+            submitted.add(task);
+            return Futures.immediateFuture(null);
+         }
+      };
+      SessionManager sessionManager = sessionManager(userExecutor);
+      assertEquals(sessionManager.get().getToken(), "token-1");
+
+      nanos.set(TimeUnit.SECONDS.toNanos(250));
+      // the current token is used while the renewal is pending, and only one renewal is started
+      assertEquals(sessionManager.get().getToken(), "token-1");
+      assertEquals(sessionManager.get().getToken(), "token-1");
+      assertEquals(submitted.size(), 1);
+
+      submitted.get(0).run();
+      assertEquals(sessionManager.get().getToken(), "token-2");
+      assertEquals(logins.get(), 2);
+   }
+
+   public void testExpiredSessionIsRenewedBeforeUse() {
+      SessionManager sessionManager = sessionManager(MoreExecutors.sameThreadExecutor());
+      assertEquals(sessionManager.get().getToken(), "token-1");
+
+      nanos.set(TimeUnit.SECONDS.toNanos(300));
+      assertEquals(sessionManager.get().getToken(), "token-2");
+      assertEquals(logins.get(), 2);
+   }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.util;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+
+import java.net.URI;
+
+import org.jclouds.vcloud.director.v1_5.VCloudDirectorMediaType;
+import org.jclouds.vcloud.director.v1_5.domain.Entity;
+import org.jclouds.vcloud.director.v1_5.domain.Link;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultRecordType;
+import org.jclouds.vcloud.director.v1_5.functions.URNToHref;
+import org.jclouds.vcloud.director.v1_5.loaders.ResolveEntity;
+import org.jclouds.vcloud.director.v1_5.user.VCloudDirectorApi;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "EntityCacheTest")
+public class EntityCacheTest {
+
+   static final String VM_URN = "urn:vcloud:vm:44c8e3ab-3a67-4f5e-8d97-15a2f6a40a8c";
+   static final URI VM = URI.create("https://vcloudbeta.bluelock.com/api/vApp/vm-44c8e3ab-3a67-4f5e-8d97-15a2f6a40a8c");
+
+   private static LoadingCache<String, Optional<Entity>> cache(VCloudDirectorApi api) {
+      return CacheBuilder.newBuilder().recordStats()
+            .build(new ResolveEntity(api, MoreExecutors.sameThreadExecutor()));
+   }
+
+   private static QueryResultRecordType record(URI href, String type) {
+      return QueryResultRecordType.builder().href(href).type(type).build();
+   }
+
+   public void testUrnFromHref() {
+      assertEquals(EntityCache.urn(record(VM, VCloudDirectorMediaType.VM)), VM_URN);
+      assertEquals(EntityCache.urn(record(
+            URI.create("https://vcloudbeta.bluelock.com/api/vdc/e9cd3387-ac57-4d27-a481-9bee75e0690f"), null)),
+            "urn:vcloud:vdc:e9cd3387-ac57-4d27-a481-9bee75e0690f");
+      assertEquals(EntityCache.urn(record(URI.create(
+            "https://vcloudbeta.bluelock.com/api/vAppTemplate/vappTemplate-ef4415e6-d413-4cbb-9262-f9bbec5f2ea9"),
+            null)), "urn:vcloud:vapptemplate:ef4415e6-d413-4cbb-9262-f9bbec5f2ea9");
+      assertNull(EntityCache.urn(record(URI.create("https://vcloudbeta.bluelock.com/api/session"), null)));
+   }
+
+   public void testUrnFromIdWhenPresent() {
+      assertEquals(EntityCache.urn(QueryResultRecordType.builder().href(URI.create("https://host/api/thing/1"))
+            .id(VM_URN).build()), VM_URN);
+   }
+
+   public void testWarmedUrnResolvesWithoutEntityResolver() {
+      VCloudDirectorApi api = createMock(VCloudDirectorApi.class);
+      replay(api);
+
+      LoadingCache<String, Optional<Entity>> cache = cache(api);
+      EntityCache entities = new EntityCache(cache);
+      assertEquals(entities.warm(ImmutableSet.of(record(VM, VCloudDirectorMediaType.VM))), 1);
+
+      assertEquals(new URNToHref(cache).apply(VM_URN), VM);
+      assertEquals(entities.stats().loadCount(), 0);
+      verify(api);
+   }
+
+   public void testWarmKeepsResolvedAndReplacesUnknown() {
+      String vdcUrn = "urn:vcloud:vdc:e9cd3387-ac57-4d27-a481-9bee75e0690f";
+      URI vdc = URI.create("https://vcloudbeta.bluelock.com/api/vdc/e9cd3387-ac57-4d27-a481-9bee75e0690f");
+      Entity resolved = Entity.builder().id(VM_URN).name(VM_URN).type(VCloudDirectorMediaType.ENTITY)
+            .href(URI.create("https://vcloudbeta.bluelock.com/api/entity/" + VM_URN))
+            .link(Link.builder().rel(Link.Rel.ALTERNATE).type(VCloudDirectorMediaType.VM).href(VM).build())
+            .build();
+
+      VCloudDirectorApi api = createMock(VCloudDirectorApi.class);
+      expect(api.resolveEntity(VM_URN)).andReturn(resolved);
+      expect(api.resolveEntity(vdcUrn)).andReturn(null);
+      replay(api);
+
+      LoadingCache<String, Optional<Entity>> cache = cache(api);
+      cache.getUnchecked(VM_URN);
+      assertFalse(cache.getUnchecked(vdcUrn).isPresent());
+
+      EntityCache entities = new EntityCache(cache);
+      assertEquals(entities.warm(ImmutableSet.of(record(VM, VCloudDirectorMediaType.VM),
+            record(vdc, VCloudDirectorMediaType.VDC))), 1);
+
+      assertEquals(cache.getUnchecked(VM_URN).get(), resolved);
+      assertEquals(new URNToHref(cache).apply(vdcUrn), vdc);
+      verify(api);
+   }
+
+   public void testUnknownUrnIsResolvedOnce() {
+      VCloudDirectorApi api = createMock(VCloudDirectorApi.class);
+      expect(api.resolveEntity(VM_URN)).andReturn(null);
+      replay(api);
+
+      LoadingCache<String, Optional<Entity>> cache = cache(api);
+      assertFalse(cache.getUnchecked(VM_URN).isPresent());
+      assertFalse(cache.getUnchecked(VM_URN).isPresent());
+
+      EntityCache entities = new EntityCache(cache);
+      assertEquals(entities.stats().missCount(), 1);
+      assertEquals(entities.stats().hitCount(), 1);
+      verify(api);
+   }
+}
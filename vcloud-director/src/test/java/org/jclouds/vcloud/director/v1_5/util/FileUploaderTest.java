@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.util;
+
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.easymock.Capture;
+import org.jclouds.io.Payload;
+import org.jclouds.vcloud.director.v1_5.domain.File;
+import org.jclouds.vcloud.director.v1_5.domain.Link;
+import org.jclouds.vcloud.director.v1_5.features.UploadApi;
+import org.jclouds.vcloud.director.v1_5.user.VCloudDirectorApi;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "FileUploaderTest")
+public class FileUploaderTest {
+
+   static final URI TRANSFER = URI.create("https://vcloudbeta.bluelock.com/transfer/2c9f5b1e/disk1.vmdk");
+
+   private java.io.File disk;
+
+   @BeforeClass
+   public void setUp() throws IOException {
+      disk = java.io.File.createTempFile("disk1", ".vmdk");
+      Files.write(new byte[] { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9 }, disk);
+   }
+
+   @AfterClass(alwaysRun = true)
+   public void tearDown() {
+      disk.delete();
+   }
+
+   static File file(String name, long size, long bytesTransferred) {
+      return File.builder().name(name).size(size).bytesTransferred(bytesTransferred)
+            .link(Link.builder().rel(Link.Rel.UPLOAD_DEFAULT).href(TRANSFER).build()).build();
+   }
+
+   private FileUploader uploader(VCloudDirectorApi api) {
+      return new FileUploader(api, MoreExecutors.sameThreadExecutor(), 4, 60000);
+   }
+
+   public void testLargeFileIsUploadedInRangesFromBytesTransferred() throws Exception {
+      VCloudDirectorApi api = createMock(VCloudDirectorApi.class);
+      UploadApi uploadApi = createMock(UploadApi.class);
+      Capture<Payload> second = new Capture<Payload>();
+      Capture<Payload> third = new Capture<Payload>();
+      expect(api.getUploadApi()).andReturn(uploadApi).anyTimes();
+      uploadApi.uploadRange(eq(TRANSFER), eq("bytes 4-7/10"), capture(second));
+      expectLastCall();
+      uploadApi.uploadRange(eq(TRANSFER), eq("bytes 8-9/10"), capture(third));
+      expectLastCall();
+      replay(api, uploadApi);
+
+      // the first four bytes were sent before the upload was interrupted
+      uploader(api).upload(ImmutableSet.of(file("disk1.vmdk", 10, 4)), ImmutableMap.of("disk1.vmdk", disk)).get();
+
+      assertEquals(ByteStreams.toByteArray(second.getValue().openStream()), new byte[] { 4, 5, 6, 7 });
+      assertEquals(ByteStreams.toByteArray(third.getValue().openStream()), new byte[] { 8, 9 });
+      verify(api, uploadApi);
+   }
+
+   public void testFileOfUnknownSizeIsUploadedFromTheStart() throws Exception {
+      VCloudDirectorApi api = createMock(VCloudDirectorApi.class);
+      UploadApi uploadApi = createMock(UploadApi.class);
+      expect(api.getUploadApi()).andReturn(uploadApi).anyTimes();
+      uploadApi.uploadRange(eq(TRANSFER), eq("bytes 0-3/10"), capture(new Capture<Payload>()));
+      expectLastCall();
+      uploadApi.uploadRange(eq(TRANSFER), eq("bytes 4-7/10"), capture(new Capture<Payload>()));
+      expectLastCall();
+      uploadApi.uploadRange(eq(TRANSFER), eq("bytes 8-9/10"), capture(new Capture<Payload>()));
+      expectLastCall();
+      replay(api, uploadApi);
+
+      // as a descriptor is before it is uploaded
+      uploader(api).upload(ImmutableSet.of(file("descriptor.ovf", -1, 0)), ImmutableMap.of("descriptor.ovf", disk))
+            .get();
+
+      verify(api, uploadApi);
+   }
+
+   public void testSmallFileIsUploadedInOnePut() throws Exception {
+      VCloudDirectorApi api = createMock(VCloudDirectorApi.class);
+      UploadApi uploadApi = createMock(UploadApi.class);
+      Capture<Payload> payload = new Capture<Payload>();
+      expect(api.getUploadApi()).andReturn(uploadApi).anyTimes();
+      uploadApi.upload(eq(TRANSFER), capture(payload));
+      expectLastCall();
+      replay(api, uploadApi);
+
+      new FileUploader(api, MoreExecutors.sameThreadExecutor(), 64, 60000)
+            .upload(ImmutableSet.of(file("disk1.vmdk", 10, 0)), ImmutableMap.of("disk1.vmdk", disk)).get();
+
+      assertEquals(payload.getValue().getContentMetadata().getContentLength(), Long.valueOf(10));
+      verify(api, uploadApi);
+   }
+
+   public void testUploadedAndUnknownFilesAreSkipped() throws Exception {
+      VCloudDirectorApi api = createMock(VCloudDirectorApi.class);
+      replay(api);
+
+      uploader(api).upload(ImmutableSet.of(file("disk1.vmdk", 10, 10), file("disk2.vmdk", 20, 0)),
+            ImmutableMap.of("disk1.vmdk", disk)).get();
+
+      verify(api);
+   }
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.util;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.jclouds.vcloud.director.v1_5.options.QueryOptions.Builder.filter;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.easymock.IAnswer;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultRecordType;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultRecords;
+import org.jclouds.vcloud.director.v1_5.domain.query.QueryResultVMRecord;
+import org.jclouds.vcloud.director.v1_5.features.QueryApi;
+import org.jclouds.vcloud.director.v1_5.options.QueryOptions;
+import org.jclouds.vcloud.director.v1_5.user.VCloudDirectorApi;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "QueryPagesTest")
+public class QueryPagesTest {
+
+   private final ListeningExecutorService userExecutor = MoreExecutors.listeningDecorator(Executors
+         .newCachedThreadPool());
+
+   @AfterClass(alwaysRun = true)
+   public void tearDown() {
+      userExecutor.shutdownNow();
+   }
+
+   /**
+    * Serves the pages of a query of {@code total} vms, recording which pages are asked for.
+    */
+   private abstract static class FakeQuery implements IAnswer<QueryResultRecords> {
+      private final int total;
+      private final List<Integer> requested = Lists.newCopyOnWriteArrayList();
+
+      private FakeQuery(int total) {
+         this.total = total;
+      }
+
+      @Override
+      public QueryResultRecords answer() throws Exception {
+         QueryOptions options = (QueryOptions) getCurrentArguments()[1];
+         int page = options.getPage();
+         int pageSize = options.getPageSize();
+         requested.add(page);
+         beforeAnswering(page);
+         ImmutableSet.Builder<QueryResultRecordType> records = ImmutableSet.builder();
+         for (int i = (page - 1) * pageSize + 1; i <= Math.min(page * pageSize, total); i++)
+            records.add(vm(i));
+         return QueryResultRecords.builder().page(page).pageSize(pageSize).total(Long.valueOf(total))
+               .records(records.build()).build();
+      }
+
+      abstract void beforeAnswering(int page) throws Exception;
+   }
+
+   public void testRecordsAreInPageOrderWhenLaterPagesArriveFirst() {
+      FakeQuery query = new FakeQuery(7) {
+         @Override
+         void beforeAnswering(int page) throws Exception {
+            // the earlier prefetched page is the slower one
+            if (page == 2)
+               Thread.sleep(200);
+         }
+      };
+
+      List<String> names = Lists.newArrayList();
+      for (QueryResultVMRecord vm : queryPages(query, 2).records("vm", filter("isVAppTemplate==false"),
+            QueryResultVMRecord.class))
+         names.add(vm.getName());
+
+      assertEquals(names, ImmutableList.of("vm-1", "vm-2", "vm-3", "vm-4", "vm-5", "vm-6", "vm-7"));
+      assertEquals(ImmutableSet.copyOf(query.requested), ImmutableSet.of(1, 2, 3, 4));
+      assertEquals(query.requested.size(), 4);
+   }
+
+   public void testPrefetchedPagesAreFetchedConcurrently() {
+      final CountDownLatch bothPrefetched = new CountDownLatch(2);
+      FakeQuery query = new FakeQuery(6) {
+         @Override
+         void beforeAnswering(int page) throws Exception {
+            // pages 2 and 3 are only answered once both have been asked for
+            if (page > 1) {
+               bothPrefetched.countDown();
+               assertTrue(bothPrefetched.await(5, TimeUnit.SECONDS), "page " + page + " was fetched alone");
+            }
+         }
+      };
+
+      assertEquals(queryPages(query, 2).records("vm", filter("isVAppTemplate==false")).size(), 6);
+   }
+
+   public void testErrorOfAPrefetchedPageIsThrownWhenItIsReached() {
+      final IllegalStateException error = new IllegalStateException("page 2 is gone");
+      FakeQuery query = new FakeQuery(6) {
+         @Override
+         void beforeAnswering(int page) throws Exception {
+            if (page == 2)
+               throw error;
+         }
+      };
+
+      Iterator<QueryResultRecordType> records = queryPages(query, 2).records("vm", filter("isVAppTemplate==false"))
+            .iterator();
+      assertEquals(QueryResultVMRecord.class.cast(records.next()).getName(), "vm-1");
+      assertEquals(QueryResultVMRecord.class.cast(records.next()).getName(), "vm-2");
+      try {
+         records.next();
+         fail("expected the error of page 2");
+      } catch (IllegalStateException e) {
+         assertEquals(e, error);
+      }
+   }
+
+   private QueryPages queryPages(FakeQuery query, int pageSize) {
+      VCloudDirectorApi api = createMock(VCloudDirectorApi.class);
+      QueryApi queryApi = createMock(QueryApi.class);
+      expect(api.getQueryApi()).andReturn(queryApi).anyTimes();
+      expect(queryApi.query(eq("vm"), anyObject(QueryOptions.class))).andAnswer(query).anyTimes();
+      replay(api, queryApi);
+      return new QueryPages(api, userExecutor, pageSize, 2);
+   }
+
+   private static QueryResultVMRecord vm(int i) {
+      return QueryResultVMRecord.builder().name("vm-" + i)
+            .href(URI.create("https://vcloudbeta.bluelock.com/api/vApp/vm-" + i)).build();
+   }
+}
@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.vcloud.director.v1_5.util;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.net.URI;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeoutException;
+
+import org.jclouds.vcloud.director.v1_5.VCloudDirectorException;
+import org.jclouds.vcloud.director.v1_5.VCloudDirectorMediaType;
+import org.jclouds.vcloud.director.v1_5.domain.Link;
+import org.jclouds.vcloud.director.v1_5.domain.Reference;
+import org.jclouds.vcloud.director.v1_5.domain.Task;
+import org.jclouds.vcloud.director.v1_5.domain.TasksList;
+import org.jclouds.vcloud.director.v1_5.domain.org.Org;
+import org.jclouds.vcloud.director.v1_5.features.OrgApi;
+import org.jclouds.vcloud.director.v1_5.features.TaskApi;
+import org.jclouds.vcloud.director.v1_5.user.VCloudDirectorApi;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+@Test(groups = "unit", testName = "TaskTrackerTest")
+public class TaskTrackerTest {
+
+   static final URI ORG = URI.create("https://vcloudbeta.bluelock.com/api/org/6f312e42-cd2b-488d-a2bb-97519cd57ed0");
+   static final URI TASKS_LIST = URI
+         .create("https://vcloudbeta.bluelock.com/api/tasksList/6f312e42-cd2b-488d-a2bb-97519cd57ed0");
+
+   private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+   @AfterClass(alwaysRun = true)
+   public void tearDown() {
+      scheduler.shutdownNow();
+   }
+
+   static final URI OTHER_ORG = URI
+         .create("https://vcloudbeta.bluelock.com/api/org/0b6e7e2c-9a0d-4b57-a84e-2cb4d1a0a8d3");
+   static final URI OTHER_TASKS_LIST = URI
+         .create("https://vcloudbeta.bluelock.com/api/tasksList/0b6e7e2c-9a0d-4b57-a84e-2cb4d1a0a8d3");
+
+   static Task task(String id, Task.Status status) {
+      return task(id, status, ORG);
+   }
+
+   static Task task(String id, Task.Status status, URI org) {
+      return Task.builder().id("urn:vcloud:task:" + id)
+            .href(URI.create("https://vcloudbeta.bluelock.com/api/task/" + id))
+            .org(Reference.builder().href(org).build()).status(status).build();
+   }
+
+   static Org org(URI href, URI tasksList) {
+      return Org.builder().href(href).name("JClouds")
+            .link(Link.builder().rel(Link.Rel.DOWN).type(VCloudDirectorMediaType.TASKS_LIST).href(tasksList).build())
+            .build();
+   }
+
+   // the scheduled poll never runs during the tests; polls are driven by hand
+   private TaskTracker tracker(VCloudDirectorApi api) {
+      return new TaskTracker(api, scheduler, 60000, 60000, 60000);
+   }
+
+   public void testTaskIsPolledUntilItSucceeds() throws Exception {
+      VCloudDirectorApi api = createMock(VCloudDirectorApi.class);
+      TaskApi taskApi = createMock(TaskApi.class);
+      Task queued = task("5fcd9b25", Task.Status.QUEUED);
+      expect(api.getTaskApi()).andReturn(taskApi).anyTimes();
+      expect(taskApi.get(queued.getHref())).andReturn(task("5fcd9b25", Task.Status.RUNNING));
+      expect(taskApi.get(queued.getHref())).andReturn(task("5fcd9b25", Task.Status.SUCCESS));
+      replay(api, taskApi);
+
+      TaskTracker tracker = tracker(api);
+      ListenableFuture<Task> task = tracker.track(queued);
+      assertEquals(tracker.track(queued), task);
+
+      assertTrue(tracker.poll());
+      assertFalse(task.isDone());
+      assertTrue(tracker.poll());
+      assertEquals(task.get().getStatus(), Task.Status.SUCCESS);
+      assertFalse(tracker.poll());
+
+      verify(api, taskApi);
+      tracker.close();
+   }
+
+   public void testFailedTaskFailsItsFuture() throws Exception {
+      VCloudDirectorApi api = createMock(VCloudDirectorApi.class);
+      TaskApi taskApi = createMock(TaskApi.class);
+      Task running = task("1a3b9e2f", Task.Status.RUNNING);
+      expect(api.getTaskApi()).andReturn(taskApi).anyTimes();
+      expect(taskApi.get(running.getHref())).andReturn(task("1a3b9e2f", Task.Status.ERROR));
+      replay(api, taskApi);
+
+      TaskTracker tracker = tracker(api);
+      ListenableFuture<Task> task = tracker.track(running);
+      tracker.poll();
+      try {
+         task.get();
+         fail("expected the task to fail");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof VCloudDirectorException, e.getCause().toString());
+      }
+
+      verify(api, taskApi);
+      tracker.close();
+   }
+
+   public void testTasksOfTheSameOrgAreRefreshedFromItsTasksList() throws Exception {
+      VCloudDirectorApi api = createMock(VCloudDirectorApi.class);
+      TaskApi taskApi = createMock(TaskApi.class);
+      OrgApi orgApi = createMock(OrgApi.class);
+      expect(api.getTaskApi()).andReturn(taskApi).anyTimes();
+      expect(api.getOrgApi()).andReturn(orgApi).anyTimes();
+      expect(orgApi.get(ORG)).andReturn(org(ORG, TASKS_LIST));
+      expect(taskApi.getTasksList(TASKS_LIST)).andReturn(TasksList.builder().name("JClouds").href(TASKS_LIST)
+            .task(task("6cb1c2d0", Task.Status.SUCCESS)).task(task("7d0e9f41", Task.Status.RUNNING))
+            .task(task("0e1f2a3b", Task.Status.SUCCESS)).build());
+      // not in the list, so fetched by itself
+      expect(taskApi.get(task("8a9b0c1d", Task.Status.RUNNING).getHref())).andReturn(
+            task("8a9b0c1d", Task.Status.RUNNING));
+      // left on its own in the org, so fetched by itself
+      expect(taskApi.get(task("7d0e9f41", Task.Status.RUNNING).getHref())).andReturn(
+            task("7d0e9f41", Task.Status.SUCCESS));
+      replay(api, taskApi, orgApi);
+
+      TaskTracker tracker = tracker(api);
+      ListenableFuture<Task> first = tracker.track(task("6cb1c2d0", Task.Status.RUNNING));
+      ListenableFuture<Task> second = tracker.track(task("7d0e9f41", Task.Status.RUNNING));
+      ListenableFuture<Task> third = tracker.track(task("8a9b0c1d", Task.Status.RUNNING));
+
+      tracker.poll();
+      assertEquals(first.get().getStatus(), Task.Status.SUCCESS);
+      assertFalse(second.isDone());
+      assertFalse(third.isDone());
+
+      third.cancel(false);
+      tracker.poll();
+      assertEquals(second.get().getStatus(), Task.Status.SUCCESS);
+
+      verify(api, taskApi, orgApi);
+      tracker.close();
+   }
+
+   public void testTasksListOfAnOrgIsForgottenWhenItHasNoPendingTasks() throws Exception {
+      VCloudDirectorApi api = createMock(VCloudDirectorApi.class);
+      TaskApi taskApi = createMock(TaskApi.class);
+      OrgApi orgApi = createMock(OrgApi.class);
+      expect(api.getTaskApi()).andReturn(taskApi).anyTimes();
+      expect(api.getOrgApi()).andReturn(orgApi).anyTimes();
+      // looked up again once the other org's poll has forgotten it
+      expect(orgApi.get(ORG)).andReturn(org(ORG, TASKS_LIST)).times(2);
+      expect(orgApi.get(OTHER_ORG)).andReturn(org(OTHER_ORG, OTHER_TASKS_LIST));
+      expect(taskApi.getTasksList(TASKS_LIST)).andReturn(TasksList.builder().name("JClouds").href(TASKS_LIST)
+            .task(task("6cb1c2d0", Task.Status.SUCCESS)).task(task("7d0e9f41", Task.Status.SUCCESS)).build());
+      expect(taskApi.getTasksList(OTHER_TASKS_LIST)).andReturn(TasksList.builder().name("JClouds")
+            .href(OTHER_TASKS_LIST).task(task("8a9b0c1d", Task.Status.SUCCESS, OTHER_ORG))
+            .task(task("0e1f2a3b", Task.Status.SUCCESS, OTHER_ORG)).build());
+      expect(taskApi.getTasksList(TASKS_LIST)).andReturn(TasksList.builder().name("JClouds").href(TASKS_LIST)
+            .task(task("1a3b9e2f", Task.Status.SUCCESS)).task(task("5fcd9b25", Task.Status.SUCCESS)).build());
+      replay(api, taskApi, orgApi);
+
+      TaskTracker tracker = tracker(api);
+      tracker.track(task("6cb1c2d0", Task.Status.RUNNING));
+      tracker.track(task("7d0e9f41", Task.Status.RUNNING));
+      tracker.poll();
+      tracker.track(task("8a9b0c1d", Task.Status.RUNNING, OTHER_ORG));
+      tracker.track(task("0e1f2a3b", Task.Status.RUNNING, OTHER_ORG));
+      tracker.poll();
+      ListenableFuture<Task> first = tracker.track(task("1a3b9e2f", Task.Status.RUNNING));
+      ListenableFuture<Task> second = tracker.track(task("5fcd9b25", Task.Status.RUNNING));
+      tracker.poll();
+      assertEquals(first.get().getStatus(), Task.Status.SUCCESS);
+      assertEquals(second.get().getStatus(), Task.Status.SUCCESS);
+
+      verify(api, taskApi, orgApi);
+      tracker.close();
+   }
+
+   public void testTaskTimesOutWhenPollingFails() throws Exception {
+      VCloudDirectorApi api = createMock(VCloudDirectorApi.class);
+      TaskApi taskApi = createMock(TaskApi.class);
+      Task running = task("1a3b9e2f", Task.Status.RUNNING);
+      expect(api.getTaskApi()).andReturn(taskApi).anyTimes();
+      expect(taskApi.get(running.getHref())).andThrow(new RuntimeException("connection reset"));
+      replay(api, taskApi);
+
+      TaskTracker tracker = new TaskTracker(api, scheduler, 1000, 60000, 60000);
+      ListenableFuture<Task> task = tracker.track(running);
+      tracker.poll();
+      assertFalse(task.isDone());
+      Thread.sleep(1100);
+      tracker.poll();
+      try {
+         task.get();
+         fail("expected the task to time out");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof TimeoutException, e.getCause().toString());
+      }
+
+      verify(api, taskApi);
+      tracker.close();
+   }
+
+   public void testCompletedTaskIsNotPolled() throws Exception {
+      VCloudDirectorApi api = createMock(VCloudDirectorApi.class);
+      replay(api);
+
+      TaskTracker tracker = tracker(api);
+      assertEquals(tracker.track(task("9f8e7d6c", Task.Status.SUCCESS)).get().getStatus(), Task.Status.SUCCESS);
+      assertFalse(tracker.poll());
+
+      verify(api);
+      tracker.close();
+   }
+}